@@ -0,0 +1,79 @@
+package com.example.backend.cfdi;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Almacén local direccionado por contenido: cada documento se guarda con el SHA-256 de
+ * sus bytes como nombre, en subdirectorios por los primeros dos caracteres del hash.
+ * Regenerar un documento idéntico no duplica el archivo.
+ */
+@Component
+public class AlmacenDocumentos {
+
+    private static final Pattern NOMBRE = Pattern.compile("[0-9a-f]{64}\\.(xml|pdf)");
+
+    @FunctionalInterface
+    public interface Escritura {
+        void escribir(OutputStream salida) throws Exception;
+    }
+
+    @Value("${facturacion.documentos.directorio:${java.io.tmpdir}/punto-venta-farmacia/documentos}")
+    private Path directorio;
+
+    /** Escribe el documento en streaming y devuelve su nombre ("hash.extension"). */
+    public String guardar(String extension, Escritura escritura) throws IOException {
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, "doc-", ".tmp");
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            try (OutputStream salida = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024), sha)) {
+                escritura.escribir(salida);
+            }
+            String nombre = HexFormat.of().formatHex(sha.digest()) + "." + extension;
+            Path destino = ruta(nombre);
+            if (Files.exists(destino)) {
+                Files.delete(temporal);
+            } else {
+                Files.createDirectories(destino.getParent());
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return nombre;
+        } catch (IOException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            Files.deleteIfExists(temporal);
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            Files.deleteIfExists(temporal);
+            throw new IOException("Error generando documento", e);
+        }
+    }
+
+    public Optional<Path> buscar(String nombre) {
+        if (nombre == null || !NOMBRE.matcher(nombre).matches()) {
+            return Optional.empty();
+        }
+        Path ruta = ruta(nombre);
+        return Files.exists(ruta) ? Optional.of(ruta) : Optional.empty();
+    }
+
+    private Path ruta(String nombre) {
+        return directorio.resolve(nombre.substring(0, 2)).resolve(nombre);
+    }
+}
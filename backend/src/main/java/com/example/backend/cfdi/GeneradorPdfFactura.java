@@ -0,0 +1,105 @@
+package com.example.backend.cfdi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.TicketCalculado;
+import com.example.backend.util.Dinero;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Representación impresa (PDF) de la factura a partir de la plantilla precompilada.
+ */
+@Component
+public class GeneradorPdfFactura {
+
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int MAX_DESCRIPCION = 60;
+
+    @Value("${facturacion.emisor.rfc:EKU9003173C9}")
+    private String rfcEmisor;
+
+    @Value("${facturacion.emisor.nombre:FARMACIA}")
+    private String nombreEmisor;
+
+    private PlantillaPdfFactura plantilla;
+
+    @PostConstruct
+    void compilarPlantilla() {
+        plantilla = new PlantillaPdfFactura(nombreEmisor, rfcEmisor);
+    }
+
+    public void escribir(Factura factura, Venta venta, TicketCalculado ticket, OutputStream salida) throws IOException {
+        PlantillaPdfFactura.Escritor escritor = plantilla.new Escritor(salida);
+
+        PlantillaPdfFactura.Pagina pagina = plantilla.new Pagina(true);
+        PlantillaPdfFactura.Contenido c = pagina.contenido;
+        int alto = PlantillaPdfFactura.ALTO;
+        int x = PlantillaPdfFactura.MARGEN;
+
+        c.texto(false, 10, 430, alto - 78, "Folio: " + (factura.getFolioCfdi() != null ? factura.getFolioCfdi() : factura.getId()));
+        c.texto(false, 10, 430, alto - 92, "Fecha: " + FECHA.format(GeneradorXmlCfdi.fecha(factura, venta)));
+        c.texto(false, 8, x, alto - 110, "Folio fiscal (UUID): " + (factura.getUuidFiscal() != null ? factura.getUuidFiscal() : "SIN TIMBRAR"));
+        c.texto(false, 10, x, 666, valor(factura.getRazonSocial()) + "  RFC: " + valor(factura.getRfc()));
+        c.texto(false, 9, x, 652, "Uso CFDI: " + valor(factura.getUsoCfdi()) + "   Régimen: " + valor(factura.getRegimenFiscal())
+                + "   C.P.: " + valor(factura.getCodigoPostal()));
+        c.texto(false, 9, x, 638, "Forma de pago: " + GeneradorXmlCfdi.formaPago(venta.getMetodoPago()) + "   Método: PUE   Moneda: MXN");
+
+        int y = PlantillaPdfFactura.Y_INICIO_PRIMERA;
+        for (int i = 0; i < ticket.lineas().size(); i++) {
+            if (y < PlantillaPdfFactura.Y_FIN) {
+                escritor.escribirPagina(pagina);
+                pagina = plantilla.new Pagina(false);
+                c = pagina.contenido;
+                y = PlantillaPdfFactura.Y_INICIO_SIGUIENTES;
+            }
+            TicketCalculado.Linea l = ticket.lineas().get(i);
+            DetalleVenta d = venta.getDetalles().get(i);
+            String descripcion = valor(d.getProductoNombre());
+            if (descripcion.length() > MAX_DESCRIPCION) {
+                descripcion = descripcion.substring(0, MAX_DESCRIPCION - 3) + "...";
+            }
+            c.texto(false, 9, x, y, String.valueOf(l.cantidad()));
+            c.texto(false, 9, 80, y, descripcion);
+            c.textoDerecha(9, 455, y, Dinero.formatear(l.precioUnitarioCentavos()));
+            c.textoDerecha(9, 520, y, Dinero.formatear(l.descuentoLineaCentavos() + l.descuentoClienteCentavos()));
+            c.textoDerecha(9, 572, y, Dinero.formatear(l.importeCentavos()));
+            y -= PlantillaPdfFactura.INTERLINEA;
+        }
+
+        if (y < PlantillaPdfFactura.Y_FIN) {
+            escritor.escribirPagina(pagina);
+            pagina = plantilla.new Pagina(false);
+            c = pagina.contenido;
+            y = PlantillaPdfFactura.Y_INICIO_SIGUIENTES;
+        }
+        y -= 6;
+        c.linea(380, y + 10, 572, y + 10);
+        GeneradorXmlCfdi.Resumen resumen = GeneradorXmlCfdi.resumen(ticket);
+        total(c, y, "Subtotal", resumen.subTotalCentavos());
+        total(c, y - 12, "Descuento", resumen.descuentoCentavos());
+        total(c, y - 24, "IEPS", ticket.iepsCentavos());
+        total(c, y - 36, "IVA", ticket.ivaCentavos());
+        total(c, y - 50, "Total", ticket.totalCentavos());
+
+        escritor.escribirPagina(pagina);
+        escritor.terminar();
+    }
+
+    private static void total(PlantillaPdfFactura.Contenido c, int y, String etiqueta, long centavos) {
+        c.texto(true, 9, 400, y, etiqueta);
+        c.textoDerecha(9, 572, y, "$" + Dinero.formatear(centavos));
+    }
+
+    private static String valor(String s) {
+        return s != null ? s : "";
+    }
+}
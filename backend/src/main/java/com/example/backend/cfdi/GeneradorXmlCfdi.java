@@ -0,0 +1,257 @@
+package com.example.backend.cfdi;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.TicketCalculado;
+import com.example.backend.util.Dinero;
+
+/**
+ * Escribe el XML del CFDI 4.0 directamente sobre el stream de salida con StAX,
+ * sin construir un DOM en memoria. El sello y el certificado los agrega el PAC.
+ */
+@Component
+public class GeneradorXmlCfdi {
+
+    private static final String NS_CFDI = "http://www.sat.gob.mx/cfd/4";
+    private static final String NS_TFD = "http://www.sat.gob.mx/TimbreFiscalDigital";
+    private static final String NS_XSI = "http://www.w3.org/2001/XMLSchema-instance";
+    private static final String ESQUEMAS = NS_CFDI + " http://www.sat.gob.mx/sitio_internet/cfd/4/cfdv40.xsd";
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final String IMPUESTO_IVA = "002";
+    private static final String IMPUESTO_IEPS = "003";
+    private static final String CLAVE_VENTAS_GLOBAL = "01010101";
+
+    private static final XMLOutputFactory FABRICA = XMLOutputFactory.newInstance();
+
+    @Value("${facturacion.emisor.rfc:EKU9003173C9}")
+    private String rfcEmisor;
+
+    @Value("${facturacion.emisor.nombre:FARMACIA}")
+    private String nombreEmisor;
+
+    @Value("${facturacion.emisor.regimen-fiscal:601}")
+    private String regimenEmisor;
+
+    @Value("${facturacion.emisor.lugar-expedicion:00000}")
+    private String lugarExpedicion;
+
+    @Value("${facturacion.clave-prod-serv:51000000}")
+    private String claveProdServ;
+
+    public void escribir(Factura factura, Venta venta, TicketCalculado ticket, OutputStream salida)
+            throws XMLStreamException {
+        XMLStreamWriter w = FABRICA.createXMLStreamWriter(salida, StandardCharsets.UTF_8.name());
+
+        Resumen resumen = resumen(ticket);
+        long importeTotal = resumen.subTotalCentavos();
+        long descuentoTotal = resumen.descuentoCentavos();
+
+        w.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        w.setPrefix("cfdi", NS_CFDI);
+        w.writeStartElement(NS_CFDI, "Comprobante");
+        w.writeNamespace("cfdi", NS_CFDI);
+        w.writeNamespace("xsi", NS_XSI);
+        w.writeAttribute(NS_XSI, "schemaLocation", ESQUEMAS);
+        w.writeAttribute("Version", "4.0");
+        if (factura.getSerie() != null) {
+            atributo(w, "Serie", factura.getSerie());
+        }
+        atributo(w, "Folio", factura.getFolio() != null ? String.valueOf(factura.getFolio()) : String.valueOf(factura.getId()));
+        w.writeAttribute("Fecha", FECHA.format(fecha(factura, venta)));
+        w.writeAttribute("FormaPago", formaPago(venta.getMetodoPago()));
+        w.writeAttribute("SubTotal", Dinero.formatear(importeTotal));
+        if (descuentoTotal > 0) {
+            w.writeAttribute("Descuento", Dinero.formatear(descuentoTotal));
+        }
+        w.writeAttribute("Moneda", "MXN");
+        w.writeAttribute("Total", Dinero.formatear(ticket.totalCentavos()));
+        w.writeAttribute("TipoDeComprobante", "I");
+        w.writeAttribute("Exportacion", "01");
+        w.writeAttribute("MetodoPago", "PUE");
+        w.writeAttribute("LugarExpedicion", lugarExpedicion);
+
+        boolean global = Boolean.TRUE.equals(factura.getGlobal());
+        if (global) {
+            // Factura global al público en general: periodicidad y meses según el periodo facturado
+            PeriodoGlobal periodo = periodoGlobal(factura);
+            w.writeEmptyElement(NS_CFDI, "InformacionGlobal");
+            w.writeAttribute("Periodicidad", periodo.periodicidad());
+            w.writeAttribute("Meses", periodo.meses());
+            w.writeAttribute("Año", String.valueOf(periodo.anio()));
+        }
+
+        w.writeEmptyElement(NS_CFDI, "Emisor");
+        w.writeAttribute("Rfc", rfcEmisor);
+        w.writeAttribute("Nombre", nombreEmisor);
+        w.writeAttribute("RegimenFiscal", regimenEmisor);
+
+        w.writeEmptyElement(NS_CFDI, "Receptor");
+        atributo(w, "Rfc", factura.getRfc());
+        atributo(w, "Nombre", factura.getRazonSocial());
+        atributo(w, "DomicilioFiscalReceptor", factura.getCodigoPostal());
+        atributo(w, "RegimenFiscalReceptor", factura.getRegimenFiscal());
+        atributo(w, "UsoCFDI", factura.getUsoCfdi() != null ? factura.getUsoCfdi() : "S01");
+
+        // Acumulado de traslados por impuesto y tasa: {base, importe}
+        Map<String, long[]> traslados = new LinkedHashMap<>();
+
+        w.writeStartElement(NS_CFDI, "Conceptos");
+        for (int i = 0; i < ticket.lineas().size(); i++) {
+            TicketCalculado.Linea l = ticket.lineas().get(i);
+            DetalleVenta d = venta.getDetalles().get(i);
+            long descuento = l.descuentoLineaCentavos() + l.descuentoClienteCentavos();
+            long base = l.importeCentavos() - descuento;
+            boolean conImpuestos = l.ivaPuntosBase() > 0 || l.iepsPuntosBase() > 0;
+
+            w.writeStartElement(NS_CFDI, "Concepto");
+            w.writeAttribute("ClaveProdServ", global ? CLAVE_VENTAS_GLOBAL : claveProdServ);
+            if (d.getProductoId() != null) {
+                w.writeAttribute("NoIdentificacion", String.valueOf(d.getProductoId()));
+            }
+            w.writeAttribute("Cantidad", String.valueOf(l.cantidad()));
+            w.writeAttribute("ClaveUnidad", global ? "ACT" : "H87");
+            w.writeAttribute("Descripcion", d.getProductoNombre() != null ? d.getProductoNombre() : "Producto");
+            w.writeAttribute("ValorUnitario", Dinero.formatear(l.precioUnitarioCentavos()));
+            w.writeAttribute("Importe", Dinero.formatear(l.importeCentavos()));
+            if (descuento > 0) {
+                w.writeAttribute("Descuento", Dinero.formatear(descuento));
+            }
+            w.writeAttribute("ObjetoImp", conImpuestos ? "02" : "01");
+
+            if (conImpuestos) {
+                w.writeStartElement(NS_CFDI, "Impuestos");
+                w.writeStartElement(NS_CFDI, "Traslados");
+                if (l.iepsPuntosBase() > 0) {
+                    traslado(w, base, IMPUESTO_IEPS, l.iepsPuntosBase(), l.iepsCentavos(), traslados);
+                }
+                if (l.ivaPuntosBase() > 0) {
+                    traslado(w, base + l.iepsCentavos(), IMPUESTO_IVA, l.ivaPuntosBase(), l.ivaCentavos(), traslados);
+                }
+                w.writeEndElement();
+                w.writeEndElement();
+            }
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+
+        if (!traslados.isEmpty()) {
+            w.writeStartElement(NS_CFDI, "Impuestos");
+            w.writeAttribute("TotalImpuestosTrasladados", Dinero.formatear(ticket.impuestoCentavos()));
+            w.writeStartElement(NS_CFDI, "Traslados");
+            for (Map.Entry<String, long[]> t : traslados.entrySet()) {
+                String[] clave = t.getKey().split(":");
+                w.writeEmptyElement(NS_CFDI, "Traslado");
+                w.writeAttribute("Base", Dinero.formatear(t.getValue()[0]));
+                w.writeAttribute("Impuesto", clave[0]);
+                w.writeAttribute("TipoFactor", "Tasa");
+                w.writeAttribute("TasaOCuota", tasa(Long.parseLong(clave[1])));
+                w.writeAttribute("Importe", Dinero.formatear(t.getValue()[1]));
+            }
+            w.writeEndElement();
+            w.writeEndElement();
+        }
+
+        if (factura.getUuidFiscal() != null) {
+            w.writeStartElement(NS_CFDI, "Complemento");
+            w.setPrefix("tfd", NS_TFD);
+            w.writeEmptyElement(NS_TFD, "TimbreFiscalDigital");
+            w.writeNamespace("tfd", NS_TFD);
+            w.writeAttribute("Version", "1.1");
+            w.writeAttribute("UUID", factura.getUuidFiscal());
+            if (factura.getFechaTimbrado() != null) {
+                w.writeAttribute("FechaTimbrado", FECHA.format(factura.getFechaTimbrado()));
+            }
+            w.writeEndElement();
+        }
+
+        w.writeEndElement();
+        w.writeEndDocument();
+        w.flush();
+        w.close();
+    }
+
+    private static void traslado(XMLStreamWriter w, long base, String impuesto, long puntosBase, long importe,
+            Map<String, long[]> acumulado) throws XMLStreamException {
+        w.writeEmptyElement(NS_CFDI, "Traslado");
+        w.writeAttribute("Base", Dinero.formatear(base));
+        w.writeAttribute("Impuesto", impuesto);
+        w.writeAttribute("TipoFactor", "Tasa");
+        w.writeAttribute("TasaOCuota", tasa(puntosBase));
+        w.writeAttribute("Importe", Dinero.formatear(importe));
+
+        long[] total = acumulado.computeIfAbsent(impuesto + ":" + puntosBase, k -> new long[2]);
+        total[0] += base;
+        total[1] += importe;
+    }
+
+    private static void atributo(XMLStreamWriter w, String nombre, String valor) throws XMLStreamException {
+        if (valor != null && !valor.isBlank()) {
+            w.writeAttribute(nombre, valor);
+        }
+    }
+
+    private static String tasa(long puntosBase) {
+        return BigDecimal.valueOf(puntosBase, 4).setScale(6).toPlainString();
+    }
+
+    // Las globales generadas antes de validar el periodo se emiten, como entonces, por el mes de inicio
+    private static PeriodoGlobal periodoGlobal(Factura factura) {
+        LocalDate desde = factura.getPeriodoDesde() != null ? factura.getPeriodoDesde() : LocalDate.now();
+        try {
+            return PeriodoGlobal.de(desde, factura.getPeriodoHasta());
+        } catch (IllegalArgumentException e) {
+            LocalDate mes = desde.withDayOfMonth(1);
+            return PeriodoGlobal.de(mes, mes.plusMonths(1));
+        }
+    }
+
+    /** SubTotal (suma de importes) y Descuento (de línea y de cliente) del comprobante. */
+    record Resumen(long subTotalCentavos, long descuentoCentavos) {
+    }
+
+    // El PDF imprime estos mismos importes para que coincida con el XML
+    static Resumen resumen(TicketCalculado ticket) {
+        long importe = 0;
+        long descuento = 0;
+        for (TicketCalculado.Linea l : ticket.lineas()) {
+            importe += l.importeCentavos();
+            descuento += l.descuentoLineaCentavos() + l.descuentoClienteCentavos();
+        }
+        return new Resumen(importe, descuento);
+    }
+
+    static LocalDateTime fecha(Factura factura, Venta venta) {
+        LocalDateTime fecha = venta.getFechaCreacion() != null ? venta.getFechaCreacion() : factura.getFechaCreacion();
+        return (fecha != null ? fecha : LocalDateTime.now()).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    static String formaPago(String metodoPago) {
+        if (metodoPago == null) return "99";
+        return switch (metodoPago.toUpperCase()) {
+            case "EFECTIVO" -> "01";
+            case "TRANSFERENCIA" -> "03";
+            case "TARJETA", "TARJETA_CREDITO" -> "04";
+            case "TARJETA_DEBITO" -> "28";
+            default -> "99";
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.cfdi;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Nodo InformacionGlobal de una factura global, derivado del periodo [desde, hasta).
+ *
+ * Solo se aceptan los periodos del catálogo c_Periodicidad que caben en un mes calendario
+ * (día, semana de 7 días, quincena 1-15 o 16-fin de mes y mes completo) o el bimestre
+ * calendario; en ese caso Meses usa las claves 13 a 18.
+ */
+public record PeriodoGlobal(String periodicidad, String meses, int anio) {
+
+    public static final String DIARIO = "01";
+    public static final String SEMANAL = "02";
+    public static final String QUINCENAL = "03";
+    public static final String MENSUAL = "04";
+    public static final String BIMESTRAL = "05";
+
+    public static PeriodoGlobal de(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("El periodo debe cumplir desde < hasta");
+        }
+        int mes = desde.getMonthValue();
+        if (desde.getDayOfMonth() == 1 && mes % 2 == 1 && hasta.equals(desde.plusMonths(2))) {
+            return new PeriodoGlobal(BIMESTRAL, String.valueOf(13 + mes / 2), desde.getYear());
+        }
+
+        LocalDate ultimo = hasta.minusDays(1);
+        if (ultimo.getMonthValue() != mes || ultimo.getYear() != desde.getYear()) {
+            throw new IllegalArgumentException("El periodo de la factura global no puede abarcar dos meses");
+        }
+        long dias = ChronoUnit.DAYS.between(desde, hasta);
+        String periodicidad;
+        if (desde.getDayOfMonth() == 1 && hasta.equals(desde.plusMonths(1))) {
+            periodicidad = MENSUAL;
+        } else if ((desde.getDayOfMonth() == 1 && hasta.getDayOfMonth() == 16)
+                || (desde.getDayOfMonth() == 16 && hasta.getDayOfMonth() == 1)) {
+            periodicidad = QUINCENAL;
+        } else if (dias == 7) {
+            periodicidad = SEMANAL;
+        } else if (dias == 1) {
+            periodicidad = DIARIO;
+        } else {
+            throw new IllegalArgumentException(
+                    "El periodo de la factura global debe ser un día, una semana, una quincena, un mes o un bimestre");
+        }
+        return new PeriodoGlobal(periodicidad, String.format("%02d", mes), desde.getYear());
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.backend.cfdi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escritor mínimo de PDF 1.4 para la representación impresa de la factura.
+ *
+ * Las partes fijas del documento (cabecera, fuentes y el encabezado de cada página con
+ * rótulos y líneas) se compilan una sola vez a bytes; por factura solo se escribe el texto
+ * variable. Cada página se arma en un búfer propio, así que la memoria usada depende del
+ * tamaño de una página y no del número de conceptos.
+ */
+final class PlantillaPdfFactura {
+
+    // Carta: 612 x 792 puntos
+    static final int ALTO = 792;
+    static final int MARGEN = 40;
+    static final int INTERLINEA = 14;
+    static final int Y_INICIO_PRIMERA = 560;
+    static final int Y_INICIO_SIGUIENTES = 700;
+    static final int Y_FIN = 90;
+
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    private final byte[] cabeceraArchivo;
+    private final byte[] fuentes;
+    private final byte[] encabezadoPrimera;
+    private final byte[] encabezadoSiguientes;
+
+    PlantillaPdfFactura(String nombreEmisor, String rfcEmisor) {
+        this.cabeceraArchivo = ascii("%PDF-1.4\n%âãÏÓ\n");
+        this.fuentes = ascii(
+                "3 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n"
+                + "4 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\nendobj\n");
+
+        Contenido primera = new Contenido();
+        primera.texto(true, 18, MARGEN, ALTO - 60, nombreEmisor);
+        primera.texto(false, 10, MARGEN, ALTO - 78, "RFC: " + rfcEmisor);
+        primera.texto(true, 14, 430, ALTO - 60, "FACTURA CFDI 4.0");
+        primera.texto(true, 10, MARGEN, 680, "Receptor");
+        primera.linea(MARGEN, 590, 612 - MARGEN, 590);
+        columnas(primera, Y_INICIO_PRIMERA + INTERLINEA + 4);
+        this.encabezadoPrimera = primera.bytes();
+
+        Contenido siguientes = new Contenido();
+        siguientes.texto(true, 10, MARGEN, ALTO - 50, nombreEmisor + "  (continuación)");
+        columnas(siguientes, Y_INICIO_SIGUIENTES + INTERLINEA + 4);
+        this.encabezadoSiguientes = siguientes.bytes();
+    }
+
+    private static void columnas(Contenido c, int y) {
+        c.texto(true, 9, MARGEN, y, "Cant.");
+        c.texto(true, 9, 80, y, "Descripción");
+        c.texto(true, 9, 400, y, "P. unitario");
+        c.texto(true, 9, 480, y, "Descuento");
+        c.texto(true, 9, 540, y, "Importe");
+        c.linea(MARGEN, y - 4, 612 - MARGEN, y - 4);
+    }
+
+    /** Página en construcción: contenido fijo de la plantilla más el texto variable. */
+    final class Pagina {
+        final boolean primera;
+        final Contenido contenido = new Contenido();
+
+        Pagina(boolean primera) {
+            this.primera = primera;
+        }
+
+        byte[] bytes() {
+            byte[] fijo = primera ? encabezadoPrimera : encabezadoSiguientes;
+            byte[] variable = contenido.bytes();
+            byte[] todo = new byte[fijo.length + variable.length];
+            System.arraycopy(fijo, 0, todo, 0, fijo.length);
+            System.arraycopy(variable, 0, todo, fijo.length, variable.length);
+            return todo;
+        }
+    }
+
+    /** Escribe el documento completo; las páginas se consumen una por una. */
+    final class Escritor {
+        private final ContadorSalida salida;
+        private final List<Long> desplazamientos = new ArrayList<>();
+        private final List<Integer> paginas = new ArrayList<>();
+
+        Escritor(OutputStream destino) throws IOException {
+            this.salida = new ContadorSalida(destino);
+            // Objetos 1 (catálogo) y 2 (páginas) se escriben al final
+            desplazamientos.add(0L);
+            desplazamientos.add(0L);
+            salida.write(cabeceraArchivo);
+            desplazamientos.add(salida.contador);
+            int corte = indiceSegundaFuente();
+            salida.write(fuentes, 0, corte);
+            desplazamientos.add(salida.contador);
+            salida.write(fuentes, corte, fuentes.length - corte);
+        }
+
+        void escribirPagina(Pagina pagina) throws IOException {
+            byte[] contenido = pagina.bytes();
+            int numPagina = desplazamientos.size() + 1;
+            int numContenido = numPagina + 1;
+
+            desplazamientos.add(salida.contador);
+            salida.write(ascii(numPagina + " 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 " + ALTO + "]"
+                    + " /Resources << /Font << /F1 3 0 R /F2 4 0 R >> >> /Contents " + numContenido + " 0 R >>\nendobj\n"));
+            desplazamientos.add(salida.contador);
+            salida.write(ascii(numContenido + " 0 obj\n<< /Length " + contenido.length + " >>\nstream\n"));
+            salida.write(contenido);
+            salida.write(ascii("\nendstream\nendobj\n"));
+            paginas.add(numPagina);
+        }
+
+        void terminar() throws IOException {
+            desplazamientos.set(0, salida.contador);
+            salida.write(ascii("1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n"));
+            desplazamientos.set(1, salida.contador);
+            StringBuilder kids = new StringBuilder();
+            for (Integer p : paginas) {
+                kids.append(p).append(" 0 R ");
+            }
+            salida.write(ascii("2 0 obj\n<< /Type /Pages /Kids [" + kids + "] /Count " + paginas.size() + " >>\nendobj\n"));
+
+            long inicioXref = salida.contador;
+            StringBuilder xref = new StringBuilder();
+            xref.append("xref\n0 ").append(desplazamientos.size() + 1).append("\n0000000000 65535 f \n");
+            for (Long d : desplazamientos) {
+                xref.append(String.format("%010d 00000 n \n", d));
+            }
+            xref.append("trailer\n<< /Size ").append(desplazamientos.size() + 1).append(" /Root 1 0 R >>\n")
+                    .append("startxref\n").append(inicioXref).append("\n%%EOF\n");
+            salida.write(ascii(xref.toString()));
+            salida.flush();
+        }
+    }
+
+    private int indiceSegundaFuente() {
+        String texto = new String(fuentes, StandardCharsets.US_ASCII);
+        return texto.indexOf("4 0 obj");
+    }
+
+    /** Operadores de contenido PDF acumulados en un búfer. */
+    static final class Contenido {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(2048);
+
+        void texto(boolean negrita, int tamano, int x, int y, String texto) {
+            escribir("BT /" + (negrita ? "F2 " : "F1 ") + tamano + " Tf " + x + " " + y + " Td (");
+            buffer.writeBytes(escapar(texto).getBytes(WIN_ANSI));
+            escribir(") Tj ET\n");
+        }
+
+        void textoDerecha(int tamano, int xDerecha, int y, String texto) {
+            // Helvetica: ancho medio aproximado de 0.5 em para cifras
+            int x = xDerecha - (int) Math.round(texto.length() * tamano * 0.5);
+            texto(false, tamano, x, y, texto);
+        }
+
+        void linea(int x1, int y1, int x2, int y2) {
+            escribir("0.5 w " + x1 + " " + y1 + " m " + x2 + " " + y2 + " l S\n");
+        }
+
+        private void escribir(String s) {
+            buffer.writeBytes(s.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        byte[] bytes() {
+            return buffer.toByteArray();
+        }
+
+        private static String escapar(String texto) {
+            if (texto == null) return "";
+            return texto.replace("\\", "\\\\").replace("(", "\\(").replace(")", "\\)");
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class ContadorSalida extends OutputStream {
+        private final OutputStream destino;
+        private long contador;
+
+        ContadorSalida(OutputStream destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destino.write(b);
+            contador++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            destino.write(b, off, len);
+            contador += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+    }
+}
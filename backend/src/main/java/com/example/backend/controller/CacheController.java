@@ -0,0 +1,29 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.RegionCacheDTO;
+import com.example.backend.service.CacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @Autowired
+    private CacheService cacheService;
+
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<RegionCacheDTO>> getEstadisticas() {
+        return ResponseEntity.ok(cacheService.getEstadisticas());
+    }
+
+    @DeleteMapping("/{region}")
+    public ResponseEntity<Void> vaciarRegion(@PathVariable String region) {
+        cacheService.vaciarRegion(region);
+        return ResponseEntity.noContent().build();
+    }
+}
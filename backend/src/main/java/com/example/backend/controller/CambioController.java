@@ -0,0 +1,50 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.EventoCambioDTO;
+import com.example.backend.service.CambioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Flujo de cambios para consumidores externos. El cursor es la posición del último evento
+ * leído: GET /api/cambios?desde=N devuelve solo lo posterior, opcionalmente esperando
+ * (long-poll), y /api/cambios/stream lo envía por SSE con la posición como id del evento.
+ */
+@RestController
+@RequestMapping("/api/cambios")
+@CrossOrigin(origins = "*")
+public class CambioController {
+
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final long ESPERA_MAXIMA_MS = 60_000;
+
+    @Autowired
+    private CambioService cambioService;
+
+    @Value("${cambios.sse.timeout-ms:1800000}")
+    private long timeoutSseMs;
+
+    @GetMapping
+    public DeferredResult<List<EventoCambioDTO>> getCambios(@RequestParam(defaultValue = "0") long desde,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(defaultValue = "500") int limite,
+            @RequestParam(defaultValue = "0") long esperaMs) {
+        return cambioService.esperar(desde, tipo, Math.max(1, Math.min(limite, LIMITE_MAXIMO)),
+                Math.min(esperaMs, ESPERA_MAXIMA_MS));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long desde,
+            @RequestParam(required = false) String tipo,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        // Al reconectar el navegador manda el último id recibido
+        long cursor = ultimoEvento != null ? ultimoEvento : desde != null ? desde : cambioService.getUltimaPosicion();
+        return cambioService.suscribir(cursor, tipo, timeoutSseMs);
+    }
+}
@@ -1,25 +1,33 @@
 package com.example.backend.controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.example.backend.dto.ClienteDTO;
 import com.example.backend.dto.DTOConverter;
 import com.example.backend.model.Cliente;
 import com.example.backend.service.ClienteService;
+import com.example.backend.util.Parche;
 
 @RestController
 @RequestMapping("/api/clientes")
@@ -32,9 +40,17 @@ public class ClienteController {
     @GetMapping
     public ResponseEntity<List<ClienteDTO>> getAllClientes(
             @RequestParam(required = false) Boolean activo,
-            @RequestParam(required = false) String nombre) {
+            @RequestParam(required = false) String nombre,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano) {
         List<Cliente> clientes;
-        if (activo != null) {
+        if (nombre != null && !nombre.isBlank()) {
+            try {
+                clientes = clienteService.buscar(nombre, activo, pagina, tamano);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        } else if (activo != null) {
             clientes = clienteService.findByActivo(activo);
         } else {
             clientes = clienteService.findAll();
@@ -42,6 +58,16 @@ public class ClienteController {
         return ResponseEntity.ok(DTOConverter.convertList(clientes, ClienteDTO.class));
     }
 
+    // Varios por id en una sola consulta, en el orden pedido: ?ids=3,1,2
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ClienteDTO>> getClientesPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(DTOConverter.convertList(clienteService.findByIds(ids), ClienteDTO.class));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ClienteDTO> getClienteById(@PathVariable Long id) {
         Optional<Cliente> cliente = clienteService.findById(id);
@@ -64,16 +90,55 @@ public class ClienteController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ClienteDTO> updateCliente(@PathVariable Long id, @RequestBody ClienteDTO clienteDto) {
-        if (!clienteService.findById(id).isPresent()) {
+    public ResponseEntity<ClienteDTO> updateCliente(@PathVariable Long id, @RequestBody ClienteDTO clienteDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        if (clienteService.findById(id).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        // Sin la versión leída el PUT pisaría a ciegas lo que otro guardó
+        Long version;
+        try {
+            version = Parche.versionEsperada(siCoincide, clienteDto.getVersion());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                    "Se requiere la versión leída (If-Match o \"version\")");
+        }
         Cliente entity = DTOConverter.convertToEntity(clienteDto, Cliente.class);
         entity.setId(id);
-        Cliente saved = clienteService.save(entity);
+        entity.setVersion(version);
+        Cliente saved;
+        try {
+            saved = clienteService.save(entity);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Cliente modificado por otro usuario", e);
+        }
         return ResponseEntity.ok(DTOConverter.convertToDto(saved, ClienteDTO.class));
     }
 
+    // Actualización parcial: solo los campos enviados, con la versión en If-Match o en "version"
+    @PatchMapping("/{id}")
+    public ResponseEntity<ClienteDTO> patchCliente(@PathVariable Long id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        try {
+            Long version = Parche.versionEsperada(siCoincide, cambios);
+            if (version == null) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                        "Se requiere la versión leída (If-Match o \"version\")");
+            }
+            return clienteService.patch(id, version, cambios)
+                    .map(e -> ResponseEntity.ok().eTag(String.valueOf(e.getVersion()))
+                            .body(DTOConverter.convertToDto(e, ClienteDTO.class)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Cliente modificado por otro usuario", e);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCliente(@PathVariable Long id) {
         if (!clienteService.findById(id).isPresent()) {
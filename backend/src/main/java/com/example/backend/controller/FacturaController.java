@@ -2,14 +2,27 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.DTOConverter;
 import com.example.backend.dto.FacturaDTO;
+import com.example.backend.dto.RegeneracionDocumentosDTO;
 import com.example.backend.model.Factura;
 import com.example.backend.model.Venta;
+import com.example.backend.service.DocumentoFacturaService;
+import com.example.backend.service.FacturaGlobalService;
 import com.example.backend.service.FacturaService;
+import com.example.backend.service.TimbradoService;
+import com.example.backend.service.VentaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +34,18 @@ public class FacturaController {
     @Autowired
     private FacturaService facturaService;
 
+    @Autowired
+    private TimbradoService timbradoService;
+
+    @Autowired
+    private DocumentoFacturaService documentoFacturaService;
+
+    @Autowired
+    private FacturaGlobalService facturaGlobalService;
+
+    @Autowired
+    private VentaService ventaService;
+
     private FacturaDTO mapToDto(Factura f) {
         FacturaDTO dto = DTOConverter.convertToDto(f, FacturaDTO.class);
         if (f.getVenta() != null) {
@@ -32,8 +57,10 @@ public class FacturaController {
     private Factura mapToEntity(FacturaDTO dto) {
         Factura entity = DTOConverter.convertToEntity(dto, Factura.class);
         if (dto.getVentaId() != null) {
-            Venta v = new Venta();
-            v.setId(dto.getVentaId());
+            // La venta se enlaza ya cargada: un objeto con solo el id y sin versión se toma por nuevo
+            Venta v = ventaService.findById(dto.getVentaId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Venta no encontrada: " + dto.getVentaId()));
             entity.setVenta(v);
         }
         return entity;
@@ -69,13 +96,65 @@ public class FacturaController {
         return ResponseEntity.ok(mapToDto(facturaService.guardarFactura(entity)));
     }
 
+    // Factura global del periodo [desde, hasta) con las ventas que no se facturaron
+    @PostMapping("/global")
+    public ResponseEntity<FacturaDTO> createFacturaGlobal(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            return ResponseEntity.ok(mapToDto(facturaGlobalService.generar(desde, hasta)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // El timbrado es asíncrono: se encola y se responde 202; el avance se consulta
+    // con GET /{id} o por SSE en /{id}/eventos
     @PostMapping("/{id}/timbrar")
     public ResponseEntity<FacturaDTO> timbrarFactura(@PathVariable Long id) {
-        return facturaService.obtenerPorId(id).map(factura -> {
-            factura.setEstatus("TIMBRADA");
-            factura.setFechaTimbrado(LocalDateTime.now());
-            return ResponseEntity.ok(mapToDto(facturaService.guardarFactura(factura)));
-        }).orElse(ResponseEntity.notFound().build());
+        return timbradoService.encolar(id)
+                .map(f -> ResponseEntity.accepted().body(mapToDto(f)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/timbrar")
+    public ResponseEntity<List<FacturaDTO>> timbrarFacturas(@RequestBody List<Long> ids) {
+        return ResponseEntity.accepted().body(
+            timbradoService.encolar(ids).stream().map(this::mapToDto).collect(Collectors.toList())
+        );
+    }
+
+    @GetMapping(value = "/{id}/eventos", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> eventosFactura(@PathVariable Long id) {
+        return facturaService.obtenerPorId(id)
+                .map(f -> ResponseEntity.ok(timbradoService.suscribir(f)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/documentos")
+    public ResponseEntity<FacturaDTO> generarDocumentos(@PathVariable Long id) throws IOException {
+        return documentoFacturaService.generar(id)
+                .map(this::mapToDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/documentos/regenerar")
+    public ResponseEntity<RegeneracionDocumentosDTO> regenerarDocumentos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) throws InterruptedException {
+        return ResponseEntity.ok(documentoFacturaService.regenerar(desde, hasta));
+    }
+
+    @GetMapping("/documentos/{nombre}")
+    public ResponseEntity<Resource> getDocumento(@PathVariable String nombre) {
+        MediaType tipo = nombre.endsWith(".pdf") ? MediaType.APPLICATION_PDF : MediaType.APPLICATION_XML;
+        return documentoFacturaService.buscarDocumento(nombre)
+                .map(ruta -> ResponseEntity.ok()
+                        .contentType(tipo)
+                        .header("Cache-Control", "public, max-age=31536000, immutable")
+                        .<Resource>body(new FileSystemResource(ruta)))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{id}/cancelar")
@@ -2,11 +2,18 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.DTOConverter;
 import com.example.backend.dto.MovimientoInventarioDTO;
+import com.example.backend.dto.RecepcionDTO;
 import com.example.backend.model.MovimientoInventario;
+import com.example.backend.service.DifusionStockService;
 import com.example.backend.service.InventarioService;
+import com.example.backend.service.RecepcionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +26,12 @@ public class InventarioController {
     @Autowired
     private InventarioService inventarioService;
 
+    @Autowired
+    private DifusionStockService difusionStockService;
+
+    @Autowired
+    private RecepcionService recepcionService;
+
     @GetMapping("/movimientos")
     public ResponseEntity<List<MovimientoInventarioDTO>> getMovimientos() {
         List<MovimientoInventarioDTO> dtos = inventarioService.getAllMovimientos().stream()
@@ -33,6 +46,12 @@ public class InventarioController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Canal de stock en vivo para las cajas (SSE)
+    @GetMapping(value = "/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stockEnVivo() {
+        return difusionStockService.suscribir();
+    }
+
     @GetMapping("/producto/{prodId}")
     public ResponseEntity<List<MovimientoInventarioDTO>> getInventarioByProducto(@PathVariable Long prodId) {
         List<MovimientoInventarioDTO> dtos = inventarioService.getMovimientosByProductoId(prodId).stream()
@@ -47,6 +66,23 @@ public class InventarioController {
         return ResponseEntity.ok(mapToDto(saved));
     }
 
+    // Recepción de mercancía: todos los lotes y entradas de una entrega en una transacción
+    @PostMapping("/recepciones")
+    public ResponseEntity<RecepcionDTO> recepcion(@RequestBody RecepcionDTO recepcionDto) {
+        try {
+            return ResponseEntity.ok(recepcionService.registrar(recepcionDto));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/recepciones/{id}")
+    public ResponseEntity<RecepcionDTO> getRecepcionById(@PathVariable Long id) {
+        return recepcionService.getRecepcionById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/salida")
     public ResponseEntity<MovimientoInventarioDTO> salida(@RequestBody MovimientoInventarioDTO salidaDto) {
         MovimientoInventario entity = mapToEntity(salidaDto);
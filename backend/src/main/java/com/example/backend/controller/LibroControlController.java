@@ -0,0 +1,57 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.DTOConverter;
+import com.example.backend.dto.RegistroControladoDTO;
+import com.example.backend.service.LibroControlService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/libro-control")
+@CrossOrigin(origins = "*")
+public class LibroControlController {
+
+    private static final int LIMITE_MAXIMO = 500;
+
+    @Autowired
+    private LibroControlService libroControlService;
+
+    @GetMapping("/producto/{productoId}")
+    public ResponseEntity<List<RegistroControladoDTO>> getPorProducto(@PathVariable Long productoId,
+            @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(
+            libroControlService.ultimosPorProducto(productoId, Math.max(1, Math.min(limite, LIMITE_MAXIMO))).stream()
+                .map(r -> DTOConverter.convertToDto(r, RegistroControladoDTO.class))
+                .collect(Collectors.toList())
+        );
+    }
+
+    // Exporta el libro del periodo [desde, hasta) en CSV sin armar la respuesta en memoria
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long productoId) {
+        StreamingResponseBody cuerpo = salida -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+            libroControlService.exportarCsv(desde, hasta, productoId, writer);
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"libro-control-" + desde + "-" + hasta + ".csv\"")
+                .body(cuerpo);
+    }
+}
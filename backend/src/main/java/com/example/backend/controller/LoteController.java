@@ -2,13 +2,23 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.DTOConverter;
 import com.example.backend.dto.LoteDTO;
+import com.example.backend.dto.ResultadoImportacionDTO;
 import com.example.backend.model.Lote;
+import com.example.backend.service.ImportacionService;
 import com.example.backend.service.LoteService;
+import com.example.backend.util.Parche;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -19,11 +29,24 @@ public class LoteController {
     @Autowired
     private LoteService loteService;
 
+    @Autowired
+    private ImportacionService importacionService;
+
     @GetMapping
     public ResponseEntity<List<LoteDTO>> getAllLotes() {
         return ResponseEntity.ok(DTOConverter.convertList(loteService.findAll(), LoteDTO.class));
     }
 
+    // Varios por id en una sola consulta, en el orden pedido: ?ids=3,1,2
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<LoteDTO>> getLotesPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(DTOConverter.convertList(loteService.findByIds(ids), LoteDTO.class));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<LoteDTO> getLoteById(@PathVariable Long id) {
         Optional<Lote> lote = loteService.findById(id);
@@ -43,17 +66,67 @@ public class LoteController {
         return ResponseEntity.ok(DTOConverter.convertToDto(saved, LoteDTO.class));
     }
 
+    // Alta o actualización masiva en streaming: text/csv con encabezado o application/x-ndjson
+    @PostMapping("/importar")
+    public ResponseEntity<ResultadoImportacionDTO> importarLotes(InputStream cuerpo,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String tipo) throws IOException {
+        try {
+            return ResponseEntity.ok(importacionService.importarLotes(cuerpo, ImportacionService.Formato.de(tipo)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<LoteDTO> updateLote(@PathVariable Long id, @RequestBody LoteDTO loteDto) {
-        if (!loteService.findById(id).isPresent()) {
+    public ResponseEntity<LoteDTO> updateLote(@PathVariable Long id, @RequestBody LoteDTO loteDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        if (loteService.findById(id).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        // Sin la versión leída el PUT pisaría a ciegas lo que otro guardó
+        Long version;
+        try {
+            version = Parche.versionEsperada(siCoincide, loteDto.getVersion());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                    "Se requiere la versión leída (If-Match o \"version\")");
+        }
         Lote entity = DTOConverter.convertToEntity(loteDto, Lote.class);
         entity.setId(id);
-        Lote saved = loteService.save(entity);
+        entity.setVersion(version);
+        Lote saved;
+        try {
+            saved = loteService.save(entity);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Lote modificado por otro usuario", e);
+        }
         return ResponseEntity.ok(DTOConverter.convertToDto(saved, LoteDTO.class));
     }
 
+    // Actualización parcial: solo los campos enviados, con la versión en If-Match o en "version"
+    @PatchMapping("/{id}")
+    public ResponseEntity<LoteDTO> patchLote(@PathVariable Long id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        try {
+            Long version = Parche.versionEsperada(siCoincide, cambios);
+            if (version == null) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                        "Se requiere la versión leída (If-Match o \"version\")");
+            }
+            return loteService.patch(id, version, cambios)
+                    .map(e -> ResponseEntity.ok().eTag(String.valueOf(e.getVersion()))
+                            .body(DTOConverter.convertToDto(e, LoteDTO.class)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Lote modificado por otro usuario", e);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLote(@PathVariable Long id) {
         if (!loteService.findById(id).isPresent()) {
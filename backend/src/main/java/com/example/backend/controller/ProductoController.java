@@ -1,14 +1,34 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CambioPreciosDTO;
+import com.example.backend.dto.CatalogoCambiosDTO;
 import com.example.backend.dto.ProductoDTO;
 import com.example.backend.dto.DTOConverter;
+import com.example.backend.dto.HistorialPrecioDTO;
+import com.example.backend.dto.ResultadoCambioPreciosDTO;
+import com.example.backend.dto.ResultadoImportacionDTO;
+import com.example.backend.dto.Vistas;
 import com.example.backend.model.Producto;
+import com.example.backend.service.InstantaneaCatalogoService;
+import com.example.backend.service.CambioPreciosService;
+import com.example.backend.service.ImportacionService;
 import com.example.backend.service.ProductoService;
+import com.example.backend.service.ProyeccionService;
+import com.example.backend.util.Parche;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -19,11 +39,73 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private CambioPreciosService cambioPreciosService;
+
+    @Autowired
+    private InstantaneaCatalogoService instantaneaCatalogoService;
+
+    @Autowired
+    private ProyeccionService proyeccionService;
+
+    // Se sirve la instantánea ya serializada; con If-None-Match vigente se responde 304
     @GetMapping
-    public ResponseEntity<List<ProductoDTO>> getAllProductos(
-            @RequestParam(required = false) String nombre) {
-        List<Producto> productos = productoService.findAll();
-        return ResponseEntity.ok(DTOConverter.convertList(productos, ProductoDTO.class));
+    public ResponseEntity<?> getAllProductos(
+            @RequestParam(required = false) String nombre,
+            @RequestParam(required = false) String vista,
+            @RequestParam(required = false) String campos,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String siNoCoincide,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String codificaciones) {
+        // ?vista=pos|resumen o ?campos=a,b: solo esas columnas
+        List<String> seleccion;
+        try {
+            seleccion = Vistas.resolver(Vistas.PRODUCTO, vista, campos);
+            if (seleccion != null) {
+                return ResponseEntity.ok(proyeccionService.listar(Producto.class, ProductoDTO.class, seleccion,
+                        () -> DTOConverter.convertList(productoService.findAll(), ProductoDTO.class)));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        InstantaneaCatalogoService.Instantanea catalogo = instantaneaCatalogoService.get();
+        boolean gzip = codificaciones != null && codificaciones.contains("gzip");
+        String etag = gzip ? catalogo.etagGzip() : catalogo.etag();
+        if (siNoCoincide != null && (siNoCoincide.contains(etag) || "*".equals(siNoCoincide.trim()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalogo.gzip());
+        }
+        return respuesta.body(catalogo.json());
+    }
+
+    // Sincronización incremental de las cajas: "cambios desde la versión N"
+    @GetMapping("/cambios")
+    public ResponseEntity<CatalogoCambiosDTO> getCambios(@RequestParam(defaultValue = "0") long desde) {
+        return ResponseEntity.ok(productoService.cambiosDesde(desde));
+    }
+
+    // Varios por id en una sola consulta, en el orden pedido: ?ids=3,1,2
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductoDTO>> getProductosPorIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(DTOConverter.convertList(productoService.findByIds(ids), ProductoDTO.class));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @GetMapping("/{id}")
@@ -53,17 +135,86 @@ public class ProductoController {
         return ResponseEntity.ok(DTOConverter.convertToDto(saved, ProductoDTO.class));
     }
 
+    // Alta o actualización masiva en streaming: text/csv con encabezado o application/x-ndjson
+    @PostMapping("/importar")
+    public ResponseEntity<ResultadoImportacionDTO> importarProductos(InputStream cuerpo,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String tipo) throws IOException {
+        try {
+            return ResponseEntity.ok(importacionService.importarProductos(cuerpo, ImportacionService.Formato.de(tipo)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Cambio masivo de precios (lista o regla porcentual) publicado como una sola versión
+    @PostMapping("/precios")
+    public ResponseEntity<ResultadoCambioPreciosDTO> cambiarPrecios(@RequestBody CambioPreciosDTO cambio) {
+        try {
+            return ResponseEntity.ok(cambioPreciosService.aplicar(cambio));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Productos modificados durante el cambio de precios", e);
+        }
+    }
+
+    @GetMapping("/{id}/precios")
+    public ResponseEntity<List<HistorialPrecioDTO>> getHistorialPrecios(@PathVariable Long id,
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(cambioPreciosService.historial(id, limite));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<ProductoDTO> updateProducto(@PathVariable Long id, @RequestBody ProductoDTO productoDto) {
-        if (!productoService.findById(id).isPresent()) {
+    public ResponseEntity<ProductoDTO> updateProducto(@PathVariable Long id, @RequestBody ProductoDTO productoDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        if (productoService.findById(id).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        // Sin la versión leída el PUT pisaría a ciegas lo que otro guardó
+        Long version;
+        try {
+            version = Parche.versionEsperada(siCoincide, productoDto.getVersion());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                    "Se requiere la versión leída (If-Match o \"version\")");
+        }
         Producto entity = DTOConverter.convertToEntity(productoDto, Producto.class);
         entity.setId(id);
-        Producto saved = productoService.save(entity);
+        entity.setVersion(version);
+        Producto saved;
+        try {
+            saved = productoService.save(entity);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Producto modificado por otro usuario", e);
+        }
         return ResponseEntity.ok(DTOConverter.convertToDto(saved, ProductoDTO.class));
     }
 
+    // Actualización parcial: solo los campos enviados, con la versión en If-Match o en "version"
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductoDTO> patchProducto(@PathVariable Long id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        try {
+            Long version = Parche.versionEsperada(siCoincide, cambios);
+            if (version == null) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                        "Se requiere la versión leída (If-Match o \"version\")");
+            }
+            return productoService.patch(id, version, cambios)
+                    .map(e -> ResponseEntity.ok().eTag(String.valueOf(e.getVersion()))
+                            .body(DTOConverter.convertToDto(e, ProductoDTO.class)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Producto modificado por otro usuario", e);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProducto(@PathVariable Long id) {
         if (!productoService.findById(id).isPresent()) {
@@ -0,0 +1,42 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.ReabastoDTO;
+import com.example.backend.dto.TiempoEntregaDTO;
+import com.example.backend.service.ReabastoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reabasto")
+@CrossOrigin(origins = "*")
+public class ReabastoController {
+
+    @Autowired
+    private ReabastoService reabastoService;
+
+    // Órdenes de compra sugeridas, agrupadas por proveedor
+    @GetMapping("/sugerencias")
+    public ResponseEntity<ReabastoDTO> getSugerencias(@RequestParam(required = false) String proveedor) {
+        return ResponseEntity.ok(reabastoService.sugerencias(proveedor));
+    }
+
+    @GetMapping("/tiempos-entrega")
+    public ResponseEntity<List<TiempoEntregaDTO>> getTiemposEntrega() {
+        return ResponseEntity.ok(reabastoService.getTiemposEntrega());
+    }
+
+    @PutMapping("/tiempos-entrega/{proveedor}")
+    public ResponseEntity<TiempoEntregaDTO> guardarTiempoEntrega(@PathVariable String proveedor,
+            @RequestBody TiempoEntregaDTO tiempoDto) {
+        try {
+            return ResponseEntity.ok(reabastoService.guardarTiempoEntrega(proveedor, tiempoDto.getDias()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
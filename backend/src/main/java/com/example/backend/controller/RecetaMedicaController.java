@@ -6,8 +6,10 @@ import com.example.backend.model.DetalleVenta;
 import com.example.backend.model.RecetaMedica;
 import com.example.backend.service.RecetaMedicaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -56,6 +58,10 @@ public class RecetaMedicaController {
     @PostMapping
     public ResponseEntity<RecetaMedicaDTO> createReceta(@RequestBody RecetaMedicaDTO recetaDto) {
         RecetaMedica entity = mapToEntity(recetaDto);
-        return ResponseEntity.ok(mapToDto(recetaMedicaService.guardarReceta(entity)));
+        try {
+            return ResponseEntity.ok(mapToDto(recetaMedicaService.guardarReceta(entity)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
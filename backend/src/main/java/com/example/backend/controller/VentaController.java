@@ -1,26 +1,44 @@
 package com.example.backend.controller;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.example.backend.dto.DTOConverter;
 import com.example.backend.dto.DetalleVentaDTO;
+import com.example.backend.dto.DevolucionDTO;
+import com.example.backend.dto.LineaDevolucionDTO;
 import com.example.backend.dto.VentaDTO;
+import com.example.backend.dto.Vistas;
 import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.RecetaMedica;
 import com.example.backend.model.Venta;
+import com.example.backend.service.PrecioService;
+import com.example.backend.service.ProyeccionService;
+import com.example.backend.service.VentaEsperaService;
 import com.example.backend.service.VentaService;
+import com.example.backend.util.Parche;
 
 @RestController
 @RequestMapping("/api/ventas")
@@ -30,6 +48,15 @@ public class VentaController {
     @Autowired
     private VentaService ventaService;
 
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private VentaEsperaService ventaEsperaService;
+
+    @Autowired
+    private ProyeccionService proyeccionService;
+
     private VentaDTO mapToDto(Venta v) {
         VentaDTO dto = DTOConverter.convertToDto(v, VentaDTO.class);
         if (v.getDetalles() != null) {
@@ -44,14 +71,31 @@ public class VentaController {
         Venta entity = DTOConverter.convertToEntity(dto, Venta.class);
         if (dto.getDetalles() != null) {
             entity.setDetalles(dto.getDetalles().stream()
-                    .map(d -> DTOConverter.convertToEntity(d, DetalleVenta.class))
+                    .map(d -> {
+                        DetalleVenta detalle = DTOConverter.convertToEntity(d, DetalleVenta.class);
+                        if (d.getRecetaMedica() != null) {
+                            detalle.setRecetaMedica(DTOConverter.convertToEntity(d.getRecetaMedica(), RecetaMedica.class));
+                        }
+                        return detalle;
+                    })
                     .collect(Collectors.toList()));
         }
         return entity;
     }
 
     @GetMapping
-    public ResponseEntity<List<VentaDTO>> getAllVentas() {
+    public ResponseEntity<?> getAllVentas(@RequestParam(required = false) String vista,
+            @RequestParam(required = false) String campos) {
+        // ?vista=pos|resumen o ?campos=a,b: sin detalles se consultan solo esas columnas
+        try {
+            List<String> seleccion = Vistas.resolver(Vistas.VENTA, vista, campos);
+            if (seleccion != null) {
+                return ResponseEntity.ok(proyeccionService.listar(Venta.class, VentaDTO.class, seleccion,
+                        () -> ventaService.findAll().stream().map(this::mapToDto).collect(Collectors.toList())));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
         List<VentaDTO> dtos = ventaService.findAll().stream()
                 .map(this::mapToDto).collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
@@ -73,30 +117,133 @@ public class VentaController {
     }
 
     @PostMapping
-    public ResponseEntity<VentaDTO> createVenta(@RequestBody VentaDTO ventaDto) {
+    public ResponseEntity<VentaDTO> createVenta(@RequestBody VentaDTO ventaDto,
+            @RequestParam(required = false) Integer caja) {
+        // Una venta en espera no llega a la tabla ventas: se guarda en el almacén de espera
+        if ("EN_ESPERA".equals(ventaDto.getEstado()) || Boolean.TRUE.equals(ventaDto.getEnEspera())) {
+            return ResponseEntity.ok(ventaEsperaService.estacionar(ventaDto, caja).getVenta());
+        }
         Venta entity = mapToEntity(ventaDto);
-        Venta saved = ventaService.save(entity);
-        return ResponseEntity.ok(mapToDto(saved));
+        try {
+            Venta saved = ventaService.save(entity);
+            if (ventaDto.getEsperaId() != null) {
+                ventaEsperaService.retirar(ventaDto.getEsperaId());
+            }
+            return ResponseEntity.ok(mapToDto(saved));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
+    @PostMapping("/cotizar")
+    public ResponseEntity<VentaDTO> cotizarVenta(@RequestBody VentaDTO ventaDto) {
+        Venta entity = mapToEntity(ventaDto);
+        try {
+            precioService.aplicarPrecios(entity);
+            return ResponseEntity.ok(mapToDto(entity));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reemplazo de una venta ya cobrada: solo los mismos campos que admite el PATCH (cliente y
+     * observaciones); estado, importes, factura y devoluciones no se escriben desde aquí. Exige
+     * la versión leída en If-Match o en "version".
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<VentaDTO> updateVenta(@PathVariable Long id, @RequestBody VentaDTO ventaDto) {
+    public ResponseEntity<VentaDTO> updateVenta(@PathVariable Long id, @RequestBody VentaDTO ventaDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        Map<String, Object> cambios = new HashMap<>();
+        cambios.put("clienteId", ventaDto.getClienteId());
+        cambios.put("clienteNombre", ventaDto.getClienteNombre());
+        cambios.put("observaciones", ventaDto.getObservaciones());
+        Long version;
+        try {
+            version = Parche.versionEsperada(siCoincide, ventaDto.getVersion());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return actualizar(id, version, cambios, siCoincide);
+    }
+
+    // Actualización parcial: solo los campos enviados, con la versión en If-Match o en "version"
+    @PatchMapping("/{id}")
+    public ResponseEntity<VentaDTO> patchVenta(@PathVariable Long id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        Long version;
+        try {
+            version = Parche.versionEsperada(siCoincide, cambios);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return actualizar(id, version, cambios, siCoincide);
+    }
+
+    private ResponseEntity<VentaDTO> actualizar(Long id, Long version, Map<String, Object> cambios, String siCoincide) {
+        // Sin la versión leída se pisaría a ciegas lo que otro guardó
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                    "Se requiere la versión leída (If-Match o \"version\")");
+        }
+        try {
+            return ventaService.patch(id, version, cambios)
+                    .map(e -> ResponseEntity.ok().eTag(String.valueOf(e.getVersion())).body(mapToDto(e)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw Parche.versionVencida(siCoincide, "Venta modificada por otro usuario", e);
+        }
+    }
+
+    @PutMapping("/{id}/cancelar")
+    public ResponseEntity<VentaDTO> cancelarVenta(@PathVariable Long id,
+            @RequestBody(required = false) DevolucionDTO solicitud) {
         if (!ventaService.findById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
-        Venta entity = mapToEntity(ventaDto);
-        entity.setId(id);
-        Venta saved = ventaService.save(entity);
-        return ResponseEntity.ok(mapToDto(saved));
+        try {
+            Venta cancelada = ventaService.cancelar(id, solicitud != null ? solicitud.getMotivo() : null,
+                    solicitud != null ? solicitud.getUsuario() : null);
+            return ResponseEntity.ok(mapToDto(cancelada));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
+    @PostMapping("/{id}/devoluciones")
+    public ResponseEntity<VentaDTO> devolver(@PathVariable Long id, @RequestBody DevolucionDTO solicitud) {
+        if (!ventaService.findById(id).isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (solicitud.getLineas() == null || solicitud.getLineas().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Indique los renglones a devolver");
+        }
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (LineaDevolucionDTO l : solicitud.getLineas()) {
+            cantidades.merge(l.getDetalleVentaId(), l.getCantidad() != null ? l.getCantidad() : 0, Integer::sum);
+        }
+        try {
+            return ResponseEntity.ok(mapToDto(ventaService.devolver(id, cantidades, solicitud.getMotivo(),
+                    solicitud.getUsuario())));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Las ventas no se borran: eliminar equivale a cancelar, con su reingreso al inventario
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVenta(@PathVariable Long id) {
 
         if (!ventaService.findById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
-        ventaService.deleteById(id);
+        try {
+            ventaService.cancelar(id, null, null);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
         return ResponseEntity.noContent().build();
 
     }
@@ -0,0 +1,65 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.TicketEsperaDTO;
+import com.example.backend.dto.VentaDTO;
+import com.example.backend.service.VentaEsperaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ventas/espera")
+@CrossOrigin(origins = "*")
+public class VentaEsperaController {
+
+    @Autowired
+    private VentaEsperaService ventaEsperaService;
+
+    @GetMapping
+    public ResponseEntity<List<TicketEsperaDTO>> getPorCaja(@RequestParam(required = false) Integer caja) {
+        return ResponseEntity.ok(ventaEsperaService.listarPorCaja(caja));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<TicketEsperaDTO> getTicket(@PathVariable String id) {
+        return ventaEsperaService.buscar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<TicketEsperaDTO> estacionar(@RequestBody VentaDTO ventaDto,
+            @RequestParam(required = false) Integer caja) {
+        return ResponseEntity.ok(ventaEsperaService.estacionar(ventaDto, caja));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<TicketEsperaDTO> actualizar(@PathVariable String id, @RequestBody VentaDTO ventaDto) {
+        return ventaEsperaService.actualizar(id, ventaDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Retira el ticket y devuelve la venta lista para cobrarse con POST /api/ventas
+    @PostMapping("/{id}/reanudar")
+    public ResponseEntity<VentaDTO> reanudar(@PathVariable String id) {
+        return ventaEsperaService.retirar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> descartar(@PathVariable String id) {
+        return ventaEsperaService.retirar(id).isPresent()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/reservas")
+    public ResponseEntity<Map<Long, Integer>> getReservas() {
+        return ResponseEntity.ok(ventaEsperaService.getReservas());
+    }
+}
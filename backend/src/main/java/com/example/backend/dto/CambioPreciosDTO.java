@@ -0,0 +1,81 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class CambioPreciosDTO {
+    private String motivo;
+    private String usuario;
+    // Lista de precios: cada renglón identifica el producto por id, codigoBarras o sku
+    private List<PrecioListaDTO> precios;
+    // Regla porcentual sobre los productos que cumplan los filtros
+    private String categoria;
+    private String laboratorio;
+    private List<Long> productoIds;
+    private Double porcentaje;
+    // VENTA (por omisión), COMPRA o AMBOS
+    private String aplicarA;
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public List<PrecioListaDTO> getPrecios() {
+        return precios;
+    }
+
+    public void setPrecios(List<PrecioListaDTO> precios) {
+        this.precios = precios;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public String getLaboratorio() {
+        return laboratorio;
+    }
+
+    public void setLaboratorio(String laboratorio) {
+        this.laboratorio = laboratorio;
+    }
+
+    public List<Long> getProductoIds() {
+        return productoIds;
+    }
+
+    public void setProductoIds(List<Long> productoIds) {
+        this.productoIds = productoIds;
+    }
+
+    public Double getPorcentaje() {
+        return porcentaje;
+    }
+
+    public void setPorcentaje(Double porcentaje) {
+        this.porcentaje = porcentaje;
+    }
+
+    public String getAplicarA() {
+        return aplicarA;
+    }
+
+    public void setAplicarA(String aplicarA) {
+        this.aplicarA = aplicarA;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class CatalogoCambiosDTO {
+    private Long version;
+    private Boolean completo;
+    private List<ProductoDTO> productos;
+    private List<Long> bajas;
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Boolean getCompleto() {
+        return completo;
+    }
+
+    public void setCompleto(Boolean completo) {
+        this.completo = completo;
+    }
+
+    public List<ProductoDTO> getProductos() {
+        return productos;
+    }
+
+    public void setProductos(List<ProductoDTO> productos) {
+        this.productos = productos;
+    }
+
+    public List<Long> getBajas() {
+        return bajas;
+    }
+
+    public void setBajas(List<Long> bajas) {
+        this.bajas = bajas;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 public class ClienteDTO {
     private Long id;
+    private Long version;
     private String nombre;
     private String apellido;
     private String email;
@@ -156,4 +157,12 @@ public class ClienteDTO {
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
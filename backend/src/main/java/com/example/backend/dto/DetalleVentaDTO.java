@@ -9,6 +9,7 @@ public class DetalleVentaDTO {
     private String numeroLote;
     private String fechaVencimientoLote;
     private Integer cantidad;
+    private Integer cantidadDevuelta;
     private Double precioUnitario;
     private Double descuento;
     private Double subtotal;
@@ -71,6 +72,14 @@ public class DetalleVentaDTO {
         this.fechaVencimientoLote = fechaVencimientoLote;
     }
 
+    public Integer getCantidadDevuelta() {
+        return cantidadDevuelta;
+    }
+
+    public void setCantidadDevuelta(Integer cantidadDevuelta) {
+        this.cantidadDevuelta = cantidadDevuelta;
+    }
+
     public Integer getCantidad() {
         return cantidad;
     }
@@ -0,0 +1,33 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class DevolucionDTO {
+    private String motivo;
+    private String usuario;
+    private List<LineaDevolucionDTO> lineas;
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public List<LineaDevolucionDTO> getLineas() {
+        return lineas;
+    }
+
+    public void setLineas(List<LineaDevolucionDTO> lineas) {
+        this.lineas = lineas;
+    }
+}
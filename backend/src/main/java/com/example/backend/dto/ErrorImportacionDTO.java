@@ -0,0 +1,31 @@
+package com.example.backend.dto;
+
+public class ErrorImportacionDTO {
+    private Long fila;
+    private String clave;
+    private String mensaje;
+
+    public Long getFila() {
+        return fila;
+    }
+
+    public void setFila(Long fila) {
+        this.fila = fila;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+/**
+ * Producto leído por proyección para calcular el reabasto; solo las columnas que usa el
+ * cálculo, sin entidades administradas ni caché de segundo nivel.
+ */
+public record ExistenciaReabasto(
+        Long productoId,
+        String nombre,
+        String codigoBarras,
+        Integer stockTotal,
+        Integer stockMinimo,
+        Integer stockOptimo,
+        Double precioCompra) {
+}
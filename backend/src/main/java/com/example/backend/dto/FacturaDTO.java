@@ -1,5 +1,6 @@
 package com.example.backend.dto;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public class FacturaDTO {
@@ -11,10 +12,19 @@ public class FacturaDTO {
     private String regimenFiscal;
     private String codigoPostal;
     private String folioCfdi;
-    private String estatus; // PENDIENTE, TIMBRADA, CANCELADA
+    private String serie;
+    private Long folio;
+    private Boolean global;
+    private LocalDate periodoDesde;
+    private LocalDate periodoHasta;
+    private Integer cantidadVentas;
+    private String estatus; // PENDIENTE, EN_COLA, TIMBRANDO, TIMBRADA, ERROR, CANCELADA
     private String urlXml;
     private String urlPdf;
     private LocalDateTime fechaTimbrado;
+    private String uuidFiscal;
+    private Integer intentosTimbrado;
+    private String errorTimbrado;
     private LocalDateTime fechaCreacion;
 
     public Long getId() {
@@ -81,6 +91,54 @@ public class FacturaDTO {
         this.folioCfdi = folioCfdi;
     }
 
+    public String getSerie() {
+        return serie;
+    }
+
+    public void setSerie(String serie) {
+        this.serie = serie;
+    }
+
+    public Long getFolio() {
+        return folio;
+    }
+
+    public void setFolio(Long folio) {
+        this.folio = folio;
+    }
+
+    public Boolean getGlobal() {
+        return global;
+    }
+
+    public void setGlobal(Boolean global) {
+        this.global = global;
+    }
+
+    public LocalDate getPeriodoDesde() {
+        return periodoDesde;
+    }
+
+    public void setPeriodoDesde(LocalDate periodoDesde) {
+        this.periodoDesde = periodoDesde;
+    }
+
+    public LocalDate getPeriodoHasta() {
+        return periodoHasta;
+    }
+
+    public void setPeriodoHasta(LocalDate periodoHasta) {
+        this.periodoHasta = periodoHasta;
+    }
+
+    public Integer getCantidadVentas() {
+        return cantidadVentas;
+    }
+
+    public void setCantidadVentas(Integer cantidadVentas) {
+        this.cantidadVentas = cantidadVentas;
+    }
+
     public String getEstatus() {
         return estatus;
     }
@@ -120,4 +178,28 @@ public class FacturaDTO {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
+
+    public String getUuidFiscal() {
+        return uuidFiscal;
+    }
+
+    public void setUuidFiscal(String uuidFiscal) {
+        this.uuidFiscal = uuidFiscal;
+    }
+
+    public Integer getIntentosTimbrado() {
+        return intentosTimbrado;
+    }
+
+    public void setIntentosTimbrado(Integer intentosTimbrado) {
+        this.intentosTimbrado = intentosTimbrado;
+    }
+
+    public String getErrorTimbrado() {
+        return errorTimbrado;
+    }
+
+    public void setErrorTimbrado(String errorTimbrado) {
+        this.errorTimbrado = errorTimbrado;
+    }
 }
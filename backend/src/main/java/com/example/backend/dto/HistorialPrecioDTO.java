@@ -0,0 +1,87 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class HistorialPrecioDTO {
+    private Long productoId;
+    private Long versionCatalogo;
+    private Double precioVentaAnterior;
+    private Double precioVenta;
+    private Double precioCompraAnterior;
+    private Double precioCompra;
+    private String motivo;
+    private String usuario;
+    private LocalDateTime fecha;
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public Long getVersionCatalogo() {
+        return versionCatalogo;
+    }
+
+    public void setVersionCatalogo(Long versionCatalogo) {
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    public Double getPrecioVentaAnterior() {
+        return precioVentaAnterior;
+    }
+
+    public void setPrecioVentaAnterior(Double precioVentaAnterior) {
+        this.precioVentaAnterior = precioVentaAnterior;
+    }
+
+    public Double getPrecioVenta() {
+        return precioVenta;
+    }
+
+    public void setPrecioVenta(Double precioVenta) {
+        this.precioVenta = precioVenta;
+    }
+
+    public Double getPrecioCompraAnterior() {
+        return precioCompraAnterior;
+    }
+
+    public void setPrecioCompraAnterior(Double precioCompraAnterior) {
+        this.precioCompraAnterior = precioCompraAnterior;
+    }
+
+    public Double getPrecioCompra() {
+        return precioCompra;
+    }
+
+    public void setPrecioCompra(Double precioCompra) {
+        this.precioCompra = precioCompra;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+}
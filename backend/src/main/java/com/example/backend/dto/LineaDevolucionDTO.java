@@ -0,0 +1,22 @@
+package com.example.backend.dto;
+
+public class LineaDevolucionDTO {
+    private Long detalleVentaId;
+    private Integer cantidad;
+
+    public Long getDetalleVentaId() {
+        return detalleVentaId;
+    }
+
+    public void setDetalleVentaId(Long detalleVentaId) {
+        this.detalleVentaId = detalleVentaId;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+}
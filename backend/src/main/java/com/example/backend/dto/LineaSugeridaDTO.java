@@ -0,0 +1,94 @@
+package com.example.backend.dto;
+
+public class LineaSugeridaDTO {
+    private Long productoId;
+    private String nombre;
+    private String codigoBarras;
+    private Integer stockTotal;
+    private Integer stockMinimo;
+    private Integer stockOptimo;
+    private Double ventaDiaria;
+    private Integer puntoReorden;
+    private Integer cantidadSugerida;
+    private Double costoEstimado;
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getCodigoBarras() {
+        return codigoBarras;
+    }
+
+    public void setCodigoBarras(String codigoBarras) {
+        this.codigoBarras = codigoBarras;
+    }
+
+    public Integer getStockTotal() {
+        return stockTotal;
+    }
+
+    public void setStockTotal(Integer stockTotal) {
+        this.stockTotal = stockTotal;
+    }
+
+    public Integer getStockMinimo() {
+        return stockMinimo;
+    }
+
+    public void setStockMinimo(Integer stockMinimo) {
+        this.stockMinimo = stockMinimo;
+    }
+
+    public Integer getStockOptimo() {
+        return stockOptimo;
+    }
+
+    public void setStockOptimo(Integer stockOptimo) {
+        this.stockOptimo = stockOptimo;
+    }
+
+    public Double getVentaDiaria() {
+        return ventaDiaria;
+    }
+
+    public void setVentaDiaria(Double ventaDiaria) {
+        this.ventaDiaria = ventaDiaria;
+    }
+
+    public Integer getPuntoReorden() {
+        return puntoReorden;
+    }
+
+    public void setPuntoReorden(Integer puntoReorden) {
+        this.puntoReorden = puntoReorden;
+    }
+
+    public Integer getCantidadSugerida() {
+        return cantidadSugerida;
+    }
+
+    public void setCantidadSugerida(Integer cantidadSugerida) {
+        this.cantidadSugerida = cantidadSugerida;
+    }
+
+    public Double getCostoEstimado() {
+        return costoEstimado;
+    }
+
+    public void setCostoEstimado(Double costoEstimado) {
+        this.costoEstimado = costoEstimado;
+    }
+}
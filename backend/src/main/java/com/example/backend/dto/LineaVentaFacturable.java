@@ -0,0 +1,23 @@
+package com.example.backend.dto;
+
+/**
+ * Renglón de venta leído por proyección para la factura global; no es una entidad
+ * administrada, así que recorrer cientos de miles no llena el contexto de persistencia.
+ */
+public record LineaVentaFacturable(
+        Long ventaId,
+        Double descuentoVenta,
+        Long productoId,
+        Integer cantidad,
+        Integer cantidadDevuelta,
+        Long precioUnitarioCentavos,
+        Double descuento,
+        Long subtotalCentavos,
+        Long descuentoClienteCentavos,
+        Long iepsPuntosBase,
+        Long iepsCentavos,
+        Long ivaPuntosBase,
+        Long ivaCentavos,
+        Long totalVentaCentavos,
+        Long totalDevueltoCentavos) {
+}
@@ -2,6 +2,7 @@ package com.example.backend.dto;
 
 public class LoteDTO {
     private Long id;
+    private Long version;
     private Long productoId;
     private String numeroLote;
     private String fechaVencimiento;
@@ -100,4 +101,12 @@ public class LoteDTO {
     public void setActivo(Boolean activo) {
         this.activo = activo;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
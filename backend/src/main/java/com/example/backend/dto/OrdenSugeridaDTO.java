@@ -0,0 +1,51 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class OrdenSugeridaDTO {
+    private String proveedor;
+    private Integer diasEntrega;
+    private Integer piezas;
+    private Double costoEstimado;
+    private List<LineaSugeridaDTO> lineas;
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public void setProveedor(String proveedor) {
+        this.proveedor = proveedor;
+    }
+
+    public Integer getDiasEntrega() {
+        return diasEntrega;
+    }
+
+    public void setDiasEntrega(Integer diasEntrega) {
+        this.diasEntrega = diasEntrega;
+    }
+
+    public Integer getPiezas() {
+        return piezas;
+    }
+
+    public void setPiezas(Integer piezas) {
+        this.piezas = piezas;
+    }
+
+    public Double getCostoEstimado() {
+        return costoEstimado;
+    }
+
+    public void setCostoEstimado(Double costoEstimado) {
+        this.costoEstimado = costoEstimado;
+    }
+
+    public List<LineaSugeridaDTO> getLineas() {
+        return lineas;
+    }
+
+    public void setLineas(List<LineaSugeridaDTO> lineas) {
+        this.lineas = lineas;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 public class ProductoDTO {
     private Long id;
+    private Long version;
     private String nombre;
     private String descripcion;
     private String categoria;
@@ -25,6 +26,7 @@ public class ProductoDTO {
     private Boolean activo;
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaActualizacion;
+    private Long versionCatalogo;
 
     // Getters y Setters
     public Long getId() {
@@ -202,4 +204,20 @@ public class ProductoDTO {
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    public Long getVersionCatalogo() {
+        return versionCatalogo;
+    }
+
+    public void setVersionCatalogo(Long versionCatalogo) {
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
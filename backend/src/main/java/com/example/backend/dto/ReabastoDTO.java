@@ -0,0 +1,51 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class ReabastoDTO {
+    private Integer ventanaDias;
+    private Integer productosEvaluados;
+    private Integer productosPorSurtir;
+    private List<OrdenSugeridaDTO> ordenes;
+    private Long milisegundos;
+
+    public Integer getVentanaDias() {
+        return ventanaDias;
+    }
+
+    public void setVentanaDias(Integer ventanaDias) {
+        this.ventanaDias = ventanaDias;
+    }
+
+    public Integer getProductosEvaluados() {
+        return productosEvaluados;
+    }
+
+    public void setProductosEvaluados(Integer productosEvaluados) {
+        this.productosEvaluados = productosEvaluados;
+    }
+
+    public Integer getProductosPorSurtir() {
+        return productosPorSurtir;
+    }
+
+    public void setProductosPorSurtir(Integer productosPorSurtir) {
+        this.productosPorSurtir = productosPorSurtir;
+    }
+
+    public List<OrdenSugeridaDTO> getOrdenes() {
+        return ordenes;
+    }
+
+    public void setOrdenes(List<OrdenSugeridaDTO> ordenes) {
+        this.ordenes = ordenes;
+    }
+
+    public Long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public void setMilisegundos(Long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+}
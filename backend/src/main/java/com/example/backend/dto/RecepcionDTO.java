@@ -0,0 +1,115 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class RecepcionDTO {
+    private Long id;
+    private String proveedor;
+    private String folioProveedor;
+    private String usuario;
+    private String observaciones;
+    private List<LineaRecepcionDTO> lineas;
+    private Integer totalLineas;
+    private Integer piezas;
+    private Double costoTotal;
+    private Integer lotesCreados;
+    private Long milisegundos;
+    private LocalDateTime fechaCreacion;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public void setProveedor(String proveedor) {
+        this.proveedor = proveedor;
+    }
+
+    public String getFolioProveedor() {
+        return folioProveedor;
+    }
+
+    public void setFolioProveedor(String folioProveedor) {
+        this.folioProveedor = folioProveedor;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getObservaciones() {
+        return observaciones;
+    }
+
+    public void setObservaciones(String observaciones) {
+        this.observaciones = observaciones;
+    }
+
+    public List<LineaRecepcionDTO> getLineas() {
+        return lineas;
+    }
+
+    public void setLineas(List<LineaRecepcionDTO> lineas) {
+        this.lineas = lineas;
+    }
+
+    public Integer getTotalLineas() {
+        return totalLineas;
+    }
+
+    public void setTotalLineas(Integer totalLineas) {
+        this.totalLineas = totalLineas;
+    }
+
+    public Integer getPiezas() {
+        return piezas;
+    }
+
+    public void setPiezas(Integer piezas) {
+        this.piezas = piezas;
+    }
+
+    public Double getCostoTotal() {
+        return costoTotal;
+    }
+
+    public void setCostoTotal(Double costoTotal) {
+        this.costoTotal = costoTotal;
+    }
+
+    public Integer getLotesCreados() {
+        return lotesCreados;
+    }
+
+    public void setLotesCreados(Integer lotesCreados) {
+        this.lotesCreados = lotesCreados;
+    }
+
+    public Long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public void setMilisegundos(Long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.backend.dto;
+
+public class RegeneracionDocumentosDTO {
+    private Integer procesadas;
+    private Integer errores;
+    private Long milisegundos;
+
+    public Integer getProcesadas() {
+        return procesadas;
+    }
+
+    public void setProcesadas(Integer procesadas) {
+        this.procesadas = procesadas;
+    }
+
+    public Integer getErrores() {
+        return errores;
+    }
+
+    public void setErrores(Integer errores) {
+        this.errores = errores;
+    }
+
+    public Long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public void setMilisegundos(Long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+}
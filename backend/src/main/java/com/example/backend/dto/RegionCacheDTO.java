@@ -0,0 +1,58 @@
+package com.example.backend.dto;
+
+public class RegionCacheDTO {
+    private String region;
+    private Long aciertos;
+    private Long fallos;
+    private Long inserciones;
+    private Long elementosEnMemoria;
+    private Double tasaAciertos;
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public Long getAciertos() {
+        return aciertos;
+    }
+
+    public void setAciertos(Long aciertos) {
+        this.aciertos = aciertos;
+    }
+
+    public Long getFallos() {
+        return fallos;
+    }
+
+    public void setFallos(Long fallos) {
+        this.fallos = fallos;
+    }
+
+    public Long getInserciones() {
+        return inserciones;
+    }
+
+    public void setInserciones(Long inserciones) {
+        this.inserciones = inserciones;
+    }
+
+    public Long getElementosEnMemoria() {
+        return elementosEnMemoria;
+    }
+
+    public void setElementosEnMemoria(Long elementosEnMemoria) {
+        this.elementosEnMemoria = elementosEnMemoria;
+    }
+
+    public Double getTasaAciertos() {
+        return tasaAciertos;
+    }
+
+    public void setTasaAciertos(Double tasaAciertos) {
+        this.tasaAciertos = tasaAciertos;
+    }
+}
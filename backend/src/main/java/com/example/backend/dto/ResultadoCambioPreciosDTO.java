@@ -0,0 +1,42 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class ResultadoCambioPreciosDTO {
+    private Long versionCatalogo;
+    private Integer productos;
+    private List<String> noEncontrados;
+    private Long milisegundos;
+
+    public Long getVersionCatalogo() {
+        return versionCatalogo;
+    }
+
+    public void setVersionCatalogo(Long versionCatalogo) {
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    public Integer getProductos() {
+        return productos;
+    }
+
+    public void setProductos(Integer productos) {
+        this.productos = productos;
+    }
+
+    public List<String> getNoEncontrados() {
+        return noEncontrados;
+    }
+
+    public void setNoEncontrados(List<String> noEncontrados) {
+        this.noEncontrados = noEncontrados;
+    }
+
+    public Long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public void setMilisegundos(Long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+}
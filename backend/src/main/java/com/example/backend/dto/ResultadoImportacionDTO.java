@@ -0,0 +1,60 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class ResultadoImportacionDTO {
+    private Integer filas;
+    private Integer creados;
+    private Integer actualizados;
+    private Integer conErrores;
+    private List<ErrorImportacionDTO> errores;
+    private Long milisegundos;
+
+    public Integer getFilas() {
+        return filas;
+    }
+
+    public void setFilas(Integer filas) {
+        this.filas = filas;
+    }
+
+    public Integer getCreados() {
+        return creados;
+    }
+
+    public void setCreados(Integer creados) {
+        this.creados = creados;
+    }
+
+    public Integer getActualizados() {
+        return actualizados;
+    }
+
+    public void setActualizados(Integer actualizados) {
+        this.actualizados = actualizados;
+    }
+
+    public Integer getConErrores() {
+        return conErrores;
+    }
+
+    public void setConErrores(Integer conErrores) {
+        this.conErrores = conErrores;
+    }
+
+    public List<ErrorImportacionDTO> getErrores() {
+        return errores;
+    }
+
+    public void setErrores(List<ErrorImportacionDTO> errores) {
+        this.errores = errores;
+    }
+
+    public Long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public void setMilisegundos(Long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+}
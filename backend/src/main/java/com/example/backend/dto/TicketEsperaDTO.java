@@ -0,0 +1,87 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class TicketEsperaDTO {
+    private String id;
+    private Integer numeroCaja;
+    private String nombreEspera;
+    private String usuarioNombre;
+    private LocalDateTime fechaEspera;
+    private LocalDateTime expira;
+    private Double total;
+    private Integer articulos;
+    private VentaDTO venta;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Integer getNumeroCaja() {
+        return numeroCaja;
+    }
+
+    public void setNumeroCaja(Integer numeroCaja) {
+        this.numeroCaja = numeroCaja;
+    }
+
+    public String getNombreEspera() {
+        return nombreEspera;
+    }
+
+    public void setNombreEspera(String nombreEspera) {
+        this.nombreEspera = nombreEspera;
+    }
+
+    public String getUsuarioNombre() {
+        return usuarioNombre;
+    }
+
+    public void setUsuarioNombre(String usuarioNombre) {
+        this.usuarioNombre = usuarioNombre;
+    }
+
+    public LocalDateTime getFechaEspera() {
+        return fechaEspera;
+    }
+
+    public void setFechaEspera(LocalDateTime fechaEspera) {
+        this.fechaEspera = fechaEspera;
+    }
+
+    public LocalDateTime getExpira() {
+        return expira;
+    }
+
+    public void setExpira(LocalDateTime expira) {
+        this.expira = expira;
+    }
+
+    public Double getTotal() {
+        return total;
+    }
+
+    public void setTotal(Double total) {
+        this.total = total;
+    }
+
+    public Integer getArticulos() {
+        return articulos;
+    }
+
+    public void setArticulos(Integer articulos) {
+        this.articulos = articulos;
+    }
+
+    public VentaDTO getVenta() {
+        return venta;
+    }
+
+    public void setVenta(VentaDTO venta) {
+        this.venta = venta;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class TiempoEntregaDTO {
+    private String proveedor;
+    private Integer dias;
+    private LocalDateTime fechaActualizacion;
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public void setProveedor(String proveedor) {
+        this.proveedor = proveedor;
+    }
+
+    public Integer getDias() {
+        return dias;
+    }
+
+    public void setDias(Integer dias) {
+        this.dias = dias;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+}
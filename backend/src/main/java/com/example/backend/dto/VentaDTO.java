@@ -5,6 +5,7 @@ import java.util.List;
 
 public class VentaDTO {
     private Long id;
+    private Long version;
     private Long clienteId;
     private String clienteNombre;
     private String fecha;
@@ -15,6 +16,7 @@ public class VentaDTO {
     private String metodoPago;
     private Double montoPagado;
     private Double cambio;
+    private Double totalDevuelto;
     private String estado;
     private String observaciones;
     private Long usuarioId;
@@ -22,6 +24,7 @@ public class VentaDTO {
     private Boolean enEspera;
     private String nombreEspera;
     private String fechaEspera;
+    private String esperaId;
     private Long facturaId;
     private Boolean facturada;
     private LocalDateTime fechaCreacion;
@@ -117,6 +120,14 @@ public class VentaDTO {
         this.cambio = cambio;
     }
 
+    public Double getTotalDevuelto() {
+        return totalDevuelto;
+    }
+
+    public void setTotalDevuelto(Double totalDevuelto) {
+        this.totalDevuelto = totalDevuelto;
+    }
+
     public String getEstado() {
         return estado;
     }
@@ -173,6 +184,14 @@ public class VentaDTO {
         this.fechaEspera = fechaEspera;
     }
 
+    public String getEsperaId() {
+        return esperaId;
+    }
+
+    public void setEsperaId(String esperaId) {
+        this.esperaId = esperaId;
+    }
+
     public Long getFacturaId() {
         return facturaId;
     }
@@ -212,4 +231,12 @@ public class VentaDTO {
     public void setDetalles(List<DetalleVentaDTO> detalles) {
         this.detalles = detalles;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
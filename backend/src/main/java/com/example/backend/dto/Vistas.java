@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vistas con nombre para los listados de alto volumen. Cada vista es la lista de campos
+ * del DTO que se consultan y se envían; "completa" (o no indicar nada) conserva la
+ * respuesta de siempre.
+ */
+public final class Vistas {
+
+    public static final String COMPLETA = "completa";
+
+    public static final Map<String, List<String>> PRODUCTO = Map.of(
+            "pos", List.of("id", "nombre", "codigoBarras", "precioVenta", "stockTotal", "tipoRegulacion"),
+            "resumen", List.of("id", "nombre", "codigoBarras", "sku", "categoria", "laboratorio", "presentacion",
+                    "precioVenta", "porcentajeIVA", "porcentajeIEPS", "stockTotal", "tipoRegulacion", "activo"));
+
+    public static final Map<String, List<String>> VENTA = Map.of(
+            "pos", List.of("id", "fechaCreacion", "total", "metodoPago", "estado"),
+            "resumen", List.of("id", "fechaCreacion", "clienteId", "clienteNombre", "usuarioNombre", "subtotal",
+                    "impuesto", "total", "totalDevuelto", "metodoPago", "estado", "facturada"));
+
+    private Vistas() {
+    }
+
+    /**
+     * Campos pedidos por ?campos=a,b,c o, si no vienen, por ?vista=nombre. Devuelve null
+     * para la vista completa.
+     */
+    public static List<String> resolver(Map<String, List<String>> vistas, String vista, String campos) {
+        if (campos != null && !campos.isBlank()) {
+            LinkedHashSet<String> lista = new LinkedHashSet<>();
+            for (String c : campos.split(",")) {
+                if (!c.isBlank()) {
+                    lista.add(c.trim());
+                }
+            }
+            return new ArrayList<>(lista);
+        }
+        if (vista == null || vista.isBlank() || COMPLETA.equals(vista)) {
+            return null;
+        }
+        List<String> definidos = vistas.get(vista);
+        if (definidos == null) {
+            throw new IllegalArgumentException("Vista desconocida: " + vista + "; disponibles: "
+                    + String.join(", ", vistas.keySet()) + ", " + COMPLETA);
+        }
+        return definidos;
+    }
+}
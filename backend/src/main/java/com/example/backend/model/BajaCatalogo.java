@@ -0,0 +1,65 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Lápida de un producto eliminado. Permite que las cajas que sincronizan por versión se
+ * enteren de la baja aunque el registro ya no exista en productos.
+ */
+@Entity
+@Table(name = "bajas_catalogo", indexes = @Index(name = "idx_bajas_catalogo_version", columnList = "version_catalogo"))
+public class BajaCatalogo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long productoId;
+    private Long versionCatalogo;
+    private LocalDateTime fechaBaja;
+
+    @PrePersist
+    public void prePersist() {
+        this.fechaBaja = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public Long getVersionCatalogo() {
+        return versionCatalogo;
+    }
+
+    public void setVersionCatalogo(Long versionCatalogo) {
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    public LocalDateTime getFechaBaja() {
+        return fechaBaja;
+    }
+
+    public void setFechaBaja(LocalDateTime fechaBaja) {
+        this.fechaBaja = fechaBaja;
+    }
+}
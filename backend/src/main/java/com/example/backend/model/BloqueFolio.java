@@ -0,0 +1,75 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Rango [inicio, fin] de folios reservado en memoria. Mientras exista el registro, los
+ * folios del rango que no aparezcan en facturas se consideran libres y se recuperan al
+ * reiniciar.
+ */
+@Entity
+@Table(name = "bloques_folio", indexes = @Index(name = "idx_bloques_folio_serie", columnList = "serie, inicio"))
+public class BloqueFolio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String serie;
+    private Long inicio;
+    private Long fin;
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    public void prePersist() {
+        this.fechaCreacion = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSerie() {
+        return serie;
+    }
+
+    public void setSerie(String serie) {
+        this.serie = serie;
+    }
+
+    public Long getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(Long inicio) {
+        this.inicio = inicio;
+    }
+
+    public Long getFin() {
+        return fin;
+    }
+
+    public void setFin(Long fin) {
+        this.fin = fin;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+}
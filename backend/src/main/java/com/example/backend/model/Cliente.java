@@ -2,21 +2,44 @@ package com.example.backend.model;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.example.backend.util.Texto;
 
 @Entity
-@Table(name = "clientes")
+@Table(name = "clientes", indexes = {
+        @Index(name = "idx_clientes_dni", columnList = "dni"),
+        @Index(name = "idx_clientes_rfc", columnList = "rfc"),
+        @Index(name = "idx_clientes_telefono", columnList = "telefono"),
+        @Index(name = "idx_clientes_email", columnList = "email"),
+        @Index(name = "idx_clientes_nombre_busqueda", columnList = "nombre_busqueda, id"),
+        @Index(name = "idx_clientes_apellido_busqueda", columnList = "apellido_busqueda, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clientes")
+@DynamicUpdate
 public class Cliente {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     private String nombre;
     private String apellido;
     private String email;
@@ -34,15 +57,30 @@ public class Cliente {
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaActualizacion;
 
+    // Columnas normalizadas para búsqueda por prefijo ("nombre apellido" y "apellido nombre")
+    @Column(name = "nombre_busqueda")
+    private String nombreBusqueda;
+    @Column(name = "apellido_busqueda")
+    private String apellidoBusqueda;
+
     @PrePersist
     public void prePersist() {
         this.fechaCreacion = LocalDateTime.now();
         this.fechaActualizacion = LocalDateTime.now();
+        actualizarBusqueda();
     }
 
     @PreUpdate
     public void preUpdate() {
         this.fechaActualizacion = LocalDateTime.now();
+        actualizarBusqueda();
+    }
+
+    private void actualizarBusqueda() {
+        String n = Texto.normalizar(nombre);
+        String a = Texto.normalizar(apellido);
+        this.nombreBusqueda = (n + " " + a).trim();
+        this.apellidoBusqueda = (a + " " + n).trim();
     }
 
     // Getters y Setters
@@ -181,4 +219,20 @@ public class Cliente {
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    public String getNombreBusqueda() {
+        return nombreBusqueda;
+    }
+
+    public String getApellidoBusqueda() {
+        return apellidoBusqueda;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
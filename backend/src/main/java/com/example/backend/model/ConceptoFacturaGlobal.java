@@ -0,0 +1,104 @@
+package com.example.backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/** Acumulado de una factura global para una combinación de tasas de IVA e IEPS. */
+@Entity
+@Table(name = "conceptos_factura_global")
+public class ConceptoFacturaGlobal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "factura_id")
+    private Factura factura;
+
+    private long ivaPuntosBase;
+    private long iepsPuntosBase;
+    private long importeCentavos;
+    private long descuentoCentavos;
+    private long iepsCentavos;
+    private long ivaCentavos;
+    private long cantidadLineas;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Factura getFactura() {
+        return factura;
+    }
+
+    public void setFactura(Factura factura) {
+        this.factura = factura;
+    }
+
+    public long getIvaPuntosBase() {
+        return ivaPuntosBase;
+    }
+
+    public void setIvaPuntosBase(long ivaPuntosBase) {
+        this.ivaPuntosBase = ivaPuntosBase;
+    }
+
+    public long getIepsPuntosBase() {
+        return iepsPuntosBase;
+    }
+
+    public void setIepsPuntosBase(long iepsPuntosBase) {
+        this.iepsPuntosBase = iepsPuntosBase;
+    }
+
+    public long getImporteCentavos() {
+        return importeCentavos;
+    }
+
+    public void setImporteCentavos(long importeCentavos) {
+        this.importeCentavos = importeCentavos;
+    }
+
+    public long getDescuentoCentavos() {
+        return descuentoCentavos;
+    }
+
+    public void setDescuentoCentavos(long descuentoCentavos) {
+        this.descuentoCentavos = descuentoCentavos;
+    }
+
+    public long getIepsCentavos() {
+        return iepsCentavos;
+    }
+
+    public void setIepsCentavos(long iepsCentavos) {
+        this.iepsCentavos = iepsCentavos;
+    }
+
+    public long getIvaCentavos() {
+        return ivaCentavos;
+    }
+
+    public void setIvaCentavos(long ivaCentavos) {
+        this.ivaCentavos = ivaCentavos;
+    }
+
+    public long getCantidadLineas() {
+        return cantidadLineas;
+    }
+
+    public void setCantidadLineas(long cantidadLineas) {
+        this.cantidadLineas = cantidadLineas;
+    }
+}
@@ -9,6 +9,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
+import com.example.backend.util.Dinero;
+
 @Entity
 @Table(name = "cortes_caja")
 public class CorteCaja {
@@ -26,17 +28,17 @@ public class CorteCaja {
     private LocalDateTime fechaApertura;
     private LocalDateTime fechaCierre;
 
-    private Double ventasEfectivo;
-    private Double ventasTarjeta;
-    private Double ventasTransferencia;
-    private Double totalVentas;
-    private Double totalDevoluciones;
-    private Double retirosEfectivo;
-    private Double fondoInicial;
-
-    private Double efectivoDeclarado;
-    private Double efectivoEsperado;
-    private Double diferencia;
+    private long ventasEfectivoCentavos;
+    private long ventasTarjetaCentavos;
+    private long ventasTransferenciaCentavos;
+    private long totalVentasCentavos;
+    private long totalDevolucionesCentavos;
+    private long retirosEfectivoCentavos;
+    private long fondoInicialCentavos;
+
+    private long efectivoDeclaradoCentavos;
+    private long efectivoEsperadoCentavos;
+    private long diferenciaCentavos;
     private String estado; // ABIERTO, CERRADO
     private String observaciones;
 
@@ -53,6 +55,21 @@ public class CorteCaja {
         }
     }
 
+    /** Acumula una venta en centavos sin pasar por Double. */
+    public void registrarVenta(long totalCentavos, String metodoPago) {
+        this.totalVentasCentavos += totalCentavos;
+        this.cantidadVentas = (cantidadVentas != null ? cantidadVentas : 0) + 1;
+
+        if ("TARJETA".equalsIgnoreCase(metodoPago) || "TARJETA_CREDITO".equalsIgnoreCase(metodoPago)
+                || "TARJETA_DEBITO".equalsIgnoreCase(metodoPago)) {
+            this.ventasTarjetaCentavos += totalCentavos;
+        } else if ("TRANSFERENCIA".equalsIgnoreCase(metodoPago)) {
+            this.ventasTransferenciaCentavos += totalCentavos;
+        } else {
+            this.ventasEfectivoCentavos += totalCentavos;
+        }
+    }
+
     // Getters y Setters
     public Long getId() {
         return id;
@@ -119,83 +136,163 @@ public class CorteCaja {
     }
 
     public Double getVentasEfectivo() {
-        return ventasEfectivo;
+        return Dinero.aPesos(ventasEfectivoCentavos);
     }
 
     public void setVentasEfectivo(Double ventasEfectivo) {
-        this.ventasEfectivo = ventasEfectivo;
+        this.ventasEfectivoCentavos = Dinero.aCentavosOCero(ventasEfectivo);
+    }
+
+    public long getVentasEfectivoCentavos() {
+        return ventasEfectivoCentavos;
+    }
+
+    public void setVentasEfectivoCentavos(long ventasEfectivoCentavos) {
+        this.ventasEfectivoCentavos = ventasEfectivoCentavos;
     }
 
     public Double getVentasTarjeta() {
-        return ventasTarjeta;
+        return Dinero.aPesos(ventasTarjetaCentavos);
     }
 
     public void setVentasTarjeta(Double ventasTarjeta) {
-        this.ventasTarjeta = ventasTarjeta;
+        this.ventasTarjetaCentavos = Dinero.aCentavosOCero(ventasTarjeta);
+    }
+
+    public long getVentasTarjetaCentavos() {
+        return ventasTarjetaCentavos;
+    }
+
+    public void setVentasTarjetaCentavos(long ventasTarjetaCentavos) {
+        this.ventasTarjetaCentavos = ventasTarjetaCentavos;
     }
 
     public Double getVentasTransferencia() {
-        return ventasTransferencia;
+        return Dinero.aPesos(ventasTransferenciaCentavos);
     }
 
     public void setVentasTransferencia(Double ventasTransferencia) {
-        this.ventasTransferencia = ventasTransferencia;
+        this.ventasTransferenciaCentavos = Dinero.aCentavosOCero(ventasTransferencia);
+    }
+
+    public long getVentasTransferenciaCentavos() {
+        return ventasTransferenciaCentavos;
+    }
+
+    public void setVentasTransferenciaCentavos(long ventasTransferenciaCentavos) {
+        this.ventasTransferenciaCentavos = ventasTransferenciaCentavos;
     }
 
     public Double getTotalVentas() {
-        return totalVentas;
+        return Dinero.aPesos(totalVentasCentavos);
     }
 
     public void setTotalVentas(Double totalVentas) {
-        this.totalVentas = totalVentas;
+        this.totalVentasCentavos = Dinero.aCentavosOCero(totalVentas);
+    }
+
+    public long getTotalVentasCentavos() {
+        return totalVentasCentavos;
+    }
+
+    public void setTotalVentasCentavos(long totalVentasCentavos) {
+        this.totalVentasCentavos = totalVentasCentavos;
     }
 
     public Double getTotalDevoluciones() {
-        return totalDevoluciones;
+        return Dinero.aPesos(totalDevolucionesCentavos);
     }
 
     public void setTotalDevoluciones(Double totalDevoluciones) {
-        this.totalDevoluciones = totalDevoluciones;
+        this.totalDevolucionesCentavos = Dinero.aCentavosOCero(totalDevoluciones);
+    }
+
+    public long getTotalDevolucionesCentavos() {
+        return totalDevolucionesCentavos;
+    }
+
+    public void setTotalDevolucionesCentavos(long totalDevolucionesCentavos) {
+        this.totalDevolucionesCentavos = totalDevolucionesCentavos;
     }
 
     public Double getRetirosEfectivo() {
-        return retirosEfectivo;
+        return Dinero.aPesos(retirosEfectivoCentavos);
     }
 
     public void setRetirosEfectivo(Double retirosEfectivo) {
-        this.retirosEfectivo = retirosEfectivo;
+        this.retirosEfectivoCentavos = Dinero.aCentavosOCero(retirosEfectivo);
+    }
+
+    public long getRetirosEfectivoCentavos() {
+        return retirosEfectivoCentavos;
+    }
+
+    public void setRetirosEfectivoCentavos(long retirosEfectivoCentavos) {
+        this.retirosEfectivoCentavos = retirosEfectivoCentavos;
     }
 
     public Double getFondoInicial() {
-        return fondoInicial;
+        return Dinero.aPesos(fondoInicialCentavos);
     }
 
     public void setFondoInicial(Double fondoInicial) {
-        this.fondoInicial = fondoInicial;
+        this.fondoInicialCentavos = Dinero.aCentavosOCero(fondoInicial);
+    }
+
+    public long getFondoInicialCentavos() {
+        return fondoInicialCentavos;
+    }
+
+    public void setFondoInicialCentavos(long fondoInicialCentavos) {
+        this.fondoInicialCentavos = fondoInicialCentavos;
     }
 
     public Double getEfectivoDeclarado() {
-        return efectivoDeclarado;
+        return Dinero.aPesos(efectivoDeclaradoCentavos);
     }
 
     public void setEfectivoDeclarado(Double efectivoDeclarado) {
-        this.efectivoDeclarado = efectivoDeclarado;
+        this.efectivoDeclaradoCentavos = Dinero.aCentavosOCero(efectivoDeclarado);
+    }
+
+    public long getEfectivoDeclaradoCentavos() {
+        return efectivoDeclaradoCentavos;
+    }
+
+    public void setEfectivoDeclaradoCentavos(long efectivoDeclaradoCentavos) {
+        this.efectivoDeclaradoCentavos = efectivoDeclaradoCentavos;
     }
 
     public Double getEfectivoEsperado() {
-        return efectivoEsperado;
+        return Dinero.aPesos(efectivoEsperadoCentavos);
     }
 
     public void setEfectivoEsperado(Double efectivoEsperado) {
-        this.efectivoEsperado = efectivoEsperado;
+        this.efectivoEsperadoCentavos = Dinero.aCentavosOCero(efectivoEsperado);
+    }
+
+    public long getEfectivoEsperadoCentavos() {
+        return efectivoEsperadoCentavos;
+    }
+
+    public void setEfectivoEsperadoCentavos(long efectivoEsperadoCentavos) {
+        this.efectivoEsperadoCentavos = efectivoEsperadoCentavos;
     }
 
     public Double getDiferencia() {
-        return diferencia;
+        return Dinero.aPesos(diferenciaCentavos);
     }
 
     public void setDiferencia(Double diferencia) {
-        this.diferencia = diferencia;
+        this.diferenciaCentavos = Dinero.aCentavosOCero(diferencia);
+    }
+
+    public long getDiferenciaCentavos() {
+        return diferenciaCentavos;
+    }
+
+    public void setDiferenciaCentavos(long diferenciaCentavos) {
+        this.diferenciaCentavos = diferenciaCentavos;
     }
 
     public String getEstado() {
@@ -4,13 +4,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import com.example.backend.util.Dinero;
 
 @Entity
 @Table(name = "detalle_ventas")
 public class DetalleVenta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_venta_seq")
+    @SequenceGenerator(name = "detalle_venta_seq", sequenceName = "detalle_ventas_seq", allocationSize = 50)
     private Long id;
 
     private Long productoId;
@@ -20,15 +25,24 @@ public class DetalleVenta {
     private String numeroLote;
     private String fechaVencimientoLote;
     private Integer cantidad;
-    private Double precioUnitario;
+    private Integer cantidadDevuelta;
+    private Long precioUnitarioCentavos;
     private Double descuento;
-    private Double subtotal;
+    private Long subtotalCentavos;
     private String tipoRegulacion;
 
-    // Simplificamos la receta evitando entidad separada por ahora si no es
-    // requerida
-    // En caso de querer implementarse luego, se puede añadir
-    // private RecetaMedica recetaMedica;
+    // Impuestos con los que se cobró la línea: la factura se emite con estos importes y
+    // no con las tasas vigentes del catálogo
+    private Long descuentoClienteCentavos;
+    private Long iepsPuntosBase;
+    private Long iepsCentavos;
+    private Long ivaPuntosBase;
+    private Long ivaCentavos;
+
+    // La receta se guarda en recetas_medicas (que apunta al detalle); aquí solo
+    // llega junto con la venta
+    @Transient
+    private RecetaMedica recetaMedica;
 
     // Getters y Setters
     public Long getId() {
@@ -96,11 +110,27 @@ public class DetalleVenta {
     }
 
     public Double getPrecioUnitario() {
-        return precioUnitario;
+        return Dinero.aPesos(precioUnitarioCentavos);
     }
 
     public void setPrecioUnitario(Double precioUnitario) {
-        this.precioUnitario = precioUnitario;
+        this.precioUnitarioCentavos = Dinero.aCentavos(precioUnitario);
+    }
+
+    public Integer getCantidadDevuelta() {
+        return cantidadDevuelta;
+    }
+
+    public void setCantidadDevuelta(Integer cantidadDevuelta) {
+        this.cantidadDevuelta = cantidadDevuelta;
+    }
+
+    public Long getPrecioUnitarioCentavos() {
+        return precioUnitarioCentavos;
+    }
+
+    public void setPrecioUnitarioCentavos(Long precioUnitarioCentavos) {
+        this.precioUnitarioCentavos = precioUnitarioCentavos;
     }
 
     public Double getDescuento() {
@@ -112,11 +142,19 @@ public class DetalleVenta {
     }
 
     public Double getSubtotal() {
-        return subtotal;
+        return Dinero.aPesos(subtotalCentavos);
     }
 
     public void setSubtotal(Double subtotal) {
-        this.subtotal = subtotal;
+        this.subtotalCentavos = Dinero.aCentavos(subtotal);
+    }
+
+    public Long getSubtotalCentavos() {
+        return subtotalCentavos;
+    }
+
+    public void setSubtotalCentavos(Long subtotalCentavos) {
+        this.subtotalCentavos = subtotalCentavos;
     }
 
     public String getTipoRegulacion() {
@@ -126,4 +164,52 @@ public class DetalleVenta {
     public void setTipoRegulacion(String tipoRegulacion) {
         this.tipoRegulacion = tipoRegulacion;
     }
+
+    public Long getDescuentoClienteCentavos() {
+        return descuentoClienteCentavos;
+    }
+
+    public void setDescuentoClienteCentavos(Long descuentoClienteCentavos) {
+        this.descuentoClienteCentavos = descuentoClienteCentavos;
+    }
+
+    public Long getIepsPuntosBase() {
+        return iepsPuntosBase;
+    }
+
+    public void setIepsPuntosBase(Long iepsPuntosBase) {
+        this.iepsPuntosBase = iepsPuntosBase;
+    }
+
+    public Long getIepsCentavos() {
+        return iepsCentavos;
+    }
+
+    public void setIepsCentavos(Long iepsCentavos) {
+        this.iepsCentavos = iepsCentavos;
+    }
+
+    public Long getIvaPuntosBase() {
+        return ivaPuntosBase;
+    }
+
+    public void setIvaPuntosBase(Long ivaPuntosBase) {
+        this.ivaPuntosBase = ivaPuntosBase;
+    }
+
+    public Long getIvaCentavos() {
+        return ivaCentavos;
+    }
+
+    public void setIvaCentavos(Long ivaCentavos) {
+        this.ivaCentavos = ivaCentavos;
+    }
+
+    public RecetaMedica getRecetaMedica() {
+        return recetaMedica;
+    }
+
+    public void setRecetaMedica(RecetaMedica recetaMedica) {
+        this.recetaMedica = recetaMedica;
+    }
 }
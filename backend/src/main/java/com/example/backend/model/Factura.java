@@ -1,25 +1,32 @@
 package com.example.backend.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "facturas")
+@Table(name = "facturas",
+        indexes = @Index(name = "idx_facturas_cola_timbrado", columnList = "estatus, proximo_intento"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_facturas_serie_folio", columnNames = {"serie", "folio"}))
 public class Factura {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    // Perezosa: los listados solo necesitan el id, que el proxy ya trae
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "venta_id")
     private Venta venta;
 
@@ -29,12 +36,24 @@ public class Factura {
     private String regimenFiscal;
     private String codigoPostal;
     private String folioCfdi;
-
-    private String estatus; // PENDIENTE, TIMBRADA, CANCELADA
+    private String serie;
+    private Long folio;
+    private Boolean global;
+    private LocalDate periodoDesde;
+    private LocalDate periodoHasta;
+    private Integer cantidadVentas;
+
+    private String estatus; // PENDIENTE, EN_COLA, TIMBRANDO, TIMBRADA, ERROR, CANCELADA
     private String urlXml;
     private String urlPdf;
 
     private LocalDateTime fechaTimbrado;
+    private String uuidFiscal;
+    private Integer intentosTimbrado;
+    private LocalDateTime proximoIntento;
+    private String errorTimbrado;
+    // Ficha del ciclo de la cola que la tiene en TIMBRANDO; solo ese ciclo escribe el resultado
+    private String reclamo;
     private LocalDateTime fechaCreacion;
 
     @PrePersist
@@ -106,6 +125,54 @@ public class Factura {
         this.folioCfdi = folioCfdi;
     }
 
+    public String getSerie() {
+        return serie;
+    }
+
+    public void setSerie(String serie) {
+        this.serie = serie;
+    }
+
+    public Long getFolio() {
+        return folio;
+    }
+
+    public void setFolio(Long folio) {
+        this.folio = folio;
+    }
+
+    public Boolean getGlobal() {
+        return global;
+    }
+
+    public void setGlobal(Boolean global) {
+        this.global = global;
+    }
+
+    public LocalDate getPeriodoDesde() {
+        return periodoDesde;
+    }
+
+    public void setPeriodoDesde(LocalDate periodoDesde) {
+        this.periodoDesde = periodoDesde;
+    }
+
+    public LocalDate getPeriodoHasta() {
+        return periodoHasta;
+    }
+
+    public void setPeriodoHasta(LocalDate periodoHasta) {
+        this.periodoHasta = periodoHasta;
+    }
+
+    public Integer getCantidadVentas() {
+        return cantidadVentas;
+    }
+
+    public void setCantidadVentas(Integer cantidadVentas) {
+        this.cantidadVentas = cantidadVentas;
+    }
+
     public String getEstatus() {
         return estatus;
     }
@@ -145,4 +212,44 @@ public class Factura {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
+
+    public String getUuidFiscal() {
+        return uuidFiscal;
+    }
+
+    public void setUuidFiscal(String uuidFiscal) {
+        this.uuidFiscal = uuidFiscal;
+    }
+
+    public Integer getIntentosTimbrado() {
+        return intentosTimbrado;
+    }
+
+    public void setIntentosTimbrado(Integer intentosTimbrado) {
+        this.intentosTimbrado = intentosTimbrado;
+    }
+
+    public LocalDateTime getProximoIntento() {
+        return proximoIntento;
+    }
+
+    public void setProximoIntento(LocalDateTime proximoIntento) {
+        this.proximoIntento = proximoIntento;
+    }
+
+    public String getErrorTimbrado() {
+        return errorTimbrado;
+    }
+
+    public void setErrorTimbrado(String errorTimbrado) {
+        this.errorTimbrado = errorTimbrado;
+    }
+
+    public String getReclamo() {
+        return reclamo;
+    }
+
+    public void setReclamo(String reclamo) {
+        this.reclamo = reclamo;
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Renglón del historial de precios: valores anterior y nuevo de un producto en una versión
+ * del catálogo, en centavos. Los cambios masivos escriben un renglón por producto tocado.
+ */
+@Entity
+@Table(name = "historial_precios", indexes = {
+        @Index(name = "idx_historial_precios_producto", columnList = "producto_id, version_catalogo"),
+        @Index(name = "idx_historial_precios_version", columnList = "version_catalogo")
+})
+public class HistorialPrecio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historial_precio_seq")
+    @SequenceGenerator(name = "historial_precio_seq", sequenceName = "historial_precios_seq", allocationSize = 50)
+    private Long id;
+
+    private Long productoId;
+    private Long versionCatalogo;
+    private Long precioVentaAnteriorCentavos;
+    private Long precioVentaCentavos;
+    private Long precioCompraAnteriorCentavos;
+    private Long precioCompraCentavos;
+    private String motivo;
+    private String usuario;
+    private LocalDateTime fecha;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.fecha == null) {
+            this.fecha = LocalDateTime.now();
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public Long getVersionCatalogo() {
+        return versionCatalogo;
+    }
+
+    public void setVersionCatalogo(Long versionCatalogo) {
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    public Long getPrecioVentaAnteriorCentavos() {
+        return precioVentaAnteriorCentavos;
+    }
+
+    public void setPrecioVentaAnteriorCentavos(Long precioVentaAnteriorCentavos) {
+        this.precioVentaAnteriorCentavos = precioVentaAnteriorCentavos;
+    }
+
+    public Long getPrecioVentaCentavos() {
+        return precioVentaCentavos;
+    }
+
+    public void setPrecioVentaCentavos(Long precioVentaCentavos) {
+        this.precioVentaCentavos = precioVentaCentavos;
+    }
+
+    public Long getPrecioCompraAnteriorCentavos() {
+        return precioCompraAnteriorCentavos;
+    }
+
+    public void setPrecioCompraAnteriorCentavos(Long precioCompraAnteriorCentavos) {
+        this.precioCompraAnteriorCentavos = precioCompraAnteriorCentavos;
+    }
+
+    public Long getPrecioCompraCentavos() {
+        return precioCompraCentavos;
+    }
+
+    public void setPrecioCompraCentavos(Long precioCompraCentavos) {
+        this.precioCompraCentavos = precioCompraCentavos;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+}
@@ -2,32 +2,54 @@ package com.example.backend.model;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 @Entity
-@Table(name = "lotes")
+@Table(name = "lotes", indexes = {
+        @Index(name = "idx_lotes_numero_lote", columnList = "numero_lote")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "lotes")
 public class Lote {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lote_seq")
+    @SequenceGenerator(name = "lote_seq", sequenceName = "lotes_seq", allocationSize = 50)
     private Long id;
 
+    // Control optimista de las ediciones. Las existencias no lo incrementan: las escribe
+    // ExistenciaService con su propio UPDATE y el UPDATE de la entidad nunca las incluye
+    @Version
+    private Long version;
+
     private Long productoId;
     private String numeroLote;
     private String fechaVencimiento;
     private String fechaIngreso;
     private Integer cantidadInicial;
+    @OptimisticLock(excluded = true)
+    @Column(updatable = false)
     private Integer cantidadDisponible;
     private Double precioCompra;
     private String proveedor;
     private String ubicacionAnaquel;
     private Boolean activo;
     private LocalDateTime fechaCreacion;
+    @OptimisticLock(excluded = true)
     private LocalDateTime fechaActualizacion;
 
     @PrePersist
@@ -145,4 +167,12 @@ public class Lote {
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -10,14 +10,17 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "movimientos_inventario")
 public class MovimientoInventario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimiento_inventario_seq")
+    @SequenceGenerator(name = "movimiento_inventario_seq", sequenceName = "movimientos_inventario_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,8 +41,13 @@ public class MovimientoInventario {
     private String referencia;
     private String usuario;
     private String observaciones;
+    private Long ventaId;
     private LocalDateTime fechaCreacion;
 
+    // Solo viaja con el movimiento para asentarla en el libro de control
+    @Transient
+    private RecetaMedica recetaMedica;
+
     @PrePersist
     public void prePersist() {
         this.fechaCreacion = LocalDateTime.now();
@@ -148,4 +156,20 @@ public class MovimientoInventario {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
+
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public RecetaMedica getRecetaMedica() {
+        return recetaMedica;
+    }
+
+    public void setRecetaMedica(RecetaMedica recetaMedica) {
+        this.recetaMedica = recetaMedica;
+    }
 }
@@ -2,21 +2,42 @@ package com.example.backend.model;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_version_catalogo", columnList = "version_catalogo"),
+        @Index(name = "idx_productos_codigo_barras", columnList = "codigo_barras"),
+        @Index(name = "idx_productos_sku", columnList = "sku")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "productos")
 public class Producto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+    @SequenceGenerator(name = "producto_seq", sequenceName = "productos_seq", allocationSize = 50)
     private Long id;
 
+    // Control optimista de las ediciones. Las existencias no lo incrementan: las escribe
+    // ExistenciaService con su propio UPDATE y el UPDATE de la entidad nunca las incluye
+    @Version
+    private Long version;
+
     private String nombre;
     private String descripcion;
     private String categoria;
@@ -24,6 +45,8 @@ public class Producto {
     private Double precioCompra;
     private Double porcentajeIVA;
     private Double porcentajeIEPS;
+    @OptimisticLock(excluded = true)
+    @Column(updatable = false)
     private Integer stockTotal;
     private Integer stockMinimo;
     private Integer stockOptimo;
@@ -37,8 +60,12 @@ public class Producto {
     private String ubicacionAnaquel;
     private Boolean activo;
     private LocalDateTime fechaCreacion;
+    @OptimisticLock(excluded = true)
     private LocalDateTime fechaActualizacion;
 
+    // Secuencia de cambios del catálogo; la asigna ProductoService en cada alta o edición
+    private Long versionCatalogo;
+
     @PrePersist
     public void prePersist() {
         this.fechaCreacion = LocalDateTime.now();
@@ -226,4 +253,20 @@ public class Producto {
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    public Long getVersionCatalogo() {
+        return versionCatalogo;
+    }
+
+    public void setVersionCatalogo(Long versionCatalogo) {
+        this.versionCatalogo = versionCatalogo;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,109 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Encabezado de una recepción de mercancía del proveedor. Sus renglones quedan como
+ * movimientos ENTRADA con referencia "Recepción ID: n"; aquí solo se guardan los totales.
+ */
+@Entity
+@Table(name = "recepciones_mercancia")
+public class RecepcionMercancia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String proveedor;
+    private String folioProveedor;
+    private String usuario;
+    private String observaciones;
+    private Integer totalLineas;
+    private Integer piezas;
+    private Long costoTotalCentavos;
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    public void prePersist() {
+        this.fechaCreacion = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public void setProveedor(String proveedor) {
+        this.proveedor = proveedor;
+    }
+
+    public String getFolioProveedor() {
+        return folioProveedor;
+    }
+
+    public void setFolioProveedor(String folioProveedor) {
+        this.folioProveedor = folioProveedor;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getObservaciones() {
+        return observaciones;
+    }
+
+    public void setObservaciones(String observaciones) {
+        this.observaciones = observaciones;
+    }
+
+    public Integer getTotalLineas() {
+        return totalLineas;
+    }
+
+    public void setTotalLineas(Integer totalLineas) {
+        this.totalLineas = totalLineas;
+    }
+
+    public Integer getPiezas() {
+        return piezas;
+    }
+
+    public void setPiezas(Integer piezas) {
+        this.piezas = piezas;
+    }
+
+    public Long getCostoTotalCentavos() {
+        return costoTotalCentavos;
+    }
+
+    public void setCostoTotalCentavos(Long costoTotalCentavos) {
+        this.costoTotalCentavos = costoTotalCentavos;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -20,7 +21,8 @@ public class RecetaMedica {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    // Perezosa: los listados solo necesitan el id, que el proxy ya trae
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "detalle_venta_id")
     private DetalleVenta detalleVenta;
 
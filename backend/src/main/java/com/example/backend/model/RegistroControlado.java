@@ -0,0 +1,210 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Asiento del libro de control de medicamentos controlados. Se escribe en la misma
+ * transacción que el movimiento de inventario y guarda ya desnormalizados los datos de
+ * producto, lote y receta, con los saldos resultantes, para que el libro se exporte sin
+ * cruzar tablas.
+ */
+@Entity
+@Table(name = "libro_control", indexes = {
+        @Index(name = "idx_libro_control_fecha", columnList = "fecha"),
+        @Index(name = "idx_libro_control_producto_fecha", columnList = "producto_id, fecha")
+})
+public class RegistroControlado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "libro_control_seq")
+    @SequenceGenerator(name = "libro_control_seq", sequenceName = "libro_control_seq", allocationSize = 50)
+    private Long id;
+
+    private Long productoId;
+    private String productoNombre;
+    private String sustanciaActiva;
+    private String tipoRegulacion;
+    private Long loteId;
+    private String numeroLote;
+    private String tipoMovimiento;
+    private Integer cantidad;
+    private Integer saldoProducto;
+    private Integer saldoLote;
+    private Long movimientoId;
+    private Long ventaId;
+    private Long recetaId;
+    private String folioReceta;
+    private String cedulaMedico;
+    private String nombreMedico;
+    private String usuario;
+    private String referencia;
+    private LocalDateTime fecha;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public String getProductoNombre() {
+        return productoNombre;
+    }
+
+    public void setProductoNombre(String productoNombre) {
+        this.productoNombre = productoNombre;
+    }
+
+    public String getSustanciaActiva() {
+        return sustanciaActiva;
+    }
+
+    public void setSustanciaActiva(String sustanciaActiva) {
+        this.sustanciaActiva = sustanciaActiva;
+    }
+
+    public String getTipoRegulacion() {
+        return tipoRegulacion;
+    }
+
+    public void setTipoRegulacion(String tipoRegulacion) {
+        this.tipoRegulacion = tipoRegulacion;
+    }
+
+    public Long getLoteId() {
+        return loteId;
+    }
+
+    public void setLoteId(Long loteId) {
+        this.loteId = loteId;
+    }
+
+    public String getNumeroLote() {
+        return numeroLote;
+    }
+
+    public void setNumeroLote(String numeroLote) {
+        this.numeroLote = numeroLote;
+    }
+
+    public String getTipoMovimiento() {
+        return tipoMovimiento;
+    }
+
+    public void setTipoMovimiento(String tipoMovimiento) {
+        this.tipoMovimiento = tipoMovimiento;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public Integer getSaldoProducto() {
+        return saldoProducto;
+    }
+
+    public void setSaldoProducto(Integer saldoProducto) {
+        this.saldoProducto = saldoProducto;
+    }
+
+    public Integer getSaldoLote() {
+        return saldoLote;
+    }
+
+    public void setSaldoLote(Integer saldoLote) {
+        this.saldoLote = saldoLote;
+    }
+
+    public Long getMovimientoId() {
+        return movimientoId;
+    }
+
+    public void setMovimientoId(Long movimientoId) {
+        this.movimientoId = movimientoId;
+    }
+
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public Long getRecetaId() {
+        return recetaId;
+    }
+
+    public void setRecetaId(Long recetaId) {
+        this.recetaId = recetaId;
+    }
+
+    public String getFolioReceta() {
+        return folioReceta;
+    }
+
+    public void setFolioReceta(String folioReceta) {
+        this.folioReceta = folioReceta;
+    }
+
+    public String getCedulaMedico() {
+        return cedulaMedico;
+    }
+
+    public void setCedulaMedico(String cedulaMedico) {
+        this.cedulaMedico = cedulaMedico;
+    }
+
+    public String getNombreMedico() {
+        return nombreMedico;
+    }
+
+    public void setNombreMedico(String nombreMedico) {
+        this.nombreMedico = nombreMedico;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getReferencia() {
+        return referencia;
+    }
+
+    public void setReferencia(String referencia) {
+        this.referencia = referencia;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "series_folio")
+public class SerieFolio {
+
+    @Id
+    private String serie;
+
+    // Primer folio que todavía no se ha reservado en ningún bloque
+    private Long siguiente;
+
+    public String getSerie() {
+        return serie;
+    }
+
+    public void setSerie(String serie) {
+        this.serie = serie;
+    }
+
+    public Long getSiguiente() {
+        return siguiente;
+    }
+
+    public void setSiguiente(Long siguiente) {
+        this.siguiente = siguiente;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Copia persistente de una venta en espera. La fuente de verdad es el almacén en memoria;
+ * esta tabla se escribe en diferido y solo sirve para recuperar los tickets al reiniciar.
+ */
+@Entity
+@Table(name = "ventas_espera")
+public class TicketEspera {
+
+    @Id
+    private String id;
+
+    private Integer numeroCaja;
+    private String nombreEspera;
+    private String usuarioNombre;
+
+    @Lob
+    private String contenido;
+
+    private LocalDateTime fechaEspera;
+    private LocalDateTime expira;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Integer getNumeroCaja() {
+        return numeroCaja;
+    }
+
+    public void setNumeroCaja(Integer numeroCaja) {
+        this.numeroCaja = numeroCaja;
+    }
+
+    public String getNombreEspera() {
+        return nombreEspera;
+    }
+
+    public void setNombreEspera(String nombreEspera) {
+        this.nombreEspera = nombreEspera;
+    }
+
+    public String getUsuarioNombre() {
+        return usuarioNombre;
+    }
+
+    public void setUsuarioNombre(String usuarioNombre) {
+        this.usuarioNombre = usuarioNombre;
+    }
+
+    public String getContenido() {
+        return contenido;
+    }
+
+    public void setContenido(String contenido) {
+        this.contenido = contenido;
+    }
+
+    public LocalDateTime getFechaEspera() {
+        return fechaEspera;
+    }
+
+    public void setFechaEspera(LocalDateTime fechaEspera) {
+        this.fechaEspera = fechaEspera;
+    }
+
+    public LocalDateTime getExpira() {
+        return expira;
+    }
+
+    public void setExpira(LocalDateTime expira) {
+        this.expira = expira;
+    }
+}
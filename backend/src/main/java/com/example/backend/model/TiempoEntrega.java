@@ -0,0 +1,51 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+/** Días que tarda un proveedor en surtir un pedido, con el nombre que trae Lote.proveedor. */
+@Entity
+@Table(name = "tiempos_entrega")
+public class TiempoEntrega {
+
+    @Id
+    private String proveedor;
+
+    private Integer dias;
+    private LocalDateTime fechaActualizacion;
+
+    @PrePersist
+    @PreUpdate
+    public void preGuardar() {
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public void setProveedor(String proveedor) {
+        this.proveedor = proveedor;
+    }
+
+    public Integer getDias() {
+        return dias;
+    }
+
+    public void setDias(Integer dias) {
+        this.dias = dias;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+}
@@ -9,34 +9,50 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.example.backend.util.Dinero;
 
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = {
+        @Index(name = "idx_ventas_fecha_creacion", columnList = "fecha_creacion"),
+        @Index(name = "idx_ventas_factura", columnList = "factura_id")
+})
+@DynamicUpdate
 public class Venta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venta_seq")
+    @SequenceGenerator(name = "venta_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
     private Long clienteId;
     private String clienteNombre;
     private String fecha;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "venta_id")
+    @JoinColumn(name = "venta_id", nullable = false)
     private List<DetalleVenta> detalles = new ArrayList<>();
 
-    private Double subtotal;
+    private Long subtotalCentavos;
     private Double descuentoTotal;
-    private Double impuesto;
-    private Double total;
+    private Long impuestoCentavos;
+    private Long totalCentavos;
     private String metodoPago;
-    private Double montoPagado;
-    private Double cambio;
+    private Long montoPagadoCentavos;
+    private Long cambioCentavos;
+    private Long totalDevueltoCentavos;
     private String estado;
     private String observaciones;
     private Long usuarioId;
@@ -105,11 +121,19 @@ public class Venta {
     }
 
     public Double getSubtotal() {
-        return subtotal;
+        return Dinero.aPesos(subtotalCentavos);
     }
 
     public void setSubtotal(Double subtotal) {
-        this.subtotal = subtotal;
+        this.subtotalCentavos = Dinero.aCentavos(subtotal);
+    }
+
+    public Long getSubtotalCentavos() {
+        return subtotalCentavos;
+    }
+
+    public void setSubtotalCentavos(Long subtotalCentavos) {
+        this.subtotalCentavos = subtotalCentavos;
     }
 
     public Double getDescuentoTotal() {
@@ -121,19 +145,35 @@ public class Venta {
     }
 
     public Double getImpuesto() {
-        return impuesto;
+        return Dinero.aPesos(impuestoCentavos);
     }
 
     public void setImpuesto(Double impuesto) {
-        this.impuesto = impuesto;
+        this.impuestoCentavos = Dinero.aCentavos(impuesto);
+    }
+
+    public Long getImpuestoCentavos() {
+        return impuestoCentavos;
+    }
+
+    public void setImpuestoCentavos(Long impuestoCentavos) {
+        this.impuestoCentavos = impuestoCentavos;
     }
 
     public Double getTotal() {
-        return total;
+        return Dinero.aPesos(totalCentavos);
     }
 
     public void setTotal(Double total) {
-        this.total = total;
+        this.totalCentavos = Dinero.aCentavos(total);
+    }
+
+    public Long getTotalCentavos() {
+        return totalCentavos;
+    }
+
+    public void setTotalCentavos(Long totalCentavos) {
+        this.totalCentavos = totalCentavos;
     }
 
     public String getMetodoPago() {
@@ -145,19 +185,51 @@ public class Venta {
     }
 
     public Double getMontoPagado() {
-        return montoPagado;
+        return Dinero.aPesos(montoPagadoCentavos);
     }
 
     public void setMontoPagado(Double montoPagado) {
-        this.montoPagado = montoPagado;
+        this.montoPagadoCentavos = Dinero.aCentavos(montoPagado);
+    }
+
+    public Long getMontoPagadoCentavos() {
+        return montoPagadoCentavos;
+    }
+
+    public void setMontoPagadoCentavos(Long montoPagadoCentavos) {
+        this.montoPagadoCentavos = montoPagadoCentavos;
     }
 
     public Double getCambio() {
-        return cambio;
+        return Dinero.aPesos(cambioCentavos);
     }
 
     public void setCambio(Double cambio) {
-        this.cambio = cambio;
+        this.cambioCentavos = Dinero.aCentavos(cambio);
+    }
+
+    public Double getTotalDevuelto() {
+        return Dinero.aPesos(totalDevueltoCentavos);
+    }
+
+    public void setTotalDevuelto(Double totalDevuelto) {
+        this.totalDevueltoCentavos = Dinero.aCentavos(totalDevuelto);
+    }
+
+    public Long getTotalDevueltoCentavos() {
+        return totalDevueltoCentavos;
+    }
+
+    public void setTotalDevueltoCentavos(Long totalDevueltoCentavos) {
+        this.totalDevueltoCentavos = totalDevueltoCentavos;
+    }
+
+    public Long getCambioCentavos() {
+        return cambioCentavos;
+    }
+
+    public void setCambioCentavos(Long cambioCentavos) {
+        this.cambioCentavos = cambioCentavos;
     }
 
     public String getEstado() {
@@ -247,4 +319,12 @@ public class Venta {
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
         this.fechaActualizacion = fechaActualizacion;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
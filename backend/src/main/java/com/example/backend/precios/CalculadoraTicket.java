@@ -0,0 +1,135 @@
+package com.example.backend.precios;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.util.Dinero;
+
+/**
+ * Cotiza las líneas de una venta contra una foto del catálogo.
+ *
+ * Por línea: importe = precio * cantidad, se resta el descuento de la línea y
+ * luego el del cliente; el IEPS se calcula sobre esa base y el IVA sobre la
+ * base más IEPS. Todo en centavos con redondeo half-up por línea.
+ */
+public final class CalculadoraTicket {
+
+    private CalculadoraTicket() {
+    }
+
+    public static TicketCalculado calcular(CatalogoPrecios catalogo, List<DetalleVenta> detalles,
+            Double descuentoCliente) {
+        return calcular(catalogo, detalles, descuentoCliente, false);
+    }
+
+    /**
+     * Reconstruye una venta ya registrada (p. ej. para emitir la factura) con los importes
+     * guardados en cada línea al cobrarla. Solo las líneas anteriores a que se guardaran los
+     * impuestos se recalculan con su precio capturado y las tasas actuales del catálogo.
+     * Lo devuelto no se factura: una línea devuelta por completo se omite y una devuelta en
+     * parte se recalcula con las piezas que quedan, su precio y sus tasas guardadas.
+     */
+    public static TicketCalculado recalcular(CatalogoPrecios catalogo, List<DetalleVenta> detalles,
+            Double descuentoCliente) {
+        return calcular(catalogo, detalles, descuentoCliente, true);
+    }
+
+    /** Si la línea tiene algo que facturar; falso solo si se devolvió completa. */
+    public static boolean facturable(DetalleVenta d) {
+        return devuelta(d) == 0 || porFacturar(d) > 0;
+    }
+
+    /** Piezas vendidas menos las devueltas. */
+    public static int porFacturar(DetalleVenta d) {
+        int cantidad = d.getCantidad() != null ? d.getCantidad() : 0;
+        return Math.max(cantidad - devuelta(d), 0);
+    }
+
+    private static int devuelta(DetalleVenta d) {
+        return d.getCantidadDevuelta() != null ? d.getCantidadDevuelta() : 0;
+    }
+
+    private static TicketCalculado calcular(CatalogoPrecios catalogo, List<DetalleVenta> detalles,
+            Double descuentoCliente, boolean precioCapturado) {
+        long descuentoClientePb = Dinero.aPuntosBase(descuentoCliente);
+        List<TicketCalculado.Linea> lineas = new ArrayList<>(detalles.size());
+
+        long subtotal = 0;
+        long descuento = 0;
+        long iva = 0;
+        long ieps = 0;
+
+        for (DetalleVenta d : detalles) {
+            boolean devolucion = precioCapturado && devuelta(d) > 0;
+            if (devolucion && !facturable(d)) {
+                continue;
+            }
+            if (precioCapturado && d.getIvaCentavos() != null && !devolucion) {
+                TicketCalculado.Linea linea = registrada(d);
+                lineas.add(linea);
+                subtotal += linea.subtotalCentavos();
+                descuento += linea.descuentoClienteCentavos();
+                ieps += linea.iepsCentavos();
+                iva += linea.ivaCentavos();
+                continue;
+            }
+
+            int cantidad = devolucion ? porFacturar(d) : d.getCantidad() != null ? d.getCantidad() : 0;
+            long precio = d.getPrecioUnitarioCentavos() != null ? d.getPrecioUnitarioCentavos() : 0L;
+            long ivaPb = 0;
+            long iepsPb = 0;
+
+            // Una línea devuelta en parte conserva las tasas con que se cobró; una línea libre
+            // sin producto conserva el precio capturado y no causa impuestos
+            if (precioCapturado && d.getIvaCentavos() != null) {
+                ivaPb = cero(d.getIvaPuntosBase());
+                iepsPb = cero(d.getIepsPuntosBase());
+            } else if (d.getProductoId() != null) {
+                CatalogoPrecios.PrecioProducto pp = catalogo.buscar(d.getProductoId());
+                if (pp != null) {
+                    if (!precioCapturado) {
+                        precio = pp.precioCentavos();
+                    }
+                    ivaPb = pp.ivaPuntosBase();
+                    iepsPb = pp.iepsPuntosBase();
+                } else if (!precioCapturado) {
+                    throw new IllegalArgumentException("Producto no encontrado en catálogo: " + d.getProductoId());
+                }
+            }
+
+            long importe = Dinero.multiplicar(precio, cantidad);
+            long descLinea = Dinero.aplicarTasa(importe, Dinero.aPuntosBase(d.getDescuento()));
+            long subtotalLinea = importe - descLinea;
+            long descCliente = Dinero.aplicarTasa(subtotalLinea, descuentoClientePb);
+            long base = subtotalLinea - descCliente;
+            long iepsLinea = Dinero.aplicarTasa(base, iepsPb);
+            long ivaLinea = Dinero.aplicarTasa(base + iepsLinea, ivaPb);
+
+            lineas.add(new TicketCalculado.Linea(d.getProductoId(), cantidad, precio, importe,
+                    descLinea, descCliente, iepsPb, iepsLinea, ivaPb, ivaLinea, subtotalLinea));
+
+            subtotal += subtotalLinea;
+            descuento += descCliente;
+            ieps += iepsLinea;
+            iva += ivaLinea;
+        }
+
+        long total = subtotal - descuento + ieps + iva;
+        return new TicketCalculado(catalogo.getVersion(), List.copyOf(lineas), subtotal, descuento, iva, ieps, total);
+    }
+
+    private static TicketCalculado.Linea registrada(DetalleVenta d) {
+        int cantidad = d.getCantidad() != null ? d.getCantidad() : 0;
+        long precio = d.getPrecioUnitarioCentavos() != null ? d.getPrecioUnitarioCentavos() : 0L;
+        long importe = Dinero.multiplicar(precio, cantidad);
+        long subtotalLinea = d.getSubtotalCentavos() != null ? d.getSubtotalCentavos() : importe;
+        return new TicketCalculado.Linea(d.getProductoId(), cantidad, precio, importe, importe - subtotalLinea,
+                cero(d.getDescuentoClienteCentavos()), cero(d.getIepsPuntosBase()), cero(d.getIepsCentavos()),
+                cero(d.getIvaPuntosBase()), d.getIvaCentavos(), subtotalLinea);
+    }
+
+    private static long cero(Long valor) {
+        return valor != null ? valor : 0L;
+    }
+}
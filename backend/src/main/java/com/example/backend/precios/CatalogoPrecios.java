@@ -0,0 +1,59 @@
+package com.example.backend.precios;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.backend.model.Producto;
+import com.example.backend.util.Dinero;
+
+/**
+ * Foto inmutable de los precios del catálogo, ya convertidos a centavos y
+ * puntos base. Un ticket se cotiza completo contra una sola versión.
+ */
+public final class CatalogoPrecios {
+
+    public record PrecioProducto(long productoId, long precioCentavos, long ivaPuntosBase, long iepsPuntosBase,
+            boolean requiereReceta) {
+    }
+
+    private final long version;
+    private final Map<Long, PrecioProducto> precios;
+
+    private CatalogoPrecios(long version, Map<Long, PrecioProducto> precios) {
+        this.version = version;
+        this.precios = precios;
+    }
+
+    public static CatalogoPrecios desde(long version, List<Producto> productos) {
+        Map<Long, PrecioProducto> precios = new HashMap<>(productos.size() * 2);
+        for (Producto p : productos) {
+            if (p.getId() == null) continue;
+            precios.put(p.getId(), new PrecioProducto(
+                    p.getId(),
+                    Dinero.aCentavosOCero(p.getPrecioVenta()),
+                    Dinero.aPuntosBase(p.getPorcentajeIVA()),
+                    Dinero.aPuntosBase(p.getPorcentajeIEPS()),
+                    requiereReceta(p.getTipoRegulacion())));
+        }
+        return new CatalogoPrecios(version, Map.copyOf(precios));
+    }
+
+    // Antibióticos y controlados (CONTROLADO_II, III, IV) solo se venden con receta
+    public static boolean requiereReceta(String tipoRegulacion) {
+        return tipoRegulacion != null
+                && (tipoRegulacion.equals("ANTIBIOTICO") || tipoRegulacion.startsWith("CONTROLADO"));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public PrecioProducto buscar(Long productoId) {
+        return productoId != null ? precios.get(productoId) : null;
+    }
+
+    public int size() {
+        return precios.size();
+    }
+}
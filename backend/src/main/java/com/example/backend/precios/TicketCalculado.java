@@ -0,0 +1,34 @@
+package com.example.backend.precios;
+
+import java.util.List;
+
+/**
+ * Resultado de cotizar un ticket en el servidor. Todos los importes en centavos.
+ */
+public record TicketCalculado(
+        long versionCatalogo,
+        List<Linea> lineas,
+        long subtotalCentavos,
+        long descuentoCentavos,
+        long ivaCentavos,
+        long iepsCentavos,
+        long totalCentavos) {
+
+    public record Linea(
+            Long productoId,
+            int cantidad,
+            long precioUnitarioCentavos,
+            long importeCentavos,
+            long descuentoLineaCentavos,
+            long descuentoClienteCentavos,
+            long iepsPuntosBase,
+            long iepsCentavos,
+            long ivaPuntosBase,
+            long ivaCentavos,
+            long subtotalCentavos) {
+    }
+
+    public long impuestoCentavos() {
+        return ivaCentavos + iepsCentavos;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.model.BajaCatalogo;
+
+@Repository
+public interface BajaCatalogoRepository extends JpaRepository<BajaCatalogo, Long> {
+
+    @Query("select b.productoId from BajaCatalogo b where b.versionCatalogo > :desde and b.versionCatalogo <= :hasta")
+    List<Long> findProductosDadosDeBaja(@Param("desde") long desde, @Param("hasta") long hasta);
+
+    @Query("select coalesce(max(b.versionCatalogo), 0) from BajaCatalogo b")
+    long findUltimaVersion();
+}
@@ -0,0 +1,12 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.BloqueFolio;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BloqueFolioRepository extends JpaRepository<BloqueFolio, Long> {
+    List<BloqueFolio> findBySerieOrderByInicioAsc(String serie);
+}
@@ -2,14 +2,41 @@ package com.example.backend.repository;
 
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.model.Cliente;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-catalogo")
+    })
     Cliente findByDni(String dni);
 
     List<Cliente> findByActivo(Boolean activo);
+
+    List<Cliente> findByRfc(String rfc);
+
+    List<Cliente> findByTelefono(String telefono);
+
+    List<Cliente> findByEmail(String email);
+
+    // El prefijo ya viene normalizado y con los comodines escapados (ver Texto.escaparLike)
+    @Query("select c from Cliente c where c.nombreBusqueda like :prefijo escape '\\' "
+            + "and (:activo is null or c.activo = :activo) order by c.nombreBusqueda, c.id")
+    List<Cliente> buscarPorNombre(@Param("prefijo") String prefijo, @Param("activo") Boolean activo, Pageable pageable);
+
+    // Ordena por la columna que coincide, en el orden del índice: no hay que ordenar todas las
+    // coincidencias de un apellido corto antes de aplicar el límite
+    @Query("select c from Cliente c where c.apellidoBusqueda like :prefijo escape '\\' "
+            + "and (:activo is null or c.activo = :activo) order by c.apellidoBusqueda, c.id")
+    List<Cliente> buscarPorApellido(@Param("prefijo") String prefijo, @Param("activo") Boolean activo, Pageable pageable);
 }
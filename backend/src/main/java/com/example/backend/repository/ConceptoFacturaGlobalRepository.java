@@ -0,0 +1,12 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ConceptoFacturaGlobal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConceptoFacturaGlobalRepository extends JpaRepository<ConceptoFacturaGlobal, Long> {
+    List<ConceptoFacturaGlobal> findByFacturaIdOrderByIdAsc(Long facturaId);
+}
@@ -3,6 +3,9 @@ package com.example.backend.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.model.CorteCaja;
@@ -10,4 +13,21 @@ import com.example.backend.model.CorteCaja;
 @Repository
 public interface CorteCajaRepository extends JpaRepository<CorteCaja, Long> {
     Optional<CorteCaja> findTopByEstadoOrderByIdDesc(String estado);
+
+    // Incrementos atómicos en la base: no pisan lo que otras cajas acumulen en paralelo
+    @Modifying
+    @Query("update CorteCaja c set c.totalVentasCentavos = c.totalVentasCentavos + :totalCentavos, "
+            + "c.ventasEfectivoCentavos = c.ventasEfectivoCentavos + :efectivoCentavos, "
+            + "c.ventasTarjetaCentavos = c.ventasTarjetaCentavos + :tarjetaCentavos, "
+            + "c.ventasTransferenciaCentavos = c.ventasTransferenciaCentavos + :transferenciaCentavos, "
+            + "c.cantidadVentas = coalesce(c.cantidadVentas, 0) + 1 where c.id = :id")
+    int registrarVenta(@Param("id") Long id, @Param("totalCentavos") long totalCentavos,
+            @Param("efectivoCentavos") long efectivoCentavos, @Param("tarjetaCentavos") long tarjetaCentavos,
+            @Param("transferenciaCentavos") long transferenciaCentavos);
+
+    @Modifying
+    @Query("update CorteCaja c set c.totalDevolucionesCentavos = c.totalDevolucionesCentavos + :montoCentavos, "
+            + "c.cantidadCancelaciones = coalesce(c.cantidadCancelaciones, 0) + :cancelaciones where c.id = :id")
+    int registrarDevolucion(@Param("id") Long id, @Param("montoCentavos") long montoCentavos,
+            @Param("cancelaciones") int cancelaciones);
 }
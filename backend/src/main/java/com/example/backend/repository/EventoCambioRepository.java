@@ -0,0 +1,33 @@
+package com.example.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.model.EventoCambio;
+
+@Repository
+public interface EventoCambioRepository extends JpaRepository<EventoCambio, Long> {
+
+    @Query("select e from EventoCambio e where e.posicion is null order by e.id")
+    List<EventoCambio> findSinPublicar(Pageable pageable);
+
+    @Query("select e from EventoCambio e where e.posicion > :desde and (:tipo is null or e.tipo = :tipo) "
+            + "order by e.posicion")
+    List<EventoCambio> findDesde(@Param("desde") long desde, @Param("tipo") String tipo, Pageable pageable);
+
+    @Query("select coalesce(max(e.posicion), 0) from EventoCambio e")
+    long findUltimaPosicion();
+
+    @Transactional
+    @Modifying
+    @Query("delete from EventoCambio e where e.posicion is not null and e.fechaCreacion < :antesDe")
+    int purgar(@Param("antesDe") LocalDateTime antesDe);
+}
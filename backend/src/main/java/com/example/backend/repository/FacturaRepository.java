@@ -1,12 +1,65 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Factura;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FacturaRepository extends JpaRepository<Factura, Long> {
     Optional<Factura> findByVentaId(Long ventaId);
+
+    @Query("select f.id from Factura f where f.estatus = :estatus and f.proximoIntento <= :ahora "
+            + "order by f.proximoIntento")
+    List<Long> findIdsVencidos(@Param("estatus") String estatus, @Param("ahora") LocalDateTime ahora,
+            Pageable pageable);
+
+    List<Factura> findByReclamoAndEstatus(String reclamo, String estatus);
+
+    // Solo pasan a TIMBRANDO las que siguen EN_COLA; otra instancia pudo reclamarlas antes
+    @Transactional
+    @Modifying
+    @Query("update Factura f set f.estatus = 'TIMBRANDO', f.reclamo = :reclamo "
+            + "where f.id in :ids and f.estatus = 'EN_COLA'")
+    int reclamar(@Param("ids") Collection<Long> ids, @Param("reclamo") String reclamo);
+
+    // El resultado del PAC se descarta si la factura cambió (p. ej. se canceló) mientras se timbraba
+    @Transactional
+    @Modifying
+    @Query("update Factura f set f.estatus = :estatus, f.intentosTimbrado = :intentos, f.uuidFiscal = :uuid, "
+            + "f.fechaTimbrado = :fecha, f.errorTimbrado = :error, f.proximoIntento = :proximo "
+            + "where f.id = :id and f.estatus = 'TIMBRANDO' and f.reclamo = :reclamo")
+    int registrarResultado(@Param("id") Long id, @Param("reclamo") String reclamo, @Param("estatus") String estatus,
+            @Param("intentos") Integer intentos, @Param("uuid") String uuid, @Param("fecha") LocalDateTime fecha,
+            @Param("error") String error, @Param("proximo") LocalDateTime proximo);
+
+    @Query("select f.folio from Factura f where f.serie = :serie and f.folio between :inicio and :fin")
+    List<Long> findFoliosEnRango(@Param("serie") String serie, @Param("inicio") Long inicio, @Param("fin") Long fin);
+
+    @Query("select f from Factura f left join fetch f.venta v left join fetch v.detalles where f.id = :id")
+    Optional<Factura> findConVentaYDetalles(@Param("id") Long id);
+
+    @Query("select f.id from Factura f where f.fechaCreacion >= :desde and f.fechaCreacion < :hasta "
+            + "and f.estatus <> 'CANCELADA' and f.id > :despuesDe order by f.id")
+    List<Long> findIdsParaRegenerar(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+            @Param("despuesDe") Long despuesDe, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Factura f set f.urlXml = :urlXml, f.urlPdf = :urlPdf where f.id = :id")
+    int actualizarDocumentos(@Param("id") Long id, @Param("urlXml") String urlXml, @Param("urlPdf") String urlPdf);
+
+    @Transactional
+    @Modifying
+    @Query("update Factura f set f.estatus = :nuevo where f.estatus = :actual")
+    int cambiarEstatus(@Param("actual") String actual, @Param("nuevo") String nuevo);
 }
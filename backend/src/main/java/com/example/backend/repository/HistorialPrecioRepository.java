@@ -0,0 +1,15 @@
+package com.example.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.model.HistorialPrecio;
+
+@Repository
+public interface HistorialPrecioRepository extends JpaRepository<HistorialPrecio, Long> {
+
+    List<HistorialPrecio> findByProductoIdOrderByIdDesc(Long productoId, Pageable pagina);
+}
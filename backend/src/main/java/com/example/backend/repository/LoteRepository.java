@@ -1,12 +1,27 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Lote;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface LoteRepository extends JpaRepository<Lote, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-catalogo")
+    })
     List<Lote> findByProductoId(Long productoId);
+
+    List<Lote> findByNumeroLoteIn(Collection<String> numerosLote);
+
+    // Proveedor del lote más reciente de cada producto: [productoId, proveedor]
+    @Query("select l.productoId, l.proveedor from Lote l where l.id in "
+            + "(select max(u.id) from Lote u where u.proveedor is not null and u.proveedor <> '' group by u.productoId)")
+    List<Object[]> findUltimoProveedorPorProducto();
 }
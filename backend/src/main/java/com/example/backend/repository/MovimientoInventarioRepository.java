@@ -1,8 +1,12 @@
 package com.example.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.model.MovimientoInventario;
@@ -11,5 +15,21 @@ import com.example.backend.model.MovimientoInventario;
 public interface MovimientoInventarioRepository extends JpaRepository<MovimientoInventario, Long> {
     List<MovimientoInventario> findByProductoId(Long productoId);
 
+    @EntityGraph(attributePaths = "producto")
     List<MovimientoInventario> findByProductoIdOrderByFechaCreacionDesc(Long productoId);
+
+    @EntityGraph(attributePaths = "producto")
+    @Query("select m from MovimientoInventario m order by m.id")
+    List<MovimientoInventario> findAllConProducto();
+
+    // Piezas vendidas por producto y día, descontando devoluciones en el día de la venta
+    // original: [productoId, fecha, cantidad]
+    @Query("select m.producto.id, cast(case when m.tipoMovimiento = 'ENTRADA' "
+            + "then coalesce(v.fechaCreacion, m.fechaCreacion) else m.fechaCreacion end as LocalDate), "
+            + "sum(case when m.tipoMovimiento = 'SALIDA' then m.cantidad else -m.cantidad end) "
+            + "from MovimientoInventario m left join Venta v on v.id = m.ventaId where m.fechaCreacion >= :desde "
+            + "and (m.tipoMovimiento = 'SALIDA' or (m.tipoMovimiento = 'ENTRADA' and m.ventaId is not null)) "
+            + "group by m.producto.id, cast(case when m.tipoMovimiento = 'ENTRADA' "
+            + "then coalesce(v.fechaCreacion, m.fechaCreacion) else m.fechaCreacion end as LocalDate)")
+    List<Object[]> sumarVentasPorDia(@Param("desde") LocalDateTime desde);
 }
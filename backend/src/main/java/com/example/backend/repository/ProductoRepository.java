@@ -1,15 +1,41 @@
 package com.example.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.dto.ExistenciaReabasto;
 import com.example.backend.model.Producto;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findByCategoria(String categoria);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "consultas-catalogo")
+    })
     Producto findByCodigoBarras(String codigoBarras);
+
+    @Query("select p from Producto p where p.versionCatalogo > :desde and p.versionCatalogo <= :hasta")
+    List<Producto> findCambiosCatalogo(@Param("desde") long desde, @Param("hasta") long hasta);
+
+    List<Producto> findByCodigoBarrasIn(Collection<String> codigosBarras);
+
+    List<Producto> findBySkuIn(Collection<String> skus);
+
+    @Query("select new com.example.backend.dto.ExistenciaReabasto(p.id, p.nombre, p.codigoBarras, p.stockTotal, "
+            + "p.stockMinimo, p.stockOptimo, p.precioCompra) from Producto p "
+            + "where p.activo is null or p.activo = true order by p.id")
+    List<ExistenciaReabasto> findExistenciasReabasto();
+
+    @Query("select coalesce(max(p.versionCatalogo), 0) from Producto p")
+    long findUltimaVersionCatalogo();
 }
@@ -0,0 +1,10 @@
+package com.example.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.model.RecepcionMercancia;
+
+@Repository
+public interface RecepcionMercanciaRepository extends JpaRepository<RecepcionMercancia, Long> {
+}
@@ -1,9 +1,20 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.RecetaMedica;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface RecetaMedicaRepository extends JpaRepository<RecetaMedica, Long> {
+    boolean existsByCedulaMedicoAndVerificadaTrue(String cedulaMedico);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.cedulaMedico, r.folioReceta from RecetaMedica r where r.folioReceta is not null")
+    Stream<Object[]> streamFolios();
 }
@@ -0,0 +1,29 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.RegistroControlado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface RegistroControladoRepository extends JpaRepository<RegistroControlado, Long> {
+    List<RegistroControlado> findByProductoIdOrderByIdDesc(Long productoId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from RegistroControlado r where r.fecha >= :desde and r.fecha < :hasta "
+            + "and (:productoId is null or r.productoId = :productoId) order by r.productoId, r.id")
+    Stream<RegistroControlado> streamPorPeriodo(@Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta, @Param("productoId") Long productoId);
+}
@@ -0,0 +1,18 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.SerieFolio;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SerieFolioRepository extends JpaRepository<SerieFolio, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SerieFolio s where s.serie = :serie")
+    Optional<SerieFolio> findParaReservar(@Param("serie") String serie);
+}
@@ -1,12 +1,51 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.LineaVentaFacturable;
 import com.example.backend.model.Venta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
+    @EntityGraph(attributePaths = "detalles")
+    @Query("select v from Venta v order by v.id")
+    List<Venta> findAllConDetalles();
+
+    @EntityGraph(attributePaths = "detalles")
     List<Venta> findByClienteId(Long clienteId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from Venta v where v.id = :id")
+    Optional<Venta> findParaDevolucion(@Param("id") Long id);
+
+    // Marca en una sola sentencia las ventas del periodo que aún no tienen factura
+    @Modifying
+    @Query("update Venta v set v.facturaId = :facturaId, v.facturada = true, v.fechaActualizacion = :ahora "
+            + "where v.fechaCreacion >= :desde and v.fechaCreacion < :hasta and v.facturaId is null "
+            + "and (v.facturada is null or v.facturada = false) "
+            + "and (v.estado is null or v.estado not in ('CANCELADA', 'EN_ESPERA'))")
+    int asignarFacturaGlobal(@Param("facturaId") Long facturaId, @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta, @Param("ahora") LocalDateTime ahora);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.backend.dto.LineaVentaFacturable(v.id, v.descuentoTotal, d.productoId, "
+            + "d.cantidad, d.cantidadDevuelta, d.precioUnitarioCentavos, d.descuento, d.subtotalCentavos, "
+            + "d.descuentoClienteCentavos, d.iepsPuntosBase, d.iepsCentavos, d.ivaPuntosBase, d.ivaCentavos, "
+            + "v.totalCentavos, v.totalDevueltoCentavos) "
+            + "from Venta v join v.detalles d where v.facturaId = :facturaId order by v.id, d.id")
+    Stream<LineaVentaFacturable> streamLineasPorFactura(@Param("facturaId") Long facturaId);
 }
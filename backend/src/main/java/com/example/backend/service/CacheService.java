@@ -0,0 +1,52 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.RegionCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class CacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<RegionCacheDTO> getEstadisticas() {
+        Statistics stats = sessionFactory().getStatistics();
+        String[] regiones = stats.getSecondLevelCacheRegionNames();
+        Arrays.sort(regiones);
+
+        List<RegionCacheDTO> resultado = new ArrayList<>(regiones.length);
+        for (String region : regiones) {
+            CacheRegionStatistics r = stats.getCacheRegionStatistics(region);
+            if (r == null) continue;
+
+            RegionCacheDTO dto = new RegionCacheDTO();
+            dto.setRegion(region);
+            dto.setAciertos(r.getHitCount());
+            dto.setFallos(r.getMissCount());
+            dto.setInserciones(r.getPutCount());
+            // El proveedor JCache no siempre reporta el tamaño (devuelve un valor negativo)
+            dto.setElementosEnMemoria(r.getElementCountInMemory() >= 0 ? r.getElementCountInMemory() : null);
+            long lecturas = r.getHitCount() + r.getMissCount();
+            dto.setTasaAciertos(lecturas > 0 ? (double) r.getHitCount() / lecturas : 0.0);
+            resultado.add(dto);
+        }
+        return resultado;
+    }
+
+    public void vaciarRegion(String region) {
+        sessionFactory().getCache().evictRegion(region);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
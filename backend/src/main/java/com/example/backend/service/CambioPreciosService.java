@@ -0,0 +1,314 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CambioPreciosDTO;
+import com.example.backend.dto.HistorialPrecioDTO;
+import com.example.backend.dto.PrecioListaDTO;
+import com.example.backend.dto.ResultadoCambioPreciosDTO;
+import com.example.backend.model.HistorialPrecio;
+import com.example.backend.model.Producto;
+import com.example.backend.repository.HistorialPrecioRepository;
+import com.example.backend.repository.ProductoRepository;
+import com.example.backend.util.Dinero;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cambios masivos de precio: por lista (proveedor o regulatorio) o por regla porcentual
+ * sobre una categoría, un laboratorio o un conjunto de productos.
+ *
+ * Todo el cambio es una sola transacción con una sola versión de catálogo, así que las
+ * cajas lo ven completo o no lo ven: la sincronización por versión no entrega versiones con
+ * huecos y el catálogo de precios del servidor se descarta al confirmar, de modo que
+ * ningún ticket se cotiza con una mezcla de precios viejos y nuevos. Cada producto tocado
+ * deja un renglón en historial_precios.
+ */
+@Service
+public class CambioPreciosService {
+
+    private static final Logger log = LoggerFactory.getLogger(CambioPreciosService.class);
+
+    private static final int TAMANO_BLOQUE = 500;
+    private static final int MAXIMO_NO_ENCONTRADOS = 1000;
+    private static final int MAXIMO_PRODUCTOS_REGLA = 1000;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private HistorialPrecioRepository historialPrecioRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private InstantaneaCatalogoService instantaneaCatalogoService;
+
+    @Autowired
+    private ExistenciaService existenciaService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public ResultadoCambioPreciosDTO aplicar(CambioPreciosDTO cambio) {
+        long inicio = System.currentTimeMillis();
+        boolean porLista = cambio.getPrecios() != null && !cambio.getPrecios().isEmpty();
+        if (porLista == (cambio.getPorcentaje() != null)) {
+            throw new IllegalArgumentException("Indique una lista de precios o un porcentaje, no ambos");
+        }
+
+        long version = productoService.reservarVersionCatalogo();
+        ResultadoCambioPreciosDTO resultado = new ResultadoCambioPreciosDTO();
+        resultado.setVersionCatalogo(version);
+        resultado.setNoEncontrados(new ArrayList<>());
+        int productos = porLista ? aplicarLista(cambio, version, resultado.getNoEncontrados())
+                : aplicarPorcentaje(cambio, version);
+        resultado.setProductos(productos);
+
+        // Se descartan ahora y otra vez al confirmar
+        precioService.invalidar();
+        instantaneaCatalogoService.invalidar();
+        resultado.setMilisegundos(System.currentTimeMillis() - inicio);
+        log.info("Cambio de precios v{} ({}): {} productos en {} ms", version, cambio.getMotivo(), productos,
+                resultado.getMilisegundos());
+        return resultado;
+    }
+
+    public List<HistorialPrecioDTO> historial(Long productoId, int limite) {
+        List<HistorialPrecioDTO> resultado = new ArrayList<>();
+        for (HistorialPrecio h : historialPrecioRepository.findByProductoIdOrderByIdDesc(productoId,
+                PageRequest.of(0, Math.max(1, Math.min(limite, 500))))) {
+            HistorialPrecioDTO dto = new HistorialPrecioDTO();
+            dto.setProductoId(h.getProductoId());
+            dto.setVersionCatalogo(h.getVersionCatalogo());
+            dto.setPrecioVentaAnterior(Dinero.aPesos(h.getPrecioVentaAnteriorCentavos()));
+            dto.setPrecioVenta(Dinero.aPesos(h.getPrecioVentaCentavos()));
+            dto.setPrecioCompraAnterior(Dinero.aPesos(h.getPrecioCompraAnteriorCentavos()));
+            dto.setPrecioCompra(Dinero.aPesos(h.getPrecioCompraCentavos()));
+            dto.setMotivo(h.getMotivo());
+            dto.setUsuario(h.getUsuario());
+            dto.setFecha(h.getFecha());
+            resultado.add(dto);
+        }
+        return resultado;
+    }
+
+    /** Renglón de historial con los precios anterior y nuevo; null si ninguno cambió. */
+    static HistorialPrecio renglon(Long productoId, long version, Double ventaAnterior, Double compraAnterior,
+            Producto nuevo, String motivo, String usuario) {
+        Long ventaAntes = Dinero.aCentavos(ventaAnterior);
+        Long compraAntes = Dinero.aCentavos(compraAnterior);
+        Long venta = Dinero.aCentavos(nuevo.getPrecioVenta());
+        Long compra = Dinero.aCentavos(nuevo.getPrecioCompra());
+        if (Objects.equals(ventaAntes, venta) && Objects.equals(compraAntes, compra)) {
+            return null;
+        }
+        HistorialPrecio h = new HistorialPrecio();
+        h.setProductoId(productoId);
+        h.setVersionCatalogo(version);
+        h.setPrecioVentaAnteriorCentavos(ventaAntes);
+        h.setPrecioVentaCentavos(venta);
+        h.setPrecioCompraAnteriorCentavos(compraAntes);
+        h.setPrecioCompraCentavos(compra);
+        h.setMotivo(motivo);
+        h.setUsuario(usuario);
+        return h;
+    }
+
+    // Por bloques: un IN por tipo de clave para encontrar los productos, UPDATE e INSERT en lotes JDBC
+    private int aplicarLista(CambioPreciosDTO cambio, long version, List<String> noEncontrados) {
+        int tocados = 0;
+        List<PrecioListaDTO> precios = cambio.getPrecios();
+        for (int desde = 0; desde < precios.size(); desde += TAMANO_BLOQUE) {
+            List<PrecioListaDTO> bloque = precios.subList(desde, Math.min(desde + TAMANO_BLOQUE, precios.size()));
+            Set<Long> ids = new HashSet<>();
+            Set<String> codigos = new HashSet<>();
+            Set<String> skus = new HashSet<>();
+            for (PrecioListaDTO p : bloque) {
+                validar(p);
+                if (p.getProductoId() != null) {
+                    ids.add(p.getProductoId());
+                } else if (!vacio(p.getCodigoBarras())) {
+                    codigos.add(p.getCodigoBarras());
+                } else {
+                    skus.add(p.getSku());
+                }
+            }
+            Map<String, Producto> porClave = new HashMap<>();
+            if (!ids.isEmpty()) {
+                productoRepository.findAllById(ids).forEach(p -> porClave.put("id:" + p.getId(), p));
+            }
+            if (!codigos.isEmpty()) {
+                productoRepository.findByCodigoBarrasIn(codigos)
+                        .forEach(p -> porClave.putIfAbsent("cb:" + p.getCodigoBarras(), p));
+            }
+            if (!skus.isEmpty()) {
+                productoRepository.findBySkuIn(skus).forEach(p -> porClave.putIfAbsent("sku:" + p.getSku(), p));
+            }
+
+            // Precios originales de cada producto tocado; si aparece dos veces, gana el último renglón
+            Map<Producto, Double[]> originales = new LinkedHashMap<>();
+            for (PrecioListaDTO p : bloque) {
+                Producto producto = porClave.get(busqueda(p));
+                if (producto == null) {
+                    if (noEncontrados.size() < MAXIMO_NO_ENCONTRADOS) {
+                        noEncontrados.add(clave(p));
+                    }
+                    continue;
+                }
+                originales.putIfAbsent(producto, new Double[] {producto.getPrecioVenta(), producto.getPrecioCompra()});
+                if (p.getPrecioVenta() != null) {
+                    producto.setPrecioVenta(p.getPrecioVenta());
+                }
+                if (p.getPrecioCompra() != null) {
+                    producto.setPrecioCompra(p.getPrecioCompra());
+                }
+                producto.setVersionCatalogo(version);
+            }
+            for (Map.Entry<Producto, Double[]> o : originales.entrySet()) {
+                HistorialPrecio h = renglon(o.getKey().getId(), version, o.getValue()[0], o.getValue()[1], o.getKey(),
+                        cambio.getMotivo(), cambio.getUsuario());
+                if (h != null) {
+                    entityManager.persist(h);
+                }
+            }
+            tocados += originales.size();
+            entityManager.flush();
+            // La entrada que Hibernate deja en caché lleva el stock leído al buscar los productos
+            existenciaService.desalojar(Producto.class, originales.keySet().stream().map(Producto::getId).toList());
+            entityManager.clear();
+        }
+        return tocados;
+    }
+
+    /**
+     * Regla porcentual en dos sentencias: el historial se inserta con un INSERT ... SELECT y
+     * los precios se actualizan con un UPDATE sobre el mismo filtro. El UPDATE incrementa la
+     * versión de los productos, así que una edición concurrente que leyó el precio anterior
+     * falla en lugar de regresarlo. Las ventas no dependen de esa versión: el stock se
+     * escribe aparte (ExistenciaService) y no choca con el cambio de precios.
+     */
+    private int aplicarPorcentaje(CambioPreciosDTO cambio, long version) {
+        double porcentaje = cambio.getPorcentaje();
+        if (porcentaje <= -100) {
+            throw new IllegalArgumentException("El porcentaje debe ser mayor que -100");
+        }
+        String aplicarA = cambio.getAplicarA() != null ? cambio.getAplicarA().toUpperCase() : "VENTA";
+        boolean venta = aplicarA.equals("VENTA") || aplicarA.equals("AMBOS");
+        boolean compra = aplicarA.equals("COMPRA") || aplicarA.equals("AMBOS");
+        if (!venta && !compra) {
+            throw new IllegalArgumentException("aplicarA debe ser VENTA, COMPRA o AMBOS");
+        }
+
+        StringBuilder filtro = new StringBuilder(" where 1 = 1");
+        Map<String, Object> parametros = new HashMap<>();
+        if (cambio.getCategoria() != null && !cambio.getCategoria().isBlank()) {
+            filtro.append(" and p.categoria = :categoria");
+            parametros.put("categoria", cambio.getCategoria());
+        }
+        if (cambio.getLaboratorio() != null && !cambio.getLaboratorio().isBlank()) {
+            filtro.append(" and p.laboratorio = :laboratorio");
+            parametros.put("laboratorio", cambio.getLaboratorio());
+        }
+        if (cambio.getProductoIds() != null && !cambio.getProductoIds().isEmpty()) {
+            if (cambio.getProductoIds().size() > MAXIMO_PRODUCTOS_REGLA) {
+                throw new IllegalArgumentException("Se pueden indicar hasta " + MAXIMO_PRODUCTOS_REGLA
+                        + " productos; para más use una lista de precios");
+            }
+            filtro.append(" and p.id in :ids");
+            parametros.put("ids", cambio.getProductoIds());
+        }
+        if (parametros.isEmpty()) {
+            throw new IllegalArgumentException("La regla requiere categoría, laboratorio o productos");
+        }
+
+        double factor = 1 + porcentaje / 100;
+        double factorVenta = venta ? factor : 1;
+        double factorCompra = compra ? factor : 1;
+
+        // Los centavos nuevos se calculan igual en el historial y en el producto
+        Query historial = entityManager.createQuery("insert into HistorialPrecio (productoId, versionCatalogo,"
+                + " precioVentaAnteriorCentavos, precioVentaCentavos, precioCompraAnteriorCentavos,"
+                + " precioCompraCentavos, motivo, usuario, fecha)"
+                + " select p.id, :version, cast(round(p.precioVenta * 100, 0) as Long),"
+                + " cast(round(p.precioVenta * :factorVenta * 100, 0) as Long),"
+                + " cast(round(p.precioCompra * 100, 0) as Long),"
+                + " cast(round(p.precioCompra * :factorCompra * 100, 0) as Long),"
+                + " :motivo, :usuario, :fecha from Producto p" + filtro);
+        parametros.forEach(historial::setParameter);
+        historial.setParameter("version", version)
+                .setParameter("factorVenta", factorVenta)
+                .setParameter("factorCompra", factorCompra)
+                .setParameter("motivo", cambio.getMotivo())
+                .setParameter("usuario", cambio.getUsuario())
+                .setParameter("fecha", LocalDateTime.now())
+                .executeUpdate();
+
+        StringBuilder asignaciones = new StringBuilder("p.versionCatalogo = :version");
+        if (venta) {
+            asignaciones.append(", p.precioVenta = round(p.precioVenta * :factorVenta * 100, 0) / 100.0");
+        }
+        if (compra) {
+            asignaciones.append(", p.precioCompra = round(p.precioCompra * :factorCompra * 100, 0) / 100.0");
+        }
+        Query actualizacion = entityManager.createQuery("update versioned Producto p set " + asignaciones + filtro);
+        parametros.forEach(actualizacion::setParameter);
+        actualizacion.setParameter("version", version);
+        if (venta) {
+            actualizacion.setParameter("factorVenta", factorVenta);
+        }
+        if (compra) {
+            actualizacion.setParameter("factorCompra", factorCompra);
+        }
+        return actualizacion.executeUpdate();
+    }
+
+    private static void validar(PrecioListaDTO p) {
+        if (p.getProductoId() == null && vacio(p.getCodigoBarras()) && vacio(p.getSku())) {
+            throw new IllegalArgumentException("Cada renglón requiere productoId, codigoBarras o sku");
+        }
+        if (p.getPrecioVenta() == null && p.getPrecioCompra() == null) {
+            throw new IllegalArgumentException("Renglón sin precio: " + clave(p));
+        }
+        if ((p.getPrecioVenta() != null && p.getPrecioVenta() < 0)
+                || (p.getPrecioCompra() != null && p.getPrecioCompra() < 0)) {
+            throw new IllegalArgumentException("Precio negativo: " + clave(p));
+        }
+    }
+
+    // Clave con el tipo para que un id y un código de barras iguales no se confundan
+    private static String busqueda(PrecioListaDTO p) {
+        return p.getProductoId() != null ? "id:" + p.getProductoId()
+                : !vacio(p.getCodigoBarras()) ? "cb:" + p.getCodigoBarras() : "sku:" + p.getSku();
+    }
+
+    private static String clave(PrecioListaDTO p) {
+        return p.getProductoId() != null ? String.valueOf(p.getProductoId())
+                : !vacio(p.getCodigoBarras()) ? p.getCodigoBarras() : p.getSku();
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
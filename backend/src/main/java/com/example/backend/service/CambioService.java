@@ -0,0 +1,304 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DTOConverter;
+import com.example.backend.dto.DetalleVentaDTO;
+import com.example.backend.dto.EventoCambioDTO;
+import com.example.backend.dto.MovimientoInventarioDTO;
+import com.example.backend.dto.VentaDTO;
+import com.example.backend.model.EventoCambio;
+import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.Venta;
+import com.example.backend.repository.EventoCambioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Flujo de cambios de ventas y movimientos de inventario para BI y resurtido.
+ *
+ * Los eventos se escriben en eventos_cambio dentro de la transacción del negocio. Un solo
+ * publicador les asigna posición consecutiva conforme los ve confirmados, de modo que un
+ * consumidor que lee "después de la posición N" nunca se salta un evento que confirmó
+ * tarde. Lo recién publicado se convierte una vez y con eso se responde a los clientes
+ * en espera (long-poll) y a los suscriptores SSE que ya estaban al día; los envíos SSE
+ * corren en un grupo de hilos propio, una tarea a la vez por suscriptor, para que un
+ * cliente lento no detenga al publicador ni a las demás tareas programadas.
+ */
+@Service
+public class CambioService {
+
+    private static final Logger log = LoggerFactory.getLogger(CambioService.class);
+
+    public static final String VENTA = "VENTA";
+    public static final String MOVIMIENTO_INVENTARIO = "MOVIMIENTO_INVENTARIO";
+
+    private static final long LATIDO_MS = 15_000;
+
+    @Autowired
+    private EventoCambioRepository eventoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cambios.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${cambios.retencion-dias:7}")
+    private int retencionDias;
+
+    @Value("${cambios.sse.trabajadores:4}")
+    private int trabajadores;
+
+    private TransactionTemplate transaccion;
+    private ExecutorService ejecutor;
+    private volatile long ultimaPosicion;
+    private long ultimoLatido = System.currentTimeMillis();
+
+    private record Espera(long desde, String tipo, int limite, DeferredResult<List<EventoCambioDTO>> resultado) {
+    }
+
+    private static final class Suscriptor {
+        private final SseEmitter emisor;
+        private final String tipo;
+        private final AtomicBoolean enVuelo = new AtomicBoolean();
+        private volatile long cursor;
+
+        Suscriptor(SseEmitter emisor, String tipo, long cursor) {
+            this.emisor = emisor;
+            this.tipo = tipo;
+            this.cursor = cursor;
+        }
+    }
+
+    private final Queue<Espera> esperas = new ConcurrentLinkedQueue<>();
+    private final Queue<Suscriptor> suscriptores = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        transaccion = new TransactionTemplate(transactionManager);
+        ultimaPosicion = eventoRepository.findUltimaPosicion();
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = Executors.newFixedThreadPool(trabajadores, r -> {
+            Thread t = new Thread(r, "cambios-sse-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        ejecutor.shutdownNow();
+        ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public void registrarVenta(Venta venta, String operacion) {
+        VentaDTO dto = DTOConverter.convertToDto(venta, VentaDTO.class);
+        if (venta.getDetalles() != null) {
+            dto.setDetalles(venta.getDetalles().stream()
+                    .map(d -> DTOConverter.convertToDto(d, DetalleVentaDTO.class))
+                    .collect(Collectors.toList()));
+        }
+        registrar(VENTA, operacion, venta.getId(), dto);
+    }
+
+    public void registrarMovimiento(MovimientoInventario movimiento) {
+        MovimientoInventarioDTO dto = DTOConverter.convertToDto(movimiento, MovimientoInventarioDTO.class);
+        // Solo los identificadores: la entidad relacionada puede ser un proxy sin cargar
+        if (movimiento.getProducto() != null) {
+            dto.setProductoId(movimiento.getProducto().getId());
+        }
+        if (movimiento.getLote() != null) {
+            dto.setLoteId(movimiento.getLote().getId());
+        }
+        registrar(MOVIMIENTO_INVENTARIO, movimiento.getTipoMovimiento(), movimiento.getId(), dto);
+    }
+
+    private void registrar(String tipo, String operacion, Long entidadId, Object contenido) {
+        EventoCambio e = new EventoCambio();
+        e.setTipo(tipo);
+        e.setOperacion(operacion);
+        e.setEntidadId(entidadId);
+        e.setContenido(objectMapper.writeValueAsString(contenido));
+        eventoRepository.save(e);
+    }
+
+    public List<EventoCambioDTO> leer(long desde, String tipo, int limite) {
+        return eventoRepository.findDesde(desde, tipo, PageRequest.of(0, limite)).stream()
+                .map(e -> DTOConverter.convertToDto(e, EventoCambioDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Long-poll: responde de inmediato si hay eventos después de {@code desde}; si no,
+     * deja la petición en espera hasta que se publiquen o venza el plazo (lista vacía).
+     */
+    public DeferredResult<List<EventoCambioDTO>> esperar(long desde, String tipo, int limite, long esperaMs) {
+        DeferredResult<List<EventoCambioDTO>> resultado = new DeferredResult<>(esperaMs, List.of());
+        if (desde < ultimaPosicion || esperaMs <= 0) {
+            resultado.setResult(leer(desde, tipo, limite));
+            return resultado;
+        }
+        Espera espera = new Espera(desde, tipo, limite, resultado);
+        resultado.onCompletion(() -> esperas.remove(espera));
+        esperas.add(espera);
+        return resultado;
+    }
+
+    /** Suscripción SSE; los eventos atrasados se envían en el siguiente ciclo del publicador. */
+    public SseEmitter suscribir(long desde, String tipo, long timeoutMs) {
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        Suscriptor s = new Suscriptor(emisor, tipo, desde);
+        emisor.onCompletion(() -> suscriptores.remove(s));
+        emisor.onTimeout(emisor::complete);
+        emisor.onError(e -> suscriptores.remove(s));
+        suscriptores.add(s);
+        return emisor;
+    }
+
+    public long getUltimaPosicion() {
+        return ultimaPosicion;
+    }
+
+    /** Asigna posición a los eventos confirmados y los despacha a quien espera. */
+    @Scheduled(fixedDelayString = "${cambios.publicacion-ms:200}")
+    public synchronized void publicar() {
+        long anterior = ultimaPosicion;
+        List<EventoCambio> nuevos = new ArrayList<>();
+        List<EventoCambio> publicados;
+        do {
+            publicados = transaccion.execute(status -> {
+                List<EventoCambio> pendientes = eventoRepository.findSinPublicar(PageRequest.of(0, tamanoLote));
+                long posicion = ultimaPosicion;
+                for (EventoCambio e : pendientes) {
+                    e.setPosicion(++posicion);
+                }
+                return pendientes;
+            });
+            if (!publicados.isEmpty()) {
+                ultimaPosicion = publicados.get(publicados.size() - 1).getPosicion();
+                nuevos.addAll(publicados);
+            }
+        } while (publicados.size() == tamanoLote);
+
+        // Lo publicado en este ciclo, en orden de posición; si fue más de un lote, quien se
+        // quedó atrás lo lee de la base en bloques
+        List<EventoCambioDTO> recientes = nuevos.size() <= tamanoLote
+                ? nuevos.stream().map(e -> DTOConverter.convertToDto(e, EventoCambioDTO.class)).toList()
+                : null;
+        despacharEsperas(anterior, recientes);
+        despacharSuscriptores(anterior, ultimaPosicion, recientes);
+    }
+
+    private void despacharEsperas(long anterior, List<EventoCambioDTO> recientes) {
+        for (Espera e : esperas) {
+            if (e.desde() < ultimaPosicion) {
+                List<EventoCambioDTO> eventos = recientes != null && e.desde() == anterior
+                        ? filtrar(recientes, e.tipo(), e.limite())
+                        : leer(e.desde(), e.tipo(), e.limite());
+                // Si todo lo nuevo es de otro tipo sigue esperando
+                if (!eventos.isEmpty()) {
+                    e.resultado().setResult(eventos);
+                }
+            }
+        }
+    }
+
+    private void despacharSuscriptores(long anterior, long hasta, List<EventoCambioDTO> recientes) {
+        boolean latido = System.currentTimeMillis() - ultimoLatido >= LATIDO_MS;
+        if (latido) {
+            ultimoLatido = System.currentTimeMillis();
+        }
+        for (Suscriptor s : suscriptores) {
+            // Un suscriptor con envíos en curso se pone al día en un ciclo posterior por su cursor
+            if ((s.cursor < hasta || latido) && s.enVuelo.compareAndSet(false, true)) {
+                ejecutor.execute(() -> {
+                    try {
+                        entregar(s, anterior, hasta, recientes, latido);
+                    } finally {
+                        s.enVuelo.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    private void entregar(Suscriptor s, long anterior, long hasta, List<EventoCambioDTO> recientes, boolean latido) {
+        try {
+            if (recientes != null && s.cursor == anterior) {
+                for (EventoCambioDTO e : recientes) {
+                    if (s.tipo == null || s.tipo.equals(e.getTipo())) {
+                        enviar(s, e);
+                    }
+                }
+                s.cursor = hasta;
+            }
+            while (s.cursor < hasta) {
+                List<EventoCambio> eventos = eventoRepository.findDesde(s.cursor, s.tipo,
+                        PageRequest.of(0, tamanoLote));
+                for (EventoCambio e : eventos) {
+                    enviar(s, DTOConverter.convertToDto(e, EventoCambioDTO.class));
+                }
+                // Sin más eventos de su tipo: queda al día hasta la posición publicada
+                long ultimo = eventos.isEmpty() ? hasta : eventos.get(eventos.size() - 1).getPosicion();
+                s.cursor = eventos.size() < tamanoLote ? Math.max(hasta, ultimo) : ultimo;
+            }
+            if (latido) {
+                s.emisor.send(SseEmitter.event().comment("latido"));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Cliente desconectado
+            suscriptores.remove(s);
+            s.emisor.completeWithError(ex);
+        }
+    }
+
+    private static void enviar(Suscriptor s, EventoCambioDTO e) throws IOException {
+        s.emisor.send(SseEmitter.event()
+                .id(String.valueOf(e.getPosicion()))
+                .name(e.getTipo())
+                .data(e));
+    }
+
+    private static List<EventoCambioDTO> filtrar(List<EventoCambioDTO> eventos, String tipo, int limite) {
+        return eventos.stream()
+                .filter(e -> tipo == null || tipo.equals(e.getTipo()))
+                .limit(limite)
+                .toList();
+    }
+
+    @Scheduled(cron = "${cambios.purga-cron:0 30 3 * * *}")
+    public void purgar() {
+        int borrados = eventoRepository.purgar(LocalDateTime.now().minusDays(retencionDias));
+        if (borrados > 0) {
+            log.info("Flujo de cambios: {} eventos con más de {} días eliminados", borrados, retencionDias);
+        }
+    }
+}
@@ -2,18 +2,50 @@ package com.example.backend.service;
 
 import com.example.backend.model.Cliente;
 import com.example.backend.repository.ClienteRepository;
+import com.example.backend.util.CargaMultiple;
+import com.example.backend.util.Parche;
+import com.example.backend.util.Texto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 public class ClienteService {
 
+    public static final int TAMANO_MAXIMO = 100;
+    private static final int PAGINA_MAXIMA = 50;
+    private static final int CANDIDATOS_DIFUSOS = 300;
+
+    private static final Pattern TELEFONO = Pattern.compile("[+\\d][\\d\\s-]{6,}");
+    private static final Pattern RFC = Pattern.compile("[A-ZÑ&]{3,4}\\d{6}[A-Z0-9]{3}");
+
+    private static final Set<String> CAMPOS_EDITABLES = Set.of("nombre", "apellido", "email", "telefono", "direccion",
+            "dni", "rfc", "codigoPostal", "regimenFiscal", "razonSocial", "fechaNacimiento", "tipoCliente",
+            "descuento", "activo");
+
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     public List<Cliente> findAll() {
         return clienteRepository.findAll();
     }
@@ -22,6 +54,11 @@ public class ClienteService {
         return clienteRepository.findByActivo(activo);
     }
 
+    @Transactional(readOnly = true)
+    public List<Cliente> findByIds(List<Long> ids) {
+        return CargaMultiple.porIds(entityManager, Cliente.class, ids);
+    }
+
     public Optional<Cliente> findById(Long id) {
         return clienteRepository.findById(id);
     }
@@ -30,10 +67,133 @@ public class ClienteService {
         return clienteRepository.findByDni(dni);
     }
 
+    /**
+     * Búsqueda acotada y paginada: primero por claves exactas (email, teléfono, RFC, DNI),
+     * luego por prefijo de "nombre apellido" o "apellido nombre" y, si no hay resultados,
+     * por similitud sobre un conjunto limitado de candidatos.
+     */
+    public List<Cliente> buscar(String texto, Boolean activo, int pagina, int tamano) {
+        String consulta = texto != null ? texto.trim() : "";
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        if (pagina < 0 || pagina > PAGINA_MAXIMA) {
+            throw new IllegalArgumentException("La página debe estar entre 0 y " + PAGINA_MAXIMA);
+        }
+        tamano = Math.min(Math.max(tamano, 1), TAMANO_MAXIMO);
+
+        if (pagina == 0) {
+            List<Cliente> exactos = buscarPorClave(consulta, activo);
+            if (!exactos.isEmpty()) {
+                return exactos.size() > tamano ? exactos.subList(0, tamano) : exactos;
+            }
+        }
+
+        String normalizado = Texto.normalizar(consulta);
+        List<Cliente> porPrefijo = buscarPorPrefijo(normalizado, activo, pagina, tamano);
+        if (!porPrefijo.isEmpty() || pagina > 0 || normalizado.length() < 3) {
+            return porPrefijo;
+        }
+        return buscarDifuso(normalizado, activo, tamano);
+    }
+
+    private List<Cliente> buscarPorClave(String consulta, Boolean activo) {
+        List<Cliente> encontrados = new ArrayList<>();
+        if (consulta.indexOf('@') >= 0) {
+            encontrados.addAll(clienteRepository.findByEmail(consulta));
+        } else if (TELEFONO.matcher(consulta).matches()) {
+            encontrados.addAll(clienteRepository.findByTelefono(consulta));
+        } else if (RFC.matcher(consulta.toUpperCase()).matches()) {
+            encontrados.addAll(clienteRepository.findByRfc(consulta.toUpperCase()));
+        }
+        if (encontrados.isEmpty() && consulta.indexOf(' ') < 0) {
+            Cliente porDni = clienteRepository.findByDni(consulta);
+            if (porDni != null) {
+                encontrados.add(porDni);
+            }
+        }
+        encontrados.removeIf(c -> activo != null && !activo.equals(c.getActivo()));
+        return encontrados;
+    }
+
+    // Dos consultas por índice (nombre y apellido) que se mezclan en orden; evita un OR sin índice.
+    // Cada una ordena por su columna e id, tal como viene el índice, y la mezcla ordena por el
+    // texto que coincidió (el menor si coinciden los dos): los primeros (pagina + 1) * tamano
+    // de la unión siempre están entre los primeros de alguna de las dos.
+    private List<Cliente> buscarPorPrefijo(String normalizado, Boolean activo, int pagina, int tamano) {
+        String prefijo = Texto.escaparLike(normalizado) + "%";
+        PageRequest hastaPagina = PageRequest.of(0, (pagina + 1) * tamano);
+
+        Map<Long, Coincidencia> unicos = new LinkedHashMap<>();
+        for (Cliente c : clienteRepository.buscarPorNombre(prefijo, activo, hastaPagina)) {
+            unicos.put(c.getId(), new Coincidencia(c, c.getNombreBusqueda()));
+        }
+        for (Cliente c : clienteRepository.buscarPorApellido(prefijo, activo, hastaPagina)) {
+            unicos.merge(c.getId(), new Coincidencia(c, c.getApellidoBusqueda()),
+                    (a, b) -> a.clave().compareTo(b.clave()) <= 0 ? a : b);
+        }
+
+        List<Coincidencia> ordenados = new ArrayList<>(unicos.values());
+        ordenados.sort(Comparator.comparing(Coincidencia::clave).thenComparing(m -> m.cliente().getId()));
+        int desde = Math.min(pagina * tamano, ordenados.size());
+        int hasta = Math.min(desde + tamano, ordenados.size());
+        return ordenados.subList(desde, hasta).stream().map(Coincidencia::cliente).toList();
+    }
+
+    private record Coincidencia(Cliente cliente, String clave) {
+    }
+
+    private List<Cliente> buscarDifuso(String normalizado, Boolean activo, int tamano) {
+        int maximo = normalizado.length() <= 5 ? 1 : 2;
+        // Se fija solo el primer tercio como prefijo para tolerar errores de captura posteriores
+        String prefijo = Texto.escaparLike(normalizado.substring(0, Math.max(1, normalizado.length() / 3))) + "%";
+        PageRequest candidatos = PageRequest.of(0, CANDIDATOS_DIFUSOS);
+
+        Map<Long, Cliente> unicos = new LinkedHashMap<>();
+        for (Cliente c : clienteRepository.buscarPorNombre(prefijo, activo, candidatos)) {
+            unicos.put(c.getId(), c);
+        }
+        for (Cliente c : clienteRepository.buscarPorApellido(prefijo, activo, candidatos)) {
+            unicos.putIfAbsent(c.getId(), c);
+        }
+
+        Map<Cliente, Integer> distancias = new LinkedHashMap<>();
+        for (Cliente c : unicos.values()) {
+            int d = Math.min(distanciaPrefijo(normalizado, c.getNombreBusqueda(), maximo),
+                    distanciaPrefijo(normalizado, c.getApellidoBusqueda(), maximo));
+            if (d <= maximo) {
+                distancias.put(c, d);
+            }
+        }
+        return distancias.entrySet().stream()
+                .sorted(Map.Entry.<Cliente, Integer>comparingByValue()
+                        .thenComparing(e -> e.getKey().getNombreBusqueda(), Comparator.nullsLast(String::compareTo)))
+                .limit(tamano)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static int distanciaPrefijo(String consulta, String campo, int maximo) {
+        if (campo == null || campo.isEmpty()) return maximo + 1;
+        String prefijo = campo.length() > consulta.length() ? campo.substring(0, consulta.length()) : campo;
+        return Texto.distancia(consulta, prefijo, maximo);
+    }
+
     public Cliente save(Cliente cliente) {
         return clienteRepository.save(cliente);
     }
 
+    @Transactional
+    public Optional<Cliente> patch(Long id, long versionEsperada, Map<String, Object> cambios) {
+        Optional<Cliente> encontrado = clienteRepository.findById(id);
+        encontrado.ifPresent(cliente -> {
+            Parche.verificarVersion(Cliente.class, id, cliente.getVersion(), versionEsperada);
+            Parche.aplicar(cliente, cambios, CAMPOS_EDITABLES, objectMapper);
+            clienteRepository.flush();
+        });
+        return encontrado;
+    }
+
     public void deleteById(Long id) {
         clienteRepository.deleteById(id);
     }
@@ -4,6 +4,7 @@ import com.example.backend.model.CorteCaja;
 import com.example.backend.repository.CorteCajaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,16 +22,7 @@ public class CorteCajaService {
             CorteCaja nuevo = new CorteCaja();
             nuevo.setEstado("ABIERTO");
             nuevo.setFechaApertura(LocalDateTime.now());
-            nuevo.setFondoInicial(1000.0);
-            nuevo.setVentasEfectivo(0.0);
-            nuevo.setVentasTarjeta(0.0);
-            nuevo.setVentasTransferencia(0.0);
-            nuevo.setTotalVentas(0.0);
-            nuevo.setTotalDevoluciones(0.0);
-            nuevo.setRetirosEfectivo(0.0);
-            nuevo.setEfectivoDeclarado(0.0);
-            nuevo.setEfectivoEsperado(0.0);
-            nuevo.setDiferencia(0.0);
+            nuevo.setFondoInicialCentavos(100_000L);
             nuevo.setCantidadVentas(0);
             nuevo.setCantidadCancelaciones(0);
             return Optional.of(corteCajaRepository.save(nuevo));
@@ -56,6 +48,25 @@ public class CorteCajaService {
         return corteCajaRepository.save(corte);
     }
 
+    /** Acumula una venta en el corte abierto, por método de pago, con un UPDATE atómico. */
+    @Transactional
+    public void registrarVenta(long totalCentavos, String metodoPago) {
+        CorteCaja corte = getOrCreateActual();
+        // Se reparte con la misma regla del corte sobre un acumulado vacío y se suma en la base
+        CorteCaja venta = new CorteCaja();
+        venta.registrarVenta(totalCentavos, metodoPago);
+        corteCajaRepository.registrarVenta(corte.getId(), venta.getTotalVentasCentavos(),
+                venta.getVentasEfectivoCentavos(), venta.getVentasTarjetaCentavos(),
+                venta.getVentasTransferenciaCentavos());
+    }
+
+    /** Acumula una devolución en el corte abierto con un UPDATE atómico. */
+    @Transactional
+    public void registrarDevolucion(long montoCentavos, boolean cancelacion) {
+        CorteCaja corte = getOrCreateActual();
+        corteCajaRepository.registrarDevolucion(corte.getId(), montoCentavos, cancelacion ? 1 : 0);
+    }
+
     public void save(CorteCaja corteCaja) {
         corteCajaRepository.save(corteCaja);
     }
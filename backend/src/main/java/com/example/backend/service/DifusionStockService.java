@@ -0,0 +1,259 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Difunde a las cajas el stock que cambió. Los cambios de cada transacción se acumulan
+ * aparte y solo entran a la ventana al confirmar; cada ventana se serializa una vez y el
+ * mismo texto se envía a todas las cajas suscritas. Se envía el stock resultante, no la
+ * diferencia, así varias ventas del mismo producto en una ventana viajan como un dato.
+ *
+ * Las transacciones no confirman en el orden en que corren sus afterCompletion: cada stock
+ * lleva una secuencia tomada con la fila ya bloqueada y la ventana se queda solo con el más
+ * reciente de cada producto y lote, aunque el anterior confirme después.
+ *
+ * Los envíos corren en un grupo de hilos propio y cada caja tiene su cola, que se vacía en
+ * orden con una sola tarea a la vez; una caja que acumula demasiadas ventanas sin recibir
+ * se desconecta (al reconectar vuelve a cargar el stock), así nunca detiene al programador.
+ */
+@Service
+public class DifusionStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(DifusionStockService.class);
+
+    private static final long LATIDO_MS = 15_000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventario.stock.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${inventario.stock.sse.trabajadores:2}")
+    private int trabajadores;
+
+    @Value("${inventario.stock.sse.pendientes-maximo:64}")
+    private int pendientesMaximo;
+
+    public record CambioStock(long version, Map<Long, Integer> productos, Map<Long, Integer> lotes) {
+    }
+
+    // Stock resultante y su orden: dos movimientos de la misma fila se forman en el bloqueo
+    private record Stock(int cantidad, long secuencia) {
+    }
+
+    // Pendientes de la transacción en curso
+    private record PendienteTx(Map<Long, Stock> productos, Map<Long, Stock> lotes) {
+    }
+
+    private static final class Caja {
+        private final SseEmitter emisor;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pendientes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger enCola = new AtomicInteger();
+        private final AtomicBoolean enVuelo = new AtomicBoolean();
+
+        Caja(SseEmitter emisor) {
+            this.emisor = emisor;
+        }
+    }
+
+    // Ventana en curso, protegida por el monitor del servicio
+    private Map<Long, Integer> productos = new HashMap<>();
+    private Map<Long, Integer> lotes = new HashMap<>();
+    // Última secuencia aplicada por producto y lote, entre ventanas; también bajo el monitor
+    private final Map<Long, Long> secuenciaProductos = new HashMap<>();
+    private final Map<Long, Long> secuenciaLotes = new HashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Queue<Caja> cajas = new ConcurrentLinkedQueue<>();
+    private ExecutorService ejecutor;
+    private long version;
+    private volatile long ultimoEnvio = System.currentTimeMillis();
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = Executors.newFixedThreadPool(trabajadores, r -> {
+            Thread t = new Thread(r, "stock-sse-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        ejecutor.shutdownNow();
+        ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Anota el stock resultante de un movimiento; se difunde al confirmar la transacción. Se
+     * llama con las filas del producto y del lote bloqueadas, así la secuencia sigue el orden
+     * en que confirman los movimientos de cada fila.
+     */
+    public void registrar(Long productoId, Integer stockProducto, Long loteId, Integer stockLote) {
+        long orden = secuencia.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, Stock> p = new HashMap<>();
+            Map<Long, Stock> l = new HashMap<>();
+            acumular(p, productoId, stockProducto, orden);
+            acumular(l, loteId, stockLote, orden);
+            confirmar(p, l);
+            return;
+        }
+        PendienteTx tx = (PendienteTx) TransactionSynchronizationManager.getResource(this);
+        if (tx == null) {
+            PendienteTx nuevo = new PendienteTx(new HashMap<>(), new HashMap<>());
+            TransactionSynchronizationManager.bindResource(this, nuevo);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DifusionStockService.this);
+                    if (status == STATUS_COMMITTED) {
+                        confirmar(nuevo.productos(), nuevo.lotes());
+                    }
+                }
+            });
+            tx = nuevo;
+        }
+        acumular(tx.productos(), productoId, stockProducto, orden);
+        acumular(tx.lotes(), loteId, stockLote, orden);
+    }
+
+    private synchronized void confirmar(Map<Long, Stock> p, Map<Long, Stock> l) {
+        aplicar(p, productos, secuenciaProductos);
+        aplicar(l, lotes, secuenciaLotes);
+    }
+
+    // Un stock más viejo que el ya aplicado llegó tarde: se descarta
+    private static void aplicar(Map<Long, Stock> confirmados, Map<Long, Integer> ventana, Map<Long, Long> secuencias) {
+        confirmados.forEach((id, stock) -> {
+            Long aplicada = secuencias.get(id);
+            if (aplicada == null || stock.secuencia() > aplicada) {
+                secuencias.put(id, stock.secuencia());
+                ventana.put(id, stock.cantidad());
+            }
+        });
+    }
+
+    private static void acumular(Map<Long, Stock> destino, Long id, Integer stock, long orden) {
+        if (id != null && stock != null) {
+            destino.put(id, new Stock(stock, orden));
+        }
+    }
+
+    public SseEmitter suscribir() {
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        Caja caja = new Caja(emisor);
+        emisor.onCompletion(() -> cajas.remove(caja));
+        emisor.onTimeout(emisor::complete);
+        emisor.onError(e -> cajas.remove(caja));
+        cajas.add(caja);
+        return emisor;
+    }
+
+    public int getSuscriptores() {
+        return cajas.size();
+    }
+
+    /** Cierra la ventana y envía lo acumulado a todas las cajas. */
+    @Scheduled(fixedDelayString = "${inventario.stock.ventana-ms:250}")
+    public void difundir() {
+        boolean latido = System.currentTimeMillis() - ultimoEnvio >= LATIDO_MS;
+        Map<Long, Integer> p;
+        Map<Long, Integer> l;
+        synchronized (this) {
+            if (productos.isEmpty() && lotes.isEmpty() && !latido) {
+                return;
+            }
+            p = productos;
+            l = lotes;
+            productos = new HashMap<>();
+            lotes = new HashMap<>();
+        }
+        ultimoEnvio = System.currentTimeMillis();
+
+        // El evento se arma una sola vez y se reutiliza para todas las cajas
+        Set<ResponseBodyEmitter.DataWithMediaType> evento;
+        if (p.isEmpty() && l.isEmpty()) {
+            evento = SseEmitter.event().comment("latido").build();
+        } else {
+            String json = objectMapper.writeValueAsString(new CambioStock(++version, p, l));
+            evento = SseEmitter.event().id(String.valueOf(version)).name("stock")
+                    .data(json, MediaType.APPLICATION_JSON).build();
+        }
+        for (Caja caja : cajas) {
+            encolar(caja, evento);
+        }
+        if (!p.isEmpty() || !l.isEmpty()) {
+            log.debug("Stock difundido v{}: {} productos, {} lotes a {} cajas", version, p.size(), l.size(), cajas.size());
+        }
+    }
+
+    private void encolar(Caja caja, Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+        if (caja.enCola.incrementAndGet() > pendientesMaximo) {
+            log.warn("Caja sin recibir {} ventanas de stock; se desconecta", pendientesMaximo);
+            desconectar(caja, new IllegalStateException("Caja lenta"));
+            return;
+        }
+        caja.pendientes.add(evento);
+        programar(caja);
+    }
+
+    private void programar(Caja caja) {
+        if (caja.enVuelo.compareAndSet(false, true)) {
+            ejecutor.execute(() -> enviar(caja));
+        }
+    }
+
+    // Una sola tarea por caja: las ventanas llegan en el orden de su versión
+    private void enviar(Caja caja) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> evento;
+            while ((evento = caja.pendientes.poll()) != null) {
+                caja.enCola.decrementAndGet();
+                caja.emisor.send(evento);
+            }
+        } catch (IOException | IllegalStateException e) {
+            desconectar(caja, e);
+        } finally {
+            caja.enVuelo.set(false);
+        }
+        if (!caja.pendientes.isEmpty() && cajas.contains(caja)) {
+            programar(caja);
+        }
+    }
+
+    private void desconectar(Caja caja, Exception e) {
+        if (cajas.remove(caja)) {
+            caja.pendientes.clear();
+            caja.emisor.completeWithError(e);
+        }
+    }
+}
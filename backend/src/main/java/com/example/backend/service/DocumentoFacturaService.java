@@ -0,0 +1,164 @@
+package com.example.backend.service;
+
+import com.example.backend.cfdi.AlmacenDocumentos;
+import com.example.backend.cfdi.GeneradorPdfFactura;
+import com.example.backend.cfdi.GeneradorXmlCfdi;
+import com.example.backend.dto.RegeneracionDocumentosDTO;
+import com.example.backend.model.ConceptoFacturaGlobal;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.CalculadoraTicket;
+import com.example.backend.precios.TicketCalculado;
+import com.example.backend.repository.ConceptoFacturaGlobalRepository;
+import com.example.backend.repository.FacturaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera el XML y el PDF de una factura y los deja en el almacén por contenido.
+ */
+@Service
+public class DocumentoFacturaService {
+
+    public static final String RUTA_DOCUMENTOS = "/api/facturas/documentos/";
+    private static final int TAMANO_BLOQUE_IDS = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentoFacturaService.class);
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private GeneradorXmlCfdi generadorXml;
+
+    @Autowired
+    private GeneradorPdfFactura generadorPdf;
+
+    @Autowired
+    private AlmacenDocumentos almacen;
+
+    @Autowired
+    private ConceptoFacturaGlobalRepository conceptoFacturaGlobalRepository;
+
+    @Autowired
+    private FacturaGlobalService facturaGlobalService;
+
+    @Value("${facturacion.documentos.trabajadores:4}")
+    private int trabajadores;
+
+    public Optional<Factura> generar(Long facturaId) throws IOException {
+        Optional<Factura> encontrada = facturaRepository.findConVentaYDetalles(facturaId);
+        if (encontrada.isEmpty()) {
+            return encontrada;
+        }
+        Factura factura = encontrada.get();
+        Venta venta;
+        TicketCalculado ticket;
+        if (Boolean.TRUE.equals(factura.getGlobal())) {
+            List<ConceptoFacturaGlobal> conceptos = conceptoFacturaGlobalRepository.findByFacturaIdOrderByIdAsc(facturaId);
+            venta = facturaGlobalService.venta(factura, conceptos);
+            ticket = facturaGlobalService.ticket(conceptos);
+        } else {
+            venta = factura.getVenta() != null ? facturable(factura.getVenta()) : new Venta();
+            // Con los impuestos guardados al cobrar; el catálogo solo cubre ventas que no los tienen
+            ticket = CalculadoraTicket.recalcular(precioService.getCatalogo(), venta.getDetalles(),
+                    venta.getDescuentoTotal());
+        }
+
+        String xml = almacen.guardar("xml", salida -> generadorXml.escribir(factura, venta, ticket, salida));
+        String pdf = almacen.guardar("pdf", salida -> generadorPdf.escribir(factura, venta, ticket, salida));
+
+        factura.setUrlXml(RUTA_DOCUMENTOS + xml);
+        factura.setUrlPdf(RUTA_DOCUMENTOS + pdf);
+        facturaRepository.actualizarDocumentos(facturaId, factura.getUrlXml(), factura.getUrlPdf());
+        return Optional.of(factura);
+    }
+
+    /**
+     * La venta tal como se factura: sin los renglones devueltos por completo, en el mismo
+     * orden que las líneas del ticket recalculado. Sin devoluciones es la misma venta.
+     */
+    private static Venta facturable(Venta venta) {
+        if (venta.getDetalles().stream().allMatch(CalculadoraTicket::facturable)) {
+            return venta;
+        }
+        Venta vista = new Venta();
+        vista.setId(venta.getId());
+        vista.setFechaCreacion(venta.getFechaCreacion());
+        vista.setMetodoPago(venta.getMetodoPago());
+        vista.setDescuentoTotal(venta.getDescuentoTotal());
+        vista.setDetalles(new ArrayList<>(venta.getDetalles().stream().filter(CalculadoraTicket::facturable).toList()));
+        return vista;
+    }
+
+    public Optional<Path> buscarDocumento(String nombre) {
+        return almacen.buscar(nombre);
+    }
+
+    /**
+     * Regenera los documentos de las facturas creadas en [desde, hasta). Los ids se leen en
+     * bloques por llave y las facturas se procesan en paralelo con un número acotado de
+     * tareas en vuelo, de modo que la memoria no crece con el tamaño del mes.
+     */
+    public RegeneracionDocumentosDTO regenerar(LocalDate desde, LocalDate hasta) throws InterruptedException {
+        long inicio = System.currentTimeMillis();
+        AtomicInteger procesadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        Semaphore enVuelo = new Semaphore(trabajadores * 2);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(trabajadores);
+
+        try {
+            Long ultimo = 0L;
+            while (true) {
+                List<Long> ids = facturaRepository.findIdsParaRegenerar(desde.atStartOfDay(), hasta.atStartOfDay(),
+                        ultimo, PageRequest.of(0, TAMANO_BLOQUE_IDS));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Long id : ids) {
+                    enVuelo.acquire();
+                    ejecutor.execute(() -> {
+                        try {
+                            generar(id);
+                            procesadas.incrementAndGet();
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                            log.warn("No se pudieron regenerar los documentos de la factura {}: {}", id, e.getMessage());
+                        } finally {
+                            enVuelo.release();
+                        }
+                    });
+                }
+                ultimo = ids.get(ids.size() - 1);
+            }
+        } finally {
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(1, TimeUnit.HOURS);
+        }
+
+        RegeneracionDocumentosDTO resultado = new RegeneracionDocumentosDTO();
+        resultado.setProcesadas(procesadas.get());
+        resultado.setErrores(errores.get());
+        resultado.setMilisegundos(System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.util.CargaMultiple;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Existencias de productos y lotes. Las columnas de stock no las escribe Hibernate
+ * (updatable = false): aquí se bloquean las filas y se escriben con UPDATE propios que no
+ * tocan la versión, así una venta no choca con una edición del catálogo y una edición no
+ * regresa el stock a lo que leyó. Hibernate no ve estos UPDATE: cada fila escrita sale
+ * del caché de segundo nivel al escribirla y otra vez al terminar la transacción.
+ */
+@Service
+public class ExistenciaService {
+
+    public record Tabla(Class<?> entidad, String nombre, String columna) {
+    }
+
+    public static final Tabla PRODUCTOS = new Tabla(Producto.class, "productos", "stock_total");
+    public static final Tabla LOTES = new Tabla(Lote.class, "lotes", "cantidad_disponible");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Existencia actual de cada id, leída con la fila bloqueada hasta el fin de la
+     * transacción. Un stock nulo cuenta como cero; los ids que no existen no aparecen.
+     */
+    public Map<Long, Integer> bloquear(Tabla tabla, Collection<Long> ids) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Integer> existencias = new HashMap<>();
+        for (int desde = 0; desde < unicos.size(); desde += CargaMultiple.MAXIMO_IDS) {
+            List<Long> bloque = unicos.subList(desde, Math.min(desde + CargaMultiple.MAXIMO_IDS, unicos.size()));
+            String sql = "select id, " + tabla.columna() + " from " + tabla.nombre() + " where id in ("
+                    + String.join(",", Collections.nCopies(bloque.size(), "?")) + ") for update";
+            entityManager.unwrap(Session.class).doWork(conexion -> {
+                try (PreparedStatement ps = conexion.prepareStatement(sql)) {
+                    for (int i = 0; i < bloque.size(); i++) {
+                        ps.setLong(i + 1, bloque.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            existencias.put(rs.getLong(1), rs.getInt(2));
+                        }
+                    }
+                }
+            });
+        }
+        return existencias;
+    }
+
+    /** Escribe las existencias nuevas en un solo lote JDBC, sin tocar la versión. */
+    public void escribir(Tabla tabla, Map<Long, Integer> existencias) {
+        if (existencias.isEmpty()) {
+            return;
+        }
+        String sql = "update " + tabla.nombre() + " set " + tabla.columna() + " = ? where id = ?";
+        entityManager.unwrap(Session.class).doWork(conexion -> {
+            try (PreparedStatement ps = conexion.prepareStatement(sql)) {
+                for (Map.Entry<Long, Integer> e : existencias.entrySet()) {
+                    ps.setInt(1, e.getValue());
+                    ps.setLong(2, e.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+        desalojar(tabla.entidad(), existencias.keySet());
+    }
+
+    /**
+     * Saca las entidades del caché de segundo nivel ahora y al terminar la transacción.
+     * También se usa tras editar un producto o lote: la entrada que Hibernate deja en caché
+     * lleva el stock que se leyó antes de la edición.
+     */
+    public void desalojar(Class<?> entidad, Collection<Long> ids) {
+        List<Long> copia = List.copyOf(ids);
+        quitarDelCache(entidad, copia);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    quitarDelCache(entidad, copia);
+                }
+            });
+        }
+    }
+
+    private void quitarDelCache(Class<?> entidad, List<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        for (Long id : ids) {
+            cache.evict(entidad, id);
+        }
+    }
+}
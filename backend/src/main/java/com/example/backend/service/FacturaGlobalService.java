@@ -0,0 +1,214 @@
+package com.example.backend.service;
+
+import com.example.backend.cfdi.PeriodoGlobal;
+import com.example.backend.dto.LineaVentaFacturable;
+import com.example.backend.model.ConceptoFacturaGlobal;
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.CalculadoraTicket;
+import com.example.backend.precios.CatalogoPrecios;
+import com.example.backend.precios.TicketCalculado;
+import com.example.backend.repository.ConceptoFacturaGlobalRepository;
+import com.example.backend.repository.VentaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Factura global del periodo para las ventas que no se facturaron individualmente. El
+ * periodo debe corresponder a una periodicidad del SAT (ver PeriodoGlobal).
+ *
+ * Las ventas se marcan primero con un UPDATE masivo y después se recorren en streaming
+ * las que quedaron ligadas a la factura, así lo acumulado coincide exactamente con lo
+ * marcado. En memoria solo viven los renglones de la venta en curso y un acumulado por
+ * combinación de tasas.
+ */
+@Service
+public class FacturaGlobalService {
+
+    private static final Logger log = LoggerFactory.getLogger(FacturaGlobalService.class);
+
+    public static final String RFC_PUBLICO_GENERAL = "XAXX010101000";
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ConceptoFacturaGlobalRepository conceptoRepository;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private PrecioService precioService;
+
+    @Value("${facturacion.emisor.lugar-expedicion:00000}")
+    private String lugarExpedicion;
+
+    @Transactional
+    public Factura generar(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("El periodo debe cumplir desde < hasta");
+        }
+        PeriodoGlobal.de(desde, hasta);
+
+        Factura factura = new Factura();
+        factura.setGlobal(true);
+        factura.setPeriodoDesde(desde);
+        factura.setPeriodoHasta(hasta);
+        factura.setRfc(RFC_PUBLICO_GENERAL);
+        factura.setRazonSocial("PUBLICO EN GENERAL");
+        factura.setUsoCfdi("S01");
+        factura.setRegimenFiscal("616");
+        factura.setCodigoPostal(lugarExpedicion);
+        factura.setEstatus("PENDIENTE");
+        factura = facturaService.guardarFactura(factura);
+
+        int marcadas = ventaRepository.asignarFacturaGlobal(factura.getId(), desde.atStartOfDay(),
+                hasta.atStartOfDay(), LocalDateTime.now());
+        if (marcadas == 0) {
+            throw new IllegalArgumentException("No hay ventas sin facturar en el periodo");
+        }
+
+        // Cada renglón se acumula con las tasas con que se cobró; el catálogo solo cubre ventas
+        // registradas antes de que se guardaran los impuestos por renglón
+        CatalogoPrecios catalogo = precioService.getCatalogo();
+        Map<Long, ConceptoFacturaGlobal> conceptos = new TreeMap<>();
+        Acumulador acumulador = new Acumulador(catalogo, conceptos);
+
+        try (Stream<LineaVentaFacturable> lineas = ventaRepository.streamLineasPorFactura(factura.getId())) {
+            lineas.forEach(acumulador::agregar);
+        }
+        acumulador.cerrarVenta();
+
+        for (ConceptoFacturaGlobal c : conceptos.values()) {
+            c.setFactura(factura);
+        }
+        conceptoRepository.saveAll(conceptos.values());
+
+        long total = 0;
+        for (ConceptoFacturaGlobal c : conceptos.values()) {
+            total += c.getImporteCentavos() - c.getDescuentoCentavos() + c.getIepsCentavos() + c.getIvaCentavos();
+        }
+        if (total != acumulador.totalRegistrado) {
+            log.warn("Factura global {}: el total recalculado ({}) difiere del registrado en las ventas ({})",
+                    factura.getId(), total, acumulador.totalRegistrado);
+        }
+
+        factura.setCantidadVentas(marcadas);
+        log.info("Factura global {} del {} al {}: {} ventas, {} conceptos", factura.getId(), desde, hasta,
+                marcadas, conceptos.size());
+        return facturaService.guardarFactura(factura);
+    }
+
+    /** Ticket equivalente a los conceptos guardados, para generar el XML y el PDF. */
+    public TicketCalculado ticket(List<ConceptoFacturaGlobal> conceptos) {
+        List<TicketCalculado.Linea> lineas = new ArrayList<>(conceptos.size());
+        long subtotal = 0;
+        long iva = 0;
+        long ieps = 0;
+        for (ConceptoFacturaGlobal c : conceptos) {
+            long neto = c.getImporteCentavos() - c.getDescuentoCentavos();
+            lineas.add(new TicketCalculado.Linea(null, 1, c.getImporteCentavos(), c.getImporteCentavos(),
+                    c.getDescuentoCentavos(), 0L, c.getIepsPuntosBase(), c.getIepsCentavos(),
+                    c.getIvaPuntosBase(), c.getIvaCentavos(), neto));
+            subtotal += neto;
+            iva += c.getIvaCentavos();
+            ieps += c.getIepsCentavos();
+        }
+        return new TicketCalculado(0L, List.copyOf(lineas), subtotal, 0L, iva, ieps, subtotal + iva + ieps);
+    }
+
+    /** Venta sin persistir cuyos renglones describen cada concepto de la factura global. */
+    public Venta venta(Factura factura, List<ConceptoFacturaGlobal> conceptos) {
+        Venta venta = new Venta();
+        venta.setFechaCreacion(factura.getFechaCreacion());
+        for (ConceptoFacturaGlobal c : conceptos) {
+            DetalleVenta d = new DetalleVenta();
+            d.setCantidad(1);
+            d.setProductoNombre("Ventas " + c.getCantidadLineas() + " renglones IVA " + porcentaje(c.getIvaPuntosBase())
+                    + "% IEPS " + porcentaje(c.getIepsPuntosBase()) + "%");
+            venta.getDetalles().add(d);
+        }
+        return venta;
+    }
+
+    private static String porcentaje(long puntosBase) {
+        return BigDecimal.valueOf(puntosBase, 2).stripTrailingZeros().toPlainString();
+    }
+
+    // Agrupa los renglones consecutivos de cada venta y los acumula por tasa al cambiar de venta
+    private static final class Acumulador {
+        private final CatalogoPrecios catalogo;
+        private final Map<Long, ConceptoFacturaGlobal> conceptos;
+        private final List<DetalleVenta> detalles = new ArrayList<>();
+        private Long ventaActual;
+        private Double descuentoActual;
+        private long totalRegistrado;
+
+        Acumulador(CatalogoPrecios catalogo, Map<Long, ConceptoFacturaGlobal> conceptos) {
+            this.catalogo = catalogo;
+            this.conceptos = conceptos;
+        }
+
+        void agregar(LineaVentaFacturable linea) {
+            if (!linea.ventaId().equals(ventaActual)) {
+                cerrarVenta();
+                ventaActual = linea.ventaId();
+                descuentoActual = linea.descuentoVenta();
+                // Lo reembolsado en devoluciones no se factura
+                totalRegistrado += (linea.totalVentaCentavos() != null ? linea.totalVentaCentavos() : 0L)
+                        - (linea.totalDevueltoCentavos() != null ? linea.totalDevueltoCentavos() : 0L);
+            }
+            DetalleVenta d = new DetalleVenta();
+            d.setProductoId(linea.productoId());
+            d.setCantidad(linea.cantidad());
+            d.setCantidadDevuelta(linea.cantidadDevuelta());
+            d.setPrecioUnitarioCentavos(linea.precioUnitarioCentavos());
+            d.setDescuento(linea.descuento());
+            d.setSubtotalCentavos(linea.subtotalCentavos());
+            d.setDescuentoClienteCentavos(linea.descuentoClienteCentavos());
+            d.setIepsPuntosBase(linea.iepsPuntosBase());
+            d.setIepsCentavos(linea.iepsCentavos());
+            d.setIvaPuntosBase(linea.ivaPuntosBase());
+            d.setIvaCentavos(linea.ivaCentavos());
+            detalles.add(d);
+        }
+
+        void cerrarVenta() {
+            if (detalles.isEmpty()) {
+                return;
+            }
+            TicketCalculado ticket = CalculadoraTicket.recalcular(catalogo, detalles, descuentoActual);
+            for (TicketCalculado.Linea l : ticket.lineas()) {
+                // Clave única por par de tasas: IVA en los bits altos, IEPS en los bajos
+                long clave = (l.ivaPuntosBase() << 32) | l.iepsPuntosBase();
+                ConceptoFacturaGlobal c = conceptos.computeIfAbsent(clave, k -> {
+                    ConceptoFacturaGlobal nuevo = new ConceptoFacturaGlobal();
+                    nuevo.setIvaPuntosBase(l.ivaPuntosBase());
+                    nuevo.setIepsPuntosBase(l.iepsPuntosBase());
+                    return nuevo;
+                });
+                c.setImporteCentavos(c.getImporteCentavos() + l.importeCentavos());
+                c.setDescuentoCentavos(c.getDescuentoCentavos() + l.descuentoLineaCentavos() + l.descuentoClienteCentavos());
+                c.setIepsCentavos(c.getIepsCentavos() + l.iepsCentavos());
+                c.setIvaCentavos(c.getIvaCentavos() + l.ivaCentavos());
+                c.setCantidadLineas(c.getCantidadLineas() + 1);
+            }
+            detalles.clear();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.backend.model.Factura;
 import com.example.backend.repository.FacturaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +15,9 @@ public class FacturaService {
     @Autowired
     private FacturaRepository facturaRepository;
 
+    @Autowired
+    private FolioService folioService;
+
     public List<Factura> obtenerTodas() {
         return facturaRepository.findAll();
     }
@@ -27,7 +31,27 @@ public class FacturaService {
     }
 
     public Factura guardarFactura(Factura factura) {
-        return facturaRepository.save(factura);
+        if (factura.getId() != null) {
+            return facturaRepository.save(factura);
+        }
+
+        // El folio lo asigna siempre el servidor, antes de abrir la transacción del alta
+        // para que la reserva de un bloque nuevo no compita por conexiones con ella
+        String serie = factura.getSerie() != null && !factura.getSerie().isBlank()
+                ? factura.getSerie().trim().toUpperCase() : folioService.getSerieDefault();
+        long folio = folioService.asignar(serie);
+        factura.setSerie(serie);
+        factura.setFolio(folio);
+        factura.setFolioCfdi(serie + folio);
+        try {
+            return facturaRepository.save(factura);
+        } catch (RuntimeException e) {
+            // Dentro de una transacción externa el folio se devuelve al terminar ésta
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                folioService.liberar(serie, folio);
+            }
+            throw e;
+        }
     }
 
     public void eliminarFactura(Long id) {
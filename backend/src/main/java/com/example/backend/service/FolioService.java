@@ -0,0 +1,175 @@
+package com.example.backend.service;
+
+import com.example.backend.model.BloqueFolio;
+import com.example.backend.model.SerieFolio;
+import com.example.backend.repository.BloqueFolioRepository;
+import com.example.backend.repository.FacturaRepository;
+import com.example.backend.repository.SerieFolioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Asigna folios consecutivos por serie sin huecos.
+ *
+ * Los folios se reservan en la base por bloques (una fila por serie, bloqueada solo al
+ * reservar) y se reparten desde memoria. Un folio cuya transacción se revierte vuelve a la
+ * lista de libres y es el siguiente en entregarse. Los bloques quedan registrados en
+ * bloques_folio; al cargar una serie se recuperan los folios reservados que no llegaron a
+ * ninguna factura, de modo que una caída tampoco deja huecos.
+ */
+@Service
+public class FolioService {
+
+    private static final Logger log = LoggerFactory.getLogger(FolioService.class);
+
+    @Autowired
+    private SerieFolioRepository serieFolioRepository;
+
+    @Autowired
+    private BloqueFolioRepository bloqueFolioRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${facturacion.folios.tamano-bloque:50}")
+    private int tamanoBloque;
+
+    @Value("${facturacion.folios.serie:A}")
+    private String serieDefault;
+
+    private TransactionTemplate nuevaTransaccion;
+
+    private final ConcurrentHashMap<String, EstadoSerie> series = new ConcurrentHashMap<>();
+
+    private static final class EstadoSerie {
+        private final PriorityQueue<Long> libres = new PriorityQueue<>();
+        private long siguiente;
+        private long fin = -1;
+    }
+
+    @PostConstruct
+    public void init() {
+        nuevaTransaccion = new TransactionTemplate(transactionManager);
+        nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String getSerieDefault() {
+        return serieDefault;
+    }
+
+    /**
+     * Entrega el menor folio disponible de la serie. Si hay una transacción activa, el folio
+     * se devuelve automáticamente cuando ésta no confirma.
+     */
+    public long asignar(String serie) {
+        EstadoSerie estado = series.computeIfAbsent(serie, this::recuperar);
+        long folio;
+        synchronized (estado) {
+            if (!estado.libres.isEmpty()) {
+                folio = estado.libres.poll();
+            } else {
+                if (estado.siguiente > estado.fin) {
+                    reservarBloque(serie, estado);
+                }
+                folio = estado.siguiente++;
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        liberar(serie, folio);
+                    }
+                }
+            });
+        }
+        return folio;
+    }
+
+    public void liberar(String serie, long folio) {
+        EstadoSerie estado = series.get(serie);
+        if (estado == null) {
+            // La serie se recargará desde los bloques y el folio aparecerá como libre
+            return;
+        }
+        synchronized (estado) {
+            estado.libres.add(folio);
+        }
+    }
+
+    /** Descarta el estado en memoria; la siguiente asignación vuelve a recuperar cada serie. */
+    void reiniciar() {
+        series.clear();
+    }
+
+    private void reservarBloque(String serie, EstadoSerie estado) {
+        BloqueFolio bloque = nuevaTransaccion.execute(status -> {
+            SerieFolio s = serieFolioRepository.findParaReservar(serie).orElseGet(() -> {
+                SerieFolio nueva = new SerieFolio();
+                nueva.setSerie(serie);
+                nueva.setSiguiente(1L);
+                return nueva;
+            });
+            long inicio = s.getSiguiente();
+            s.setSiguiente(inicio + tamanoBloque);
+            serieFolioRepository.save(s);
+
+            BloqueFolio b = new BloqueFolio();
+            b.setSerie(serie);
+            b.setInicio(inicio);
+            b.setFin(inicio + tamanoBloque - 1);
+            return bloqueFolioRepository.save(b);
+        });
+        estado.siguiente = bloque.getInicio();
+        estado.fin = bloque.getFin();
+    }
+
+    // Reconstruye los libres de la serie a partir de los bloques reservados que aún tienen
+    // folios sin factura; los bloques ya consumidos por completo se eliminan
+    private EstadoSerie recuperar(String serie) {
+        EstadoSerie estado = new EstadoSerie();
+        nuevaTransaccion.executeWithoutResult(status -> {
+            int recuperados = 0;
+            for (BloqueFolio b : bloqueFolioRepository.findBySerieOrderByInicioAsc(serie)) {
+                List<Long> usados = facturaRepository.findFoliosEnRango(serie, b.getInicio(), b.getFin());
+                Set<Long> ocupados = new HashSet<>(usados);
+                int libresBloque = 0;
+                for (long f = b.getInicio(); f <= b.getFin(); f++) {
+                    if (!ocupados.contains(f)) {
+                        estado.libres.add(f);
+                        libresBloque++;
+                    }
+                }
+                if (libresBloque == 0) {
+                    bloqueFolioRepository.delete(b);
+                }
+                recuperados += libresBloque;
+            }
+            if (recuperados > 0) {
+                log.info("Serie {}: {} folios reservados sin usar se devuelven a la lista de libres", serie, recuperados);
+            }
+        });
+        return estado;
+    }
+}
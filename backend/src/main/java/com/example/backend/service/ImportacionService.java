@@ -0,0 +1,481 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ErrorImportacionDTO;
+import com.example.backend.dto.ResultadoImportacionDTO;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.repository.LoteRepository;
+import com.example.backend.repository.ProductoRepository;
+import com.example.backend.util.LectorCsv;
+import com.example.backend.util.Parche;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva del catálogo y de lotes desde CSV (con encabezado) o NDJSON, con los
+ * nombres de columna de ProductoDTO y LoteDTO.
+ *
+ * La entrada se lee en streaming y se procesa por bloques: cada bloque es una transacción
+ * que busca los existentes con un IN, inserta o actualiza y se escribe en lotes JDBC. Los
+ * productos se identifican por codigoBarras o, en su defecto, sku; los lotes por producto y
+ * numeroLote. Una fila inválida se reporta y se omite sin detener la importación; si la
+ * escritura de un bloque falla, el bloque se reintenta fila por fila. En un
+ * producto o lote existente solo se modifican las columnas que trae la fila, y las
+ * existencias (stockTotal, cantidadDisponible) solo se toman en las altas.
+ */
+@Service
+public class ImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionService.class);
+
+    // Se cuentan todos los errores, pero solo se devuelve el detalle de los primeros
+    private static final int MAXIMO_ERRORES = 1000;
+
+    private static final Set<String> CAMPOS_PRODUCTO_NUEVO = unir(ProductoService.CAMPOS_EDITABLES, "stockTotal");
+    private static final Set<String> CAMPOS_LOTE_NUEVO = unir(LoteService.CAMPOS_EDITABLES, "cantidadDisponible",
+            "productoId");
+
+    public enum Formato {
+        CSV, NDJSON;
+
+        public static Formato de(String tipoContenido) {
+            return tipoContenido != null && tipoContenido.toLowerCase().contains("json") ? NDJSON : CSV;
+        }
+    }
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private InstantaneaCatalogoService instantaneaCatalogoService;
+
+    @Autowired
+    private ExistenciaService existenciaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${importacion.tamano-bloque:500}")
+    private int tamanoBloque;
+
+    private record Fila(long numero, Map<String, Object> valores) {
+    }
+
+    private interface Bloque {
+        /** Procesa las filas dentro de la transacción del bloque; devuelve {creados, actualizados}. */
+        int[] procesar(List<Fila> filas, Resultado resultado);
+    }
+
+    public ResultadoImportacionDTO importarProductos(InputStream entrada, Formato formato) throws IOException {
+        ResultadoImportacionDTO dto = importar(entrada, formato, this::procesarProductos);
+        log.info("Importación de productos: {} filas, {} nuevos, {} actualizados, {} con error en {} ms",
+                dto.getFilas(), dto.getCreados(), dto.getActualizados(), dto.getConErrores(), dto.getMilisegundos());
+        return dto;
+    }
+
+    public ResultadoImportacionDTO importarLotes(InputStream entrada, Formato formato) throws IOException {
+        ResultadoImportacionDTO dto = importar(entrada, formato, this::procesarLotes);
+        log.info("Importación de lotes: {} filas, {} nuevos, {} actualizados, {} con error en {} ms",
+                dto.getFilas(), dto.getCreados(), dto.getActualizados(), dto.getConErrores(), dto.getMilisegundos());
+        return dto;
+    }
+
+    private ResultadoImportacionDTO importar(InputStream entrada, Formato formato, Bloque bloque) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Resultado resultado = new Resultado();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 1 << 16);
+
+        List<Fila> filas = new ArrayList<>(tamanoBloque);
+        if (formato == Formato.NDJSON) {
+            String linea;
+            long numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                resultado.filas++;
+                try {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> valores = objectMapper.readValue(linea, LinkedHashMap.class);
+                    filas.add(new Fila(numero, valores));
+                } catch (RuntimeException e) {
+                    resultado.error(numero, null, "JSON no válido");
+                }
+                if (filas.size() >= tamanoBloque) {
+                    ejecutar(transaccion, bloque, filas, resultado);
+                }
+            }
+        } else {
+            LectorCsv csv = new LectorCsv(lector);
+            List<String> encabezado = csv.leer();
+            if (encabezado == null) {
+                throw new IllegalArgumentException("El archivo está vacío");
+            }
+            for (int i = 0; i < encabezado.size(); i++) {
+                encabezado.set(i, encabezado.get(i).replace("\uFEFF", "").trim());
+            }
+            List<String> campos;
+            long numero = 0;
+            while ((campos = csv.leer()) != null) {
+                numero++;
+                resultado.filas++;
+                if (campos.size() != encabezado.size()) {
+                    resultado.error(numero, null,
+                            "Se esperaban " + encabezado.size() + " columnas y hay " + campos.size());
+                    continue;
+                }
+                // Una celda vacía no modifica la columna
+                Map<String, Object> valores = new LinkedHashMap<>();
+                for (int i = 0; i < campos.size(); i++) {
+                    String valor = campos.get(i).trim();
+                    if (!valor.isEmpty()) {
+                        valores.put(encabezado.get(i), valor);
+                    }
+                }
+                filas.add(new Fila(numero, valores));
+                if (filas.size() >= tamanoBloque) {
+                    ejecutar(transaccion, bloque, filas, resultado);
+                }
+            }
+        }
+        if (!filas.isEmpty()) {
+            ejecutar(transaccion, bloque, filas, resultado);
+        }
+
+        ResultadoImportacionDTO dto = resultado.toDto();
+        dto.setMilisegundos(System.currentTimeMillis() - inicio);
+        return dto;
+    }
+
+    private void ejecutar(TransactionTemplate transaccion, Bloque bloque, List<Fila> filas, Resultado resultado) {
+        int conErroresPrevios = resultado.conErrores;
+        int erroresPrevios = resultado.errores.size();
+        try {
+            int[] conteo = transaccion.execute(status -> bloque.procesar(filas, resultado));
+            resultado.creados += conteo[0];
+            resultado.actualizados += conteo[1];
+        } catch (RuntimeException e) {
+            // Falló la escritura del bloque: lo que reportó se descarta y se reintenta fila por
+            // fila, así solo se pierde la fila que no se puede guardar
+            log.warn("Importación: bloque de {} filas rechazado, se reintenta por fila: {}", filas.size(), causa(e));
+            resultado.restaurar(conErroresPrevios, erroresPrevios);
+            for (Fila fila : filas) {
+                ejecutarFila(transaccion, bloque, fila, resultado);
+            }
+        }
+        filas.clear();
+    }
+
+    private void ejecutarFila(TransactionTemplate transaccion, Bloque bloque, Fila fila, Resultado resultado) {
+        int conErroresPrevios = resultado.conErrores;
+        int erroresPrevios = resultado.errores.size();
+        try {
+            int[] conteo = transaccion.execute(status -> bloque.procesar(List.of(fila), resultado));
+            resultado.creados += conteo[0];
+            resultado.actualizados += conteo[1];
+        } catch (RuntimeException e) {
+            resultado.restaurar(conErroresPrevios, erroresPrevios);
+            resultado.error(fila.numero(), null, "No se pudo guardar la fila: " + causa(e));
+        }
+    }
+
+    private int[] procesarProductos(List<Fila> filas, Resultado resultado) {
+        Set<String> codigos = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (Fila f : filas) {
+            agregar(codigos, f.valores().get("codigoBarras"));
+            agregar(skus, f.valores().get("sku"));
+        }
+        Map<String, Producto> porCodigo = new HashMap<>();
+        Map<String, Producto> porSku = new HashMap<>();
+        if (!codigos.isEmpty()) {
+            productoRepository.findByCodigoBarrasIn(codigos)
+                    .forEach(p -> porCodigo.putIfAbsent(p.getCodigoBarras(), p));
+        }
+        if (!skus.isEmpty()) {
+            productoRepository.findBySkuIn(skus).forEach(p -> porSku.putIfAbsent(p.getSku(), p));
+        }
+
+        // Una sola versión de catálogo para todo el bloque; se libera al terminar la transacción
+        long version = productoService.reservarVersionCatalogo();
+        int creados = 0;
+        int actualizados = 0;
+        Set<Producto> existentes = new HashSet<>();
+        for (Fila f : filas) {
+            String codigo = texto(f.valores().get("codigoBarras"));
+            String sku = texto(f.valores().get("sku"));
+            String clave = codigo != null ? codigo : sku;
+            if (clave == null) {
+                resultado.error(f.numero(), null, "Se requiere codigoBarras o sku");
+                continue;
+            }
+            Producto producto = codigo != null ? porCodigo.get(codigo) : null;
+            if (producto == null && sku != null) {
+                producto = porSku.get(sku);
+            }
+            boolean nuevo = producto == null;
+            try {
+                if (nuevo) {
+                    producto = new Producto();
+                    producto.setActivo(true);
+                    producto.setStockTotal(0);
+                    Parche.aplicar(producto, f.valores(), CAMPOS_PRODUCTO_NUEVO, objectMapper);
+                    if (producto.getNombre() == null || producto.getNombre().isBlank()) {
+                        throw new IllegalArgumentException("Un producto nuevo requiere nombre");
+                    }
+                } else {
+                    Map<String, Object> valores = f.valores();
+                    if (valores.containsKey("stockTotal")) {
+                        valores = new LinkedHashMap<>(valores);
+                        valores.remove("stockTotal");
+                    }
+                    Parche.aplicar(producto, valores, ProductoService.CAMPOS_EDITABLES, objectMapper);
+                }
+            } catch (IllegalArgumentException e) {
+                resultado.error(f.numero(), clave, e.getMessage());
+                continue;
+            }
+            producto.setVersionCatalogo(version);
+            if (nuevo) {
+                entityManager.persist(producto);
+                creados++;
+            } else if (existentes.add(producto)) {
+                actualizados++;
+            }
+            // Una fila posterior del mismo bloque con la misma clave actualiza este producto
+            if (producto.getCodigoBarras() != null) {
+                porCodigo.putIfAbsent(producto.getCodigoBarras(), producto);
+            }
+            if (producto.getSku() != null) {
+                porSku.putIfAbsent(producto.getSku(), producto);
+            }
+        }
+        entityManager.flush();
+        // El caché guardaría el stock que se leyó al buscar los existentes
+        existenciaService.desalojar(Producto.class, existentes.stream().map(Producto::getId).toList());
+        // Con open-in-view el contexto vive toda la petición: se vacía para no acumular el archivo
+        entityManager.clear();
+        precioService.invalidar();
+        instantaneaCatalogoService.invalidar();
+        return new int[] {creados, actualizados};
+    }
+
+    private int[] procesarLotes(List<Fila> filas, Resultado resultado) {
+        // El producto del lote puede venir por id o por codigoBarras/sku
+        Set<String> codigos = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        Set<String> numeros = new HashSet<>();
+        Set<Long> productoIds = new HashSet<>();
+        for (Fila f : filas) {
+            agregar(codigos, f.valores().get("codigoBarras"));
+            agregar(skus, f.valores().get("sku"));
+            agregar(numeros, f.valores().get("numeroLote"));
+        }
+        Map<String, Long> idPorCodigo = new HashMap<>();
+        Map<String, Long> idPorSku = new HashMap<>();
+        if (!codigos.isEmpty()) {
+            productoRepository.findByCodigoBarrasIn(codigos)
+                    .forEach(p -> idPorCodigo.putIfAbsent(p.getCodigoBarras(), p.getId()));
+        }
+        if (!skus.isEmpty()) {
+            productoRepository.findBySkuIn(skus).forEach(p -> idPorSku.putIfAbsent(p.getSku(), p.getId()));
+        }
+        Map<String, Lote> existentes = new HashMap<>();
+        if (!numeros.isEmpty()) {
+            for (Lote l : loteRepository.findByNumeroLoteIn(numeros)) {
+                existentes.putIfAbsent(l.getProductoId() + "|" + l.getNumeroLote(), l);
+            }
+        }
+        for (Fila f : filas) {
+            Long id = numero(f.valores().get("productoId"));
+            if (id != null) {
+                productoIds.add(id);
+            }
+        }
+        Set<Long> productosValidos = new HashSet<>(idPorCodigo.values());
+        productosValidos.addAll(idPorSku.values());
+        productoIds.removeAll(productosValidos);
+        if (!productoIds.isEmpty()) {
+            productoRepository.findAllById(productoIds).forEach(p -> productosValidos.add(p.getId()));
+        }
+
+        int creados = 0;
+        int actualizados = 0;
+        Set<Lote> actualizadosEnBloque = new HashSet<>();
+        for (Fila f : filas) {
+            Map<String, Object> valores = new LinkedHashMap<>(f.valores());
+            String codigo = texto(valores.remove("codigoBarras"));
+            String sku = texto(valores.remove("sku"));
+            String numeroLote = texto(valores.get("numeroLote"));
+            Long productoId;
+            try {
+                productoId = numero(valores.get("productoId"));
+            } catch (IllegalArgumentException e) {
+                resultado.error(f.numero(), numeroLote, e.getMessage());
+                continue;
+            }
+            if (productoId == null && codigo != null) {
+                productoId = idPorCodigo.get(codigo);
+            }
+            if (productoId == null && sku != null) {
+                productoId = idPorSku.get(sku);
+            }
+            if (numeroLote == null) {
+                resultado.error(f.numero(), null, "Se requiere numeroLote");
+                continue;
+            }
+            if (productoId == null || !productosValidos.contains(productoId)) {
+                resultado.error(f.numero(), numeroLote, "Producto no encontrado");
+                continue;
+            }
+            valores.put("productoId", productoId);
+
+            String clave = productoId + "|" + numeroLote;
+            Lote lote = existentes.get(clave);
+            boolean nuevo = lote == null;
+            try {
+                if (nuevo) {
+                    lote = new Lote();
+                    lote.setActivo(true);
+                    Parche.aplicar(lote, valores, CAMPOS_LOTE_NUEVO, objectMapper);
+                    if (lote.getCantidadDisponible() == null) {
+                        lote.setCantidadDisponible(lote.getCantidadInicial() != null ? lote.getCantidadInicial() : 0);
+                    }
+                } else {
+                    valores.remove("productoId");
+                    valores.remove("cantidadDisponible");
+                    Parche.aplicar(lote, valores, LoteService.CAMPOS_EDITABLES, objectMapper);
+                }
+            } catch (IllegalArgumentException e) {
+                resultado.error(f.numero(), numeroLote, e.getMessage());
+                continue;
+            }
+            if (nuevo) {
+                entityManager.persist(lote);
+                existentes.put(clave, lote);
+                creados++;
+            } else if (actualizadosEnBloque.add(lote)) {
+                actualizados++;
+            }
+        }
+        entityManager.flush();
+        existenciaService.desalojar(Lote.class, actualizadosEnBloque.stream().map(Lote::getId).toList());
+        entityManager.clear();
+        return new int[] {creados, actualizados};
+    }
+
+    private static void agregar(Set<String> conjunto, Object valor) {
+        String texto = texto(valor);
+        if (texto != null) {
+            conjunto.add(texto);
+        }
+    }
+
+    private static String texto(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        String texto = valor.toString().trim();
+        return texto.isEmpty() ? null : texto;
+    }
+
+    private static Long numero(Object valor) {
+        String texto = texto(valor);
+        if (texto == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("productoId no válido: " + texto);
+        }
+    }
+
+    private static String causa(Throwable e) {
+        Throwable raiz = e;
+        while (raiz.getCause() != null && raiz.getCause() != raiz) {
+            raiz = raiz.getCause();
+        }
+        return raiz.getMessage();
+    }
+
+    private static Set<String> unir(Set<String> base, String... extra) {
+        Set<String> campos = new HashSet<>(base);
+        campos.addAll(List.of(extra));
+        return Set.copyOf(campos);
+    }
+
+    private static final class Resultado {
+        private int filas;
+        private int creados;
+        private int actualizados;
+        private int conErrores;
+        private final List<ErrorImportacionDTO> errores = new ArrayList<>();
+
+        void error(long fila, String clave, String mensaje) {
+            conErrores++;
+            if (errores.size() < MAXIMO_ERRORES) {
+                ErrorImportacionDTO e = new ErrorImportacionDTO();
+                e.setFila(fila);
+                e.setClave(clave);
+                e.setMensaje(mensaje);
+                errores.add(e);
+            }
+        }
+
+        // Deja el conteo y el detalle como estaban antes de una transacción que no confirmó
+        void restaurar(int conErrores, int errores) {
+            this.conErrores = conErrores;
+            this.errores.subList(errores, this.errores.size()).clear();
+        }
+
+        ResultadoImportacionDTO toDto() {
+            ResultadoImportacionDTO dto = new ResultadoImportacionDTO();
+            dto.setFilas(filas);
+            dto.setCreados(creados);
+            dto.setActualizados(actualizados);
+            dto.setConErrores(conErrores);
+            dto.setErrores(errores);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DTOConverter;
+import com.example.backend.dto.ProductoDTO;
+import com.example.backend.repository.ProductoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catálogo de productos ya serializado (y comprimido) tal como lo entrega
+ * GET /api/productos. Se arma una sola vez por cambio y todas las cajas reciben los mismos
+ * bytes; la ETag es un hash del contenido, así una caja con el catálogo vigente recibe 304.
+ *
+ * Un cambio de catálogo (precio, nombre, alta) descarta la instantánea y la siguiente
+ * petición la reconstruye. Un cambio solo de stock la marca como vencida: se sigue sirviendo
+ * la anterior mientras un único hilo arma la nueva, así las ventas no ponen a las peticiones
+ * a reconstruir en fila; el stock al momento llega a las cajas por el canal en vivo.
+ */
+@Service
+public class InstantaneaCatalogoService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstantaneaCatalogoService.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public record Instantanea(String etag, String etagGzip, byte[] json, byte[] gzip) {
+    }
+
+    private final AtomicLong generacion = new AtomicLong();
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+    private volatile Instantanea instantanea;
+    private volatile boolean vencida;
+    private ExecutorService reconstructor;
+
+    @PostConstruct
+    void iniciar() {
+        reconstructor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "catalogo-instantanea");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        reconstructor.shutdownNow();
+        reconstructor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public Instantanea get() {
+        Instantanea actual = instantanea;
+        if (actual != null) {
+            if (vencida) {
+                reconstruirEnSegundoPlano();
+            }
+            return actual;
+        }
+        synchronized (this) {
+            actual = instantanea;
+            if (actual == null) {
+                long gen = generacion.get();
+                actual = construir();
+                // Solo se publica si nadie invalidó mientras se construía
+                if (gen == generacion.get()) {
+                    instantanea = actual;
+                }
+            }
+            return actual;
+        }
+    }
+
+    /**
+     * Descarta la instantánea. Dentro de una transacción se descarta otra vez al terminar,
+     * para que una reconstrucción que leyó antes de la confirmación no quede publicada.
+     */
+    public void invalidar() {
+        descartar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar();
+                }
+            });
+        }
+    }
+
+    /** Marca la instantánea como vencida por un cambio de stock, al confirmar la transacción. */
+    public void marcarVencida() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            vencida = true;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    vencida = true;
+                }
+            }
+        });
+    }
+
+    private void reconstruirEnSegundoPlano() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reconstructor.execute(() -> {
+                try {
+                    vencida = false;
+                    long gen = generacion.get();
+                    Instantanea nueva = construir();
+                    // Un cambio de catálogo durante la construcción la deja sin efecto
+                    synchronized (this) {
+                        if (gen == generacion.get() && instantanea != null) {
+                            instantanea = nueva;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    vencida = true;
+                    log.warn("No se pudo reconstruir el catálogo: {}", e.getMessage());
+                } finally {
+                    reconstruyendo.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reconstruyendo.set(false);
+        }
+    }
+
+    private void descartar() {
+        generacion.incrementAndGet();
+        instantanea = null;
+    }
+
+    private Instantanea construir() {
+        long inicio = System.nanoTime();
+        byte[] json = objectMapper.writeValueAsBytes(
+                DTOConverter.convertList(productoRepository.findAll(), ProductoDTO.class));
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(comprimido)) {
+            gz.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Cada codificación lleva su propia ETag: los bytes enviados son distintos
+        String hash = hash(json);
+        Instantanea nueva = new Instantanea('"' + hash + '"', '"' + hash + "-gzip\"", json, comprimido.toByteArray());
+        log.debug("Catálogo serializado: {} bytes, {} comprimido, {} µs", json.length, nueva.gzip().length,
+                (System.nanoTime() - inicio) / 1_000);
+        return nueva;
+    }
+
+    private static String hash(byte[] contenido) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contenido);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
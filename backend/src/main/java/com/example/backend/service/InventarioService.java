@@ -3,14 +3,25 @@ package com.example.backend.service;
 import com.example.backend.model.Lote;
 import com.example.backend.model.MovimientoInventario;
 import com.example.backend.model.Producto;
-import com.example.backend.repository.LoteRepository;
+import com.example.backend.model.Venta;
 import com.example.backend.repository.MovimientoInventarioRepository;
-import com.example.backend.repository.ProductoRepository;
+import com.example.backend.util.CargaMultiple;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class InventarioService {
@@ -18,14 +29,30 @@ public class InventarioService {
     @Autowired
     private MovimientoInventarioRepository inventarioRepository;
 
+
+    @Autowired
+    private LibroControlService libroControlService;
+
+    @Autowired
+    private CambioService cambioService;
+
+    @Autowired
+    private DifusionStockService difusionStockService;
+
+    @Autowired
+    private ExistenciaService existenciaService;
+
     @Autowired
-    private ProductoRepository productoRepository;
-    
+    private InstantaneaCatalogoService instantaneaCatalogoService;
+
     @Autowired
-    private LoteRepository loteRepository;
+    private VelocidadVentasService velocidadVentasService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public List<MovimientoInventario> getAllMovimientos() {
-        return inventarioRepository.findAll();
+        return inventarioRepository.findAllConProducto();
     }
 
     public Optional<MovimientoInventario> getMovimientoById(Long id) {
@@ -36,64 +63,148 @@ public class InventarioService {
         return inventarioRepository.findByProductoIdOrderByFechaCreacionDesc(productoId);
     }
 
+    @Transactional
     public MovimientoInventario registrarEntrada(MovimientoInventario movimiento) {
-        movimiento.setTipoMovimiento("ENTRADA");
-        actualizarStock(movimiento);
-        return inventarioRepository.save(movimiento);
+        return registrar(List.of(movimiento), "ENTRADA").get(0);
+    }
+
+    /**
+     * Varias entradas en una sola pasada, p. ej. una recepción de mercancía. Los productos se
+     * cargan juntos y cada uno se actualiza una vez con la suma de sus entradas; los saldos
+     * anterior y nuevo de cada movimiento siguen el orden de la lista. Un lote sin id es
+     * nuevo: se da de alta con la existencia que le dejan sus entradas.
+     */
+    @Transactional
+    public List<MovimientoInventario> registrarEntradas(List<MovimientoInventario> movimientos) {
+        return registrar(movimientos, "ENTRADA");
     }
 
+    @Transactional
     public MovimientoInventario registrarSalida(MovimientoInventario movimiento) {
-        movimiento.setTipoMovimiento("SALIDA");
-        actualizarStock(movimiento);
-        return inventarioRepository.save(movimiento);
+        return registrar(List.of(movimiento), "SALIDA").get(0);
     }
 
+    /** Las salidas de una venta juntas, con el mismo tratamiento que registrarEntradas. */
+    @Transactional
+    public List<MovimientoInventario> registrarSalidas(List<MovimientoInventario> movimientos) {
+        return registrar(movimientos, "SALIDA");
+    }
+
+    @Transactional
     public MovimientoInventario registrarAjuste(MovimientoInventario movimiento) {
-        movimiento.setTipoMovimiento("AJUSTE");
-        actualizarStock(movimiento);
-        return inventarioRepository.save(movimiento);
+        return registrar(List.of(movimiento), "AJUSTE").get(0);
+    }
+
+    private static int cantidad(MovimientoInventario movimiento) {
+        return movimiento.getCantidad() != null ? movimiento.getCantidad() : 0;
     }
 
-    private void actualizarStock(MovimientoInventario movimiento) {
-        if (movimiento.getProducto() != null) {
-            Producto producto = productoRepository.findById(movimiento.getProducto().getId()).orElse(null);
-            if (producto != null) {
-                movimiento.setStockAnterior(producto.getStockTotal() != null ? producto.getStockTotal() : 0);
-                int cantidad = movimiento.getCantidad() != null ? movimiento.getCantidad() : 0;
-                
-                int nuevoStock = producto.getStockTotal() != null ? producto.getStockTotal() : 0;
-                if ("ENTRADA".equals(movimiento.getTipoMovimiento())) {
-                    nuevoStock += cantidad;
-                } else if ("SALIDA".equals(movimiento.getTipoMovimiento())) {
-                    nuevoStock -= cantidad;
-                } else if ("AJUSTE".equals(movimiento.getTipoMovimiento())) {
-                    nuevoStock += cantidad; // Asumiendo que ajuste puede ser positivo o negativo en cantidad
-                }
-                
-                movimiento.setStockNuevo(nuevoStock);
-                
-                // Actualizar Producto
-                producto.setStockTotal(nuevoStock < 0 ? 0 : nuevoStock);
-                productoRepository.save(producto);
-                
-                // Actualizar stock del Lote, si hay uno asociado
-                if (movimiento.getLote() != null && movimiento.getLote().getId() != null) {
-                    Lote l = loteRepository.findById(movimiento.getLote().getId()).orElse(null);
-                    if (l != null) {
-                        int currentLoteStock = l.getCantidadDisponible() != null ? l.getCantidadDisponible() : 0;
-                        int newLoteStock = currentLoteStock;
-                        if ("ENTRADA".equals(movimiento.getTipoMovimiento())) {
-                            newLoteStock += cantidad;
-                        } else if ("SALIDA".equals(movimiento.getTipoMovimiento())) {
-                            newLoteStock -= cantidad;
-                        } else if ("AJUSTE".equals(movimiento.getTipoMovimiento())) {
-                            newLoteStock += cantidad; 
-                        }
-                        l.setCantidadDisponible(newLoteStock < 0 ? 0 : newLoteStock);
-                        loteRepository.save(l);
-                    }
-                }
+    /**
+     * Las existencias se leen con las filas bloqueadas y se escriben con ExistenciaService,
+     * sin tocar la versión del producto ni del lote: dos ventas del mismo producto se
+     * forman en la base en vez de pisarse, y una edición del catálogo no choca con ellas.
+     */
+    private List<MovimientoInventario> registrar(List<MovimientoInventario> movimientos, String tipo) {
+        Set<Long> unicos = new LinkedHashSet<>();
+        Set<Long> lotesExistentes = new LinkedHashSet<>();
+        for (MovimientoInventario m : movimientos) {
+            if (m.getProducto() != null) {
+                unicos.add(m.getProducto().getId());
             }
+            if (m.getLote() != null && m.getLote().getId() != null) {
+                lotesExistentes.add(m.getLote().getId());
+            }
+        }
+        List<Long> productoIds = new ArrayList<>(unicos);
+        Map<Long, Producto> productos = new HashMap<>();
+        Map<Long, Lote> lotes = new HashMap<>();
+        cargar(Producto.class, productoIds).forEach(p -> productos.put(p.getId(), p));
+        cargar(Lote.class, new ArrayList<>(lotesExistentes)).forEach(l -> lotes.put(l.getId(), l));
+        // Existencias al momento, con las filas bloqueadas hasta confirmar
+        Map<Long, Integer> stockProductos = existenciaService.bloquear(ExistenciaService.PRODUCTOS, productoIds);
+        Map<Long, Integer> stockLotes = existenciaService.bloquear(ExistenciaService.LOTES, lotes.keySet());
+
+        Set<Lote> nuevos = new LinkedHashSet<>();
+        // Saldo del lote que deja cada movimiento, para el libro de controlados
+        Map<MovimientoInventario, Integer> saldosLote = new IdentityHashMap<>();
+        for (MovimientoInventario m : movimientos) {
+            m.setTipoMovimiento(tipo);
+            if (m.getProducto() == null) {
+                continue;
+            }
+            Producto producto = productos.get(m.getProducto().getId());
+            if (producto == null) {
+                throw new IllegalArgumentException("Producto no encontrado: " + m.getProducto().getId());
+            }
+            // Ajuste: la cantidad ya trae su signo
+            int cambio = "SALIDA".equals(tipo) ? -cantidad(m) : cantidad(m);
+            int stock = stockProductos.getOrDefault(producto.getId(), 0);
+            m.setProducto(producto);
+            m.setStockAnterior(stock);
+            m.setStockNuevo(stock + cambio);
+            stockProductos.put(producto.getId(), Math.max(stock + cambio, 0));
+            producto.setStockTotal(Math.max(stock + cambio, 0));
+
+            Lote lote = m.getLote();
+            if (lote != null && lote.getId() == null) {
+                lote.setCantidadDisponible(Math.max(
+                        (lote.getCantidadDisponible() != null ? lote.getCantidadDisponible() : 0) + cambio, 0));
+                nuevos.add(lote);
+                saldosLote.put(m, lote.getCantidadDisponible());
+            } else if (lote != null && lotes.containsKey(lote.getId())) {
+                lote = lotes.get(lote.getId());
+                int disponible = Math.max(stockLotes.getOrDefault(lote.getId(), 0) + cambio, 0);
+                stockLotes.put(lote.getId(), disponible);
+                lote.setCantidadDisponible(disponible);
+                m.setLote(lote);
+                saldosLote.put(m, disponible);
+            }
+        }
+        existenciaService.escribir(ExistenciaService.PRODUCTOS, stockProductos);
+        existenciaService.escribir(ExistenciaService.LOTES, stockLotes);
+
+        // Los lotes nuevos se insertan ya con su existencia final, sin UPDATE posterior
+        nuevos.forEach(entityManager::persist);
+        Map<Long, LocalDate> diasDeVenta = new HashMap<>();
+        for (MovimientoInventario m : movimientos) {
+            entityManager.persist(m);
+            libroControlService.registrar(m, saldosLote.get(m));
+            cambioService.registrarMovimiento(m);
+            if (m.getProducto() == null) {
+                continue;
+            }
+            // Se envía a las cajas cuando la transacción confirma
+            Lote lote = m.getLote();
+            boolean conLote = lote != null && entityManager.contains(lote);
+            difusionStockService.registrar(m.getProducto().getId(), m.getProducto().getStockTotal(),
+                    conLote ? lote.getId() : null, conLote ? lote.getCantidadDisponible() : null);
+            if ("SALIDA".equals(tipo)) {
+                velocidadVentasService.registrar(m.getProducto().getId(), cantidad(m));
+            } else if ("ENTRADA".equals(tipo) && m.getVentaId() != null) {
+                // Lo devuelto de una venta deja de contar como vendido el día en que se vendió
+                velocidadVentasService.registrar(m.getProducto().getId(), -cantidad(m),
+                        diasDeVenta.computeIfAbsent(m.getVentaId(), this::diaDeVenta));
+            }
+        }
+        if (!productos.isEmpty()) {
+            instantaneaCatalogoService.marcarVencida();
+        }
+        return movimientos;
+    }
+
+    // La venta devuelta suele estar ya en el contexto de persistencia; si no existe, cuenta hoy
+    private LocalDate diaDeVenta(Long ventaId) {
+        Venta venta = entityManager.find(Venta.class, ventaId);
+        return venta != null && venta.getFechaCreacion() != null ? venta.getFechaCreacion().toLocalDate()
+                : LocalDate.now();
+    }
+
+    private <T> List<T> cargar(Class<T> tipo, List<Long> ids) {
+        List<T> cargados = new ArrayList<>();
+        for (int desde = 0; desde < ids.size(); desde += CargaMultiple.MAXIMO_IDS) {
+            cargados.addAll(CargaMultiple.porIds(entityManager, tipo,
+                    ids.subList(desde, Math.min(desde + CargaMultiple.MAXIMO_IDS, ids.size()))));
         }
+        return cargados;
     }
 }
@@ -0,0 +1,157 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Lote;
+import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.Producto;
+import com.example.backend.model.RecetaMedica;
+import com.example.backend.model.RegistroControlado;
+import com.example.backend.repository.LoteRepository;
+import com.example.backend.repository.ProductoRepository;
+import com.example.backend.repository.RegistroControladoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Libro de control de medicamentos controlados. Cada movimiento de inventario de un
+ * producto CONTROLADO_* deja un asiento con los saldos de producto y lote que resultan.
+ */
+@Service
+public class LibroControlService {
+
+    private static final String ENCABEZADO_CSV = "fecha,producto_id,producto,sustancia_activa,tipo_regulacion,"
+            + "lote,movimiento,cantidad,saldo_producto,saldo_lote,venta_id,folio_receta,cedula_medico,"
+            + "nombre_medico,usuario,referencia\n";
+
+    @Autowired
+    private RegistroControladoRepository registroRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static boolean esControlado(String tipoRegulacion) {
+        return tipoRegulacion != null && tipoRegulacion.startsWith("CONTROLADO");
+    }
+
+    /**
+     * Asienta el movimiento si el producto es controlado. Los saldos son los que deja el
+     * propio movimiento: el del producto viene en stockNuevo y el del lote se recibe aparte,
+     * porque en un lote de movimientos las entidades ya traen la existencia final de todos.
+     */
+    public void registrar(MovimientoInventario movimiento, Integer saldoLote) {
+        if (movimiento.getProducto() == null || movimiento.getProducto().getId() == null) {
+            return;
+        }
+        Producto producto = productoRepository.findById(movimiento.getProducto().getId()).orElse(null);
+        if (producto == null || !esControlado(producto.getTipoRegulacion())) {
+            return;
+        }
+
+        RegistroControlado r = new RegistroControlado();
+        r.setProductoId(producto.getId());
+        r.setProductoNombre(producto.getNombre());
+        r.setSustanciaActiva(producto.getSustanciaActiva());
+        r.setTipoRegulacion(producto.getTipoRegulacion());
+        r.setTipoMovimiento(movimiento.getTipoMovimiento());
+        r.setCantidad(movimiento.getCantidad());
+        r.setSaldoProducto(movimiento.getStockNuevo() != null ? Math.max(movimiento.getStockNuevo(), 0)
+                : producto.getStockTotal());
+        r.setMovimientoId(movimiento.getId());
+        r.setVentaId(movimiento.getVentaId());
+        r.setUsuario(movimiento.getUsuario());
+        r.setReferencia(movimiento.getReferencia());
+        r.setFecha(movimiento.getFechaCreacion() != null ? movimiento.getFechaCreacion() : LocalDateTime.now());
+
+        if (movimiento.getLote() != null && movimiento.getLote().getId() != null) {
+            Lote lote = loteRepository.findById(movimiento.getLote().getId()).orElse(null);
+            r.setLoteId(movimiento.getLote().getId());
+            if (lote != null) {
+                r.setNumeroLote(lote.getNumeroLote());
+                r.setSaldoLote(saldoLote != null ? saldoLote : lote.getCantidadDisponible());
+            }
+        }
+
+        RecetaMedica receta = movimiento.getRecetaMedica();
+        if (receta != null) {
+            r.setRecetaId(receta.getId());
+            r.setFolioReceta(receta.getFolioReceta());
+            r.setCedulaMedico(receta.getCedulaMedico());
+            r.setNombreMedico(receta.getNombreMedico());
+        }
+        registroRepository.save(r);
+    }
+
+    public List<RegistroControlado> ultimosPorProducto(Long productoId, int limite) {
+        return registroRepository.findByProductoIdOrderByIdDesc(productoId, PageRequest.of(0, limite));
+    }
+
+    /**
+     * Escribe en CSV los asientos del periodo [desde, hasta), agrupados por producto. Los
+     * registros se leen en streaming y se sueltan del contexto de persistencia conforme se
+     * escriben.
+     */
+    @Transactional(readOnly = true)
+    public void exportarCsv(LocalDate desde, LocalDate hasta, Long productoId, Writer salida) throws IOException {
+        salida.write(ENCABEZADO_CSV);
+        try (Stream<RegistroControlado> registros = registroRepository.streamPorPeriodo(desde.atStartOfDay(),
+                hasta.atStartOfDay(), productoId)) {
+            Iterator<RegistroControlado> it = registros.iterator();
+            StringBuilder linea = new StringBuilder(256);
+            while (it.hasNext()) {
+                RegistroControlado r = it.next();
+                linea.setLength(0);
+                linea.append(r.getFecha()).append(',')
+                        .append(r.getProductoId()).append(',');
+                csv(linea, r.getProductoNombre()).append(',');
+                csv(linea, r.getSustanciaActiva()).append(',');
+                csv(linea, r.getTipoRegulacion()).append(',');
+                csv(linea, r.getNumeroLote()).append(',');
+                csv(linea, r.getTipoMovimiento()).append(',');
+                valor(linea, r.getCantidad()).append(',');
+                valor(linea, r.getSaldoProducto()).append(',');
+                valor(linea, r.getSaldoLote()).append(',');
+                valor(linea, r.getVentaId()).append(',');
+                csv(linea, r.getFolioReceta()).append(',');
+                csv(linea, r.getCedulaMedico()).append(',');
+                csv(linea, r.getNombreMedico()).append(',');
+                csv(linea, r.getUsuario()).append(',');
+                csv(linea, r.getReferencia()).append('\n');
+                salida.append(linea);
+                entityManager.detach(r);
+            }
+        }
+        salida.flush();
+    }
+
+    private static StringBuilder valor(StringBuilder sb, Object valor) {
+        return valor != null ? sb.append(valor) : sb;
+    }
+
+    private static StringBuilder csv(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return sb;
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+                && valor.indexOf('\r') < 0) {
+            return sb.append(valor);
+        }
+        return sb.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+}
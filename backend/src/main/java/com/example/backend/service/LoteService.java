@@ -2,22 +2,49 @@ package com.example.backend.service;
 
 import com.example.backend.model.Lote;
 import com.example.backend.repository.LoteRepository;
+import com.example.backend.util.CargaMultiple;
+import com.example.backend.util.Parche;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class LoteService {
 
+    // La existencia del lote solo cambia con movimientos de inventario
+    static final Set<String> CAMPOS_EDITABLES = Set.of("numeroLote", "fechaVencimiento", "fechaIngreso",
+            "cantidadInicial", "precioCompra", "proveedor", "ubicacionAnaquel", "activo");
+
     @Autowired
     private LoteRepository loteRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExistenciaService existenciaService;
+
     public List<Lote> findAll() {
         return loteRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Lote> findByIds(List<Long> ids) {
+        return CargaMultiple.porIds(entityManager, Lote.class, ids);
+    }
+
     public Optional<Lote> findById(Long id) {
         return loteRepository.findById(id);
     }
@@ -27,7 +54,28 @@ public class LoteService {
     }
 
     public Lote save(Lote lote) {
-        return loteRepository.save(lote);
+        Lote anterior = lote.getId() != null ? loteRepository.findById(lote.getId()).orElse(null) : null;
+        if (anterior == null) {
+            return loteRepository.save(lote);
+        }
+        // La existencia solo cambia con movimientos: la columna no se escribe
+        lote.setCantidadDisponible(anterior.getCantidadDisponible());
+        Lote saved = loteRepository.save(lote);
+        existenciaService.desalojar(Lote.class, List.of(saved.getId()));
+        return saved;
+    }
+
+    @Transactional
+    public Optional<Lote> patch(Long id, long versionEsperada, Map<String, Object> cambios) {
+        Optional<Lote> encontrado = loteRepository.findById(id);
+        encontrado.ifPresent(lote -> {
+            Parche.verificarVersion(Lote.class, id, lote.getVersion(), versionEsperada);
+            Parche.aplicar(lote, cambios, CAMPOS_EDITABLES, objectMapper);
+            loteRepository.flush();
+            entityManager.refresh(lote);
+            existenciaService.desalojar(Lote.class, List.of(id));
+        });
+        return encontrado;
     }
 
     public void deleteById(Long id) {
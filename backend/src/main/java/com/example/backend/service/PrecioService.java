@@ -0,0 +1,167 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Cliente;
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.CalculadoraTicket;
+import com.example.backend.precios.CatalogoPrecios;
+import com.example.backend.precios.TicketCalculado;
+import com.example.backend.repository.ClienteRepository;
+import com.example.backend.repository.ProductoRepository;
+import com.example.backend.util.Dinero;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class PrecioService {
+
+    private static final Logger log = LoggerFactory.getLogger(PrecioService.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    // Si está activo, una venta cuyos totales no coinciden con los del servidor se rechaza;
+    // si no, se corrigen con los importes calculados.
+    @Value("${ventas.precios.validar-totales:false}")
+    private boolean validarTotales;
+
+    private final AtomicLong generacion = new AtomicLong();
+    private volatile CatalogoPrecios catalogo;
+
+    public CatalogoPrecios getCatalogo() {
+        CatalogoPrecios actual = catalogo;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (this) {
+            actual = catalogo;
+            if (actual == null) {
+                long gen = generacion.get();
+                actual = CatalogoPrecios.desde(gen, productoRepository.findAll());
+                // Solo se publica si nadie invalidó mientras se construía
+                if (gen == generacion.get()) {
+                    catalogo = actual;
+                }
+            }
+            return actual;
+        }
+    }
+
+    /**
+     * Descarta el catálogo. Dentro de una transacción se descarta otra vez al terminar: un
+     * catálogo construido antes de confirmar todavía trae los precios anteriores.
+     */
+    public void invalidar() {
+        descartar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar();
+                }
+            });
+        }
+    }
+
+    private void descartar() {
+        generacion.incrementAndGet();
+        catalogo = null;
+    }
+
+    public TicketCalculado cotizar(Venta venta) {
+        return cotizar(venta, descuentoCliente(venta.getClienteId()));
+    }
+
+    private TicketCalculado cotizar(Venta venta, Double descuentoCliente) {
+        List<DetalleVenta> detalles = venta.getDetalles() != null ? venta.getDetalles() : Collections.emptyList();
+        return CalculadoraTicket.calcular(getCatalogo(), detalles, descuentoCliente);
+    }
+
+    /**
+     * Recalcula precios, impuestos y totales de la venta con el catálogo del servidor
+     * y los escribe sobre la entidad.
+     */
+    public TicketCalculado aplicarPrecios(Venta venta) {
+        Double descuento = descuentoCliente(venta.getClienteId());
+        TicketCalculado ticket = cotizar(venta, descuento);
+
+        List<String> diferencias = diferencias(venta, ticket, descuento);
+        if (!diferencias.isEmpty()) {
+            if (validarTotales) {
+                throw new IllegalArgumentException("Los importes de la venta no coinciden: " + String.join(", ", diferencias));
+            }
+            log.warn("Venta con importes del cliente corregidos: {}", diferencias);
+        }
+
+        List<DetalleVenta> detalles = venta.getDetalles();
+        for (int i = 0; i < ticket.lineas().size(); i++) {
+            TicketCalculado.Linea linea = ticket.lineas().get(i);
+            DetalleVenta d = detalles.get(i);
+            d.setPrecioUnitarioCentavos(linea.precioUnitarioCentavos());
+            d.setSubtotalCentavos(linea.subtotalCentavos());
+            d.setDescuentoClienteCentavos(linea.descuentoClienteCentavos());
+            d.setIepsPuntosBase(linea.iepsPuntosBase());
+            d.setIepsCentavos(linea.iepsCentavos());
+            d.setIvaPuntosBase(linea.ivaPuntosBase());
+            d.setIvaCentavos(linea.ivaCentavos());
+        }
+
+        venta.setSubtotalCentavos(ticket.subtotalCentavos());
+        venta.setImpuestoCentavos(ticket.impuestoCentavos());
+        venta.setTotalCentavos(ticket.totalCentavos());
+        venta.setDescuentoTotal(descuento);
+        if (venta.getMontoPagadoCentavos() != null) {
+            venta.setCambioCentavos(Math.max(0L, venta.getMontoPagadoCentavos() - ticket.totalCentavos()));
+        }
+        return ticket;
+    }
+
+    private List<String> diferencias(Venta venta, TicketCalculado ticket, Double descuento) {
+        List<String> diferencias = new ArrayList<>();
+        comparar(diferencias, "subtotal", venta.getSubtotalCentavos(), ticket.subtotalCentavos());
+        comparar(diferencias, "impuesto", venta.getImpuestoCentavos(), ticket.impuestoCentavos());
+        comparar(diferencias, "total", venta.getTotalCentavos(), ticket.totalCentavos());
+
+        if (venta.getDescuentoTotal() != null && Dinero.aPuntosBase(venta.getDescuentoTotal()) != Dinero.aPuntosBase(descuento)) {
+            diferencias.add("descuentoTotal " + venta.getDescuentoTotal() + " != " + descuento);
+        }
+
+        List<DetalleVenta> detalles = venta.getDetalles();
+        for (int i = 0; i < ticket.lineas().size(); i++) {
+            TicketCalculado.Linea linea = ticket.lineas().get(i);
+            comparar(diferencias, "detalles[" + i + "].precioUnitario",
+                    detalles.get(i).getPrecioUnitarioCentavos(), linea.precioUnitarioCentavos());
+        }
+        return diferencias;
+    }
+
+    private static void comparar(List<String> diferencias, String campo, Long recibido, long calculado) {
+        if (recibido != null && recibido != calculado) {
+            diferencias.add(campo + " " + Dinero.aPesos(recibido.longValue()) + " != " + Dinero.aPesos(calculado));
+        }
+    }
+
+    private Double descuentoCliente(Long clienteId) {
+        if (clienteId == null) {
+            return 0.0;
+        }
+        return clienteRepository.findById(clienteId)
+                .map(Cliente::getDescuento)
+                .filter(Objects::nonNull)
+                .orElse(0.0);
+    }
+}
@@ -1,23 +1,85 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CatalogoCambiosDTO;
+import com.example.backend.dto.DTOConverter;
+import com.example.backend.dto.ProductoDTO;
+import com.example.backend.model.BajaCatalogo;
+import com.example.backend.model.HistorialPrecio;
 import com.example.backend.model.Producto;
+import com.example.backend.repository.BajaCatalogoRepository;
+import com.example.backend.repository.HistorialPrecioRepository;
 import com.example.backend.repository.ProductoRepository;
+import com.example.backend.util.CargaMultiple;
+import com.example.backend.util.Parche;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class ProductoService {
 
+    // Campos editables por PATCH; el stock solo cambia con movimientos de inventario
+    static final Set<String> CAMPOS_EDITABLES = Set.of("nombre", "descripcion", "categoria", "precioVenta",
+            "precioCompra", "porcentajeIVA", "porcentajeIEPS", "stockMinimo", "stockOptimo", "codigoBarras", "sku",
+            "laboratorio", "sustanciaActiva", "presentacion", "tipoRegulacion", "grupoInteraccion",
+            "ubicacionAnaquel", "activo");
+
     @Autowired
     private ProductoRepository productoRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BajaCatalogoRepository bajaCatalogoRepository;
+
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private InstantaneaCatalogoService instantaneaCatalogoService;
+
+    @Autowired
+    private ExistenciaService existenciaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HistorialPrecioRepository historialPrecioRepository;
+
+    // Versiones del catálogo: la última asignada y las que aún no confirman
+    private long ultimaVersion;
+    private final TreeSet<Long> versionesEnCurso = new TreeSet<>();
+
+    @PostConstruct
+    public void init() {
+        ultimaVersion = Math.max(productoRepository.findUltimaVersionCatalogo(), bajaCatalogoRepository.findUltimaVersion());
+    }
+
     public List<Producto> findAll() {
         return productoRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Producto> findByIds(List<Long> ids) {
+        return CargaMultiple.porIds(entityManager, Producto.class, ids);
+    }
+
     public Optional<Producto> findById(Long id) {
         return productoRepository.findById(id);
     }
@@ -31,10 +93,148 @@ public class ProductoService {
     }
 
     public Producto save(Producto producto) {
-        return productoRepository.save(producto);
+        // Precios vigentes para el historial; la lectura suele salir del caché de segundo nivel
+        Producto anterior = producto.getId() != null
+                ? productoRepository.findById(producto.getId()).orElse(null)
+                : null;
+        if (anterior != null) {
+            // El stock no se edita: la columna no se escribe y la respuesta muestra el leído
+            producto.setStockTotal(anterior.getStockTotal());
+        }
+        long version = reservarVersionCatalogo();
+        try {
+            producto.setVersionCatalogo(version);
+            Producto saved = productoRepository.save(producto);
+            if (anterior != null) {
+                registrarHistorial(anterior.getPrecioVenta(), anterior.getPrecioCompra(), saved);
+                existenciaService.desalojar(Producto.class, List.of(saved.getId()));
+            }
+            precioService.invalidar();
+            instantaneaCatalogoService.invalidar();
+            return saved;
+        } finally {
+            liberarVersion(version);
+        }
+    }
+
+    /**
+     * Actualización parcial: el producto sale del caché de segundo nivel y se escribe un
+     * solo UPDATE, condicionado a la versión esperada. El UPDATE no lleva el stock, así que
+     * una venta confirmada entre la lectura y la escritura se conserva; después se vuelve a
+     * leer la fila para responder con el stock y la versión vigentes.
+     */
+    @Transactional
+    public Optional<Producto> patch(Long id, long versionEsperada, Map<String, Object> cambios) {
+        Optional<Producto> encontrado = productoRepository.findById(id);
+        if (encontrado.isEmpty()) {
+            return encontrado;
+        }
+        Producto producto = encontrado.get();
+        Parche.verificarVersion(Producto.class, id, producto.getVersion(), versionEsperada);
+        Double ventaAnterior = producto.getPrecioVenta();
+        Double compraAnterior = producto.getPrecioCompra();
+        Parche.aplicar(producto, cambios, CAMPOS_EDITABLES, objectMapper);
+        producto.setVersionCatalogo(reservarVersionCatalogo());
+        registrarHistorial(ventaAnterior, compraAnterior, producto);
+        productoRepository.flush();
+        entityManager.refresh(producto);
+        existenciaService.desalojar(Producto.class, List.of(id));
+        precioService.invalidar();
+        instantaneaCatalogoService.invalidar();
+        return encontrado;
     }
 
     public void deleteById(Long id) {
-        productoRepository.deleteById(id);
+        long version = reservarVersionCatalogo();
+        try {
+            productoRepository.deleteById(id);
+            BajaCatalogo baja = new BajaCatalogo();
+            baja.setProductoId(id);
+            baja.setVersionCatalogo(version);
+            bajaCatalogoRepository.save(baja);
+            precioService.invalidar();
+            instantaneaCatalogoService.invalidar();
+        } finally {
+            liberarVersion(version);
+        }
+    }
+
+    private void registrarHistorial(Double ventaAnterior, Double compraAnterior, Producto producto) {
+        HistorialPrecio h = CambioPreciosService.renglon(producto.getId(), producto.getVersionCatalogo(), ventaAnterior,
+                compraAnterior, producto, "Edición", null);
+        if (h != null) {
+            historialPrecioRepository.save(h);
+        }
+    }
+
+    /**
+     * Cambios del catálogo posteriores a la versión {@code desde}: productos modificados y
+     * bajas (eliminados o inactivos). Con {@code desde} = 0, o si la caja trae una versión
+     * que el servidor no conoce, se responde el catálogo activo completo.
+     *
+     * Solo se entrega hasta la versión más alta sin huecos: si un cambio con versión menor
+     * aún no confirma, lo posterior espera a la siguiente consulta para no saltárselo.
+     */
+    public CatalogoCambiosDTO cambiosDesde(long desde) {
+        long hasta = versionConfirmada();
+        CatalogoCambiosDTO dto = new CatalogoCambiosDTO();
+        dto.setVersion(hasta);
+        List<ProductoDTO> productos = new ArrayList<>();
+        List<Long> bajas = new ArrayList<>();
+
+        if (desde <= 0 || desde > hasta) {
+            dto.setCompleto(true);
+            for (Producto p : productoRepository.findAll()) {
+                if (!Boolean.FALSE.equals(p.getActivo())) {
+                    productos.add(DTOConverter.convertToDto(p, ProductoDTO.class));
+                }
+            }
+        } else {
+            dto.setCompleto(false);
+            for (Producto p : productoRepository.findCambiosCatalogo(desde, hasta)) {
+                if (Boolean.FALSE.equals(p.getActivo())) {
+                    bajas.add(p.getId());
+                } else {
+                    productos.add(DTOConverter.convertToDto(p, ProductoDTO.class));
+                }
+            }
+            bajas.addAll(bajaCatalogoRepository.findProductosDadosDeBaja(desde, hasta));
+        }
+        dto.setProductos(productos);
+        dto.setBajas(bajas);
+        return dto;
+    }
+
+    /**
+     * Aparta la siguiente versión del catálogo para un cambio. Se libera sola al terminar
+     * la transacción activa; sin transacción, quien la pide debe llamar a liberarVersion.
+     */
+    public synchronized long reservarVersionCatalogo() {
+        long version = ++ultimaVersion;
+        versionesEnCurso.add(version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    soltar(version);
+                }
+            });
+        }
+        return version;
+    }
+
+    /** Da por confirmado el cambio; dentro de una transacción lo hace ella al terminar. */
+    public void liberarVersion(long version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            soltar(version);
+        }
+    }
+
+    private synchronized void soltar(long version) {
+        versionesEnCurso.remove(version);
+    }
+
+    private synchronized long versionConfirmada() {
+        return versionesEnCurso.isEmpty() ? ultimaVersion : versionesEnCurso.first() - 1;
     }
 }
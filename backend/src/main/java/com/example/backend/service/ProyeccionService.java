@@ -0,0 +1,113 @@
+package com.example.backend.service;
+
+import com.example.backend.util.Dinero;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Listados con solo los campos pedidos. Si todos los campos son columnas simples de la
+ * entidad (o su versión en centavos) se consulta únicamente esas columnas; si alguno no lo
+ * es, como los detalles de una venta, se carga el listado completo y se recorta al
+ * serializar.
+ */
+@Service
+public class ProyeccionService {
+
+    private static final String CENTAVOS = "Centavos";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listar(Class<?> entidad, Class<?> dto, List<String> campos,
+            Supplier<List<?>> completos) {
+        for (String campo : campos) {
+            if (BeanUtils.getPropertyDescriptor(dto, campo) == null) {
+                throw new IllegalArgumentException("Campo desconocido: " + campo);
+            }
+        }
+
+        EntityType<?> tipo = entityManager.getMetamodel().entity(entidad);
+        List<String> columnas = new ArrayList<>(campos.size());
+        for (String campo : campos) {
+            String columna = columna(tipo, campo);
+            if (columna == null) {
+                return recortar(completos.get(), campos);
+            }
+            columnas.add(columna);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<?> raiz = consulta.from(entidad);
+        List<Selection<?>> seleccion = new ArrayList<>(columnas.size());
+        for (String columna : columnas) {
+            seleccion.add(raiz.get(columna));
+        }
+        consulta.select(cb.tuple(seleccion)).orderBy(cb.asc(raiz.get("id")));
+
+        List<Tuple> filas = entityManager.createQuery(consulta).getResultList();
+        List<Map<String, Object>> resultado = new ArrayList<>(filas.size());
+        for (Tuple fila : filas) {
+            Map<String, Object> valores = new LinkedHashMap<>();
+            for (int i = 0; i < campos.size(); i++) {
+                Object valor = fila.get(i);
+                if (columnas.get(i).endsWith(CENTAVOS) && !campos.get(i).endsWith(CENTAVOS)) {
+                    valor = Dinero.aPesos((Long) valor);
+                }
+                valores.put(campos.get(i), valor);
+            }
+            resultado.add(valores);
+        }
+        return resultado;
+    }
+
+    // Atributo simple de la entidad que respalda el campo del DTO, o null si no hay
+    private static String columna(EntityType<?> tipo, String campo) {
+        for (String nombre : List.of(campo, campo + CENTAVOS)) {
+            Attribute<?, ?> atributo = tipo.getAttributes().stream()
+                    .filter(a -> a.getName().equals(nombre))
+                    .findFirst().orElse(null);
+            if (atributo != null && atributo.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                return nombre;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> recortar(List<?> dtos, List<String> campos) {
+        List<Map<String, Object>> resultado = new ArrayList<>(dtos.size());
+        for (Object dto : dtos) {
+            Map<String, Object> completo = objectMapper.convertValue(dto, Map.class);
+            Map<String, Object> valores = new LinkedHashMap<>();
+            for (String campo : campos) {
+                valores.put(campo, completo.get(campo));
+            }
+            resultado.add(valores);
+        }
+        return resultado;
+    }
+}
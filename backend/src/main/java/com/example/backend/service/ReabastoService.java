@@ -0,0 +1,221 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ExistenciaReabasto;
+import com.example.backend.dto.LineaSugeridaDTO;
+import com.example.backend.dto.OrdenSugeridaDTO;
+import com.example.backend.dto.ReabastoDTO;
+import com.example.backend.dto.TiempoEntregaDTO;
+import com.example.backend.model.TiempoEntrega;
+import com.example.backend.repository.LoteRepository;
+import com.example.backend.repository.ProductoRepository;
+import com.example.backend.repository.TiempoEntregaRepository;
+import com.example.backend.util.Dinero;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sugerencias de compra a partir de stockMinimo, stockOptimo y la venta diaria de cada
+ * producto (VelocidadVentasService). El proveedor de un producto es el de su lote más
+ * reciente y su tiempo de entrega el registrado en tiempos_entrega, o el predeterminado.
+ *
+ * Un producto se surte cuando su stock no alcanza para cubrir la entrega más el mínimo
+ * (punto de reorden = venta diaria × días de entrega + stockMinimo); se pide hasta llegar
+ * a stockOptimo o, si es mayor, al punto de reorden más los días de cobertura. El catálogo
+ * se lee con una sola proyección y se reparte en tramos entre varios hilos; las ventas ya
+ * están en memoria, así que el cálculo no vuelve a la base de datos.
+ */
+@Service
+public class ReabastoService {
+
+    static final String SIN_PROVEEDOR = "SIN PROVEEDOR";
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Autowired
+    private TiempoEntregaRepository tiempoEntregaRepository;
+
+    @Autowired
+    private VelocidadVentasService velocidadVentasService;
+
+    @Value("${reabasto.trabajadores:4}")
+    private int trabajadores;
+
+    @Value("${reabasto.dias-entrega:7}")
+    private int diasEntregaPredeterminado;
+
+    @Value("${reabasto.dias-cobertura:14}")
+    private int diasCobertura;
+
+    private ExecutorService ejecutor;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = Executors.newFixedThreadPool(trabajadores, r -> {
+            Thread t = new Thread(r, "reabasto-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /** Órdenes sugeridas agrupadas por proveedor; con {@code proveedor} solo la de ese proveedor. */
+    public ReabastoDTO sugerencias(String proveedor) {
+        long inicio = System.currentTimeMillis();
+        List<ExistenciaReabasto> existencias = productoRepository.findExistenciasReabasto();
+        Map<Long, String> proveedores = new HashMap<>();
+        for (Object[] r : loteRepository.findUltimoProveedorPorProducto()) {
+            proveedores.put((Long) r[0], ((String) r[1]).trim());
+        }
+        Map<String, Integer> diasEntrega = new HashMap<>();
+        tiempoEntregaRepository.findAll().forEach(t -> diasEntrega.put(t.getProveedor(), t.getDias()));
+
+        // Tramos contiguos del catálogo, varios por hilo para repartir la carga
+        int tramos = Math.max(1, Math.min(trabajadores * 4, existencias.size() / 1000 + 1));
+        int tamano = (existencias.size() + tramos - 1) / tramos;
+        List<Future<List<LineaSugeridaDTO>>> parciales = new ArrayList<>(tramos);
+        for (int desde = 0; desde < existencias.size(); desde += tamano) {
+            List<ExistenciaReabasto> tramo = existencias.subList(desde, Math.min(desde + tamano, existencias.size()));
+            parciales.add(ejecutor.submit(() -> calcular(tramo, proveedores, diasEntrega, proveedor)));
+        }
+
+        Map<String, OrdenSugeridaDTO> ordenes = new TreeMap<>();
+        int porSurtir = 0;
+        for (Future<List<LineaSugeridaDTO>> parcial : parciales) {
+            for (LineaSugeridaDTO linea : esperar(parcial)) {
+                String p = proveedores.getOrDefault(linea.getProductoId(), SIN_PROVEEDOR);
+                OrdenSugeridaDTO orden = ordenes.computeIfAbsent(p, k -> nuevaOrden(k, diasEntrega));
+                orden.getLineas().add(linea);
+                porSurtir++;
+            }
+        }
+        for (OrdenSugeridaDTO orden : ordenes.values()) {
+            int piezas = 0;
+            long costo = 0;
+            for (LineaSugeridaDTO l : orden.getLineas()) {
+                piezas += l.getCantidadSugerida();
+                costo += Dinero.aCentavosOCero(l.getCostoEstimado());
+            }
+            orden.setPiezas(piezas);
+            orden.setCostoEstimado(Dinero.aPesos(costo));
+        }
+
+        ReabastoDTO resultado = new ReabastoDTO();
+        resultado.setVentanaDias(velocidadVentasService.getVentanaDias());
+        resultado.setProductosEvaluados(existencias.size());
+        resultado.setProductosPorSurtir(porSurtir);
+        resultado.setOrdenes(new ArrayList<>(ordenes.values()));
+        resultado.setMilisegundos(System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+
+    public List<TiempoEntregaDTO> getTiemposEntrega() {
+        return tiempoEntregaRepository.findAll().stream().map(ReabastoService::aDto).toList();
+    }
+
+    public TiempoEntregaDTO guardarTiempoEntrega(String proveedor, Integer dias) {
+        if (proveedor == null || proveedor.isBlank()) {
+            throw new IllegalArgumentException("Se requiere el proveedor");
+        }
+        if (dias == null || dias < 0) {
+            throw new IllegalArgumentException("Los días de entrega no pueden ser negativos");
+        }
+        TiempoEntrega t = tiempoEntregaRepository.findById(proveedor.trim()).orElseGet(TiempoEntrega::new);
+        t.setProveedor(proveedor.trim());
+        t.setDias(dias);
+        return aDto(tiempoEntregaRepository.save(t));
+    }
+
+    private List<LineaSugeridaDTO> calcular(List<ExistenciaReabasto> tramo, Map<Long, String> proveedores,
+            Map<String, Integer> diasEntrega, String soloProveedor) {
+        List<LineaSugeridaDTO> lineas = new ArrayList<>();
+        for (ExistenciaReabasto e : tramo) {
+            String proveedor = proveedores.getOrDefault(e.productoId(), SIN_PROVEEDOR);
+            if (soloProveedor != null && !soloProveedor.equalsIgnoreCase(proveedor)) {
+                continue;
+            }
+            int minimo = e.stockMinimo() != null ? e.stockMinimo() : 0;
+            int optimo = e.stockOptimo() != null ? e.stockOptimo() : 0;
+            double ventaDiaria = velocidadVentasService.ventaDiaria(e.productoId());
+            if (ventaDiaria <= 0 && minimo <= 0 && optimo <= 0) {
+                continue;
+            }
+            int stock = e.stockTotal() != null ? e.stockTotal() : 0;
+            int dias = diasEntrega.getOrDefault(proveedor, diasEntregaPredeterminado);
+            int puntoReorden = (int) Math.ceil(ventaDiaria * dias) + minimo;
+            if (stock > puntoReorden) {
+                continue;
+            }
+            int objetivo = Math.max(optimo, puntoReorden + (int) Math.ceil(ventaDiaria * diasCobertura));
+            int cantidad = objetivo - stock;
+            if (cantidad <= 0) {
+                continue;
+            }
+
+            LineaSugeridaDTO l = new LineaSugeridaDTO();
+            l.setProductoId(e.productoId());
+            l.setNombre(e.nombre());
+            l.setCodigoBarras(e.codigoBarras());
+            l.setStockTotal(stock);
+            l.setStockMinimo(e.stockMinimo());
+            l.setStockOptimo(e.stockOptimo());
+            l.setVentaDiaria(Math.round(ventaDiaria * 100) / 100.0);
+            l.setPuntoReorden(puntoReorden);
+            l.setCantidadSugerida(cantidad);
+            l.setCostoEstimado(Dinero.aPesos(Dinero.multiplicar(Dinero.aCentavosOCero(e.precioCompra()), cantidad)));
+            lineas.add(l);
+        }
+        return lineas;
+    }
+
+    private OrdenSugeridaDTO nuevaOrden(String proveedor, Map<String, Integer> diasEntrega) {
+        OrdenSugeridaDTO orden = new OrdenSugeridaDTO();
+        orden.setProveedor(proveedor);
+        orden.setDiasEntrega(diasEntrega.getOrDefault(proveedor, diasEntregaPredeterminado));
+        orden.setLineas(new ArrayList<>());
+        return orden;
+    }
+
+    private static <T> T esperar(Future<T> parcial) {
+        try {
+            return parcial.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cálculo de reabasto interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al calcular el reabasto", e.getCause());
+        }
+    }
+
+    private static TiempoEntregaDTO aDto(TiempoEntrega t) {
+        TiempoEntregaDTO dto = new TiempoEntregaDTO();
+        dto.setProveedor(t.getProveedor());
+        dto.setDias(t.getDias());
+        dto.setFechaActualizacion(t.getFechaActualizacion());
+        return dto;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LineaRecepcionDTO;
+import com.example.backend.dto.RecepcionDTO;
+import com.example.backend.model.Lote;
+import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.Producto;
+import com.example.backend.model.RecepcionMercancia;
+import com.example.backend.repository.LoteRepository;
+import com.example.backend.repository.ProductoRepository;
+import com.example.backend.repository.RecepcionMercanciaRepository;
+import com.example.backend.util.CargaMultiple;
+import com.example.backend.util.Dinero;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Recepción de mercancía: una entrega del proveedor con todos sus renglones en una sola
+ * transacción. Los productos y lotes se buscan con un IN por clave, los lotes que no
+ * existen se dan de alta y las entradas se registran juntas en InventarioService, que
+ * actualiza cada producto una sola vez con la suma de sus renglones.
+ */
+@Service
+public class RecepcionService {
+
+    static final int MAXIMO_LINEAS = 2000;
+
+    @Autowired
+    private RecepcionMercanciaRepository recepcionRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Optional<RecepcionDTO> getRecepcionById(Long id) {
+        return recepcionRepository.findById(id).map(r -> aDto(r, null, null));
+    }
+
+    @Transactional
+    public RecepcionDTO registrar(RecepcionDTO recepcion) {
+        long inicio = System.currentTimeMillis();
+        List<LineaRecepcionDTO> lineas = recepcion.getLineas();
+        if (lineas == null || lineas.isEmpty()) {
+            throw new IllegalArgumentException("La recepción no tiene renglones");
+        }
+        if (lineas.size() > MAXIMO_LINEAS) {
+            throw new IllegalArgumentException("Se pueden recibir hasta " + MAXIMO_LINEAS + " renglones por documento");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> codigos = new LinkedHashSet<>();
+        Set<String> skus = new LinkedHashSet<>();
+        Set<String> numeros = new LinkedHashSet<>();
+        for (int i = 0; i < lineas.size(); i++) {
+            LineaRecepcionDTO l = lineas.get(i);
+            if (l.getCantidad() == null || l.getCantidad() <= 0) {
+                throw new IllegalArgumentException("Renglón " + (i + 1) + ": la cantidad debe ser mayor a cero");
+            }
+            if (vacio(l.getNumeroLote())) {
+                throw new IllegalArgumentException("Renglón " + (i + 1) + ": se requiere numeroLote");
+            }
+            if (l.getProductoId() != null) {
+                ids.add(l.getProductoId());
+            } else if (!vacio(l.getCodigoBarras())) {
+                codigos.add(l.getCodigoBarras().trim());
+            } else if (!vacio(l.getSku())) {
+                skus.add(l.getSku().trim());
+            } else {
+                throw new IllegalArgumentException("Renglón " + (i + 1) + ": se requiere productoId, codigoBarras o sku");
+            }
+            numeros.add(l.getNumeroLote().trim());
+        }
+
+        Map<String, Producto> productos = new HashMap<>();
+        List<Long> listaIds = new ArrayList<>(ids);
+        for (int desde = 0; desde < listaIds.size(); desde += CargaMultiple.MAXIMO_IDS) {
+            CargaMultiple.porIds(entityManager, Producto.class,
+                    listaIds.subList(desde, Math.min(desde + CargaMultiple.MAXIMO_IDS, listaIds.size())))
+                    .forEach(p -> productos.put("id:" + p.getId(), p));
+        }
+        if (!codigos.isEmpty()) {
+            productoRepository.findByCodigoBarrasIn(codigos).forEach(p -> productos.putIfAbsent("cb:" + p.getCodigoBarras(), p));
+        }
+        if (!skus.isEmpty()) {
+            productoRepository.findBySkuIn(skus).forEach(p -> productos.putIfAbsent("sku:" + p.getSku(), p));
+        }
+        Map<String, Lote> lotes = new HashMap<>();
+        for (Lote l : loteRepository.findByNumeroLoteIn(numeros)) {
+            lotes.putIfAbsent(l.getProductoId() + "|" + l.getNumeroLote(), l);
+        }
+
+        RecepcionMercancia encabezado = new RecepcionMercancia();
+        encabezado.setProveedor(recepcion.getProveedor());
+        encabezado.setFolioProveedor(recepcion.getFolioProveedor());
+        encabezado.setUsuario(recepcion.getUsuario());
+        encabezado.setObservaciones(recepcion.getObservaciones());
+
+        // Primero se resuelve todo el documento; un renglón inválido rechaza la recepción completa
+        List<MovimientoInventario> movimientos = new ArrayList<>(lineas.size());
+        String hoy = LocalDate.now().toString();
+        int piezas = 0;
+        int lotesCreados = 0;
+        long costo = 0;
+        for (int i = 0; i < lineas.size(); i++) {
+            LineaRecepcionDTO l = lineas.get(i);
+            Producto producto = productos.get(clave(l));
+            if (producto == null) {
+                throw new IllegalArgumentException("Renglón " + (i + 1) + ": producto no encontrado");
+            }
+            String numeroLote = l.getNumeroLote().trim();
+            Double precioCompra = l.getPrecioCompra() != null ? l.getPrecioCompra() : producto.getPrecioCompra();
+            Lote lote = lotes.get(producto.getId() + "|" + numeroLote);
+            if (lote == null) {
+                // cantidadDisponible arranca en cero: la entrada le suma lo recibido
+                lote = new Lote();
+                lote.setProductoId(producto.getId());
+                lote.setNumeroLote(numeroLote);
+                lote.setFechaVencimiento(l.getFechaVencimiento());
+                lote.setFechaIngreso(hoy);
+                lote.setCantidadInicial(0);
+                lote.setCantidadDisponible(0);
+                lote.setPrecioCompra(precioCompra);
+                lote.setProveedor(recepcion.getProveedor());
+                lote.setUbicacionAnaquel(l.getUbicacionAnaquel());
+                lote.setActivo(true);
+                lotes.put(producto.getId() + "|" + numeroLote, lote);
+                lotesCreados++;
+            }
+            if (lote.getId() == null) {
+                lote.setCantidadInicial(lote.getCantidadInicial() + l.getCantidad());
+            }
+
+            MovimientoInventario m = new MovimientoInventario();
+            m.setProducto(producto);
+            m.setProductoNombre(producto.getNombre());
+            m.setLote(lote);
+            m.setCantidad(l.getCantidad());
+            m.setMotivo("Recepción de mercancía");
+            m.setUsuario(recepcion.getUsuario());
+            m.setObservaciones(vacio(recepcion.getFolioProveedor()) ? null
+                    : "Folio proveedor: " + recepcion.getFolioProveedor());
+            movimientos.add(m);
+
+            piezas += l.getCantidad();
+            costo += Dinero.multiplicar(Dinero.aCentavosOCero(precioCompra), l.getCantidad());
+        }
+        encabezado.setTotalLineas(lineas.size());
+        encabezado.setPiezas(piezas);
+        encabezado.setCostoTotalCentavos(costo);
+        recepcionRepository.save(encabezado);
+
+        String referencia = "Recepción ID: " + encabezado.getId();
+        movimientos.forEach(m -> m.setReferencia(referencia));
+        inventarioService.registrarEntradas(movimientos);
+
+        for (int i = 0; i < lineas.size(); i++) {
+            lineas.get(i).setProductoId(movimientos.get(i).getProducto().getId());
+            lineas.get(i).setLoteId(movimientos.get(i).getLote().getId());
+        }
+        RecepcionDTO dto = aDto(encabezado, lineas, lotesCreados);
+        dto.setMilisegundos(System.currentTimeMillis() - inicio);
+        return dto;
+    }
+
+    private static String clave(LineaRecepcionDTO l) {
+        if (l.getProductoId() != null) {
+            return "id:" + l.getProductoId();
+        }
+        return !vacio(l.getCodigoBarras()) ? "cb:" + l.getCodigoBarras().trim() : "sku:" + l.getSku().trim();
+    }
+
+    private static boolean vacio(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static RecepcionDTO aDto(RecepcionMercancia r, List<LineaRecepcionDTO> lineas, Integer lotesCreados) {
+        RecepcionDTO dto = new RecepcionDTO();
+        dto.setId(r.getId());
+        dto.setProveedor(r.getProveedor());
+        dto.setFolioProveedor(r.getFolioProveedor());
+        dto.setUsuario(r.getUsuario());
+        dto.setObservaciones(r.getObservaciones());
+        dto.setLineas(lineas);
+        dto.setTotalLineas(r.getTotalLineas());
+        dto.setPiezas(r.getPiezas());
+        dto.setCostoTotal(Dinero.aPesos(r.getCostoTotalCentavos()));
+        dto.setLotesCreados(lotesCreados);
+        dto.setFechaCreacion(r.getFechaCreacion());
+        return dto;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.backend.model.RecetaMedica;
 import com.example.backend.repository.RecetaMedicaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,11 +23,26 @@ public class RecetaMedicaService {
         return recetaMedicaRepository.findById(id);
     }
 
+    @Autowired
+    private ValidacionRecetaService validacionRecetaService;
+
+    @Transactional
     public RecetaMedica guardarReceta(RecetaMedica receta) {
-        return recetaMedicaRepository.save(receta);
+        if (receta.getId() == null) {
+            validacionRecetaService.validarYReservar(receta);
+        }
+        RecetaMedica guardada = recetaMedicaRepository.save(receta);
+        if (Boolean.TRUE.equals(guardada.getVerificada())) {
+            validacionRecetaService.marcarCedulaVerificada(guardada.getCedulaMedico());
+        }
+        return guardada;
     }
 
+    @Transactional
     public void eliminarReceta(Long id) {
-        recetaMedicaRepository.deleteById(id);
+        recetaMedicaRepository.findById(id).ifPresent(receta -> {
+            recetaMedicaRepository.delete(receta);
+            validacionRecetaService.liberar(receta);
+        });
     }
 }
@@ -0,0 +1,333 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DTOConverter;
+import com.example.backend.dto.FacturaDTO;
+import com.example.backend.model.Factura;
+import com.example.backend.repository.FacturaRepository;
+import com.example.backend.timbrado.ProveedorTimbrado;
+import com.example.backend.timbrado.ResultadoTimbrado;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de timbrado persistida en la propia tabla de facturas.
+ *
+ * Una factura encolada queda en EN_COLA con su proximoIntento; un poller reclama las que
+ * ya vencieron (TIMBRANDO), las manda al PAC en lotes con un número acotado de
+ * trabajadores y registra TIMBRADA, ERROR o un reintento con espera exponencial.
+ * Al arrancar, lo que quedó en TIMBRANDO por una caída vuelve a la cola.
+ */
+@Service
+public class TimbradoService {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String EN_COLA = "EN_COLA";
+    public static final String TIMBRANDO = "TIMBRANDO";
+    public static final String TIMBRADA = "TIMBRADA";
+    public static final String ERROR = "ERROR";
+    public static final String CANCELADA = "CANCELADA";
+
+    private static final Set<String> FINALES = Set.of(TIMBRADA, ERROR, CANCELADA);
+    private static final long ESPERA_MAXIMA_MS = 5 * 60 * 1000L;
+    private static final long TIMEOUT_SSE_MS = 5 * 60 * 1000L;
+
+    private static final Logger log = LoggerFactory.getLogger(TimbradoService.class);
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private ProveedorTimbrado proveedorTimbrado;
+
+    @Autowired
+    private DocumentoFacturaService documentoFacturaService;
+
+    @Value("${facturacion.timbrado.trabajadores:4}")
+    private int trabajadores;
+
+    @Value("${facturacion.timbrado.tamano-lote:20}")
+    private int tamanoLote;
+
+    @Value("${facturacion.timbrado.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${facturacion.timbrado.espera-base-ms:2000}")
+    private long esperaBaseMs;
+
+    private ExecutorService ejecutor;
+    private final AtomicInteger lotesEnVuelo = new AtomicInteger();
+    private final Map<Long, List<SseEmitter>> suscriptores = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = Executors.newFixedThreadPool(trabajadores, r -> {
+            Thread t = new Thread(r, "timbrado-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarPendientes() {
+        int recuperadas = facturaRepository.cambiarEstatus(TIMBRANDO, EN_COLA);
+        if (recuperadas > 0) {
+            log.info("{} facturas en TIMBRANDO devueltas a la cola", recuperadas);
+        }
+    }
+
+    public Optional<Factura> encolar(Long id) {
+        return facturaRepository.findById(id).map(this::encolar);
+    }
+
+    public List<Factura> encolar(List<Long> ids) {
+        List<Factura> facturas = facturaRepository.findAllById(ids);
+        List<Factura> encoladas = new ArrayList<>(facturas.size());
+        for (Factura f : facturas) {
+            if (puedeEncolarse(f)) {
+                prepararEnCola(f);
+                encoladas.add(f);
+            }
+        }
+        facturaRepository.saveAll(encoladas);
+        encoladas.forEach(this::notificar);
+        return facturas;
+    }
+
+    private Factura encolar(Factura factura) {
+        if (!puedeEncolarse(factura)) {
+            return factura;
+        }
+        prepararEnCola(factura);
+        Factura guardada = facturaRepository.save(factura);
+        notificar(guardada);
+        return guardada;
+    }
+
+    private static boolean puedeEncolarse(Factura f) {
+        return f.getEstatus() == null || PENDIENTE.equals(f.getEstatus()) || ERROR.equals(f.getEstatus());
+    }
+
+    private static void prepararEnCola(Factura f) {
+        f.setEstatus(EN_COLA);
+        f.setIntentosTimbrado(0);
+        f.setErrorTimbrado(null);
+        f.setProximoIntento(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${facturacion.timbrado.intervalo-ms:1000}")
+    public void procesarCola() {
+        int libres = trabajadores - lotesEnVuelo.get();
+        if (libres <= 0) {
+            return;
+        }
+
+        List<Factura> reclamadas = reclamar(libres * tamanoLote);
+        if (reclamadas.isEmpty()) {
+            return;
+        }
+        reclamadas.forEach(this::notificar);
+
+        for (int i = 0; i < reclamadas.size(); i += tamanoLote) {
+            List<Factura> lote = reclamadas.subList(i, Math.min(i + tamanoLote, reclamadas.size()));
+            lotesEnVuelo.incrementAndGet();
+            ejecutor.execute(() -> {
+                try {
+                    timbrarLote(lote);
+                } finally {
+                    lotesEnVuelo.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Reclama hasta {@code maximo} facturas vencidas con un UPDATE condicionado a EN_COLA y
+     * una ficha propia; se devuelven solo las que ese UPDATE cambió, así dos instancias o dos
+     * ciclos que leen la misma cola nunca timbran la misma factura.
+     */
+    List<Factura> reclamar(int maximo) {
+        List<Long> ids = facturaRepository.findIdsVencidos(EN_COLA, LocalDateTime.now(), PageRequest.of(0, maximo));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String reclamo = UUID.randomUUID().toString();
+        if (facturaRepository.reclamar(ids, reclamo) == 0) {
+            return List.of();
+        }
+        return facturaRepository.findByReclamoAndEstatus(reclamo, TIMBRANDO);
+    }
+
+    void timbrarLote(List<Factura> lote) {
+        Map<Long, ResultadoTimbrado> resultados = new HashMap<>();
+        try {
+            for (ResultadoTimbrado r : proveedorTimbrado.timbrar(lote)) {
+                resultados.put(r.facturaId(), r);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Fallo del PAC en lote de {} facturas: {}", lote.size(), e.getMessage());
+        }
+
+        List<Factura> actualizadas = new ArrayList<>(lote.size());
+        for (Factura f : lote) {
+            ResultadoTimbrado r = resultados.get(f.getId());
+            if (r == null) {
+                r = ResultadoTimbrado.fallo(f.getId(), "Sin respuesta del PAC", true);
+            }
+            aplicarResultado(f, r);
+            int escritas = facturaRepository.registrarResultado(f.getId(), f.getReclamo(), f.getEstatus(),
+                    f.getIntentosTimbrado(), f.getUuidFiscal(), f.getFechaTimbrado(), f.getErrorTimbrado(),
+                    f.getProximoIntento());
+            if (escritas == 1) {
+                actualizadas.add(f);
+            } else {
+                log.warn("Factura {} modificada durante el timbrado; se descarta el resultado del PAC ({})",
+                        f.getId(), r.exitoso() ? "UUID " + r.uuidFiscal() : r.error());
+            }
+        }
+
+        // Con el UUID ya asignado se generan XML y PDF antes de avisar a los suscriptores
+        for (Factura f : actualizadas) {
+            if (TIMBRADA.equals(f.getEstatus())) {
+                try {
+                    documentoFacturaService.generar(f.getId()).ifPresent(g -> {
+                        f.setUrlXml(g.getUrlXml());
+                        f.setUrlPdf(g.getUrlPdf());
+                    });
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Factura {} timbrada sin documentos: {}", f.getId(), e.getMessage());
+                }
+            }
+        }
+        actualizadas.forEach(this::notificar);
+    }
+
+    void aplicarResultado(Factura f, ResultadoTimbrado r) {
+        int intentos = (f.getIntentosTimbrado() != null ? f.getIntentosTimbrado() : 0) + 1;
+        f.setIntentosTimbrado(intentos);
+
+        if (r.exitoso()) {
+            f.setEstatus(TIMBRADA);
+            f.setUuidFiscal(r.uuidFiscal());
+            f.setFechaTimbrado(LocalDateTime.now());
+            f.setErrorTimbrado(null);
+            f.setProximoIntento(null);
+        } else if (r.reintentable() && intentos < maxIntentos) {
+            long espera = Math.min(esperaBaseMs << Math.min(intentos - 1, 20), ESPERA_MAXIMA_MS);
+            f.setEstatus(EN_COLA);
+            f.setErrorTimbrado(r.error());
+            f.setProximoIntento(LocalDateTime.now().plusNanos(espera * 1_000_000));
+        } else {
+            f.setEstatus(ERROR);
+            f.setErrorTimbrado(r.error());
+            f.setProximoIntento(null);
+        }
+    }
+
+    /**
+     * Suscribe al avance de la factura. Si termina entre la lectura del estatus y el alta del
+     * suscriptor, el aviso final ya salió: por eso se vuelve a leer después de registrarlo.
+     * El estado final se envía una sola vez, lo envíe quien quite al suscriptor de la lista.
+     */
+    public SseEmitter suscribir(Factura factura) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_SSE_MS);
+        Long id = factura.getId();
+        if (FINALES.contains(factura.getEstatus())) {
+            enviar(emitter, factura);
+            emitter.complete();
+            return emitter;
+        }
+
+        // Alta atómica con soltar: el suscriptor nunca queda en una lista ya retirada del mapa
+        List<SseEmitter> lista = suscriptores.compute(id, (k, actuales) -> {
+            List<SseEmitter> l = actuales != null ? actuales : new CopyOnWriteArrayList<>();
+            l.add(emitter);
+            return l;
+        });
+        Runnable quitar = () -> {
+            lista.remove(emitter);
+            soltar(id);
+        };
+        emitter.onCompletion(quitar);
+        emitter.onTimeout(quitar);
+        emitter.onError(e -> quitar.run());
+        enviar(emitter, factura);
+
+        Factura actual = facturaRepository.findById(id).orElse(factura);
+        if (FINALES.contains(actual.getEstatus()) && lista.remove(emitter)) {
+            soltar(id);
+            enviar(emitter, actual);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void notificar(Factura factura) {
+        List<SseEmitter> lista = suscriptores.get(factura.getId());
+        if (lista == null || lista.isEmpty()) {
+            return;
+        }
+        boolean fin = FINALES.contains(factura.getEstatus());
+        for (SseEmitter emitter : lista) {
+            if (fin && !lista.remove(emitter)) {
+                continue;
+            }
+            enviar(emitter, factura);
+            if (fin) {
+                emitter.complete();
+            }
+        }
+        if (fin) {
+            soltar(factura.getId());
+        }
+    }
+
+    // Quita la entrada de la factura cuando ya no le quedan suscriptores
+    private void soltar(Long facturaId) {
+        suscriptores.computeIfPresent(facturaId, (k, lista) -> lista.isEmpty() ? null : lista);
+    }
+
+    private static void enviar(SseEmitter emitter, Factura factura) {
+        FacturaDTO dto = DTOConverter.convertToDto(factura, FacturaDTO.class);
+        if (factura.getVenta() != null) {
+            dto.setVentaId(factura.getVenta().getId());
+        }
+        try {
+            emitter.send(SseEmitter.event().name("estatus").data(dto));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
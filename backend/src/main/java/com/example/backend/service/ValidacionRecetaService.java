@@ -0,0 +1,192 @@
+package com.example.backend.service;
+
+import com.example.backend.model.RecetaMedica;
+import com.example.backend.repository.RecetaMedicaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Validación de recetas en línea con el cobro.
+ *
+ * Los folios ya usados viven en un conjunto en memoria (cédula + folio): apartar un folio
+ * es un solo alta en el conjunto, sin consultar la base. Las cédulas ya revisadas se
+ * guardan en un caché con vencimiento.
+ */
+@Service
+public class ValidacionRecetaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidacionRecetaService.class);
+
+    private static final Pattern CEDULA = Pattern.compile("\\d{5,8}");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    @Autowired
+    private RecetaMedicaRepository recetaMedicaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recetas.vigencia-dias:7}")
+    private int vigenciaDias;
+
+    @Value("${recetas.cedulas.ttl-minutos:720}")
+    private long ttlCedulasMinutos;
+
+    @Value("${recetas.cedulas.exigir-verificada:false}")
+    private boolean exigirCedulaVerificada;
+
+    private final Set<String> foliosUsados = ConcurrentHashMap.newKeySet();
+    private Cache<String, Boolean> cedulas;
+
+    @PostConstruct
+    public void init() {
+        cedulas = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(Duration.ofMinutes(ttlCedulasMinutos))
+                .build();
+
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        lectura.executeWithoutResult(status -> {
+            try (Stream<Object[]> folios = recetaMedicaRepository.streamFolios()) {
+                folios.forEach(f -> foliosUsados.add(clave((String) f[0], (String) f[1])));
+            }
+        });
+        log.info("Validación de recetas: {} folios usados cargados", foliosUsados.size());
+    }
+
+    /**
+     * Valida la receta y aparta su folio. Si hay una transacción activa y no confirma, el
+     * folio se libera. Lanza IllegalArgumentException con el motivo del rechazo.
+     */
+    public void validarYReservar(RecetaMedica receta) {
+        validarYReservar(Collections.singletonList(receta));
+    }
+
+    /**
+     * Valida las recetas de un ticket y aparta cada folio una sola vez: la caja adjunta la
+     * receta a cada renglón, así que una receta que ampara dos renglones llega repetida.
+     * Entre tickets distintos el folio sigue siendo de un solo uso.
+     */
+    public void validarYReservar(List<RecetaMedica> recetas) {
+        Map<String, String> folios = new LinkedHashMap<>();
+        for (RecetaMedica receta : recetas) {
+            folios.putIfAbsent(validar(receta), receta.getFolioReceta());
+        }
+        folios.forEach(this::reservar);
+    }
+
+    private String validar(RecetaMedica receta) {
+        if (receta == null) {
+            throw new IllegalArgumentException("El medicamento requiere receta médica");
+        }
+        if (vacio(receta.getCedulaMedico()) || vacio(receta.getNombreMedico()) || vacio(receta.getFolioReceta())
+                || receta.getFechaReceta() == null) {
+            throw new IllegalArgumentException("La receta requiere cédula, nombre del médico, folio y fecha");
+        }
+
+        LocalDate hoy = LocalDate.now();
+        if (receta.getFechaReceta().isAfter(hoy)) {
+            throw new IllegalArgumentException("La fecha de la receta no puede ser futura");
+        }
+        if (receta.getFechaReceta().isBefore(hoy.minusDays(vigenciaDias))) {
+            throw new IllegalArgumentException("La receta tiene más de " + vigenciaDias + " días de antigüedad");
+        }
+
+        String cedula = normalizar(receta.getCedulaMedico());
+        if (!cedulas.get(cedula, this::cedulaValida)) {
+            throw new IllegalArgumentException("Cédula profesional no válida: " + receta.getCedulaMedico());
+        }
+        return clave(cedula, receta.getFolioReceta());
+    }
+
+    private void reservar(String clave, String folio) {
+        // El alta es también la consulta: si otra caja ya lo apartó, no entra
+        if (!foliosUsados.add(clave)) {
+            throw new IllegalArgumentException("El folio de receta " + folio + " ya fue utilizado");
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        foliosUsados.remove(clave);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Libera el folio de una receta eliminada para que pueda capturarse de nuevo. Con una
+     * transacción activa se libera solo si confirma.
+     */
+    public void liberar(RecetaMedica receta) {
+        if (receta == null || vacio(receta.getFolioReceta())) {
+            return;
+        }
+        String clave = clave(receta.getCedulaMedico(), receta.getFolioReceta());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            foliosUsados.remove(clave);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    foliosUsados.remove(clave);
+                }
+            }
+        });
+    }
+
+    /** Registra la cédula como verificada, p. ej. al marcar una receta como revisada. */
+    public void marcarCedulaVerificada(String cedulaMedico) {
+        if (!vacio(cedulaMedico)) {
+            cedulas.put(normalizar(cedulaMedico), true);
+        }
+    }
+
+    private boolean cedulaValida(String cedula) {
+        if (!CEDULA.matcher(cedula).matches()) {
+            return false;
+        }
+        return !exigirCedulaVerificada || recetaMedicaRepository.existsByCedulaMedicoAndVerificadaTrue(cedula);
+    }
+
+    private static String clave(String cedula, String folio) {
+        return normalizar(cedula) + "|" + normalizar(folio);
+    }
+
+    private static String normalizar(String valor) {
+        return valor == null ? "" : ESPACIOS.matcher(valor).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.MovimientoInventarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Piezas vendidas por producto en los últimos días, en una ventana deslizante por día que
+ * vive en memoria. Al crearse el servicio, antes de que el servidor acepte ventas, se llena
+ * con una sola consulta agregada sobre las salidas del periodo; después cada salida (y cada
+ * devolución de venta, en negativo y en el día de la venta original) la actualiza al
+ * confirmar su transacción, sin volver a recorrer los movimientos.
+ */
+@Service
+public class VelocidadVentasService {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocidadVentasService.class);
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    @Value("${reabasto.ventana-dias:28}")
+    private int ventanaDias;
+
+    // Se reemplaza completa al recargar: quien lee nunca ve una ventana a medio llenar
+    private volatile Map<Long, Ventana> ventanas = new ConcurrentHashMap<>();
+
+    private record Pendiente(Long productoId, long dia) {
+    }
+
+    /** Reconstruye la ventana desde los movimientos; solo al arrancar, después es incremental. */
+    @PostConstruct
+    public void cargar() {
+        long hoy = LocalDate.now().toEpochDay();
+        LocalDate desde = LocalDate.ofEpochDay(hoy - ventanaDias + 1);
+        int renglones = 0;
+        Map<Long, Ventana> cargadas = new ConcurrentHashMap<>();
+        for (Object[] r : movimientoRepository.sumarVentasPorDia(desde.atStartOfDay())) {
+            if (r[0] != null && r[2] != null) {
+                cargadas.computeIfAbsent((Long) r[0], id -> new Ventana(ventanaDias))
+                        .sumar(((LocalDate) r[1]).toEpochDay(), ((Number) r[2]).intValue(), hoy);
+                renglones++;
+            }
+        }
+        ventanas = cargadas;
+        log.info("Velocidad de ventas: {} productos, {} días-producto desde {}", cargadas.size(), renglones, desde);
+    }
+
+    /** Suma piezas vendidas hoy; cuenta al confirmar la transacción. */
+    public void registrar(Long productoId, int cantidad) {
+        registrar(productoId, cantidad, LocalDate.now());
+    }
+
+    /**
+     * Suma piezas al día indicado (negativas si es una devolución, con el día de la venta
+     * devuelta); cuenta al confirmar la transacción. Un día fuera de la ventana se ignora.
+     */
+    public void registrar(Long productoId, int cantidad, LocalDate dia) {
+        if (productoId == null || cantidad == 0) {
+            return;
+        }
+        Pendiente clave = new Pendiente(productoId, dia.toEpochDay());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(Map.of(clave, cantidad));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Pendiente, Integer> pendientes = (Map<Pendiente, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            Map<Pendiente, Integer> nuevos = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VelocidadVentasService.this);
+                    if (status == STATUS_COMMITTED) {
+                        aplicar(nuevos);
+                    }
+                }
+            });
+            pendientes = nuevos;
+        }
+        pendientes.merge(clave, cantidad, Integer::sum);
+    }
+
+    /** Piezas vendidas en la ventana. */
+    public int vendidas(Long productoId) {
+        Ventana v = ventanas.get(productoId);
+        return v == null ? 0 : v.total(LocalDate.now().toEpochDay());
+    }
+
+    /** Promedio de piezas por día en la ventana. */
+    public double ventaDiaria(Long productoId) {
+        return (double) vendidas(productoId) / ventanaDias;
+    }
+
+    public int getVentanaDias() {
+        return ventanaDias;
+    }
+
+    private void aplicar(Map<Pendiente, Integer> cantidades) {
+        long hoy = LocalDate.now().toEpochDay();
+        cantidades.forEach((p, cantidad) -> ventana(p.productoId()).sumar(p.dia(), cantidad, hoy));
+    }
+
+    private Ventana ventana(Long productoId) {
+        return ventanas.computeIfAbsent(productoId, id -> new Ventana(ventanaDias));
+    }
+
+    /**
+     * Una cubeta por día en un arreglo circular y el total de la ventana. Al avanzar el día
+     * se vacían las cubetas que salen y se restan del total; nada se recalcula.
+     */
+    static final class Ventana {
+
+        private final int[] cubetas;
+        private long ultimoDia = Long.MIN_VALUE;
+        private int total;
+
+        Ventana(int dias) {
+            this.cubetas = new int[dias];
+        }
+
+        synchronized void sumar(long dia, int cantidad, long hoy) {
+            avanzar(hoy);
+            if (dia <= hoy - cubetas.length || dia > hoy) {
+                return;
+            }
+            cubetas[(int) Math.floorMod(dia, (long) cubetas.length)] += cantidad;
+            total += cantidad;
+        }
+
+        synchronized int total(long hoy) {
+            avanzar(hoy);
+            // Una devolución de algo vendido antes de la ventana no deja el total en negativo
+            return Math.max(total, 0);
+        }
+
+        private void avanzar(long hoy) {
+            if (hoy <= ultimoDia) {
+                return;
+            }
+            if (ultimoDia == Long.MIN_VALUE || hoy - ultimoDia >= cubetas.length) {
+                Arrays.fill(cubetas, 0);
+                total = 0;
+            } else {
+                for (long d = ultimoDia + 1; d <= hoy; d++) {
+                    int i = (int) Math.floorMod(d, (long) cubetas.length);
+                    total -= cubetas[i];
+                    cubetas[i] = 0;
+                }
+            }
+            ultimoDia = hoy;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DetalleVentaDTO;
+import com.example.backend.dto.TicketEsperaDTO;
+import com.example.backend.dto.VentaDTO;
+import com.example.backend.model.TicketEspera;
+import com.example.backend.repository.TicketEsperaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ventas en espera. Viven en memoria, indexadas por id y por caja, y se escriben en
+ * diferido a ventas_espera solo para sobrevivir a un reinicio; la tabla ventas recibe
+ * únicamente la venta cuando se cobra. Los tickets vencen tras un TTL y, si se activa,
+ * apartan stock de forma informativa mientras esperan.
+ */
+@Service
+public class VentaEsperaService {
+
+    private static final Logger log = LoggerFactory.getLogger(VentaEsperaService.class);
+    private static final int CAJA_DEFAULT = 1;
+
+    @Autowired
+    private TicketEsperaRepository ticketEsperaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ventas.espera.ttl-minutos:240}")
+    private long ttlMinutos;
+
+    @Value("${ventas.espera.reservar-stock:false}")
+    private boolean reservarStock;
+
+    private record Estacionada(String id, int caja, VentaDTO venta, LocalDateTime fechaEspera, LocalDateTime expira) {
+    }
+
+    private final Map<String, Estacionada> tickets = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<String>> porCaja = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> reservas = new ConcurrentHashMap<>();
+
+    // Pendientes de escribir en la tabla
+    private final Set<String> sucios = ConcurrentHashMap.newKeySet();
+    private final Set<String> eliminados = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void cargar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<String> vencidos = new ArrayList<>();
+        for (TicketEspera t : ticketEsperaRepository.findAll()) {
+            if (t.getExpira() != null && t.getExpira().isBefore(ahora)) {
+                vencidos.add(t.getId());
+                continue;
+            }
+            try {
+                VentaDTO venta = objectMapper.readValue(t.getContenido(), VentaDTO.class);
+                int caja = t.getNumeroCaja() != null ? t.getNumeroCaja() : CAJA_DEFAULT;
+                indexar(new Estacionada(t.getId(), caja, venta, t.getFechaEspera(), t.getExpira()));
+            } catch (RuntimeException e) {
+                log.warn("Ticket en espera {} ilegible, se descarta: {}", t.getId(), e.getMessage());
+                vencidos.add(t.getId());
+            }
+        }
+        if (!vencidos.isEmpty()) {
+            ticketEsperaRepository.deleteAllByIdInBatch(vencidos);
+        }
+        if (!tickets.isEmpty()) {
+            log.info("{} ventas en espera recuperadas", tickets.size());
+        }
+    }
+
+    public TicketEsperaDTO estacionar(VentaDTO venta, Integer caja) {
+        LocalDateTime ahora = LocalDateTime.now();
+        String id = UUID.randomUUID().toString();
+        venta.setId(null);
+        venta.setEsperaId(id);
+        venta.setEnEspera(true);
+        venta.setEstado("EN_ESPERA");
+        if (venta.getNombreEspera() == null || venta.getNombreEspera().isBlank()) {
+            venta.setNombreEspera("Espera " + ahora.toLocalTime().withNano(0));
+        }
+        if (venta.getFechaEspera() == null) {
+            venta.setFechaEspera(ahora.toString());
+        }
+
+        Estacionada e = new Estacionada(id, caja != null ? caja : CAJA_DEFAULT, venta, ahora, ahora.plusMinutes(ttlMinutos));
+        indexar(e);
+        sucios.add(id);
+        return toDto(e);
+    }
+
+    /** Reemplaza el contenido del ticket y renueva su vencimiento. */
+    public Optional<TicketEsperaDTO> actualizar(String id, VentaDTO venta) {
+        Estacionada actual = tickets.get(id);
+        if (actual == null) {
+            return Optional.empty();
+        }
+        venta.setId(null);
+        venta.setEsperaId(id);
+        venta.setEnEspera(true);
+        venta.setEstado("EN_ESPERA");
+        if (venta.getNombreEspera() == null) {
+            venta.setNombreEspera(actual.venta().getNombreEspera());
+        }
+        if (venta.getFechaEspera() == null) {
+            venta.setFechaEspera(actual.venta().getFechaEspera());
+        }
+
+        Estacionada nueva = new Estacionada(id, actual.caja(), venta, actual.fechaEspera(),
+                LocalDateTime.now().plusMinutes(ttlMinutos));
+        if (tickets.replace(id, actual, nueva)) {
+            liberar(actual.venta());
+            apartar(venta);
+            sucios.add(id);
+            return Optional.of(toDto(nueva));
+        }
+        // Otra petición lo modificó o retiró primero
+        return Optional.empty();
+    }
+
+    public Optional<TicketEsperaDTO> buscar(String id) {
+        return Optional.ofNullable(tickets.get(id)).map(this::toDto);
+    }
+
+    public List<TicketEsperaDTO> listarPorCaja(Integer caja) {
+        Set<String> ids = porCaja.getOrDefault(caja != null ? caja : CAJA_DEFAULT, Set.of());
+        List<TicketEsperaDTO> resultado = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Estacionada e = tickets.get(id);
+            if (e != null) {
+                resultado.add(toDto(e));
+            }
+        }
+        resultado.sort(Comparator.comparing(TicketEsperaDTO::getFechaEspera));
+        return resultado;
+    }
+
+    /** Retira el ticket del almacén y devuelve la venta para continuar el cobro. */
+    public Optional<VentaDTO> retirar(String id) {
+        Estacionada e = tickets.remove(id);
+        if (e == null) {
+            return Optional.empty();
+        }
+        desindexar(e);
+        return Optional.of(e.venta());
+    }
+
+    public Map<Long, Integer> getReservas() {
+        return Map.copyOf(reservas);
+    }
+
+    public int reservado(Long productoId) {
+        return reservas.getOrDefault(productoId, 0);
+    }
+
+    /** Vence los tickets caducados y escribe en la tabla lo pendiente. */
+    @Scheduled(fixedDelayString = "${ventas.espera.escritura-ms:2000}")
+    public void mantener() {
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Estacionada e : tickets.values()) {
+            if (e.expira().isBefore(ahora) && tickets.remove(e.id(), e)) {
+                desindexar(e);
+                log.info("Venta en espera {} ({}) vencida", e.id(), e.venta().getNombreEspera());
+            }
+        }
+        escribir();
+    }
+
+    @PreDestroy
+    public void detener() {
+        escribir();
+    }
+
+    private synchronized void escribir() {
+        if (!sucios.isEmpty()) {
+            Set<String> lote = new HashSet<>(sucios);
+            sucios.removeAll(lote);
+            List<TicketEspera> filas = new ArrayList<>(lote.size());
+            for (String id : lote) {
+                Estacionada e = tickets.get(id);
+                if (e != null) {
+                    filas.add(toEntity(e));
+                }
+            }
+            try {
+                ticketEsperaRepository.saveAll(filas);
+            } catch (RuntimeException ex) {
+                sucios.addAll(lote);
+                log.warn("No se pudieron guardar {} ventas en espera: {}", filas.size(), ex.getMessage());
+            }
+        }
+        if (!eliminados.isEmpty()) {
+            Set<String> lote = new HashSet<>(eliminados);
+            eliminados.removeAll(lote);
+            try {
+                ticketEsperaRepository.deleteAllByIdInBatch(lote);
+            } catch (RuntimeException ex) {
+                eliminados.addAll(lote);
+                log.warn("No se pudieron borrar {} ventas en espera: {}", lote.size(), ex.getMessage());
+            }
+        }
+    }
+
+    private void indexar(Estacionada e) {
+        tickets.put(e.id(), e);
+        porCaja.computeIfAbsent(e.caja(), k -> ConcurrentHashMap.newKeySet()).add(e.id());
+        apartar(e.venta());
+    }
+
+    private void desindexar(Estacionada e) {
+        Set<String> ids = porCaja.get(e.caja());
+        if (ids != null) {
+            ids.remove(e.id());
+        }
+        liberar(e.venta());
+        sucios.remove(e.id());
+        eliminados.add(e.id());
+    }
+
+    private void apartar(VentaDTO venta) {
+        ajustarReservas(venta, 1);
+    }
+
+    private void liberar(VentaDTO venta) {
+        ajustarReservas(venta, -1);
+    }
+
+    private void ajustarReservas(VentaDTO venta, int signo) {
+        if (!reservarStock || venta.getDetalles() == null) {
+            return;
+        }
+        for (DetalleVentaDTO d : venta.getDetalles()) {
+            if (d.getProductoId() != null && d.getCantidad() != null) {
+                reservas.merge(d.getProductoId(), signo * d.getCantidad(), (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private TicketEsperaDTO toDto(Estacionada e) {
+        TicketEsperaDTO dto = new TicketEsperaDTO();
+        dto.setId(e.id());
+        dto.setNumeroCaja(e.caja());
+        dto.setNombreEspera(e.venta().getNombreEspera());
+        dto.setUsuarioNombre(e.venta().getUsuarioNombre());
+        dto.setFechaEspera(e.fechaEspera());
+        dto.setExpira(e.expira());
+        dto.setTotal(e.venta().getTotal());
+        dto.setArticulos(e.venta().getDetalles() != null ? e.venta().getDetalles().size() : 0);
+        dto.setVenta(e.venta());
+        return dto;
+    }
+
+    private TicketEspera toEntity(Estacionada e) {
+        TicketEspera t = new TicketEspera();
+        t.setId(e.id());
+        t.setNumeroCaja(e.caja());
+        t.setNombreEspera(e.venta().getNombreEspera());
+        t.setUsuarioNombre(e.venta().getUsuarioNombre());
+        t.setContenido(objectMapper.writeValueAsString(e.venta()));
+        t.setFechaEspera(e.fechaEspera());
+        t.setExpira(e.expira());
+        return t;
+    }
+}
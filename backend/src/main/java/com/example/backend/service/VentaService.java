@@ -1,22 +1,38 @@
 package com.example.backend.service;
 
-import com.example.backend.model.CorteCaja;
 import com.example.backend.model.DetalleVenta;
 import com.example.backend.model.Lote;
 import com.example.backend.model.Producto;
 import com.example.backend.model.Venta;
 import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.RecetaMedica;
+import com.example.backend.precios.CatalogoPrecios;
+import com.example.backend.repository.FacturaRepository;
+import com.example.backend.repository.RecetaMedicaRepository;
 import com.example.backend.repository.VentaRepository;
+import com.example.backend.util.Parche;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class VentaService {
 
+    // Una venta cobrada solo admite corregir el cliente y las observaciones
+    private static final Set<String> CAMPOS_EDITABLES = Set.of("clienteId", "clienteNombre", "observaciones");
+
     @Autowired
     private VentaRepository ventaRepository;
     
@@ -26,8 +42,26 @@ public class VentaService {
     @Autowired
     private CorteCajaService corteCajaService;
 
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private RecetaMedicaRepository recetaMedicaRepository;
+
+    @Autowired
+    private ValidacionRecetaService validacionRecetaService;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private CambioService cambioService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     public List<Venta> findAll() {
-        return ventaRepository.findAll();
+        return ventaRepository.findAllConDetalles();
     }
 
     public Optional<Venta> findById(Long id) {
@@ -41,13 +75,25 @@ public class VentaService {
     @Transactional
     public Venta save(Venta venta) {
         boolean isNew = (venta.getId() == null);
-        
+
+        // Los importes siempre se calculan en el servidor con el catálogo vigente
+        if (isNew) {
+            precioService.aplicarPrecios(venta);
+            validarRecetas(venta);
+            venta.setTotalDevueltoCentavos(0L);
+            if (venta.getDetalles() != null) {
+                venta.getDetalles().forEach(d -> d.setCantidadDevuelta(0));
+            }
+        }
+
         Venta savedVenta = ventaRepository.save(venta);
+        cambioService.registrarVenta(savedVenta, isNew ? "CREADA" : "ACTUALIZADA");
         
         // Solo para ventas NUEVAS realizamos los descuentos de inventario y actualizar el corte
         if (isNew && savedVenta.getDetalles() != null) {
             
-            // Generar salidas de inventario por cada artículo vendido
+            // Generar salidas de inventario por cada artículo vendido; se registran juntas
+            List<MovimientoInventario> salidas = new ArrayList<>();
             for (DetalleVenta detalle : savedVenta.getDetalles()) {
                 if (detalle.getProductoId() != null) {
                     MovimientoInventario mov = new MovimientoInventario();
@@ -66,38 +112,204 @@ public class VentaService {
                     mov.setCantidad(detalle.getCantidad() != null ? detalle.getCantidad() : 0);
                     mov.setMotivo("Venta");
                     mov.setReferencia("Venta ID: " + savedVenta.getId());
+                    mov.setVentaId(savedVenta.getId());
                     mov.setUsuario(savedVenta.getUsuarioNombre());
+
+                    // La receta capturada en caja se guarda con la venta y se asienta en el libro de control
+                    RecetaMedica receta = detalle.getRecetaMedica();
+                    if (receta != null) {
+                        receta.setDetalleVenta(detalle);
+                        if (receta.getTipoRegulacion() == null) {
+                            receta.setTipoRegulacion(detalle.getTipoRegulacion());
+                        }
+                        mov.setRecetaMedica(recetaMedicaRepository.save(receta));
+                    }
                     
-                    inventarioService.registrarSalida(mov);
+                    salidas.add(mov);
                 }
             }
+            inventarioService.registrarSalidas(salidas);
             
             // Actualizar corte de caja
             if (!"EN_ESPERA".equals(savedVenta.getEstado()) && !"CANCELADA".equals(savedVenta.getEstado())) {
-                CorteCaja corte = corteCajaService.getOrCreateActual();
-                Double total = (savedVenta.getTotal() != null ? savedVenta.getTotal() : 0.0);
-                
-                corte.setTotalVentas((corte.getTotalVentas() != null ? corte.getTotalVentas() : 0.0) + total);
-                corte.setCantidadVentas((corte.getCantidadVentas() != null ? corte.getCantidadVentas() : 0) + 1);
-                
-                String mp = savedVenta.getMetodoPago();
-                if ("EFECTIVO".equalsIgnoreCase(mp)) {
-                    corte.setVentasEfectivo((corte.getVentasEfectivo() != null ? corte.getVentasEfectivo() : 0.0) + total);
-                } else if ("TARJETA".equalsIgnoreCase(mp) || "TARJETA_CREDITO".equalsIgnoreCase(mp) || "TARJETA_DEBITO".equalsIgnoreCase(mp)) {
-                    corte.setVentasTarjeta((corte.getVentasTarjeta() != null ? corte.getVentasTarjeta() : 0.0) + total);
-                } else if ("TRANSFERENCIA".equalsIgnoreCase(mp)) {
-                    corte.setVentasTransferencia((corte.getVentasTransferencia() != null ? corte.getVentasTransferencia() : 0.0) + total);
-                } else {
-                    corte.setVentasEfectivo((corte.getVentasEfectivo() != null ? corte.getVentasEfectivo() : 0.0) + total);
-                }
-                corteCajaService.save(corte);
+                Long totalCentavos = savedVenta.getTotalCentavos();
+                corteCajaService.registrarVenta(totalCentavos != null ? totalCentavos : 0L, savedVenta.getMetodoPago());
             }
         }
 
         return savedVenta;
     }
 
-    public void deleteById(Long id) {
-        ventaRepository.deleteById(id);
+    // Las líneas que según el catálogo requieren receta deben traer una válida y con folio no usado.
+    // Una venta en espera todavía no surte, así que se valida hasta que se cobra.
+    private void validarRecetas(Venta venta) {
+        if ("EN_ESPERA".equals(venta.getEstado()) || venta.getDetalles() == null) {
+            return;
+        }
+        CatalogoPrecios catalogo = precioService.getCatalogo();
+        List<RecetaMedica> recetas = new ArrayList<>();
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            CatalogoPrecios.PrecioProducto pp = catalogo.buscar(detalle.getProductoId());
+            if ((pp != null && pp.requiereReceta()) || detalle.getRecetaMedica() != null) {
+                recetas.add(detalle.getRecetaMedica());
+            }
+        }
+        // Una receta repetida en varios renglones del ticket se aparta una sola vez
+        if (!recetas.isEmpty()) {
+            validacionRecetaService.validarYReservar(recetas);
+        }
+    }
+
+    /** Corrige datos de la venta sin tocar renglones ni importes; solo se escriben las columnas cambiadas. */
+    @Transactional
+    public Optional<Venta> patch(Long id, long versionEsperada, Map<String, Object> cambios) {
+        Optional<Venta> encontrada = ventaRepository.findById(id);
+        encontrada.ifPresent(venta -> {
+            Parche.verificarVersion(Venta.class, id, venta.getVersion(), versionEsperada);
+            Parche.aplicar(venta, cambios, CAMPOS_EDITABLES, objectMapper);
+            ventaRepository.flush();
+            cambioService.registrarVenta(venta, "ACTUALIZADA");
+        });
+        return encontrada;
+    }
+
+    /** Cancela lo que quede pendiente de devolver de la venta. */
+    @Transactional
+    public Venta cancelar(Long ventaId, String motivo, String usuario) {
+        return devolver(ventaId, null, motivo, usuario);
+    }
+
+    /**
+     * Devuelve piezas de una venta en una sola transacción. {@code cantidadesPorDetalle}
+     * indica cuánto devolver de cada renglón; si es null se devuelve todo lo pendiente.
+     *
+     * La venta se bloquea para que dos devoluciones simultáneas no rebasen lo vendido. Se
+     * genera una ENTRADA por cada combinación producto/lote, el reembolso es proporcional
+     * al total cobrado y el corte abierto se ajusta con un UPDATE atómico.
+     */
+    @Transactional
+    public Venta devolver(Long ventaId, Map<Long, Integer> cantidadesPorDetalle, String motivo, String usuario) {
+        Venta venta = ventaRepository.findParaDevolucion(ventaId)
+                .orElseThrow(() -> new IllegalArgumentException("Venta no encontrada: " + ventaId));
+        if ("CANCELADA".equals(venta.getEstado())) {
+            throw new IllegalArgumentException("La venta ya está cancelada");
+        }
+        if ("EN_ESPERA".equals(venta.getEstado())) {
+            throw new IllegalArgumentException("Una venta en espera no se cobra, no puede devolverse");
+        }
+        facturaRepository.findByVentaId(ventaId)
+                .filter(f -> !"CANCELADA".equals(f.getEstatus()))
+                .ifPresent(f -> {
+                    throw new IllegalArgumentException("La venta está facturada; cancele primero la factura " + f.getId());
+                });
+        // La factura global no apunta a la venta: la venta guarda el id de la factura
+        if (venta.getFacturaId() != null) {
+            facturaRepository.findById(venta.getFacturaId())
+                    .filter(f -> !"CANCELADA".equals(f.getEstatus()))
+                    .ifPresent(f -> {
+                        throw new IllegalArgumentException("La venta está en la factura global " + f.getId()
+                                + "; cancele primero la factura");
+                    });
+        }
+
+        List<DetalleVenta> detalles = venta.getDetalles();
+        Map<Long, Integer> aDevolver = new LinkedHashMap<>();
+        if (cantidadesPorDetalle == null) {
+            for (DetalleVenta d : detalles) {
+                int pendiente = pendiente(d);
+                if (pendiente > 0) {
+                    aDevolver.put(d.getId(), pendiente);
+                }
+            }
+        } else {
+            for (Map.Entry<Long, Integer> e : cantidadesPorDetalle.entrySet()) {
+                DetalleVenta d = detalles.stream().filter(x -> x.getId().equals(e.getKey())).findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("El renglón " + e.getKey() + " no pertenece a la venta"));
+                int cantidad = e.getValue() != null ? e.getValue() : 0;
+                if (cantidad <= 0 || cantidad > pendiente(d)) {
+                    throw new IllegalArgumentException("Cantidad a devolver inválida para " + d.getProductoNombre()
+                            + ": " + cantidad + " (pendiente " + pendiente(d) + ")");
+                }
+                aDevolver.put(d.getId(), cantidad);
+            }
+        }
+        if (aDevolver.isEmpty()) {
+            throw new IllegalArgumentException("No hay piezas pendientes de devolver");
+        }
+
+        long total = venta.getTotalCentavos() != null ? venta.getTotalCentavos() : 0L;
+        long devueltoAntes = venta.getTotalDevueltoCentavos() != null ? venta.getTotalDevueltoCentavos() : 0L;
+        long base = 0;
+        for (DetalleVenta d : detalles) {
+            base += d.getSubtotalCentavos() != null ? d.getSubtotalCentavos() : 0L;
+        }
+
+        // Una ENTRADA por producto y lote aunque se repitan en varios renglones
+        Map<List<Long>, Integer> entradas = new LinkedHashMap<>();
+        Map<Long, String> nombres = new HashMap<>();
+        long reembolso = 0;
+        for (DetalleVenta d : detalles) {
+            Integer cantidad = aDevolver.get(d.getId());
+            if (cantidad == null) {
+                continue;
+            }
+            int vendida = d.getCantidad() != null ? d.getCantidad() : 0;
+            long subtotal = d.getSubtotalCentavos() != null ? d.getSubtotalCentavos() : 0L;
+            if (base > 0 && vendida > 0) {
+                reembolso += BigDecimal.valueOf(total).multiply(BigDecimal.valueOf(subtotal * cantidad))
+                        .divide(BigDecimal.valueOf(base * vendida), 0, RoundingMode.HALF_UP).longValueExact();
+            }
+            d.setCantidadDevuelta((d.getCantidadDevuelta() != null ? d.getCantidadDevuelta() : 0) + cantidad);
+            if (d.getProductoId() != null) {
+                nombres.putIfAbsent(d.getProductoId(), d.getProductoNombre());
+                entradas.merge(Arrays.asList(d.getProductoId(), d.getLoteId()), cantidad, Integer::sum);
+            }
+        }
+
+        boolean completa = detalles.stream().allMatch(d -> pendiente(d) == 0);
+        // Al cerrar la venta se reembolsa exactamente lo que falte, sin residuos de redondeo
+        if (completa || devueltoAntes + reembolso > total) {
+            reembolso = total - devueltoAntes;
+        }
+        venta.setTotalDevueltoCentavos(devueltoAntes + reembolso);
+        venta.setEstado(completa ? "CANCELADA" : "DEVOLUCION_PARCIAL");
+        String tipo = cantidadesPorDetalle == null ? "Cancelación" : "Devolución";
+        String nota = tipo + (motivo != null && !motivo.isBlank() ? ": " + motivo : "");
+        venta.setObservaciones(venta.getObservaciones() == null || venta.getObservaciones().isBlank() ? nota
+                : venta.getObservaciones() + "\n" + nota);
+        Venta guardada = ventaRepository.save(venta);
+
+        String quien = usuario != null ? usuario : venta.getUsuarioNombre();
+        List<MovimientoInventario> reingresos = new ArrayList<>();
+        for (Map.Entry<List<Long>, Integer> e : entradas.entrySet()) {
+            MovimientoInventario mov = new MovimientoInventario();
+            Producto p = new Producto();
+            p.setId(e.getKey().get(0));
+            mov.setProducto(p);
+            mov.setProductoNombre(nombres.get(p.getId()));
+            Long loteId = e.getKey().get(1);
+            if (loteId != null) {
+                Lote l = new Lote();
+                l.setId(loteId);
+                mov.setLote(l);
+            }
+            mov.setCantidad(e.getValue());
+            mov.setMotivo(tipo);
+            mov.setReferencia("Venta ID: " + ventaId);
+            mov.setVentaId(ventaId);
+            mov.setUsuario(quien);
+            reingresos.add(mov);
+        }
+        inventarioService.registrarEntradas(reingresos);
+
+        corteCajaService.registrarDevolucion(reembolso, completa);
+        cambioService.registrarVenta(guardada, completa ? "CANCELADA" : "DEVOLUCION");
+        return guardada;
+    }
+
+    private static int pendiente(DetalleVenta d) {
+        int vendida = d.getCantidad() != null ? d.getCantidad() : 0;
+        int devuelta = d.getCantidadDevuelta() != null ? d.getCantidadDevuelta() : 0;
+        return vendida - devuelta;
     }
 }
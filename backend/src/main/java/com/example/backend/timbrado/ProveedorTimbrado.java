@@ -0,0 +1,14 @@
+package com.example.backend.timbrado;
+
+import java.util.List;
+
+import com.example.backend.model.Factura;
+
+/**
+ * Proveedor de timbrado (PAC). Recibe un lote de facturas y devuelve un resultado por
+ * cada una. Una excepción se trata como fallo reintentable de todo el lote.
+ */
+public interface ProveedorTimbrado {
+
+    List<ResultadoTimbrado> timbrar(List<Factura> facturas);
+}
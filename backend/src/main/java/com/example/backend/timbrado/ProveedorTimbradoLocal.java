@@ -0,0 +1,49 @@
+package com.example.backend.timbrado;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Factura;
+
+/**
+ * PAC simulado para desarrollo y pruebas: espera una demora fija por lote y genera un
+ * UUID aleatorio. Rechaza facturas sin RFC y puede simular fallos transitorios.
+ */
+@Component
+@ConditionalOnProperty(name = "facturacion.timbrado.proveedor", havingValue = "local", matchIfMissing = true)
+public class ProveedorTimbradoLocal implements ProveedorTimbrado {
+
+    @Value("${facturacion.timbrado.local.demora-ms:1500}")
+    private long demoraMs;
+
+    @Value("${facturacion.timbrado.local.tasa-fallos:0.0}")
+    private double tasaFallos;
+
+    @Override
+    public List<ResultadoTimbrado> timbrar(List<Factura> facturas) {
+        try {
+            Thread.sleep(demoraMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Timbrado interrumpido", e);
+        }
+
+        List<ResultadoTimbrado> resultados = new ArrayList<>(facturas.size());
+        for (Factura f : facturas) {
+            if (f.getRfc() == null || f.getRfc().isBlank()) {
+                resultados.add(ResultadoTimbrado.fallo(f.getId(), "RFC del receptor requerido", false));
+            } else if (tasaFallos > 0 && ThreadLocalRandom.current().nextDouble() < tasaFallos) {
+                resultados.add(ResultadoTimbrado.fallo(f.getId(), "PAC no disponible", true));
+            } else {
+                resultados.add(ResultadoTimbrado.exito(f.getId(), UUID.randomUUID().toString().toUpperCase()));
+            }
+        }
+        return resultados;
+    }
+}
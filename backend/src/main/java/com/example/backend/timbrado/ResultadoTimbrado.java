@@ -0,0 +1,15 @@
+package com.example.backend.timbrado;
+
+/**
+ * Respuesta del PAC para una factura de un lote.
+ */
+public record ResultadoTimbrado(Long facturaId, boolean exitoso, String uuidFiscal, String error, boolean reintentable) {
+
+    public static ResultadoTimbrado exito(Long facturaId, String uuidFiscal) {
+        return new ResultadoTimbrado(facturaId, true, uuidFiscal, null, false);
+    }
+
+    public static ResultadoTimbrado fallo(Long facturaId, String error, boolean reintentable) {
+        return new ResultadoTimbrado(facturaId, false, null, error, reintentable);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.backend.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.hibernate.Session;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Carga varias entidades por id en una sola pasada: lo que está en el contexto de
+ * persistencia o en el caché de segundo nivel se toma de ahí y el resto se lee con un
+ * solo IN. El resultado respeta el orden pedido, sin repetidos ni ids inexistentes.
+ */
+public final class CargaMultiple {
+
+    public static final int MAXIMO_IDS = 500;
+
+    private CargaMultiple() {
+    }
+
+    public static <T> List<T> porIds(EntityManager entityManager, Class<T> tipo, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        unicos.remove(null);
+        if (unicos.size() > MAXIMO_IDS) {
+            throw new IllegalArgumentException("Se pueden pedir hasta " + MAXIMO_IDS + " ids por consulta");
+        }
+        List<T> encontrados = entityManager.unwrap(Session.class).findMultiple(tipo, unicos);
+        List<T> resultado = new ArrayList<>(encontrados.size());
+        for (T e : encontrados) {
+            if (e != null) {
+                resultado.add(e);
+            }
+        }
+        return resultado;
+    }
+}
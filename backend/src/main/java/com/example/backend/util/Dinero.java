@@ -0,0 +1,63 @@
+package com.example.backend.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de importes en centavos (long).
+ *
+ * Los montos se guardan y se acumulan como centavos enteros para que los
+ * totales del corte cuadren al centavo. La conversión a/desde Double solo
+ * ocurre en la frontera con los DTOs.
+ */
+public final class Dinero {
+
+    private static final long ESCALA_TASA = 10_000L; // 100% = 10000 puntos base
+
+    private Dinero() {
+    }
+
+    public static long aCentavos(double pesos) {
+        return BigDecimal.valueOf(pesos).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static Long aCentavos(Double pesos) {
+        return pesos != null ? aCentavos(pesos.doubleValue()) : null;
+    }
+
+    public static long aCentavosOCero(Double pesos) {
+        return pesos != null ? aCentavos(pesos.doubleValue()) : 0L;
+    }
+
+    public static double aPesos(long centavos) {
+        return centavos / 100.0;
+    }
+
+    public static Double aPesos(Long centavos) {
+        return centavos != null ? aPesos(centavos.longValue()) : null;
+    }
+
+    /** Representación decimal con dos posiciones ("1234.50"), sin pasar por double. */
+    public static String formatear(long centavos) {
+        return BigDecimal.valueOf(centavos, 2).toPlainString();
+    }
+
+    /** Convierte un porcentaje (16 = 16%) a puntos base (1600). */
+    public static long aPuntosBase(Double porcentaje) {
+        if (porcentaje == null) return 0L;
+        return BigDecimal.valueOf(porcentaje).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /** Aplica una tasa en puntos base a un importe, redondeando al centavo (half-up). */
+    public static long aplicarTasa(long centavos, long puntosBase) {
+        long producto = Math.multiplyExact(centavos, puntosBase);
+        if (producto >= 0) {
+            return (producto + ESCALA_TASA / 2) / ESCALA_TASA;
+        }
+        return -((-producto + ESCALA_TASA / 2) / ESCALA_TASA);
+    }
+
+    public static long multiplicar(long centavos, int cantidad) {
+        return Math.multiplyExact(centavos, (long) cantidad);
+    }
+}
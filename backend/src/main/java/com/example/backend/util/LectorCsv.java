@@ -0,0 +1,96 @@
+package com.example.backend.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV por registro, sin cargar el archivo: admite campos entre comillas con
+ * comas, saltos de línea y comillas dobladas (""), y fin de línea \n o \r\n. El separador
+ * se toma del encabezado: ';' si solo aparece ese, ',' en otro caso.
+ */
+public final class LectorCsv {
+
+    private final Reader entrada;
+    private final StringBuilder campo = new StringBuilder(64);
+    private char separador = ',';
+    private boolean primero = true;
+    private int siguiente = -2;
+
+    public LectorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /** Siguiente registro o null al terminar la entrada. Las líneas vacías se omiten. */
+    public List<String> leer() throws IOException {
+        List<String> campos = new ArrayList<>();
+        campo.setLength(0);
+        boolean entreComillas = false;
+        boolean hayDatos = false;
+        List<String> registro = null;
+        while (registro == null) {
+            int c = leerCaracter();
+            if (c < 0) {
+                if (!hayDatos) {
+                    return null;
+                }
+                campos.add(campo.toString());
+                registro = campos;
+            } else if (entreComillas) {
+                if (c == '"') {
+                    if (asomar() == '"') {
+                        leerCaracter();
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+                hayDatos = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && asomar() == '\n') {
+                    leerCaracter();
+                }
+                if (hayDatos) {
+                    campos.add(campo.toString());
+                    registro = campos;
+                }
+            } else if (c == separador || (primero && c == ';' && campos.isEmpty() && detectarPuntoYComa())) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+                hayDatos = true;
+            } else {
+                campo.append((char) c);
+                hayDatos = true;
+            }
+        }
+        primero = false;
+        return registro;
+    }
+
+    // En el encabezado, el primer ';' antes de cualquier ',' fija el separador
+    private boolean detectarPuntoYComa() {
+        separador = ';';
+        return true;
+    }
+
+    private int leerCaracter() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+
+    private int asomar() throws IOException {
+        if (siguiente == -2) {
+            siguiente = entrada.read();
+        }
+        return siguiente;
+    }
+}
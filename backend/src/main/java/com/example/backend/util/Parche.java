@@ -0,0 +1,98 @@
+package com.example.backend.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Actualizaciones parciales (PATCH). Se aplican sobre la entidad ya administrada solo los
+ * campos presentes en el cuerpo y Hibernate emite un único UPDATE condicionado a la
+ * versión que el cliente leyó; en las entidades con @DynamicUpdate solo van las columnas
+ * que cambiaron.
+ */
+public final class Parche {
+
+    private Parche() {
+    }
+
+    /**
+     * Versión esperada: la del encabezado If-Match (admite comillas y W/) o, si no viene,
+     * la propiedad "version" del cuerpo. Null si no hay ninguna.
+     */
+    public static Long versionEsperada(String siCoincide, Map<String, Object> cambios) {
+        Object valor = siCoincide;
+        if (siCoincide != null) {
+            valor = siCoincide.trim().replaceFirst("^W/", "").replace("\"", "");
+        } else if (cambios != null) {
+            valor = cambios.get("version");
+        }
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(valor.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Versión no válida: " + valor);
+        }
+    }
+
+    /** Versión esperada de un PUT: la de If-Match o, si no viene, la del cuerpo. */
+    public static Long versionEsperada(String siCoincide, Long enCuerpo) {
+        return siCoincide != null ? versionEsperada(siCoincide, (Map<String, Object>) null) : enCuerpo;
+    }
+
+    /**
+     * Respuesta para una versión que ya no es la vigente: 412 si el cliente la mandó en
+     * If-Match, 409 si venía en el cuerpo.
+     */
+    public static ResponseStatusException versionVencida(String siCoincide, String mensaje, Exception causa) {
+        HttpStatus estado = siCoincide != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        return new ResponseStatusException(estado, mensaje, causa);
+    }
+
+    /** Rechaza el cambio si la entidad ya no está en la versión que el cliente leyó. */
+    public static void verificarVersion(Class<?> tipo, Long id, Long actual, long esperada) {
+        if (!Objects.equals(actual, esperada)) {
+            throw new ObjectOptimisticLockingFailureException(tipo, id);
+        }
+    }
+
+    /**
+     * Copia a la entidad los campos del mapa, convertidos al tipo de cada propiedad. "id" y
+     * "version" se ignoran; cualquier otro campo fuera de {@code permitidos} se rechaza. Todos
+     * los valores se convierten antes de asignar el primero: si alguno no es válido, la
+     * entidad queda intacta.
+     */
+    public static void aplicar(Object entidad, Map<String, Object> cambios, Set<String> permitidos,
+            ObjectMapper objectMapper) {
+        if (cambios == null) {
+            return;
+        }
+        BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(entidad);
+        Map<String, Object> convertidos = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> cambio : cambios.entrySet()) {
+            String campo = cambio.getKey();
+            if ("id".equals(campo) || "version".equals(campo)) {
+                continue;
+            }
+            if (!permitidos.contains(campo)) {
+                throw new IllegalArgumentException("El campo " + campo + " no se puede modificar");
+            }
+            try {
+                convertidos.put(campo, objectMapper.convertValue(cambio.getValue(), bean.getPropertyType(campo)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Valor no válido para " + campo + ": " + cambio.getValue());
+            }
+        }
+        convertidos.forEach(bean::setPropertyValue);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para búsquedas: minúsculas, sin acentos y con
+ * espacios simples.
+ */
+public final class Texto {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private Texto() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) return "";
+        String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** Escapa los comodines de LIKE usando '\' como carácter de escape. */
+    public static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /** Distancia de edición (Levenshtein) con corte temprano si supera el máximo. */
+    public static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) return maximo + 1;
+        int[] previa = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previa[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, previa[j] + 1), previa[j - 1] + costo);
+                minFila = Math.min(minFila, actual[j]);
+            }
+            if (minFila > maximo) return maximo + 1;
+            int[] tmp = previa;
+            previa = actual;
+            actual = tmp;
+        }
+        return previa[b.length()];
+    }
+}
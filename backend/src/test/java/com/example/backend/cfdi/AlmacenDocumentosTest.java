@@ -0,0 +1,71 @@
+package com.example.backend.cfdi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AlmacenDocumentosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void elMismoContenidoSeGuardaUnaSolaVez() throws IOException {
+        AlmacenDocumentos almacen = almacen();
+        byte[] contenido = "<cfdi/>".getBytes(StandardCharsets.UTF_8);
+
+        String nombre = almacen.guardar("xml", salida -> salida.write(contenido));
+        assertEquals(nombre, almacen.guardar("xml", salida -> salida.write(contenido)));
+        assertNotEquals(nombre, almacen.guardar("xml", salida -> salida.write('x')));
+
+        Path ruta = almacen.buscar(nombre).orElseThrow();
+        assertEquals(nombre.substring(0, 2), ruta.getParent().getFileName().toString());
+        assertArrayEquals(contenido, Files.readAllBytes(ruta));
+        assertEquals(2, archivos());
+    }
+
+    @Test
+    void unaEscrituraFallidaNoDejaTemporales() throws IOException {
+        AlmacenDocumentos almacen = almacen();
+        assertThrows(IOException.class, () -> almacen.guardar("pdf", salida -> {
+            salida.write(1);
+            throw new IllegalStateException("plantilla inválida");
+        }));
+        assertEquals(0, archivos());
+    }
+
+    @Test
+    void soloBuscaNombresDeHash() throws IOException {
+        AlmacenDocumentos almacen = almacen();
+        String nombre = almacen.guardar("xml", salida -> salida.write('a'));
+
+        assertTrue(almacen.buscar(nombre).isPresent());
+        assertTrue(almacen.buscar("../" + nombre).isEmpty());
+        assertTrue(almacen.buscar(nombre.replace(".xml", ".txt")).isEmpty());
+        assertTrue(almacen.buscar("0".repeat(64) + ".xml").isEmpty());
+    }
+
+    private AlmacenDocumentos almacen() {
+        AlmacenDocumentos almacen = new AlmacenDocumentos();
+        ReflectionTestUtils.setField(almacen, "directorio", directorio);
+        return almacen;
+    }
+
+    private long archivos() throws IOException {
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            return rutas.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.backend.cfdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.CalculadoraTicket;
+import com.example.backend.precios.CatalogoPrecios;
+import com.example.backend.precios.TicketCalculado;
+
+class GeneradorXmlCfdiTest {
+
+    private static final String NS_CFDI = "http://www.sat.gob.mx/cfd/4";
+
+    @Test
+    void escribeConceptosTrasladosYTimbre() throws Exception {
+        Producto producto = new Producto();
+        producto.setId(1L);
+        producto.setPrecioVenta(100.0);
+        producto.setPorcentajeIVA(16.0);
+        producto.setPorcentajeIEPS(8.0);
+
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setFechaCreacion(LocalDateTime.of(2026, 3, 14, 10, 30, 15));
+        venta.getDetalles().add(linea(1L, "Jarabe", 3, 10.0, null));
+        venta.getDetalles().add(linea(null, "Servicio", 1, null, 1000L));
+        TicketCalculado ticket = CalculadoraTicket.calcular(CatalogoPrecios.desde(1, List.of(producto)),
+                venta.getDetalles(), 5.0);
+
+        Factura factura = new Factura();
+        factura.setSerie("A");
+        factura.setFolio(10L);
+        factura.setRfc("XAXX010101000");
+        factura.setRazonSocial("PUBLICO EN GENERAL");
+        factura.setUuidFiscal("1B2C3D4E-0000-4000-8000-000000000000");
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        generador().escribir(factura, venta, ticket, salida);
+        Document xml = leer(salida.toByteArray());
+
+        // 300.00 + 10.00 de importe; descuentos 30.00 + 13.50 de la línea gravada y 0.50 de la libre
+        Element comprobante = xml.getDocumentElement();
+        assertEquals("A", comprobante.getAttribute("Serie"));
+        assertEquals("10", comprobante.getAttribute("Folio"));
+        assertEquals("2026-03-14T10:30:15", comprobante.getAttribute("Fecha"));
+        assertEquals("01", comprobante.getAttribute("FormaPago"));
+        assertEquals("310.00", comprobante.getAttribute("SubTotal"));
+        assertEquals("44.00", comprobante.getAttribute("Descuento"));
+        assertEquals(31000 - 4400 + 2052 + 4432, ticket.totalCentavos());
+        assertEquals("330.84", comprobante.getAttribute("Total"));
+
+        NodeList conceptos = xml.getElementsByTagNameNS(NS_CFDI, "Concepto");
+        assertEquals(2, conceptos.getLength());
+        assertEquals("02", ((Element) conceptos.item(0)).getAttribute("ObjetoImp"));
+        assertEquals("01", ((Element) conceptos.item(1)).getAttribute("ObjetoImp"));
+
+        // IEPS sobre 256.50 y el IVA sobre la base más IEPS
+        NodeList traslados = ((Element) conceptos.item(0)).getElementsByTagNameNS(NS_CFDI, "Traslado");
+        assertTraslado((Element) traslados.item(0), "003", "256.50", "0.080000", "20.52");
+        assertTraslado((Element) traslados.item(1), "002", "277.02", "0.160000", "44.32");
+
+        Element impuestos = (Element) xml.getElementsByTagNameNS(NS_CFDI, "Impuestos").item(1);
+        assertEquals("64.84", impuestos.getAttribute("TotalImpuestosTrasladados"));
+        assertEquals(1, xml.getElementsByTagNameNS("http://www.sat.gob.mx/TimbreFiscalDigital",
+                "TimbreFiscalDigital").getLength());
+
+        // El PDF muestra el mismo SubTotal y Descuento que el XML
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        GeneradorPdfFactura generadorPdf = new GeneradorPdfFactura();
+        ReflectionTestUtils.setField(generadorPdf, "rfcEmisor", "EKU9003173C9");
+        ReflectionTestUtils.setField(generadorPdf, "nombreEmisor", "FARMACIA");
+        generadorPdf.compilarPlantilla();
+        generadorPdf.escribir(factura, venta, ticket, pdf);
+        String contenido = pdf.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(contenido.contains("($310.00) Tj"), "Subtotal");
+        assertTrue(contenido.contains("($44.00) Tj"), "Descuento");
+        assertTrue(contenido.contains("($330.84) Tj"), "Total");
+    }
+
+    private static void assertTraslado(Element t, String impuesto, String base, String tasa, String importe) {
+        assertEquals(impuesto, t.getAttribute("Impuesto"));
+        assertEquals(base, t.getAttribute("Base"));
+        assertEquals(tasa, t.getAttribute("TasaOCuota"));
+        assertEquals(importe, t.getAttribute("Importe"));
+    }
+
+    private static GeneradorXmlCfdi generador() {
+        GeneradorXmlCfdi generador = new GeneradorXmlCfdi();
+        ReflectionTestUtils.setField(generador, "rfcEmisor", "EKU9003173C9");
+        ReflectionTestUtils.setField(generador, "nombreEmisor", "FARMACIA");
+        ReflectionTestUtils.setField(generador, "regimenEmisor", "601");
+        ReflectionTestUtils.setField(generador, "lugarExpedicion", "00000");
+        ReflectionTestUtils.setField(generador, "claveProdServ", "51000000");
+        return generador;
+    }
+
+    private static Document leer(byte[] xml) throws Exception {
+        DocumentBuilderFactory fabrica = DocumentBuilderFactory.newInstance();
+        fabrica.setNamespaceAware(true);
+        return fabrica.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+
+    private static DetalleVenta linea(Long productoId, String nombre, int cantidad, Double descuento, Long precio) {
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(productoId);
+        d.setProductoNombre(nombre);
+        d.setCantidad(cantidad);
+        d.setDescuento(descuento);
+        d.setPrecioUnitarioCentavos(precio);
+        return d;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.backend.cfdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class PeriodoGlobalTest {
+
+    @Test
+    void derivaPeriodicidadYMesesDelRango() {
+        assertEquals(new PeriodoGlobal("04", "02", 2026), PeriodoGlobal.de(dia(2026, 2, 1), dia(2026, 3, 1)));
+        assertEquals(new PeriodoGlobal("03", "02", 2026), PeriodoGlobal.de(dia(2026, 2, 1), dia(2026, 2, 16)));
+        assertEquals(new PeriodoGlobal("03", "02", 2026), PeriodoGlobal.de(dia(2026, 2, 16), dia(2026, 3, 1)));
+        assertEquals(new PeriodoGlobal("02", "02", 2026), PeriodoGlobal.de(dia(2026, 2, 9), dia(2026, 2, 16)));
+        assertEquals(new PeriodoGlobal("01", "12", 2025), PeriodoGlobal.de(dia(2025, 12, 31), dia(2026, 1, 1)));
+        // Bimestres calendario: enero-febrero es 13 y noviembre-diciembre 18
+        assertEquals(new PeriodoGlobal("05", "13", 2026), PeriodoGlobal.de(dia(2026, 1, 1), dia(2026, 3, 1)));
+        assertEquals(new PeriodoGlobal("05", "18", 2026), PeriodoGlobal.de(dia(2026, 11, 1), dia(2027, 1, 1)));
+    }
+
+    @Test
+    void rechazaRangosSinPeriodicidad() {
+        // Una semana que cruza de mes, un bimestre que no es calendario y diez días sueltos
+        assertThrows(IllegalArgumentException.class, () -> PeriodoGlobal.de(dia(2026, 2, 26), dia(2026, 3, 5)));
+        assertThrows(IllegalArgumentException.class, () -> PeriodoGlobal.de(dia(2026, 2, 1), dia(2026, 4, 1)));
+        assertThrows(IllegalArgumentException.class, () -> PeriodoGlobal.de(dia(2026, 2, 1), dia(2026, 2, 11)));
+        assertThrows(IllegalArgumentException.class, () -> PeriodoGlobal.de(dia(2026, 2, 1), dia(2026, 2, 1)));
+    }
+
+    private static LocalDate dia(int anio, int mes, int dia) {
+        return LocalDate.of(anio, mes, dia);
+    }
+}
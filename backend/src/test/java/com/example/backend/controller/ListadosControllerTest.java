@@ -0,0 +1,119 @@
+package com.example.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Producto;
+import com.example.backend.model.RecetaMedica;
+import com.example.backend.model.Venta;
+import com.example.backend.repository.RecetaMedicaRepository;
+import com.example.backend.service.FacturaService;
+import com.example.backend.service.ProductoService;
+import com.example.backend.service.VentaService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Las estadísticas de Hibernate son globales: se espacian las tareas programadas que
+// consultan la base para que no se cuenten sus sentencias
+@SpringBootTest(properties = {
+        "cambios.publicacion-ms=3600000",
+        "facturacion.timbrado.intervalo-ms=3600000",
+        "ventas.espera.escritura-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ListadosControllerTest {
+
+    private static final String[] LISTADOS = {
+            "/api/ventas", "/api/inventario/movimientos", "/api/facturas", "/api/recetas"
+    };
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private RecetaMedicaRepository recetaMedicaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listadosUsanLasMismasSentenciasSinImportarLasFilas() throws Exception {
+        crearVentas(3);
+        long[] antes = new long[LISTADOS.length];
+        for (int i = 0; i < LISTADOS.length; i++) {
+            antes[i] = sentencias(LISTADOS[i]);
+        }
+
+        crearVentas(15);
+        for (int i = 0; i < LISTADOS.length; i++) {
+            long despues = sentencias(LISTADOS[i]);
+            assertEquals(antes[i], despues, LISTADOS[i] + " crece con el número de filas");
+            assertTrue(despues <= 2, LISTADOS[i] + ": " + despues + " sentencias");
+        }
+    }
+
+    private long sentencias(String url) throws Exception {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return stats.getPrepareStatementCount();
+    }
+
+    private void crearVentas(int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            Producto p = new Producto();
+            p.setNombre("Listado " + i);
+            p.setPrecioVenta(20.0);
+            p.setStockTotal(100);
+            p = productoService.save(p);
+
+            Venta venta = new Venta();
+            venta.setMetodoPago("EFECTIVO");
+            venta.setEstado("COMPLETADA");
+            for (int j = 0; j < 2; j++) {
+                DetalleVenta d = new DetalleVenta();
+                d.setProductoId(p.getId());
+                d.setCantidad(1);
+                venta.getDetalles().add(d);
+            }
+            venta = ventaService.save(venta);
+
+            Factura factura = new Factura();
+            factura.setVenta(venta);
+            factura.setRfc("XAXX010101000");
+            factura.setEstatus("PENDIENTE");
+            facturaService.guardarFactura(factura);
+
+            RecetaMedica receta = new RecetaMedica();
+            receta.setDetalleVenta(venta.getDetalles().get(0));
+            receta.setCedulaMedico("1234567");
+            receta.setNombreMedico("Dr. Listado");
+            receta.setFolioReceta("L-" + venta.getId());
+            receta.setFechaReceta(LocalDate.now());
+            recetaMedicaRepository.save(receta);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.service.LoteService;
+import com.example.backend.service.ProductoService;
+import com.example.backend.service.VentaService;
+
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void unaEdicionNoRegresaElStockDeUnaVentaConfirmadaEntreLecturaYEscritura() throws Exception {
+        Producto p = producto("Edición concurrente");
+        long version = p.getVersion();
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // La edición ya leyó el producto con 50 piezas cuando otra caja vende 3
+            assertEquals(50, productoService.findById(p.getId()).orElseThrow().getStockTotal());
+            Thread caja = new Thread(() -> {
+                try {
+                    ventaService.save(venta(p, 3));
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            caja.start();
+            try {
+                caja.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            productoService.patch(p.getId(), version, Map.of("nombre", "Editado"));
+        });
+
+        // La venta no chocó con la versión y la edición no pisó su stock
+        assertEquals(null, error.get());
+        Producto guardado = productoService.findById(p.getId()).orElseThrow();
+        assertEquals("Editado", guardado.getNombre());
+        assertEquals(47, guardado.getStockTotal());
+        assertEquals(version + 1, guardado.getVersion());
+
+        // Vender no cambia la versión: el cliente que editó puede volver a editar con la suya
+        ventaService.save(venta(p, 2));
+        mockMvc.perform(patch("/api/productos/{id}", p.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (version + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockMinimo\":5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockTotal").value(45))
+                .andExpect(jsonPath("$.version").value(version + 2));
+    }
+
+    @Test
+    void patchConVersionVencidaOSinVersionSeRechaza() throws Exception {
+        Producto p = producto("Patch vencido");
+        long version = p.getVersion();
+        productoService.patch(p.getId(), version, Map.of("nombre", "Primera edición"));
+
+        mockMvc.perform(patch("/api/productos/{id}", p.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Tarde\",\"version\":" + version + "}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/productos/{id}", p.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Tarde\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/productos/{id}", p.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Tarde\"}"))
+                .andExpect(status().isPreconditionRequired());
+        assertEquals("Primera edición", productoService.findById(p.getId()).orElseThrow().getNombre());
+    }
+
+    @Test
+    void putExigeLaVersionYNoEscribeElStock() throws Exception {
+        Producto p = producto("Put con versión");
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("nombre", "Put editado");
+        cuerpo.put("precioVenta", 30.0);
+        cuerpo.put("stockTotal", 999);
+
+        mockMvc.perform(put("/api/productos/{id}", p.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cuerpo)))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(put("/api/productos/{id}", p.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (p.getVersion() + 7) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cuerpo)))
+                .andExpect(status().isPreconditionFailed());
+
+        cuerpo.put("version", p.getVersion());
+        mockMvc.perform(put("/api/productos/{id}", p.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cuerpo)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockTotal").value(50));
+        Producto guardado = productoService.findById(p.getId()).orElseThrow();
+        assertEquals("Put editado", guardado.getNombre());
+        assertEquals(50, guardado.getStockTotal());
+    }
+
+    private Producto producto(String nombre) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecioVenta(25.0);
+        p.setStockTotal(50);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("PC-" + p.getId());
+        l.setCantidadDisponible(50);
+        loteService.save(l);
+        return p;
+    }
+
+    private static Venta venta(Producto p, int cantidad) {
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(p.getId());
+        d.setCantidad(cantidad);
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado("COMPLETADA");
+        venta.getDetalles().add(d);
+        return venta;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.service.LoteService;
+import com.example.backend.service.ProductoService;
+import com.example.backend.service.VentaService;
+
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class VentaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Test
+    void putExigeLaVersionYSoloCambiaLosCamposEditables() throws Exception {
+        Venta venta = vender();
+        long version = venta.getVersion();
+        Long detalleId = venta.getDetalles().get(0).getId();
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("observaciones", "Cliente pidió ticket");
+        cuerpo.put("estado", "CANCELADA");
+        cuerpo.put("totalCentavos", 1);
+        cuerpo.put("detalles", List.of(Map.of("id", detalleId, "cantidad", 2, "cantidadDevuelta", 0)));
+
+        mockMvc.perform(put("/api/ventas/{id}", venta.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cuerpo)))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(put("/api/ventas/{id}", venta.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (version + 3) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cuerpo)))
+                .andExpect(status().isPreconditionFailed());
+
+        // Con la versión se guardan las observaciones; estado, importes y renglones no se tocan
+        cuerpo.put("version", version);
+        mockMvc.perform(put("/api/ventas/{id}", venta.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cuerpo)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.observaciones").value("Cliente pidió ticket"))
+                .andExpect(jsonPath("$.estado").value("DEVOLUCION_PARCIAL"))
+                .andExpect(jsonPath("$.detalles[0].cantidadDevuelta").value(2));
+        Venta guardada = ventaService.findById(venta.getId()).orElseThrow();
+        assertEquals("DEVOLUCION_PARCIAL", guardada.getEstado());
+        assertEquals(venta.getTotalCentavos(), guardada.getTotalCentavos());
+    }
+
+    private Venta vender() {
+        Producto p = new Producto();
+        p.setNombre("Put de venta");
+        p.setPrecioVenta(15.0);
+        p.setStockTotal(20);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("VC-" + p.getId());
+        l.setCantidadDisponible(20);
+        loteService.save(l);
+
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(p.getId());
+        d.setCantidad(3);
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado("COMPLETADA");
+        venta.getDetalles().add(d);
+        venta = ventaService.save(venta);
+        // Dos piezas ya devueltas: el PUT no puede volver a dejarlas pendientes
+        return ventaService.devolver(venta.getId(), Map.of(venta.getDetalles().get(0).getId(), 2), null, "caja");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.backend.precios;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Producto;
+
+class CalculadoraTicketTest {
+
+    private static final CatalogoPrecios CATALOGO = CatalogoPrecios.desde(7, List.of(
+            producto(1L, 100.0, 16.0, 8.0),
+            producto(2L, 0.33, 16.0, 0.0)));
+
+    @Test
+    void impuestosPorLineaConDescuentoDeLineaYDeCliente() {
+        TicketCalculado ticket = CalculadoraTicket.calcular(CATALOGO, List.of(
+                linea(1L, 3, 10.0, null),
+                linea(2L, 1, null, null),
+                linea(null, 2, null, 500L)), 5.0);
+
+        // 3 × 100.00 = 300.00, -10 % de línea = 270.00, -5 % de cliente = 256.50;
+        // IEPS 8 % = 20.52 y IVA 16 % sobre 277.02 = 44.3232 → 44.32
+        TicketCalculado.Linea a = ticket.lineas().get(0);
+        assertEquals(30000, a.importeCentavos());
+        assertEquals(3000, a.descuentoLineaCentavos());
+        assertEquals(27000, a.subtotalCentavos());
+        assertEquals(1350, a.descuentoClienteCentavos());
+        assertEquals(2052, a.iepsCentavos());
+        assertEquals(4432, a.ivaCentavos());
+
+        // 0.33 con 5 % de cliente: 0.0165 → 0.02 (half-up); IVA de 0.31 = 0.0496 → 0.05
+        TicketCalculado.Linea b = ticket.lineas().get(1);
+        assertEquals(2, b.descuentoClienteCentavos());
+        assertEquals(0, b.iepsCentavos());
+        assertEquals(5, b.ivaCentavos());
+
+        // La línea libre conserva su precio y no causa impuestos
+        TicketCalculado.Linea libre = ticket.lineas().get(2);
+        assertEquals(500, libre.precioUnitarioCentavos());
+        assertEquals(50, libre.descuentoClienteCentavos());
+        assertEquals(0, libre.ivaCentavos());
+
+        assertEquals(7, ticket.versionCatalogo());
+        assertEquals(28033, ticket.subtotalCentavos());
+        assertEquals(1402, ticket.descuentoCentavos());
+        assertEquals(2052, ticket.iepsCentavos());
+        assertEquals(4437, ticket.ivaCentavos());
+        assertEquals(28033 - 1402 + 2052 + 4437, ticket.totalCentavos());
+    }
+
+    @Test
+    void recalcularRespetaElPrecioCapturadoYCalcularUsaElCatalogo() {
+        DetalleVenta vendida = linea(1L, 1, null, 9000L);
+
+        assertEquals(10000, CalculadoraTicket.calcular(CATALOGO, List.of(vendida), 0.0)
+                .lineas().get(0).precioUnitarioCentavos());
+        TicketCalculado recalculado = CalculadoraTicket.recalcular(CATALOGO, List.of(vendida), 0.0);
+        assertEquals(9000, recalculado.lineas().get(0).precioUnitarioCentavos());
+        assertEquals(9000 + 720 + 1555, recalculado.totalCentavos());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CalculadoraTicket.calcular(CATALOGO, List.of(linea(99L, 1, null, null)), 0.0));
+    }
+
+    @Test
+    void recalcularUsaLosImpuestosGuardadosAlCobrar() {
+        // Cobrada con IVA 16 % y 5 % de cliente; después el catálogo cambió de tasas
+        DetalleVenta cobrada = linea(1L, 2, null, 5000L);
+        cobrada.setSubtotalCentavos(10000L);
+        cobrada.setDescuentoClienteCentavos(500L);
+        cobrada.setIepsPuntosBase(0L);
+        cobrada.setIepsCentavos(0L);
+        cobrada.setIvaPuntosBase(1600L);
+        cobrada.setIvaCentavos(1520L);
+
+        TicketCalculado ticket = CalculadoraTicket.recalcular(CATALOGO, List.of(cobrada), 5.0);
+        TicketCalculado.Linea l = ticket.lineas().get(0);
+        assertEquals(5000, l.precioUnitarioCentavos());
+        assertEquals(0, l.iepsCentavos());
+        assertEquals(1600, l.ivaPuntosBase());
+        assertEquals(1520, l.ivaCentavos());
+        assertEquals(10000 - 500 + 1520, ticket.totalCentavos());
+    }
+
+    @Test
+    void recalcularNoFacturaLoDevuelto() {
+        // Dos piezas cobradas con IVA 16 % y 5 % de cliente, una devuelta; la otra línea se devolvió completa
+        DetalleVenta parcial = linea(1L, 2, null, 5000L);
+        parcial.setSubtotalCentavos(10000L);
+        parcial.setDescuentoClienteCentavos(500L);
+        parcial.setIepsPuntosBase(0L);
+        parcial.setIepsCentavos(0L);
+        parcial.setIvaPuntosBase(1600L);
+        parcial.setIvaCentavos(1520L);
+        parcial.setCantidadDevuelta(1);
+        DetalleVenta completa = linea(2L, 3, null, 33L);
+        completa.setCantidadDevuelta(3);
+
+        TicketCalculado ticket = CalculadoraTicket.recalcular(CATALOGO, List.of(parcial, completa), 5.0);
+        assertEquals(1, ticket.lineas().size());
+        TicketCalculado.Linea l = ticket.lineas().get(0);
+        assertEquals(1, l.cantidad());
+        assertEquals(5000, l.importeCentavos());
+        assertEquals(250, l.descuentoClienteCentavos());
+        assertEquals(0, l.iepsCentavos());
+        assertEquals(760, l.ivaCentavos());
+        assertEquals(5000 - 250 + 760, ticket.totalCentavos());
+
+        // Al cobrar no hay devoluciones que descontar
+        assertEquals(2, CalculadoraTicket.calcular(CATALOGO, List.of(parcial, completa), 5.0).lineas().size());
+    }
+
+    private static Producto producto(Long id, double precio, double iva, double ieps) {
+        Producto p = new Producto();
+        p.setId(id);
+        p.setPrecioVenta(precio);
+        p.setPorcentajeIVA(iva);
+        p.setPorcentajeIEPS(ieps);
+        return p;
+    }
+
+    private static DetalleVenta linea(Long productoId, int cantidad, Double descuento, Long precioCentavos) {
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(productoId);
+        d.setCantidad(cantidad);
+        d.setDescuento(descuento);
+        d.setPrecioUnitarioCentavos(precioCentavos);
+        return d;
+    }
+}
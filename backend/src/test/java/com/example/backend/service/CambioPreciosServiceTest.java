@@ -0,0 +1,161 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.dto.CambioPreciosDTO;
+import com.example.backend.dto.CatalogoCambiosDTO;
+import com.example.backend.dto.HistorialPrecioDTO;
+import com.example.backend.dto.PrecioListaDTO;
+import com.example.backend.dto.ProductoDTO;
+import com.example.backend.dto.ResultadoCambioPreciosDTO;
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+
+// Base propia: la sincronización por versión del catálogo ve solo los cambios de esta prueba
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cambioprecios")
+class CambioPreciosServiceTest {
+
+    @Autowired
+    private CambioPreciosService cambioPreciosService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Test
+    void laListaActualizaPorClaveDejaHistorialYSePublicaEnUnaVersion() {
+        Producto porId = producto("Lista id", "LST-1", null, "Lista");
+        Producto porCodigo = producto("Lista código", "LST-2", null, "Lista");
+        Producto porSku = producto("Lista sku", null, "SKU-LST-3", "Lista");
+
+        CambioPreciosDTO cambio = new CambioPreciosDTO();
+        cambio.setMotivo("Lista proveedor");
+        cambio.setUsuario("compras");
+        cambio.setPrecios(List.of(
+                renglon(porId.getId(), null, null, 12.5, null),
+                renglon(null, "LST-2", null, null, 7.0),
+                renglon(null, null, "SKU-LST-3", 30.0, 20.0),
+                renglon(null, "NO-EXISTE", null, 1.0, null)));
+        long antes = productoService.cambiosDesde(0).getVersion();
+        ResultadoCambioPreciosDTO resultado = cambioPreciosService.aplicar(cambio);
+
+        assertEquals(3, resultado.getProductos());
+        assertEquals(List.of("NO-EXISTE"), resultado.getNoEncontrados());
+        assertEquals(12.5, productoService.findById(porId.getId()).orElseThrow().getPrecioVenta());
+        assertEquals(7.0, productoService.findById(porCodigo.getId()).orElseThrow().getPrecioCompra());
+        assertEquals(10.0, productoService.findById(porCodigo.getId()).orElseThrow().getPrecioVenta());
+
+        HistorialPrecioDTO h = cambioPreciosService.historial(porSku.getId(), 10).get(0);
+        assertEquals(resultado.getVersionCatalogo(), h.getVersionCatalogo());
+        assertEquals(10.0, h.getPrecioVentaAnterior());
+        assertEquals(30.0, h.getPrecioVenta());
+        assertEquals(5.0, h.getPrecioCompraAnterior());
+        assertEquals(20.0, h.getPrecioCompra());
+        assertEquals("Lista proveedor", h.getMotivo());
+        assertEquals("compras", h.getUsuario());
+
+        // Las cajas reciben los tres productos juntos, en la versión del cambio
+        CatalogoCambiosDTO cambios = productoService.cambiosDesde(antes);
+        assertEquals(resultado.getVersionCatalogo(), cambios.getVersion());
+        assertEquals(Set.of(porId.getId(), porCodigo.getId(), porSku.getId()),
+                Set.copyOf(cambios.getProductos().stream().map(ProductoDTO::getId).toList()));
+        assertTrue(cambios.getProductos().stream()
+                .allMatch(p -> resultado.getVersionCatalogo().equals(p.getVersionCatalogo())));
+    }
+
+    @Test
+    void laReglaPorcentualRedondeaDejaHistorialYNoChocaConLasVentas() {
+        Producto a = producto("Regla A", "RGL-1", null, "Regla");
+        Producto b = producto("Regla B", "RGL-2", null, "Regla");
+        Producto fuera = producto("Regla fuera", "RGL-3", null, "Otra");
+        long versionA = a.getVersion();
+
+        CambioPreciosDTO cambio = new CambioPreciosDTO();
+        cambio.setMotivo("Aumento");
+        cambio.setCategoria("Regla");
+        cambio.setPorcentaje(3.333);
+        cambio.setAplicarA("AMBOS");
+        long antes = productoService.cambiosDesde(0).getVersion();
+        ResultadoCambioPreciosDTO resultado = cambioPreciosService.aplicar(cambio);
+
+        // 10.00 * 1.03333 = 10.3333 → 10.33 y 5.00 → 5.17, igual en el producto y en el historial
+        assertEquals(2, resultado.getProductos());
+        Producto nuevoA = productoService.findById(a.getId()).orElseThrow();
+        assertEquals(10.33, nuevoA.getPrecioVenta());
+        assertEquals(5.17, nuevoA.getPrecioCompra());
+        assertEquals(10.0, productoService.findById(fuera.getId()).orElseThrow().getPrecioVenta());
+        HistorialPrecioDTO h = cambioPreciosService.historial(b.getId(), 10).get(0);
+        assertEquals(10.0, h.getPrecioVentaAnterior());
+        assertEquals(10.33, h.getPrecioVenta());
+        assertEquals(5.17, h.getPrecioCompra());
+        assertEquals(resultado.getVersionCatalogo(), h.getVersionCatalogo());
+        assertEquals(0, cambioPreciosService.historial(fuera.getId(), 10).size());
+
+        CatalogoCambiosDTO cambios = productoService.cambiosDesde(antes);
+        assertEquals(resultado.getVersionCatalogo(), cambios.getVersion());
+        assertEquals(Set.of(a.getId(), b.getId()),
+                Set.copyOf(cambios.getProductos().stream().map(ProductoDTO::getId).toList()));
+
+        // La regla sube la versión de edición, pero una venta no la usa: se cobra al precio nuevo
+        assertEquals(versionA + 1, nuevoA.getVersion());
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado("COMPLETADA");
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(a.getId());
+        d.setCantidad(2);
+        venta.getDetalles().add(d);
+        assertNotNull(ventaService.save(venta).getId());
+        Producto vendido = productoService.findById(a.getId()).orElseThrow();
+        assertEquals(48, vendido.getStockTotal());
+        assertEquals(versionA + 1, vendido.getVersion());
+
+        cambio.setPorcentaje(-100.0);
+        assertThrows(IllegalArgumentException.class, () -> cambioPreciosService.aplicar(cambio));
+    }
+
+    private Producto producto(String nombre, String codigo, String sku, String categoria) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setCodigoBarras(codigo);
+        p.setSku(sku);
+        p.setCategoria(categoria);
+        p.setPrecioVenta(10.0);
+        p.setPrecioCompra(5.0);
+        p.setStockTotal(50);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("CP-" + p.getId());
+        l.setCantidadDisponible(50);
+        loteService.save(l);
+        return p;
+    }
+
+    private static PrecioListaDTO renglon(Long id, String codigo, String sku, Double venta, Double compra) {
+        PrecioListaDTO r = new PrecioListaDTO();
+        r.setProductoId(id);
+        r.setCodigoBarras(codigo);
+        r.setSku(sku);
+        r.setPrecioVenta(venta);
+        r.setPrecioCompra(compra);
+        return r;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.dto.EventoCambioDTO;
+import com.example.backend.model.Venta;
+
+// Base propia y publicador detenido: cada contexto numera los eventos de su base
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cambios",
+        "cambios.publicacion-ms=3600000"
+})
+@AutoConfigureMockMvc
+class CambioServiceTest {
+
+    private static final Pattern ID_EVENTO = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private CambioService cambioService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void unCambioQueConfirmaTardeQuedaDespuesDelCursor() throws Exception {
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        Thread tardio = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cambioService.registrarVenta(venta(9001L), "CREADA");
+            registrado.countDown();
+            try {
+                confirmar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        tardio.start();
+        registrado.await();
+
+        // Otro cambio confirma y se publica mientras el primero sigue abierto
+        cambioService.registrarVenta(venta(9002L), "CREADA");
+        cambioService.publicar();
+        long cursor = cambioService.getUltimaPosicion();
+        assertEquals(List.of(9002L), entidades(cambioService.leer(cursor - 1, null, 10)));
+
+        confirmar.countDown();
+        tardio.join();
+        cambioService.publicar();
+
+        // Quien ya leyó hasta el cursor recibe el cambio tardío en la siguiente posición
+        List<EventoCambioDTO> despues = cambioService.leer(cursor, null, 10);
+        assertEquals(List.of(9001L), entidades(despues));
+        assertEquals(cursor + 1, despues.get(0).getPosicion());
+    }
+
+    @Test
+    void laSuscripcionReanudaDesdeElUltimoIdRecibido() throws Exception {
+        for (long id = 9101; id <= 9103; id++) {
+            cambioService.registrarVenta(venta(id), "CREADA");
+        }
+        cambioService.publicar();
+        long ultima = cambioService.getUltimaPosicion();
+
+        // El navegador reconecta con el id del primero: recibe los dos que faltan, en orden
+        MvcResult resultado = mockMvc.perform(get("/api/cambios/stream")
+                        .header("Last-Event-ID", String.valueOf(ultima - 2)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        cambioService.publicar();
+        assertEquals(List.of(ultima - 1, ultima), esperarIds(resultado, 2));
+
+        // Lo nuevo llega una sola vez, después de lo atrasado
+        cambioService.registrarVenta(venta(9104L), "CREADA");
+        cambioService.publicar();
+        assertEquals(List.of(ultima - 1, ultima, ultima + 1), esperarIds(resultado, 3));
+        cambioService.publicar();
+        Thread.sleep(100);
+        assertEquals(3, ids(resultado).size());
+    }
+
+    private static List<Long> esperarIds(MvcResult resultado, int cuantos) throws Exception {
+        for (int i = 0; i < 100 && ids(resultado).size() < cuantos; i++) {
+            Thread.sleep(20);
+        }
+        return ids(resultado);
+    }
+
+    private static List<Long> ids(MvcResult resultado) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        Matcher m = ID_EVENTO.matcher(resultado.getResponse().getContentAsString());
+        while (m.find()) {
+            ids.add(Long.parseLong(m.group(1)));
+        }
+        return ids;
+    }
+
+    private static List<Long> entidades(List<EventoCambioDTO> eventos) {
+        return eventos.stream().map(EventoCambioDTO::getEntidadId).toList();
+    }
+
+    private static Venta venta(Long id) {
+        Venta v = new Venta();
+        v.setId(id);
+        v.setEstado("COMPLETADA");
+        return v;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.Cliente;
+
+@SpringBootTest
+class ClienteServiceTest {
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Test
+    void paginasPorPrefijoNoRepitenNiSaltanClientes() {
+        // Coinciden por nombre los "Qx..." y por apellido los demás; se ordena por lo que coincidió
+        String[][] nombres = { { "Qxana", "Zuñiga" }, { "Ana", "Qxmora" }, { "Qxbeto", "Alba" },
+                { "Bruno", "Qxlara" }, { "Qxcarla", "Ruiz" }, { "Carlos", "Qxsoto" }, { "Qxdiana", "Paz" } };
+        for (String[] n : nombres) {
+            Cliente c = new Cliente();
+            c.setNombre(n[0]);
+            c.setApellido(n[1]);
+            clienteService.save(c);
+        }
+
+        List<String> recorridos = new ArrayList<>();
+        for (int pagina = 0; pagina < 4; pagina++) {
+            clienteService.buscar("qx", null, pagina, 2).forEach(c -> recorridos.add(c.getNombreBusqueda()));
+        }
+        assertEquals(List.of("qxana zuniga", "qxbeto alba", "qxcarla ruiz", "qxdiana paz", "bruno qxlara",
+                "ana qxmora", "carlos qxsoto"), recorridos);
+
+        assertThrows(IllegalArgumentException.class, () -> clienteService.buscar("qx", null, 51, 2));
+        assertThrows(IllegalArgumentException.class, () -> clienteService.buscar("qx", null, -1, 2));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Ventana detenida: la prueba cierra cada ventana a mano
+@SpringBootTest(properties = "inventario.stock.ventana-ms=3600000")
+@AutoConfigureMockMvc
+class DifusionStockServiceTest {
+
+    private static final Pattern DATOS = Pattern.compile("^data:(.*)$", Pattern.MULTILINE);
+
+    @Autowired
+    private DifusionStockService difusionStockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void variasVentasDeUnaVentanaViajanComoUnSoloDato() throws Exception {
+        MvcResult caja = suscribir();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            difusionStockService.registrar(8001L, 10, 9001L, 4);
+            difusionStockService.registrar(8001L, 9, 9001L, 3);
+        });
+        tx.executeWithoutResult(status -> difusionStockService.registrar(8001L, 7, 9002L, 5));
+        difusionStockService.difundir();
+
+        List<DifusionStockService.CambioStock> eventos = esperarEventos(caja, 1);
+        assertEquals(1, eventos.size());
+        assertEquals(Map.of(8001L, 7), eventos.get(0).productos());
+        assertEquals(Map.of(9001L, 3, 9002L, 5), eventos.get(0).lotes());
+    }
+
+    @Test
+    void soloSeDifundeLoConfirmado() throws Exception {
+        MvcResult caja = suscribir();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            difusionStockService.registrar(8101L, 1, null, null);
+            status.setRollbackOnly();
+        });
+
+        // Una transacción abierta no entra a la ventana que se cierra mientras tanto
+        tx.executeWithoutResult(status -> {
+            difusionStockService.registrar(8102L, 2, null, null);
+            difusionStockService.difundir();
+        });
+        Thread.sleep(100);
+        assertEquals(0, eventos(caja).size());
+
+        difusionStockService.difundir();
+        List<DifusionStockService.CambioStock> eventos = esperarEventos(caja, 1);
+        assertEquals(1, eventos.size());
+        assertEquals(Map.of(8102L, 2), eventos.get(0).productos());
+    }
+
+    @Test
+    void unaConfirmacionTardiaNoRegresaElStock() throws Exception {
+        MvcResult caja = suscribir();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        // La primera venta deja 10 pero su afterCompletion corre después que el de la segunda
+        Thread primera = new Thread(() -> tx.executeWithoutResult(status -> {
+            difusionStockService.registrar(8201L, 10, 9201L, 10);
+            registrado.countDown();
+            try {
+                confirmar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        primera.start();
+        registrado.await();
+        tx.executeWithoutResult(status -> difusionStockService.registrar(8201L, 7, 9201L, 7));
+        difusionStockService.difundir();
+        confirmar.countDown();
+        primera.join();
+        difusionStockService.difundir();
+
+        // Ni en la ventana siguiente vuelve el 10
+        List<DifusionStockService.CambioStock> eventos = esperarEventos(caja, 1);
+        Thread.sleep(100);
+        eventos = eventos(caja);
+        assertEquals(1, eventos.size());
+        assertEquals(Map.of(8201L, 7), eventos.get(0).productos());
+        assertEquals(Map.of(9201L, 7), eventos.get(0).lotes());
+    }
+
+    private MvcResult suscribir() throws Exception {
+        // Lo que haya quedado del arranque se envía antes de que la caja se conecte
+        difusionStockService.difundir();
+        return mockMvc.perform(get("/api/inventario/stock/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private List<DifusionStockService.CambioStock> esperarEventos(MvcResult caja, int cuantos) throws Exception {
+        for (int i = 0; i < 100 && eventos(caja).size() < cuantos; i++) {
+            Thread.sleep(20);
+        }
+        return eventos(caja);
+    }
+
+    private List<DifusionStockService.CambioStock> eventos(MvcResult caja) throws Exception {
+        List<DifusionStockService.CambioStock> eventos = new ArrayList<>();
+        Matcher m = DATOS.matcher(caja.getResponse().getContentAsString());
+        while (m.find()) {
+            eventos.add(objectMapper.readValue(m.group(1), DifusionStockService.CambioStock.class));
+        }
+        return eventos;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.dto.RegeneracionDocumentosDTO;
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.repository.FacturaRepository;
+
+// Base propia: la regeneración recorre todas las facturas del día
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:documentos",
+        "facturacion.documentos.directorio=build/documentos-prueba"
+})
+class DocumentoFacturaServiceTest {
+
+    @Autowired
+    private DocumentoFacturaService documentoFacturaService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Test
+    void losDocumentosConservanLosImportesCobradosAunqueCambieElCatalogo() throws Exception {
+        Producto p = new Producto();
+        p.setNombre("Antigripal documentos");
+        p.setPrecioVenta(50.0);
+        p.setPorcentajeIVA(16.0);
+        p.setStockTotal(10);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("DOC-1");
+        l.setCantidadDisponible(10);
+        l = loteService.save(l);
+
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado("COMPLETADA");
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(p.getId());
+        d.setLoteId(l.getId());
+        d.setCantidad(2);
+        venta.getDetalles().add(d);
+        venta = ventaService.save(venta);
+        assertEquals(11600, venta.getTotalCentavos());
+        assertEquals(1600, venta.getDetalles().get(0).getIvaCentavos());
+
+        Factura factura = new Factura();
+        factura.setVenta(venta);
+        factura.setRfc("XAXX010101000");
+        factura.setEstatus(TimbradoService.PENDIENTE);
+        Long id = facturaRepository.save(factura).getId();
+
+        String xml = documentoFacturaService.generar(id).orElseThrow().getUrlXml();
+        String contenido = Files.readString(documentoFacturaService
+                .buscarDocumento(xml.substring(xml.lastIndexOf('/') + 1)).orElseThrow());
+        assertTrue(contenido.contains("Total=\"116.00\""), contenido);
+
+        // Precio y tasa nuevos en el catálogo: la factura de la venta anterior no cambia
+        Producto repreciado = productoService.findById(p.getId()).orElseThrow();
+        repreciado.setPrecioVenta(80.0);
+        repreciado.setPorcentajeIVA(0.0);
+        productoService.save(repreciado);
+        assertEquals(xml, documentoFacturaService.generar(id).orElseThrow().getUrlXml());
+
+        RegeneracionDocumentosDTO regeneradas = documentoFacturaService.regenerar(LocalDate.now(),
+                LocalDate.now().plusDays(1));
+        assertEquals(1, regeneradas.getProcesadas());
+        assertEquals(0, regeneradas.getErrores());
+        assertEquals(xml, facturaRepository.findById(id).orElseThrow().getUrlXml());
+    }
+}
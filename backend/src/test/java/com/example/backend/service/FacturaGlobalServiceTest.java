@@ -0,0 +1,140 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.ConceptoFacturaGlobal;
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Factura;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.repository.ConceptoFacturaGlobalRepository;
+import com.example.backend.repository.VentaRepository;
+
+// Base propia: la factura global marca todas las ventas sin facturar del periodo
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:facturaglobal")
+class FacturaGlobalServiceTest {
+
+    @Autowired
+    private FacturaGlobalService facturaGlobalService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ConceptoFacturaGlobalRepository conceptoRepository;
+
+    @Test
+    void acumulaPorLasTasasCobradasYMarcaLasVentasDelMes() {
+        Producto soloIva = producto("Global IVA", 10.0, 0.0);
+        Producto conIeps = producto("Global IEPS", 20.0, 8.0);
+        Venta primera = vender("COMPLETADA", soloIva, 2, conIeps, 1);
+        Venta segunda = vender("COMPLETADA", soloIva, 1, null, 0);
+        Venta enEspera = vender("EN_ESPERA", soloIva, 5, null, 0);
+        // Antes de facturar se devuelven 3 de 4 piezas y el renglón con IEPS completo
+        Venta devuelta = vender("COMPLETADA", soloIva, 4, conIeps, 1);
+        ventaService.devolver(devuelta.getId(), Map.of(devuelta.getDetalles().get(0).getId(), 3,
+                devuelta.getDetalles().get(1).getId(), 1), "Cambio", "caja");
+
+        // El catálogo cambia de tasa antes de facturar: cuenta la tasa con que se cobró
+        Producto exento = productoService.findById(soloIva.getId()).orElseThrow();
+        exento.setPorcentajeIVA(0.0);
+        productoService.save(exento);
+
+        LocalDate desde = LocalDate.now().withDayOfMonth(1);
+        Factura factura = facturaGlobalService.generar(desde, desde.plusMonths(1));
+        assertEquals(3, factura.getCantidadVentas());
+
+        List<ConceptoFacturaGlobal> conceptos = conceptoRepository.findByFacturaIdOrderByIdAsc(factura.getId());
+        assertEquals(2, conceptos.size());
+        ConceptoFacturaGlobal iva = concepto(conceptos, 1600, 0);
+        // Solo la pieza que se quedó el cliente: 30.00 + 10.00 e IVA 4.80 + 1.60
+        assertEquals(4000, iva.getImporteCentavos());
+        assertEquals(640, iva.getIvaCentavos());
+        assertEquals(3, iva.getCantidadLineas());
+        // 20.00 con IEPS 8 % = 1.60 e IVA sobre 21.60 = 3.456 → 3.46
+        ConceptoFacturaGlobal ieps = concepto(conceptos, 1600, 800);
+        assertEquals(2000, ieps.getImporteCentavos());
+        assertEquals(160, ieps.getIepsCentavos());
+        assertEquals(346, ieps.getIvaCentavos());
+
+        for (Venta v : List.of(primera, segunda, devuelta)) {
+            Venta marcada = ventaRepository.findById(v.getId()).orElseThrow();
+            assertTrue(marcada.getFacturada());
+            assertEquals(factura.getId(), marcada.getFacturaId());
+        }
+        Venta pendiente = ventaRepository.findById(enEspera.getId()).orElseThrow();
+        assertNull(pendiente.getFacturaId());
+        assertFalse(Boolean.TRUE.equals(pendiente.getFacturada()));
+
+        // Lo que ya está en la factura global no se devuelve sin cancelarla
+        assertThrows(IllegalArgumentException.class, () -> ventaService.cancelar(devuelta.getId(), null, "caja"));
+        assertThrows(IllegalArgumentException.class, () -> ventaService.devolver(primera.getId(),
+                Map.of(primera.getDetalles().get(0).getId(), 1), null, "caja"));
+
+        // Ya no quedan ventas por facturar, y un rango que no es periodo del SAT se rechaza
+        assertThrows(IllegalArgumentException.class, () -> facturaGlobalService.generar(desde, desde.plusMonths(1)));
+        assertThrows(IllegalArgumentException.class, () -> facturaGlobalService.generar(desde, desde.plusDays(10)));
+    }
+
+    private static ConceptoFacturaGlobal concepto(List<ConceptoFacturaGlobal> conceptos, long iva, long ieps) {
+        return conceptos.stream()
+                .filter(c -> c.getIvaPuntosBase() == iva && c.getIepsPuntosBase() == ieps)
+                .findFirst().orElseThrow();
+    }
+
+    private Producto producto(String nombre, double precio, double ieps) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecioVenta(precio);
+        p.setPorcentajeIVA(16.0);
+        p.setPorcentajeIEPS(ieps);
+        p.setStockTotal(100);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("GL-" + p.getId());
+        l.setCantidadDisponible(100);
+        loteService.save(l);
+        return p;
+    }
+
+    private Venta vender(String estado, Producto a, int cantidadA, Producto b, int cantidadB) {
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado(estado);
+        venta.getDetalles().add(linea(a, cantidadA));
+        if (b != null) {
+            venta.getDetalles().add(linea(b, cantidadB));
+        }
+        return ventaService.save(venta);
+    }
+
+    private static DetalleVenta linea(Producto p, int cantidad) {
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(p.getId());
+        d.setCantidad(cantidad);
+        return d;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.Factura;
+import com.example.backend.model.Venta;
+import com.example.backend.repository.FacturaRepository;
+
+@SpringBootTest
+class FolioServiceTest {
+
+    private static final int HILOS = 64;
+    private static final int FACTURAS_POR_HILO = 40;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private FolioService folioService;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Test
+    void foliosUnicosYSinHuecosConCreadoresConcurrentes() throws Exception {
+        String serie = "STRESS";
+        Queue<Long> confirmados = new ConcurrentLinkedQueue<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < FACTURAS_POR_HILO; i++) {
+                    // Una de cada siete altas falla por una venta inexistente: su folio
+                    // debe volver a la lista de libres y reutilizarse
+                    boolean fallar = (hilo * FACTURAS_POR_HILO + i) % 7 == 0;
+                    Factura nueva = new Factura();
+                    nueva.setSerie(serie);
+                    nueva.setRfc("XAXX010101000");
+                    nueva.setEstatus("PENDIENTE");
+                    if (fallar) {
+                        Venta inexistente = new Venta();
+                        inexistente.setId(-1L - i);
+                        nueva.setVenta(inexistente);
+                    }
+                    try {
+                        confirmados.add(facturaService.guardarFactura(nueva).getFolio());
+                    } catch (RuntimeException e) {
+                        assertTrue(fallar, "falló un alta válida: " + e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> t : tareas) {
+            t.get(2, TimeUnit.MINUTES);
+        }
+        ejecutor.shutdown();
+
+        TreeSet<Long> unicos = new TreeSet<>(confirmados);
+        assertEquals(confirmados.size(), unicos.size(), "folio repetido");
+
+        // Simula una caída: se pierde el estado en memoria (bloque en curso y devueltos)
+        // y los folios huecos deben recuperarse desde los bloques registrados
+        folioService.reiniciar();
+        long huecos = unicos.last() - unicos.size();
+        for (long i = 0; i < huecos; i++) {
+            Factura nueva = new Factura();
+            nueva.setSerie(serie);
+            nueva.setEstatus("PENDIENTE");
+            long folio = facturaService.guardarFactura(nueva).getFolio();
+            assertTrue(folio < unicos.last(), "se esperaba reutilizar un hueco y se entregó " + folio);
+            assertTrue(unicos.add(folio), "folio repetido tras la recuperación: " + folio);
+        }
+
+        List<Long> enBase = facturaRepository.findFoliosEnRango(serie, 1L, Long.MAX_VALUE);
+        assertEquals(unicos.size(), enBase.size());
+        assertEquals(new TreeSet<>(enBase), unicos);
+        assertEquals(1L, unicos.first());
+        assertEquals(unicos.size(), unicos.last(), "la serie tiene huecos");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.dto.ErrorImportacionDTO;
+import com.example.backend.dto.ResultadoImportacionDTO;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.repository.LoteRepository;
+import com.example.backend.repository.ProductoRepository;
+
+@SpringBootTest(properties = "importacion.tamano-bloque=3")
+class ImportacionServiceTest {
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Test
+    void importaPorBloquesActualizaPorClaveYReportaFilasInvalidas() throws Exception {
+        String csv = """
+                codigoBarras,sku,nombre,precioVenta,stockTotal
+                IMP-001,,"Naproxeno, 250 mg",35.50,10
+                IMP-002,,Omeprazol,abc,5
+                ,IMP-SKU-3,Loratadina,48,7
+                ,,Sin clave,10,1
+                IMP-001,,,40,99
+                IMP-004,,"Jarabe ""infantil""
+                120 ml",60,3
+                """;
+        ResultadoImportacionDTO productos = importacionService.importarProductos(entrada(csv),
+                ImportacionService.Formato.CSV);
+
+        assertEquals(6, productos.getFilas());
+        assertEquals(3, productos.getCreados());
+        assertEquals(2, productos.getConErrores());
+        assertEquals(List.of(2L, 4L), productos.getErrores().stream().map(ErrorImportacionDTO::getFila).toList());
+
+        // La quinta fila cae en otro bloque: actualiza el precio y conserva nombre y existencias
+        Producto naproxeno = productoRepository.findByCodigoBarrasIn(List.of("IMP-001")).get(0);
+        assertEquals("Naproxeno, 250 mg", naproxeno.getNombre());
+        assertEquals(40.0, naproxeno.getPrecioVenta());
+        assertEquals(10, naproxeno.getStockTotal());
+        assertEquals("Jarabe \"infantil\"\n120 ml", productoRepository.findByCodigoBarrasIn(List.of("IMP-004"))
+                .get(0).getNombre());
+
+        String ndjson = """
+                {"codigoBarras":"IMP-001","numeroLote":"A1","cantidadInicial":20}
+                {"sku":"IMP-SKU-3","numeroLote":"B1","cantidadInicial":5,"fechaVencimiento":"2027-01-31"}
+                {"productoId":-1,"numeroLote":"Z9"}
+                no es json
+                {"codigoBarras":"IMP-001","numeroLote":"A1","proveedor":"Nadro","cantidadDisponible":0}
+                """;
+        ResultadoImportacionDTO lotes = importacionService.importarLotes(entrada(ndjson),
+                ImportacionService.Formato.NDJSON);
+
+        assertEquals(5, lotes.getFilas());
+        assertEquals(2, lotes.getCreados());
+        assertEquals(1, lotes.getActualizados());
+        assertEquals(2, lotes.getConErrores());
+        Lote a1 = loteRepository.findByNumeroLoteIn(List.of("A1")).get(0);
+        assertNotNull(a1.getId());
+        assertEquals(naproxeno.getId(), a1.getProductoId());
+        assertEquals("Nadro", a1.getProveedor());
+        assertEquals(20, a1.getCantidadDisponible());
+    }
+
+    @Test
+    void unBloqueQueNoSeGuardaSeReintentaFilaPorFila() throws Exception {
+        String csv = "codigoBarras,nombre,precioVenta\n"
+                + "IMP-R1,Cetirizina,30\n"
+                + "IMP-R2,Ambroxol,abc\n"
+                + "IMP-R3," + "x".repeat(300) + ",12\n";
+        ResultadoImportacionDTO resultado = importacionService.importarProductos(entrada(csv),
+                ImportacionService.Formato.CSV);
+
+        // La fila inválida se reporta una sola vez y la que no cabe en la columna no arrastra a las demás
+        assertEquals(3, resultado.getFilas());
+        assertEquals(1, resultado.getCreados());
+        assertEquals(2, resultado.getConErrores());
+        assertEquals(List.of(2L, 3L), resultado.getErrores().stream().map(ErrorImportacionDTO::getFila).toList());
+        assertEquals(1, productoRepository.findByCodigoBarrasIn(List.of("IMP-R1", "IMP-R3")).size());
+    }
+
+    private static ByteArrayInputStream entrada(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
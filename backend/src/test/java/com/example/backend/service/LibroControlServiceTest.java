@@ -0,0 +1,106 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.Lote;
+import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.Producto;
+import com.example.backend.model.RegistroControlado;
+
+@SpringBootTest
+class LibroControlServiceTest {
+
+    @Autowired
+    private LibroControlService libroControlService;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Test
+    void asientaSaldosCorridosYExportaElPeriodo() throws IOException {
+        Producto p = new Producto();
+        p.setNombre("Clonazepam, 2 mg\r\n30 tabletas");
+        p.setTipoRegulacion("CONTROLADO_II");
+        p.setStockTotal(20);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("LC-" + p.getId());
+        l.setCantidadDisponible(20);
+        l = loteService.save(l);
+
+        inventarioService.registrarEntrada(movimiento(p, l, 10));
+        inventarioService.registrarSalida(movimiento(p, l, 3));
+        inventarioService.registrarSalida(movimiento(p, l, 2));
+
+        List<RegistroControlado> asientos = libroControlService.ultimosPorProducto(p.getId(), 10);
+        assertEquals(List.of(25, 27, 30), asientos.stream().map(RegistroControlado::getSaldoProducto).toList());
+        assertEquals(List.of(25, 27, 30), asientos.stream().map(RegistroControlado::getSaldoLote).toList());
+
+        StringWriter csv = new StringWriter();
+        LocalDate hoy = LocalDate.now();
+        libroControlService.exportarCsv(hoy, hoy.plusDays(1), p.getId(), csv);
+        String[] renglones = csv.toString().split("\n(?=[0-9]{4}-)|\n$");
+        assertEquals(4, renglones.length);
+        assertTrue(renglones[0].startsWith("fecha,producto_id,producto,"));
+        // El nombre con coma y salto de línea va entre comillas; los saldos siguen el orden de los movimientos
+        String esperado = "," + p.getId() + ",\"Clonazepam, 2 mg\r\n30 tabletas\",,CONTROLADO_II," + l.getNumeroLote() + ",";
+        assertTrue(renglones[1].contains(esperado + "ENTRADA,10,30,30,"), renglones[1]);
+        assertTrue(renglones[2].contains(esperado + "SALIDA,3,27,27,"), renglones[2]);
+        assertTrue(renglones[3].contains(esperado + "SALIDA,2,25,25,"), renglones[3]);
+
+        StringWriter siguiente = new StringWriter();
+        libroControlService.exportarCsv(hoy.plusDays(1), hoy.plusDays(2), p.getId(), siguiente);
+        assertEquals(1, siguiente.toString().split("\n").length);
+    }
+
+    @Test
+    void dosRenglonesDelMismoLoteEnUnaPasadaLlevanSuPropioSaldo() {
+        Producto p = new Producto();
+        p.setNombre("Alprazolam lote doble");
+        p.setTipoRegulacion("CONTROLADO_III");
+        p.setStockTotal(20);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("LD-" + p.getId());
+        l.setCantidadDisponible(20);
+        l = loteService.save(l);
+
+        // Una recepción y un ticket con dos renglones cada uno del mismo producto y lote
+        inventarioService.registrarEntradas(List.of(movimiento(p, l, 5), movimiento(p, l, 4)));
+        inventarioService.registrarSalidas(List.of(movimiento(p, l, 3), movimiento(p, l, 1)));
+
+        List<RegistroControlado> asientos = libroControlService.ultimosPorProducto(p.getId(), 10);
+        assertEquals(List.of(25, 26, 29, 25), asientos.stream().map(RegistroControlado::getSaldoProducto).toList());
+        assertEquals(List.of(25, 26, 29, 25), asientos.stream().map(RegistroControlado::getSaldoLote).toList());
+    }
+
+    private static MovimientoInventario movimiento(Producto producto, Lote lote, int cantidad) {
+        MovimientoInventario m = new MovimientoInventario();
+        Producto p = new Producto();
+        p.setId(producto.getId());
+        m.setProducto(p);
+        Lote l = new Lote();
+        l.setId(lote.getId());
+        m.setLote(l);
+        m.setCantidad(cantidad);
+        return m;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.precios.TicketCalculado;
+
+@SpringBootTest(properties = "ventas.precios.validar-totales=true")
+class PrecioServiceTest {
+
+    @Autowired
+    private PrecioService precioService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    void conValidacionActivaRechazaTotalesQueNoCoinciden() {
+        Producto p = new Producto();
+        p.setNombre("Validación de totales");
+        p.setPrecioVenta(10.0);
+        p.setPorcentajeIVA(16.0);
+        Long id = productoService.save(p).getId();
+
+        // 2 × 10.00 + IVA 3.20
+        TicketCalculado ticket = precioService.aplicarPrecios(venta(id, 2320L));
+        assertEquals(2320, ticket.totalCentavos());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> precioService.aplicarPrecios(venta(id, 2000L)));
+        assertTrue(e.getMessage().contains("total"), e.getMessage());
+    }
+
+    private static Venta venta(Long productoId, Long totalCentavos) {
+        Venta venta = new Venta();
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(productoId);
+        d.setCantidad(2);
+        venta.getDetalles().add(d);
+        venta.setTotalCentavos(totalCentavos);
+        return venta;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.dto.LineaSugeridaDTO;
+import com.example.backend.dto.OrdenSugeridaDTO;
+import com.example.backend.dto.ReabastoDTO;
+import com.example.backend.model.Lote;
+import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+import com.example.backend.repository.VentaRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@SpringBootTest
+class ReabastoServiceTest {
+
+    private static final String PROVEEDOR = "Distribuidora Reabasto";
+
+    @Autowired
+    private ReabastoService reabastoService;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private VelocidadVentasService velocidadVentasService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void sugiereSurtirConVentaDiariaYTiempoDeEntregaDelProveedor() {
+        Producto rotacion = producto("Paracetamol reabasto", 40, 5, 50);
+        Producto surtido = producto("Ibuprofeno reabasto", 100, 5, 50);
+        reabastoService.guardarTiempoEntrega(PROVEEDOR, 10);
+
+        // 28 piezas en la ventana de 28 días: una pieza diaria
+        for (int i = 0; i < 4; i++) {
+            inventarioService.registrarSalida(movimiento(rotacion, 7, null));
+        }
+        inventarioService.registrarSalida(movimiento(surtido, 1, null));
+
+        // Punto de reorden 1 × 10 + 5 = 15 y stock 12: se pide hasta stockOptimo
+        List<LineaSugeridaDTO> lineas = lineas(reabastoService.sugerencias(PROVEEDOR));
+        assertEquals(1, lineas.size());
+        LineaSugeridaDTO linea = lineas.get(0);
+        assertEquals(rotacion.getId(), linea.getProductoId());
+        assertEquals(1.0, linea.getVentaDiaria());
+        assertEquals(15, linea.getPuntoReorden());
+        assertEquals(38, linea.getCantidadSugerida());
+        assertEquals(38 * 8.0, linea.getCostoEstimado());
+
+        // La devolución de una venta deja de contar: 21 piezas, reorden en 13 y stock 19
+        inventarioService.registrarEntrada(movimiento(rotacion, 7, 1L));
+        assertTrue(lineas(reabastoService.sugerencias(PROVEEDOR)).isEmpty());
+
+        // Reconstruida desde los movimientos, la ventana da lo mismo que los contadores
+        velocidadVentasService.cargar();
+        assertEquals(21, velocidadVentasService.vendidas(rotacion.getId()));
+        assertEquals(1, velocidadVentasService.vendidas(surtido.getId()));
+    }
+
+    @Test
+    void laDevolucionCuentaEnElDiaDeLaVentaOriginal() {
+        Producto p = producto("Naproxeno reabasto", 40, 5, 50);
+        inventarioService.registrarSalida(movimiento(p, 7, null));
+
+        // Una venta de hace 40 días quedó fuera de la ventana: devolverla no descuenta nada
+        Venta antigua = new Venta();
+        antigua.setEstado("COMPLETADA");
+        Long ventaId = ventaRepository.save(antigua).getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+                .createQuery("update Venta v set v.fechaCreacion = :fecha where v.id = :id")
+                .setParameter("fecha", LocalDateTime.now().minusDays(40))
+                .setParameter("id", ventaId)
+                .executeUpdate());
+        inventarioService.registrarEntrada(movimiento(p, 3, ventaId));
+        assertEquals(7, velocidadVentasService.vendidas(p.getId()));
+
+        velocidadVentasService.cargar();
+        assertEquals(7, velocidadVentasService.vendidas(p.getId()));
+    }
+
+    private List<LineaSugeridaDTO> lineas(ReabastoDTO reabasto) {
+        return reabasto.getOrdenes().stream()
+                .filter(o -> PROVEEDOR.equals(o.getProveedor()))
+                .map(OrdenSugeridaDTO::getLineas)
+                .findFirst().orElse(List.of());
+    }
+
+    private Producto producto(String nombre, int stock, int minimo, int optimo) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecioCompra(8.0);
+        p.setPrecioVenta(12.0);
+        p.setStockTotal(stock);
+        p.setStockMinimo(minimo);
+        p.setStockOptimo(optimo);
+        Producto guardado = productoService.save(p);
+
+        Lote l = new Lote();
+        l.setProductoId(guardado.getId());
+        l.setNumeroLote("RB-" + guardado.getId());
+        l.setProveedor(PROVEEDOR);
+        l.setCantidadDisponible(stock);
+        loteService.save(l);
+        return guardado;
+    }
+
+    private static MovimientoInventario movimiento(Producto producto, int cantidad, Long ventaId) {
+        MovimientoInventario m = new MovimientoInventario();
+        Producto p = new Producto();
+        p.setId(producto.getId());
+        m.setProducto(p);
+        m.setCantidad(cantidad);
+        m.setVentaId(ventaId);
+        return m;
+    }
+}
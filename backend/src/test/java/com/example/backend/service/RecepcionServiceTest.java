@@ -0,0 +1,113 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.dto.LineaRecepcionDTO;
+import com.example.backend.dto.RecepcionDTO;
+import com.example.backend.model.Lote;
+import com.example.backend.model.MovimientoInventario;
+import com.example.backend.model.Producto;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class RecepcionServiceTest {
+
+    private static final int PRODUCTOS = 250;
+
+    @Autowired
+    private RecepcionService recepcionService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void recepcionDeQuinientosRenglonesAgrupaExistenciasPorProducto() {
+        List<Producto> productos = new ArrayList<>();
+        List<Lote> lotes = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            Producto p = new Producto();
+            p.setNombre("Recibido " + i);
+            p.setCodigoBarras("REC-" + i);
+            p.setPrecioCompra(8.0);
+            p.setPrecioVenta(12.0);
+            p.setStockTotal(10);
+            productos.add(productoService.save(p));
+
+            Lote l = new Lote();
+            l.setProductoId(productos.get(i).getId());
+            l.setNumeroLote("REC-A-" + i);
+            l.setCantidadDisponible(10);
+            lotes.add(loteService.save(l));
+        }
+
+        // Por producto: un renglón al lote existente y otro a un lote nuevo
+        RecepcionDTO recepcion = new RecepcionDTO();
+        recepcion.setProveedor("Nadro");
+        recepcion.setFolioProveedor("F-100");
+        recepcion.setLineas(new ArrayList<>());
+        for (int i = 0; i < PRODUCTOS; i++) {
+            recepcion.getLineas().add(linea(productos.get(i).getId(), null, "REC-A-" + i, 5));
+            recepcion.getLineas().add(linea(null, "REC-" + i, "REC-B-" + i, 3));
+        }
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        RecepcionDTO guardada = recepcionService.registrar(recepcion);
+        long sentencias = stats.getPrepareStatementCount();
+
+        assertNotNull(guardada.getId());
+        assertEquals(2 * PRODUCTOS, guardada.getTotalLineas());
+        assertEquals(8 * PRODUCTOS, guardada.getPiezas());
+        assertEquals(PRODUCTOS, guardada.getLotesCreados());
+        assertEquals(8.0 * 8 * PRODUCTOS, guardada.getCostoTotal());
+        assertTrue(sentencias <= 40, "Sentencias preparadas: " + sentencias);
+
+        Producto primero = productoService.findById(productos.get(0).getId()).orElseThrow();
+        assertEquals(18, primero.getStockTotal());
+        assertEquals(15, loteService.findById(lotes.get(0).getId()).orElseThrow().getCantidadDisponible());
+        Lote nuevo = loteService.findById(guardada.getLineas().get(1).getLoteId()).orElseThrow();
+        assertEquals(3, nuevo.getCantidadInicial());
+        assertEquals(3, nuevo.getCantidadDisponible());
+        assertEquals("Nadro", nuevo.getProveedor());
+
+        // Los saldos de cada movimiento siguen el orden de los renglones
+        List<MovimientoInventario> movimientos = inventarioService.getMovimientosByProductoId(primero.getId());
+        assertEquals(List.of(15, 18), movimientos.stream().map(MovimientoInventario::getStockNuevo).sorted().toList());
+
+        RecepcionDTO invalida = new RecepcionDTO();
+        invalida.setLineas(List.of(linea(productos.get(0).getId(), null, "REC-A-0", 1), linea(-1L, null, "X", 1)));
+        assertThrows(IllegalArgumentException.class, () -> recepcionService.registrar(invalida));
+        assertEquals(18, productoService.findById(primero.getId()).orElseThrow().getStockTotal());
+    }
+
+    private static LineaRecepcionDTO linea(Long productoId, String codigoBarras, String numeroLote, int cantidad) {
+        LineaRecepcionDTO l = new LineaRecepcionDTO();
+        l.setProductoId(productoId);
+        l.setCodigoBarras(codigoBarras);
+        l.setNumeroLote(numeroLote);
+        l.setCantidad(cantidad);
+        return l;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.backend.model.Factura;
+import com.example.backend.repository.FacturaRepository;
+import com.example.backend.timbrado.ResultadoTimbrado;
+
+// Base propia y poller detenido: los demás contextos de prueba también timbran su cola
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timbrado",
+        "facturacion.timbrado.intervalo-ms=3600000",
+        "facturacion.timbrado.local.demora-ms=0",
+        "facturacion.timbrado.trabajadores=2",
+        "facturacion.timbrado.tamano-lote=2",
+        "facturacion.timbrado.max-intentos=3",
+        "facturacion.timbrado.espera-base-ms=1000"
+})
+class TimbradoServiceTest {
+
+    @Autowired
+    private TimbradoService timbradoService;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Test
+    void reclamaUnaSolaVezYTimbraConElProveedorLocal() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(encolada("XAXX01010100" + i).getId());
+        }
+        Long sinRfc = encolada(null).getId();
+
+        List<Factura> reclamadas = timbradoService.reclamar(100);
+        assertEquals(4, reclamadas.size());
+        assertTrue(reclamadas.stream().allMatch(f -> TimbradoService.TIMBRANDO.equals(f.getEstatus())));
+        // Un segundo ciclo (u otra instancia) ya no las encuentra en la cola
+        assertTrue(timbradoService.reclamar(100).isEmpty());
+
+        timbradoService.timbrarLote(reclamadas);
+        for (Long id : ids) {
+            Factura f = facturaRepository.findById(id).orElseThrow();
+            assertEquals(TimbradoService.TIMBRADA, f.getEstatus());
+            assertNotNull(f.getUuidFiscal());
+            assertEquals(1, f.getIntentosTimbrado());
+        }
+        Factura rechazada = facturaRepository.findById(sinRfc).orElseThrow();
+        assertEquals(TimbradoService.ERROR, rechazada.getEstatus());
+        assertEquals("RFC del receptor requerido", rechazada.getErrorTimbrado());
+        assertNull(rechazada.getUuidFiscal());
+    }
+
+    @Test
+    void cadaCicloReclamaHastaTrabajadoresPorTamanoDeLote() throws InterruptedException {
+        for (int i = 0; i < 6; i++) {
+            encolada("XEXX01010100" + i);
+        }
+
+        // 2 trabajadores × lotes de 2: cuatro por ciclo, el resto espera al siguiente
+        timbradoService.procesarCola();
+        assertEquals(2, contar(TimbradoService.EN_COLA));
+
+        // El siguiente ciclo toma las restantes en cuanto se libera un trabajador
+        for (int i = 0; i < 100 && contar(TimbradoService.EN_COLA) > 0; i++) {
+            esperarSinTimbrando();
+            Thread.sleep(20);
+            timbradoService.procesarCola();
+        }
+        esperarSinTimbrando();
+        assertEquals(0, contar(TimbradoService.EN_COLA));
+        assertEquals(6, facturaRepository.findAll().stream()
+                .filter(f -> f.getRfc() != null && f.getRfc().startsWith("XEXX"))
+                .filter(f -> TimbradoService.TIMBRADA.equals(f.getEstatus()))
+                .count());
+    }
+
+    @Test
+    void noSobrescribeUnaCancelacionHechaMientrasSeTimbraba() {
+        Long id = encolada("XBXX010101000").getId();
+        List<Factura> reclamadas = timbradoService.reclamar(100);
+        assertEquals(1, reclamadas.size());
+
+        Factura cancelada = facturaRepository.findById(id).orElseThrow();
+        cancelada.setEstatus(TimbradoService.CANCELADA);
+        facturaRepository.save(cancelada);
+
+        timbradoService.timbrarLote(reclamadas);
+        Factura f = facturaRepository.findById(id).orElseThrow();
+        assertEquals(TimbradoService.CANCELADA, f.getEstatus());
+        assertNull(f.getUuidFiscal());
+    }
+
+    @Test
+    void reintentaConEsperaExponencialHastaAgotarIntentos() {
+        Factura f = new Factura();
+        f.setIntentosTimbrado(0);
+        ResultadoTimbrado caido = ResultadoTimbrado.fallo(1L, "PAC no disponible", true);
+
+        timbradoService.aplicarResultado(f, caido);
+        assertEquals(TimbradoService.EN_COLA, f.getEstatus());
+        assertEspera(1000, f);
+
+        timbradoService.aplicarResultado(f, caido);
+        assertEquals(TimbradoService.EN_COLA, f.getEstatus());
+        assertEspera(2000, f);
+
+        // Tercer intento de tres: ya no se reprograma
+        timbradoService.aplicarResultado(f, caido);
+        assertEquals(TimbradoService.ERROR, f.getEstatus());
+        assertEquals(3, f.getIntentosTimbrado());
+        assertNull(f.getProximoIntento());
+
+        Factura rechazada = new Factura();
+        timbradoService.aplicarResultado(rechazada, ResultadoTimbrado.fallo(2L, "RFC inválido", false));
+        assertEquals(TimbradoService.ERROR, rechazada.getEstatus());
+        assertEquals(1, rechazada.getIntentosTimbrado());
+    }
+
+    @Test
+    void quienSeSuscribeConUnEstatusYaVencidoRecibeElFinal() {
+        // La caja leyó la factura en cola; el timbrado termina antes de que se suscriba
+        Factura leida = encolada("XAXX010101009");
+        timbradoService.timbrarLote(timbradoService.reclamar(100));
+
+        SseEmitter emitter = timbradoService.suscribir(leida);
+        assertEquals(true, ReflectionTestUtils.getField(emitter, "complete"));
+        Map<?, ?> suscriptores = (Map<?, ?>) ReflectionTestUtils.getField(timbradoService, "suscriptores");
+        assertFalse(suscriptores.containsKey(leida.getId()));
+    }
+
+    private static void assertEspera(long esperadaMs, Factura f) {
+        long ms = Duration.between(LocalDateTime.now(), f.getProximoIntento()).toMillis();
+        assertTrue(ms > esperadaMs - 500 && ms <= esperadaMs, "Espera de " + ms + " ms");
+    }
+
+    private Factura encolada(String rfc) {
+        Factura f = new Factura();
+        f.setRfc(rfc);
+        f.setEstatus(TimbradoService.EN_COLA);
+        f.setIntentosTimbrado(0);
+        f.setProximoIntento(LocalDateTime.now().minusSeconds(1));
+        return facturaRepository.save(f);
+    }
+
+    private long contar(String estatus) {
+        return facturaRepository.findAll().stream().filter(f -> estatus.equals(f.getEstatus())).count();
+    }
+
+    private void esperarSinTimbrando() throws InterruptedException {
+        for (int i = 0; i < 100 && contar(TimbradoService.TIMBRANDO) > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, contar(TimbradoService.TIMBRANDO));
+    }
+}
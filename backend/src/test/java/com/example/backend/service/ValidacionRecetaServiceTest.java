@@ -0,0 +1,121 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.RecetaMedica;
+import com.example.backend.model.Venta;
+
+@SpringBootTest
+class ValidacionRecetaServiceTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private RecetaMedicaService recetaMedicaService;
+
+    @Test
+    void unaRecetaAmparaVariosRenglonesDelTicketPeroNoOtroTicket() {
+        Producto tabletas = controlado("Alprazolam tabletas receta");
+        Producto gotas = controlado("Alprazolam gotas receta");
+        String folio = "RX-" + System.nanoTime();
+
+        // La caja adjunta la misma receta a cada renglón controlado
+        Venta venta = venta(tabletas, receta(folio), gotas, receta(folio));
+        assertNotNull(ventaService.save(venta).getId());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ventaService.save(venta(tabletas, receta(folio), null, null)));
+        assertTrue(e.getMessage().contains("ya fue utilizado"), e.getMessage());
+
+        // Dos recetas distintas en un ticket se apartan las dos
+        String otro = "RX-" + System.nanoTime();
+        assertNotNull(ventaService.save(venta(tabletas, receta(otro + "A"), gotas, receta(otro + "B"))).getId());
+        assertThrows(IllegalArgumentException.class,
+                () -> ventaService.save(venta(gotas, receta(otro + "B"), null, null)));
+    }
+
+    @Test
+    void unRenglonControladoSinRecetaRechazaElTicket() {
+        Producto tabletas = controlado("Diazepam tabletas receta");
+        String folio = "RX-" + System.nanoTime();
+
+        Venta venta = venta(tabletas, receta(folio), tabletas, null);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ventaService.save(venta));
+        assertEquals("El medicamento requiere receta médica", e.getMessage());
+
+        // El rechazo no consumió el folio
+        assertNotNull(ventaService.save(venta(tabletas, receta(folio), null, null)).getId());
+    }
+
+    @Test
+    void eliminarUnaRecetaLiberaSuFolio() {
+        String folio = "RX-" + System.nanoTime();
+        RecetaMedica guardada = recetaMedicaService.guardarReceta(receta(folio));
+        assertThrows(IllegalArgumentException.class, () -> recetaMedicaService.guardarReceta(receta(folio)));
+
+        recetaMedicaService.eliminarReceta(guardada.getId());
+        assertNotNull(recetaMedicaService.guardarReceta(receta(folio)).getId());
+    }
+
+    private Producto controlado(String nombre) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecioVenta(40.0);
+        p.setTipoRegulacion("CONTROLADO_IV");
+        p.setStockTotal(50);
+        p = productoService.save(p);
+        Lote l = new Lote();
+        l.setProductoId(p.getId());
+        l.setNumeroLote("RX-" + p.getId());
+        l.setCantidadDisponible(50);
+        loteService.save(l);
+        return p;
+    }
+
+    private static Venta venta(Producto a, RecetaMedica recetaA, Producto b, RecetaMedica recetaB) {
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado("COMPLETADA");
+        venta.getDetalles().add(linea(a, recetaA));
+        if (b != null) {
+            venta.getDetalles().add(linea(b, recetaB));
+        }
+        return venta;
+    }
+
+    private static DetalleVenta linea(Producto p, RecetaMedica receta) {
+        DetalleVenta d = new DetalleVenta();
+        d.setProductoId(p.getId());
+        d.setCantidad(1);
+        d.setRecetaMedica(receta);
+        return d;
+    }
+
+    private static RecetaMedica receta(String folio) {
+        RecetaMedica r = new RecetaMedica();
+        r.setCedulaMedico("1234567");
+        r.setNombreMedico("Dra. Ruiz");
+        r.setFolioReceta(folio);
+        r.setFechaReceta(LocalDate.now());
+        return r;
+    }
+}
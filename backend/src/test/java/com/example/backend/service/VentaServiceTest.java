@@ -0,0 +1,126 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.model.CorteCaja;
+import com.example.backend.model.DetalleVenta;
+import com.example.backend.model.Lote;
+import com.example.backend.model.Producto;
+import com.example.backend.model.Venta;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class VentaServiceTest {
+
+    private static final int LINEAS = 30;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private CorteCajaService corteCajaService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Producto> productos = new ArrayList<>();
+    private final List<Lote> lotes = new ArrayList<>();
+
+    @BeforeEach
+    void crearCatalogo() {
+        productos.clear();
+        lotes.clear();
+        for (int i = 0; i < LINEAS; i++) {
+            Producto p = new Producto();
+            p.setNombre("Producto " + i);
+            p.setPrecioVenta(10.0 + i);
+            p.setPorcentajeIVA(16.0);
+            p.setStockTotal(1000);
+            productos.add(productoService.save(p));
+
+            Lote l = new Lote();
+            l.setProductoId(productos.get(i).getId());
+            l.setNumeroLote("L-" + i);
+            l.setCantidadDisponible(1000);
+            lotes.add(loteService.save(l));
+        }
+        // Calentar catálogo de precios y corte antes de medir
+        ventaService.save(nuevaVenta());
+    }
+
+    @Test
+    void ventaDeTreintaLineasUsaPocasSentencias() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        Venta guardada = ventaService.save(nuevaVenta());
+        long sentencias = stats.getPrepareStatementCount();
+
+        // Los renglones, movimientos y eventos se insertan por lotes: no crece con las líneas
+        assertNotNull(guardada.getId());
+        assertEquals(LINEAS, guardada.getDetalles().size());
+        assertTrue(guardada.getDetalles().stream().allMatch(d -> d.getId() != null));
+        assertTrue(sentencias <= 20, "Sentencias preparadas: " + sentencias);
+    }
+
+    @Test
+    void cancelacionDeTreintaLineasReingresaStockConPocasSentencias() {
+        CorteCaja antes = corteCajaService.getOrCreateActual();
+        Venta vendida = ventaService.save(nuevaVenta());
+        int stockAntes = loteService.findById(lotes.get(0).getId()).orElseThrow().getCantidadDisponible();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        Venta cancelada = ventaService.cancelar(vendida.getId(), "Prueba", "tester");
+        long sentencias = stats.getPrepareStatementCount();
+
+        assertEquals("CANCELADA", cancelada.getEstado());
+        assertEquals(vendida.getTotalCentavos(), cancelada.getTotalDevueltoCentavos());
+        assertEquals(stockAntes + 1, loteService.findById(lotes.get(0).getId()).orElseThrow().getCantidadDisponible());
+        assertTrue(sentencias <= 20, "Sentencias preparadas: " + sentencias);
+
+        // La venta y la devolución se acumulan en el corte sin pisarse entre sí
+        CorteCaja despues = corteCajaService.getOrCreateActual();
+        assertEquals(antes.getTotalVentasCentavos() + vendida.getTotalCentavos(), despues.getTotalVentasCentavos());
+        assertEquals(antes.getVentasEfectivoCentavos() + vendida.getTotalCentavos(), despues.getVentasEfectivoCentavos());
+        assertEquals(antes.getCantidadVentas() + 1, despues.getCantidadVentas());
+        assertEquals(antes.getTotalDevolucionesCentavos() + vendida.getTotalCentavos(),
+                despues.getTotalDevolucionesCentavos());
+        assertEquals(antes.getCantidadCancelaciones() + 1, despues.getCantidadCancelaciones());
+        assertThrows(IllegalArgumentException.class, () -> ventaService.cancelar(vendida.getId(), null, null));
+    }
+
+    private Venta nuevaVenta() {
+        Venta venta = new Venta();
+        venta.setMetodoPago("EFECTIVO");
+        venta.setEstado("COMPLETADA");
+        for (int i = 0; i < LINEAS; i++) {
+            DetalleVenta d = new DetalleVenta();
+            d.setProductoId(productos.get(i).getId());
+            d.setLoteId(lotes.get(i).getId());
+            d.setCantidad(1);
+            venta.getDetalles().add(d);
+        }
+        return venta;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.model.CorteCaja;
+
+class DineroTest {
+
+    private static final String[] METODOS = { "EFECTIVO", "TARJETA", "TARJETA_DEBITO", "TRANSFERENCIA" };
+
+    @Test
+    void conversionRedondeaAlCentavo() {
+        assertEquals(29L, Dinero.aCentavos(0.285));
+        assertEquals(1999L, Dinero.aCentavos(19.99));
+        assertEquals(-150L, Dinero.aCentavos(-1.5));
+        assertEquals(19.99, Dinero.aPesos(1999L));
+    }
+
+    @Test
+    void tasaCoincideConBigDecimal() {
+        Random random = new Random(42);
+        double[] tasas = { 0, 8, 16, 26.5, 30, 53, 160 };
+        for (int i = 0; i < 100_000; i++) {
+            long base = random.nextInt(10_000_000) - 1_000_000;
+            double tasa = tasas[random.nextInt(tasas.length)];
+
+            long esperado = BigDecimal.valueOf(base)
+                    .multiply(BigDecimal.valueOf(tasa))
+                    .divide(BigDecimal.valueOf(100))
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+
+            assertEquals(esperado, Dinero.aplicarTasa(base, Dinero.aPuntosBase(tasa)));
+        }
+    }
+
+    @Test
+    void corteCuadraAlCentavo() {
+        Random random = new Random(7);
+        CorteCaja corte = new CorteCaja();
+        BigDecimal esperado = BigDecimal.ZERO;
+
+        for (int i = 0; i < 50_000; i++) {
+            double total = random.nextInt(500_000) / 100.0;
+            esperado = esperado.add(BigDecimal.valueOf(total));
+            corte.registrarVenta(Dinero.aCentavos(total), METODOS[random.nextInt(METODOS.length)]);
+        }
+
+        assertEquals(esperado.movePointRight(2).longValueExact(), corte.getTotalVentasCentavos());
+        assertEquals(corte.getTotalVentasCentavos(), corte.getVentasEfectivoCentavos()
+                + corte.getVentasTarjetaCentavos() + corte.getVentasTransferenciaCentavos());
+        assertEquals(50_000, corte.getCantidadVentas());
+    }
+}